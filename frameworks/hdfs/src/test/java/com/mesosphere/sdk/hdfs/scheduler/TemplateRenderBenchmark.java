@@ -0,0 +1,65 @@
+package com.mesosphere.sdk.hdfs.scheduler;
+
+import com.github.mustachejava.DefaultMustacheFactory;
+import com.github.mustachejava.Mustache;
+import com.mesosphere.sdk.offer.LoggingUtils;
+import com.mesosphere.sdk.specification.yaml.TemplateUtils;
+import com.mesosphere.sdk.testing.CosmosRenderer;
+import com.mesosphere.sdk.testing.ServiceTestRunner;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+
+import java.io.File;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures the rendering of the HDFS service spec, which is rendered whenever the scheduler starts and whenever a
+ * config is validated. Compares rendering with the templates cached by {@link TemplateUtils} against compiling the
+ * template for every render. This isn't run with the other tests, run it with {@code ./gradlew renderBenchmark}.
+ */
+public class TemplateRenderBenchmark {
+
+    private static final Logger LOGGER = LoggingUtils.getLogger(TemplateRenderBenchmark.class);
+
+    private static final int ITERATIONS = 200;
+
+    @Test
+    public void benchmarkSpecRender() throws Exception {
+        File specFile = ServiceTestRunner.getDistFile("svc.yml");
+        String spec = new String(Files.readAllBytes(specFile.toPath()), StandardCharsets.UTF_8);
+        Map<String, String> schedulerEnv =
+                CosmosRenderer.renderSchedulerEnvironment(Collections.emptyMap(), Collections.emptyMap());
+
+        // Compile with a new factory for every render, as TemplateUtils did before compiled templates were cached.
+        // This doesn't go through TemplateUtils, so that its cache isn't filled with single-use templates:
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; ++i) {
+            Mustache mustache = new DefaultMustacheFactory().compile(new StringReader(spec), specFile.getName());
+            mustache.execute(new StringWriter(), schedulerEnv);
+        }
+        long uncachedNanos = System.nanoTime() - startNanos;
+
+        startNanos = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; ++i) {
+            List<TemplateUtils.MissingValue> missingValues = new ArrayList<>();
+            TemplateUtils.renderMustache(specFile.getName(), spec, schedulerEnv, missingValues);
+            Assert.assertTrue(missingValues.toString(), missingValues.isEmpty());
+        }
+        long cachedNanos = System.nanoTime() - startNanos;
+
+        LOGGER.info("Rendered {} ({} bytes) {} times: {} renders/s when compiling, {} renders/s when cached",
+                specFile.getName(),
+                spec.length(),
+                ITERATIONS,
+                ITERATIONS * 1_000_000_000L / Math.max(1, uncachedNanos),
+                ITERATIONS * 1_000_000_000L / Math.max(1, cachedNanos));
+    }
+}
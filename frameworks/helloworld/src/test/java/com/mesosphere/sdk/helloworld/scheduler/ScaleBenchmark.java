@@ -0,0 +1,120 @@
+package com.mesosphere.sdk.helloworld.scheduler;
+
+import com.mesosphere.sdk.offer.LoggingUtils;
+import com.mesosphere.sdk.testing.ServiceTestResult;
+import com.mesosphere.sdk.testing.ServiceTestRunner;
+import com.mesosphere.sdk.testing.SimulatedCluster;
+import com.mesosphere.sdk.testing.SimulatedClusterResult;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Measures the hello world scheduler against simulated clusters of many agents. The scheduler deploys the service,
+ * rolls out a config update, and then recovers from the loss of a fifth of the cluster. This isn't run with the other
+ * tests, as it takes several minutes at full scale. Run it with {@code ./gradlew scaleBenchmark}, optionally with
+ * {@code -PscaleAgents=1000,10000} to select the cluster sizes.
+ *
+ * <p>The benchmark fails if any phase exceeds the thresholds below, after all of the results have been logged. The
+ * thresholds may be changed with e.g. {@code -PscaleMaxCycleP99Ms=500 -PscaleMaxWritesPerLaunch=10}.
+ */
+public class ScaleBenchmark {
+
+    private static final Logger LOGGER = LoggingUtils.getLogger(ScaleBenchmark.class);
+
+    private static final String AGENT_COUNTS_PROPERTY = "scale.agents";
+    private static final String DEFAULT_AGENT_COUNTS = "1000";
+
+    /**
+     * The maximum 99th percentile of the time taken to process one batch of offers, in milliseconds.
+     */
+    private static final String MAX_CYCLE_P99_MS_PROPERTY = "scale.maxCycleP99Ms";
+    private static final double DEFAULT_MAX_CYCLE_P99_MS = 1000;
+
+    /**
+     * The maximum number of writes made to the persister for each task launched in a phase. Unlike the cycle time,
+     * this doesn't depend on the machine which runs the benchmark.
+     */
+    private static final String MAX_WRITES_PER_LAUNCH_PROPERTY = "scale.maxWritesPerLaunch";
+    private static final double DEFAULT_MAX_WRITES_PER_LAUNCH = 25;
+
+    @Test
+    public void benchmarkDeployUpdateAndRecovery() throws Exception {
+        List<Integer> agentCounts = Arrays.stream(
+                System.getProperty(AGENT_COUNTS_PROPERTY, DEFAULT_AGENT_COUNTS).split(","))
+                .map(String::trim)
+                .map(Integer::parseInt)
+                .collect(Collectors.toList());
+        double maxCycleP99Ms = getThreshold(MAX_CYCLE_P99_MS_PROPERTY, DEFAULT_MAX_CYCLE_P99_MS);
+        double maxWritesPerLaunch = getThreshold(MAX_WRITES_PER_LAUNCH_PROPERTY, DEFAULT_MAX_WRITES_PER_LAUNCH);
+
+        List<String> failures = new ArrayList<>();
+        for (int agentCount : agentCounts) {
+            for (SimulatedClusterResult result : run(agentCount)) {
+                LOGGER.info("Scale benchmark result: {}", result);
+                String phase = String.format("%s with %d agents", result.getName(), result.getAgentCount());
+                if (result.getOfferCycleMs(99) > maxCycleP99Ms) {
+                    failures.add(String.format("%s: offer cycle p99 of %.1fms exceeds %s=%.1fms",
+                            phase, result.getOfferCycleMs(99), MAX_CYCLE_P99_MS_PROPERTY, maxCycleP99Ms));
+                }
+                if (result.getTasksLaunched() > 0) {
+                    double writesPerLaunch = (double) result.getStorageWrites() / result.getTasksLaunched();
+                    if (writesPerLaunch > maxWritesPerLaunch) {
+                        failures.add(String.format("%s: %.1f storage writes per launch exceeds %s=%.1f",
+                                phase, writesPerLaunch, MAX_WRITES_PER_LAUNCH_PROPERTY, maxWritesPerLaunch));
+                    }
+                }
+            }
+        }
+        Assert.assertTrue(String.format("Scale benchmark thresholds exceeded:%n%s", String.join("\n", failures)),
+                failures.isEmpty());
+    }
+
+    private static double getThreshold(String property, double defaultValue) {
+        String value = System.getProperty(property);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+
+    private static List<SimulatedClusterResult> run(int agentCount) throws Exception {
+        SimulatedCluster cluster = SimulatedCluster.newBuilder()
+                .setAgentCount(agentCount)
+                .build();
+        // One hello task on half of the agents, each on its own agent (the default placement), and world tasks grouped
+        // across the zones. Options are rendered into marathon.json as-is, so the quotes in the placement are escaped:
+        String[] options = new String[] {
+                "hello.count", String.valueOf(agentCount / 2),
+                "world.count", String.valueOf(agentCount / 10),
+                "world.placement", "[[\\\"@zone\\\", \\\"GROUP_BY\\\", \\\"3\\\"]]"
+        };
+
+        ServiceTestResult result = new ServiceTestRunner()
+                .setOptions(options)
+                .setPersister(cluster.getPersister())
+                .run(Arrays.asList(cluster.register(), cluster.runUntilComplete("deploy")));
+
+        // Restart the scheduler with a changed config, which results in a rolling update of every task. Then fail some
+        // agents, and have the scheduler recover the lost tasks once the agents return.
+        String[] updatedOptions = Arrays.copyOf(options, options.length + 2);
+        updatedOptions[options.length] = "service.sleep";
+        updatedOptions[options.length + 1] = "2000";
+        new ServiceTestRunner()
+                .setOptions(updatedOptions)
+                .setState(result)
+                .run(Arrays.asList(
+                        cluster.register(),
+                        cluster.runUntilComplete("update"),
+                        cluster.failAgents(0.2),
+                        cluster.runRounds(5),
+                        cluster.recoverAgents(),
+                        cluster.runUntilComplete("recovery")));
+
+        List<SimulatedClusterResult> results = cluster.getResults();
+        Assert.assertEquals(3, results.size());
+        return results;
+    }
+}
@@ -11,8 +11,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -21,12 +23,16 @@ import java.util.concurrent.TimeUnit;
  * HealthCheck has failed, which is another way of saying that it has reached its maximum consecutive
  * failures limit. Health checks are not run during the grace period as their result would be ignored
  * in any case.
+ * <p>
+ * Checks don't occupy a thread in the provided executor while they're running. The result is handled
+ * when the {@link ProcessWatcher} reports that a command check's process has exited, or when the
+ * {@link NetworkCheckRunner} reports the outcome of an HTTP or TCP check, after which the next run of
+ * the check is scheduled.
  */
 public class CheckHandler {
     private static final Logger LOGGER = LoggerFactory.getLogger(CheckHandler.class);
 
     private final Protos.HealthCheck healthCheck;
-    private final ScheduledExecutorService scheduledExecutorService;
     private final CheckRunner healthCheckRunner;
     private final String checkType;
 
@@ -44,6 +50,7 @@ public class CheckHandler {
                 taskInfo,
                 launchedTask,
                 new ProcessRunner(),
+                NetworkCheckRunner.getInstance(),
                 healthCheck,
                 scheduledExecutorService,
                 healthCheckStats,
@@ -64,21 +71,49 @@ public class CheckHandler {
             CheckStats healthCheckStats,
             String checkType)
             throws CheckValidationException {
+        this(
+                executorDriver,
+                taskInfo,
+                launchedTask,
+                processRunner,
+                NetworkCheckRunner.getInstance(),
+                healthCheck,
+                scheduledExecutorService,
+                healthCheckStats,
+                checkType);
+    }
+
+    /**
+     * Allows providing a custom {@link ProcessRunner} and {@link NetworkCheckRunner} for testing.
+     */
+    @VisibleForTesting
+    CheckHandler(
+            ExecutorDriver executorDriver,
+            Protos.TaskInfo taskInfo,
+            LaunchedTask launchedTask,
+            ProcessRunner processRunner,
+            NetworkCheckRunner networkCheckRunner,
+            Protos.HealthCheck healthCheck,
+            ScheduledExecutorService scheduledExecutorService,
+            CheckStats healthCheckStats,
+            String checkType)
+            throws CheckValidationException {
+        this.checkType = checkType;
         validate(healthCheck);
         this.healthCheck = healthCheck;
-        this.scheduledExecutorService = scheduledExecutorService;
         this.healthCheckRunner = new CheckRunner(
                 executorDriver,
                 taskInfo,
                 launchedTask,
                 processRunner,
+                networkCheckRunner,
                 healthCheck,
+                scheduledExecutorService,
                 healthCheckStats,
                 checkType);
-        this.checkType = checkType;
     }
 
-    public ScheduledFuture<?> start() {
+    public Future<?> start() {
         double interval = healthCheck.getIntervalSeconds();
         double delay = healthCheck.getDelaySeconds() +
                 healthCheck.getGracePeriodSeconds();
@@ -88,21 +123,17 @@ public class CheckHandler {
 
         LOGGER.info("Scheduling health check every {}ms following an initial {}ms delay.",
                 intervalMs, delayMs);
-        return scheduledExecutorService.scheduleAtFixedRate(
-                healthCheckRunner,
-                delayMs,
-                intervalMs,
-                TimeUnit.MILLISECONDS);
+        return healthCheckRunner.start(delayMs, intervalMs);
     }
 
     /**
      * Custom Executors are responsible for implementing HealthChecks.  This Custom Executor implements a subset of
      * all possible Health Checks describable by a HealthCheckInfo object.
      * <p>
-     * They must be command HealthChecks as HTTP is not recommended by Mesos yet and is unneeded from a completeness
-     * perspective.  `curl -f` normally is sufficient.  Since all HealthChecks as currently implemented by this Custom
-     * Executor are excuted as sub-processes we further require that the HealthCheck specifies that it is a "shell"
-     * command to avoid unexpected behavior.
+     * HTTP and TCP HealthChecks are run within the executor process by a {@link NetworkCheckRunner}. Only plain HTTP is
+     * supported, and the port must have been filled in by the scheduler. Command HealthChecks are excuted as
+     * sub-processes, so we further require that the HealthCheck specifies that it is a "shell" command to avoid
+     * unexpected behavior.
      *
      * @param healthCheck The HealthCheck to be executed
      * @throws CheckValidationException when a HealthCheck does not adhere to the HealthChecks supported
@@ -111,8 +142,18 @@ public class CheckHandler {
     private void validate(Protos.HealthCheck healthCheck) throws CheckValidationException {
         // Validate HealthCheck
         if (healthCheck.hasHttp()) {
-            throw new CheckValidationException(String.format(
-                    "The following %s check contains an unsupported HTTP configuration: %s", checkType, healthCheck));
+            Protos.HealthCheck.HTTPCheckInfo httpCheck = healthCheck.getHttp();
+            if (httpCheck.hasScheme() && !httpCheck.getScheme().equals("http")) {
+                throw new CheckValidationException(String.format(
+                        "The following %s check contains an unsupported HTTP scheme: %s", checkType, healthCheck));
+            }
+            validatePort(httpCheck.getPort(), healthCheck);
+            return;
+        }
+
+        if (healthCheck.hasTcp()) {
+            validatePort(healthCheck.getTcp().getPort(), healthCheck);
+            return;
         }
 
         if (!healthCheck.hasCommand()) {
@@ -128,79 +169,205 @@ public class CheckHandler {
         }
     }
 
+    private void validatePort(int port, Protos.HealthCheck healthCheck) throws CheckValidationException {
+        if (port <= 0) {
+            throw new CheckValidationException(String.format(
+                    "The following %s check does not have a port: %s", checkType, healthCheck));
+        }
+    }
+
     /**
-     * This class spawns a subprocess for each invocation of a health check.  It records statistics
-     * regarding successes and failures.
+     * This class runs each invocation of a health check, either in a subprocess or in-process for HTTP and TCP checks.
+     * It records statistics regarding successes and failures.
+     * <p>
+     * Like {@link ScheduledExecutorService#scheduleAtFixedRate}, runs are started at a fixed rate and never overlap.
+     * The next run is only scheduled once the previous run has completed, so a check whose process takes longer than
+     * the interval is started again as soon as the previous process exits.
      */
-    private static class CheckRunner implements Runnable {
+    private static class CheckRunner {
         private static final Logger LOGGER = LoggerFactory.getLogger(CheckRunner.class);
 
         private final ExecutorDriver executorDriver;
         private final Protos.TaskInfo taskInfo;
         private final LaunchedTask launchedTask;
         private final ProcessRunner processRunner;
+        private final NetworkCheckRunner networkCheckRunner;
         private final Protos.HealthCheck healthCheck;
+        private final ScheduledExecutorService scheduledExecutorService;
         private final CheckStats healthCheckStats;
         private final String checkType;
 
+        /**
+         * Only completes, exceptionally, once the check is finished. See {@link CheckHandler#start()}.
+         */
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+        private long intervalMs;
+
         private CheckRunner(
                 ExecutorDriver executorDriver,
                 Protos.TaskInfo taskInfo,
                 LaunchedTask launchedTask,
                 ProcessRunner processRunner,
+                NetworkCheckRunner networkCheckRunner,
                 Protos.HealthCheck healthCheck,
+                ScheduledExecutorService scheduledExecutorService,
                 CheckStats healthCheckStats,
                 String checkType) {
             this.executorDriver = executorDriver;
             this.taskInfo = taskInfo;
             this.launchedTask = launchedTask;
             this.processRunner = processRunner;
+            this.networkCheckRunner = networkCheckRunner;
             this.healthCheck = healthCheck;
+            this.scheduledExecutorService = scheduledExecutorService;
             this.healthCheckStats = healthCheckStats;
             this.checkType = checkType;
         }
 
-        @Override
-        public void run() {
-            if (launchedTask.isDone()) {
-                // The task has exited (and emitted a TaskStatus about itself). Stop pending health checks against it.
-                String message = String.format("Disabling %s check for task '%s': task process has exited",
-                        checkType, taskInfo.getName());
-                LOGGER.info(message);
-                throw new CheckRuntimeException(message, healthCheckStats);
+        private Future<?> start(long delayMs, long intervalMs) {
+            this.intervalMs = intervalMs;
+            schedule(System.currentTimeMillis() + delayMs);
+            return result;
+        }
+
+        private void schedule(long runAtMs) {
+            if (result.isDone()) {
+                // Cancelled by the caller
+                return;
+            }
+            try {
+                scheduledExecutorService.schedule(
+                        () -> run(runAtMs),
+                        Math.max(0, runAtMs - System.currentTimeMillis()),
+                        TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                result.completeExceptionally(e);
             }
+        }
+
+        private void run(long scheduledMs) {
+            try {
+                if (launchedTask.isDone()) {
+                    // The task has exited (and emitted a TaskStatus about itself). Stop pending health checks against
+                    // it.
+                    String message = String.format("Disabling %s check for task '%s': task process has exited",
+                            checkType, taskInfo.getName());
+                    LOGGER.info(message);
+                    throw new CheckRuntimeException(message, healthCheckStats);
+                }
 
+                long startMs = System.currentTimeMillis();
+                healthCheckStats.recordQueueDelay(Math.max(0, startMs - scheduledMs));
+                CompletableFuture<Boolean> passed;
+                if (healthCheck.hasHttp()) {
+                    passed = runHttpCheck();
+                } else if (healthCheck.hasTcp()) {
+                    passed = runTcpCheck();
+                } else {
+                    passed = runCommandCheck();
+                }
+                passed.whenComplete((checkPassed, t) -> complete(scheduledMs, startMs, checkPassed));
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        }
+
+        /**
+         * Handles the result of a check run, and then schedules the next run unless the check is finished. This may
+         * be invoked by the {@link ProcessWatcher} or {@link NetworkCheckRunner} thread.
+         */
+        private void complete(long scheduledMs, long startMs, Boolean passed) {
+            try {
+                long endMs = System.currentTimeMillis();
+                if (passed != null && passed) {
+                    healthCheckStats.succeeded();
+                } else {
+                    healthCheckStats.failed();
+                }
+                healthCheckStats.recordDuration(endMs - startMs);
+                LOGGER.debug("{} check stats: {}", checkType, healthCheckStats);
+
+                // Health checks have a positive consecutive failure count, readiness
+                // checks do not.
+                if (healthCheck.getConsecutiveFailures() > 0) {
+                    handleHealthCheck();
+                } else {
+                    handleReadinessCheck();
+                }
+                schedule(Math.max(scheduledMs + intervalMs, endMs));
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        }
+
+        private CompletableFuture<Boolean> runCommandCheck() {
             Protos.CommandInfo commandInfo = healthCheck.getCommand();
+            CompletableFuture<Integer> exit;
             try {
                 LOGGER.info("Running {} check process for task {}: {}",
                         checkType, taskInfo.getName(), commandInfo.getValue());
-                int exitValue = processRunner.run(
+                exit = processRunner.run(
                         ProcessBuilderUtils.buildProcess(commandInfo), healthCheck.getTimeoutSeconds());
+            } catch (Throwable t) {
+                exit = new CompletableFuture<>();
+                exit.completeExceptionally(t);
+            }
 
-                if (exitValue != 0) {
-                    healthCheckStats.failed();
+            return exit.handle((exitValue, t) -> {
+                if (t != null) {
+                    LOGGER.error(String.format(
+                            "%s check failed with exception: %s", checkType, TextFormat.shortDebugString(commandInfo)),
+                            t);
+                    return false;
+                } else if (exitValue != 0) {
                     LOGGER.error("{} check failed with exit code {}: {}",
                             checkType, exitValue, commandInfo.getValue());
+                    return false;
                 } else {
                     LOGGER.info("{} check succeeded: {}", checkType, commandInfo.getValue());
-                    healthCheckStats.succeeded();
+                    return true;
                 }
+            });
+        }
 
-                LOGGER.debug("{} check stats: {}", checkType, healthCheckStats);
-            } catch (Throwable t) {
-                LOGGER.error(String.format(
-                        "%s check failed with exception: %s", checkType, TextFormat.shortDebugString(commandInfo)),
-                        t);
-                healthCheckStats.failed();
-            }
+        private CompletableFuture<Boolean> runHttpCheck() {
+            Protos.HealthCheck.HTTPCheckInfo httpCheck = healthCheck.getHttp();
+            LOGGER.info("Running {} HTTP check for task {}: port {} path {}",
+                    checkType, taskInfo.getName(), httpCheck.getPort(), httpCheck.getPath());
+            return networkCheckRunner.runHttp(httpCheck.getPort(), httpCheck.getPath(), healthCheck.getTimeoutSeconds())
+                    .handle((statusCode, t) -> {
+                        if (t != null) {
+                            LOGGER.error(String.format("%s HTTP check failed with exception: %s",
+                                    checkType, TextFormat.shortDebugString(httpCheck)), t);
+                            return false;
+                        }
+                        // Like Mesos, treat any 2xx or 3xx response as success if no status codes were specified:
+                        boolean passed = httpCheck.getStatusesCount() == 0
+                                ? statusCode >= 200 && statusCode < 400
+                                : httpCheck.getStatusesList().contains(statusCode);
+                        if (passed) {
+                            LOGGER.info("{} HTTP check succeeded with status {}", checkType, statusCode);
+                        } else {
+                            LOGGER.error("{} HTTP check failed with status {}: {}",
+                                    checkType, statusCode, TextFormat.shortDebugString(httpCheck));
+                        }
+                        return passed;
+                    });
+        }
 
-            // Health checks have a positive consecutive failure count, readiness
-            // checks do not.
-            if (healthCheck.getConsecutiveFailures() > 0) {
-                handleHealthCheck();
-            } else {
-                handleReadinessCheck();
-            }
+        private CompletableFuture<Boolean> runTcpCheck() {
+            int port = healthCheck.getTcp().getPort();
+            LOGGER.info("Running {} TCP check for task {}: port {}", checkType, taskInfo.getName(), port);
+            return networkCheckRunner.runTcp(port, healthCheck.getTimeoutSeconds())
+                    .handle((ignored, t) -> {
+                        if (t != null) {
+                            LOGGER.error(String.format(
+                                    "%s TCP check failed with exception: port %d", checkType, port), t);
+                            return false;
+                        }
+                        LOGGER.info("{} TCP check succeeded: port {}", checkType, port);
+                        return true;
+                    });
         }
 
         private void handleHealthCheck() {
@@ -246,18 +413,14 @@ public class CheckHandler {
     }
 
     /**
-     * Runs the provided process and returns an exit value. This is broken out into a separate
-     * function to allow mockery in tests.
+     * Starts the provided process and returns a future which is completed with its exit value. The process is killed
+     * if it runs for longer than the timeout. This is broken out into a separate function to allow mockery in tests.
      */
     @VisibleForTesting
     static class ProcessRunner {
-        public int run(ProcessBuilder processBuilder, double timeoutSeconds)
-                throws IOException, InterruptedException {
-            Process process = processBuilder.start();
-            synchronized (process) {
-                process.wait((long) (timeoutSeconds * 1000));
-            }
-            return process.exitValue();
+        public CompletableFuture<Integer> run(ProcessBuilder processBuilder, double timeoutSeconds)
+                throws IOException {
+            return ProcessWatcher.getInstance().watch(processBuilder.start(), timeoutSeconds);
         }
     }
 
@@ -14,6 +14,12 @@ public class CheckStats {
     private long totalSuccesses = 0;
     private long consecutiveSuccesses = 0;
 
+    private final Object durationLock = new Object();
+    private long lastDurationMs = 0;
+    private long maxDurationMs = 0;
+    private long lastQueueDelayMs = 0;
+    private long maxQueueDelayMs = 0;
+
     public CheckStats(String name) {
         this.name = name;
     }
@@ -40,6 +46,27 @@ public class CheckStats {
         }
     }
 
+    /**
+     * Records how long a single run of the check took, whether or not it succeeded.
+     */
+    public void recordDuration(long durationMs) {
+        synchronized (durationLock) {
+            lastDurationMs = durationMs;
+            maxDurationMs = Math.max(maxDurationMs, durationMs);
+        }
+    }
+
+    /**
+     * Records how long a single run of the check waited to be started after it was due, e.g. because all of the check
+     * threads were busy.
+     */
+    public void recordQueueDelay(long queueDelayMs) {
+        synchronized (durationLock) {
+            lastQueueDelayMs = queueDelayMs;
+            maxQueueDelayMs = Math.max(maxQueueDelayMs, queueDelayMs);
+        }
+    }
+
     public String getName() {
         return name;
     }
@@ -69,6 +96,30 @@ public class CheckStats {
         }
     }
 
+    public long getLastDurationMs() {
+        synchronized (durationLock) {
+            return lastDurationMs;
+        }
+    }
+
+    public long getMaxDurationMs() {
+        synchronized (durationLock) {
+            return maxDurationMs;
+        }
+    }
+
+    public long getLastQueueDelayMs() {
+        synchronized (durationLock) {
+            return lastQueueDelayMs;
+        }
+    }
+
+    public long getMaxQueueDelayMs() {
+        synchronized (durationLock) {
+            return maxQueueDelayMs;
+        }
+    }
+
     @Override
     public String toString() {
         return "CheckStats{" +
@@ -77,6 +128,10 @@ public class CheckStats {
                 ", totalSuccesses=" + totalSuccesses +
                 ", consecutiveFailures=" + consecutiveFailures +
                 ", consecutiveSuccesses=" + consecutiveSuccesses +
+                ", lastDurationMs=" + lastDurationMs +
+                ", maxDurationMs=" + maxDurationMs +
+                ", lastQueueDelayMs=" + lastQueueDelayMs +
+                ", maxQueueDelayMs=" + maxQueueDelayMs +
                 '}';
     }
 }
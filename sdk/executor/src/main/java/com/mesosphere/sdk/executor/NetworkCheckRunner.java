@@ -0,0 +1,282 @@
+package com.mesosphere.sdk.executor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs HTTP and TCP checks from within the executor process, rather than forking a subprocess for each check run. The
+ * checks use non-blocking sockets which are all serviced by a single thread, so that a check run doesn't hold a thread
+ * while it waits on the network, and is always bounded by the check timeout.
+ *
+ * <p>Like the checks which are run by Mesos itself, checks are made against the loopback address. The executor shares
+ * its network namespace with the tasks which it runs.
+ */
+class NetworkCheckRunner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(NetworkCheckRunner.class);
+
+    private static final String CHECK_HOST = "127.0.0.1";
+
+    /**
+     * The maximum number of bytes to read while looking for the status line of an HTTP response.
+     */
+    private static final int MAX_STATUS_LINE_BYTES = 1024;
+
+    private static final Object INSTANCE_LOCK = new Object();
+    private static NetworkCheckRunner instance = null;
+
+    private final Selector selector;
+
+    /**
+     * Checks which have been started but not yet registered with the {@link #selector}. Channels may only be
+     * registered while the selector isn't blocked in a select, so registration is left to the selector thread.
+     */
+    private final Queue<Check> pendingChecks = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Checks which are registered with the {@link #selector}. Only accessed by the selector thread.
+     */
+    private final Set<Check> checks = new HashSet<>();
+
+    /**
+     * The state of a single check run.
+     */
+    private static class Check {
+        private final SocketChannel channel;
+        private final long deadlineNanos;
+        /** The HTTP request to send, or {@code null} for a TCP check. */
+        private final ByteBuffer request;
+        private final ByteBuffer response = ByteBuffer.allocate(MAX_STATUS_LINE_BYTES);
+        /** Completed with the HTTP status code, or with zero for a TCP check. */
+        private final CompletableFuture<Integer> result = new CompletableFuture<>();
+        private boolean connected;
+
+        private Check(SocketChannel channel, long deadlineNanos, ByteBuffer request) {
+            this.channel = channel;
+            this.deadlineNanos = deadlineNanos;
+            this.request = request;
+        }
+    }
+
+    /**
+     * Returns the runner which is shared by all checks in this executor.
+     */
+    static NetworkCheckRunner getInstance() {
+        synchronized (INSTANCE_LOCK) {
+            if (instance == null) {
+                instance = new NetworkCheckRunner();
+            }
+            return instance;
+        }
+    }
+
+    NetworkCheckRunner() {
+        try {
+            this.selector = Selector.open();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Thread thread = new Thread(this::run, "check-network-runner");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Connects to the provided port and then immediately disconnects. The returned future fails with an
+     * {@link IOException} if the connection couldn't be established within the timeout.
+     */
+    public CompletableFuture<Void> runTcp(int port, double timeoutSeconds) {
+        return start(port, null, timeoutSeconds).thenAccept(ignored -> { });
+    }
+
+    /**
+     * Sends an HTTP GET request for the provided path to the provided port. The returned future is completed with the
+     * status code of the response, or fails with an {@link IOException} if the request couldn't be sent, or the
+     * response status couldn't be read, within the timeout. The remainder of the response is not read.
+     */
+    public CompletableFuture<Integer> runHttp(int port, String path, double timeoutSeconds) {
+        ByteBuffer request = ByteBuffer.wrap(String.format(
+                "GET %s HTTP/1.1\r\nHost: %s:%d\r\nUser-Agent: dcos-commons-executor\r\nConnection: close\r\n\r\n",
+                path.isEmpty() ? "/" : path, CHECK_HOST, port).getBytes(StandardCharsets.US_ASCII));
+        return start(port, request, timeoutSeconds);
+    }
+
+    private CompletableFuture<Integer> start(int port, ByteBuffer request, double timeoutSeconds) {
+        long deadlineNanos = System.nanoTime() + (long) (timeoutSeconds * TimeUnit.SECONDS.toNanos(1));
+        SocketChannel channel = null;
+        try {
+            channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            Check check = new Check(channel, deadlineNanos, request);
+            check.connected = channel.connect(new InetSocketAddress(CHECK_HOST, port));
+            pendingChecks.add(check);
+            selector.wakeup();
+            return check.result;
+        } catch (IOException e) {
+            close(channel);
+            CompletableFuture<Integer> result = new CompletableFuture<>();
+            result.completeExceptionally(e);
+            return result;
+        }
+    }
+
+    private void run() {
+        while (true) {
+            // Exceptions must not escape, or all pending checks would hang.
+            try {
+                registerPendingChecks();
+                selector.select(expireChecks());
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    handle(key);
+                }
+            } catch (Throwable t) {
+                LOGGER.error("Failed to run network checks", t);
+            }
+        }
+    }
+
+    private void registerPendingChecks() {
+        Check check;
+        while ((check = pendingChecks.poll()) != null) {
+            checks.add(check);
+            try {
+                if (check.connected) {
+                    connected(check.channel.register(selector, 0, check), check);
+                } else {
+                    check.channel.register(selector, SelectionKey.OP_CONNECT, check);
+                }
+            } catch (IOException e) {
+                finish(check, null, e);
+            }
+        }
+    }
+
+    /**
+     * Fails any checks which have passed their deadline, and returns the time until the next deadline in milliseconds,
+     * or zero if no checks are running.
+     */
+    private long expireChecks() {
+        long nowNanos = System.nanoTime();
+        long nextDeadlineNanos = Long.MAX_VALUE;
+        for (Check check : new HashSet<>(checks)) {
+            if (check.deadlineNanos <= nowNanos) {
+                finish(check, null, new SocketTimeoutException("Check timed out"));
+            } else {
+                nextDeadlineNanos = Math.min(nextDeadlineNanos, check.deadlineNanos);
+            }
+        }
+        if (nextDeadlineNanos == Long.MAX_VALUE) {
+            return 0;
+        }
+        // Round up, as a select timeout of zero means no timeout:
+        return TimeUnit.NANOSECONDS.toMillis(nextDeadlineNanos - nowNanos) + 1;
+    }
+
+    private void handle(SelectionKey key) {
+        Check check = (Check) key.attachment();
+        try {
+            if (!key.isValid()) {
+                return;
+            }
+            if (key.isConnectable()) {
+                if (check.channel.finishConnect()) {
+                    connected(key, check);
+                }
+            } else if (key.isWritable()) {
+                check.channel.write(check.request);
+                if (!check.request.hasRemaining()) {
+                    key.interestOps(SelectionKey.OP_READ);
+                }
+            } else if (key.isReadable()) {
+                if (check.channel.read(check.response) < 0) {
+                    throw new IOException("Connection closed before HTTP status line was received");
+                }
+                if (containsLineEnd(check.response)) {
+                    finish(check, parseStatusCode(new String(
+                            check.response.array(), 0, check.response.position(), StandardCharsets.US_ASCII)), null);
+                } else if (!check.response.hasRemaining()) {
+                    throw new IOException(String.format(
+                            "HTTP status line exceeded %d bytes", MAX_STATUS_LINE_BYTES));
+                }
+            }
+        } catch (IOException e) {
+            finish(check, null, e);
+        }
+    }
+
+    private void connected(SelectionKey key, Check check) {
+        if (check.request == null) {
+            // TCP check: connecting is all that's needed.
+            finish(check, 0, null);
+        } else {
+            key.interestOps(SelectionKey.OP_WRITE);
+        }
+    }
+
+    /**
+     * Closes the check's connection and then completes the check with the provided status code or exception.
+     */
+    private void finish(Check check, Integer statusCode, Throwable t) {
+        checks.remove(check);
+        close(check.channel);
+        if (t != null) {
+            check.result.completeExceptionally(t);
+        } else {
+            check.result.complete(statusCode);
+        }
+    }
+
+    private static void close(SocketChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            // Also cancels the channel's registration with the selector:
+            channel.close();
+        } catch (IOException e) {
+            LOGGER.warn("Failed to close check connection", e);
+        }
+    }
+
+    private static boolean containsLineEnd(ByteBuffer buffer) {
+        for (int i = 0; i < buffer.position(); ++i) {
+            if (buffer.get(i) == '\n') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int parseStatusCode(String response) throws IOException {
+        // Status line: "HTTP/1.1 200 OK"
+        String statusLine = response.substring(0, response.indexOf('\n')).trim();
+        String[] statusFields = statusLine.split(" ");
+        if (statusFields.length < 2 || !statusFields[0].startsWith("HTTP/")) {
+            throw new IOException(String.format("Invalid HTTP status line: %s", statusLine));
+        }
+        try {
+            return Integer.parseInt(statusFields[1]);
+        } catch (NumberFormatException e) {
+            throw new IOException(String.format("Invalid HTTP status line: %s", statusLine), e);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.mesosphere.sdk.executor;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Notifies callers when check processes exit, without holding a thread for each running process. Java 8 doesn't
+ * provide exit notifications for a {@link Process}, so a single thread polls the running processes for their exit, and
+ * forcibly kills any which exceed their timeout, along with any processes which they started.
+ */
+class ProcessWatcher {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProcessWatcher.class);
+
+    private static final long DEFAULT_POLL_INTERVAL_MS = 20;
+
+    private static final File DEV_NULL = new File("/dev/null");
+
+    private static final Object INSTANCE_LOCK = new Object();
+    private static ProcessWatcher instance = null;
+
+    private final ScheduledExecutorService scheduler;
+    private final Map<Process, CompletableFuture<Integer>> processes = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the watcher which is shared by all checks in this executor.
+     */
+    static ProcessWatcher getInstance() {
+        synchronized (INSTANCE_LOCK) {
+            if (instance == null) {
+                instance = new ProcessWatcher(DEFAULT_POLL_INTERVAL_MS);
+            }
+            return instance;
+        }
+    }
+
+    ProcessWatcher(long pollIntervalMs) {
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "check-process-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleWithFixedDelay(this::poll, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns a future which is completed with the exit value of the provided process once it exits, or which fails
+     * with a {@link TimeoutException} if the process was killed after running for longer than the provided timeout.
+     */
+    CompletableFuture<Integer> watch(Process process, double timeoutSeconds) {
+        CompletableFuture<Integer> exit = new CompletableFuture<>();
+        processes.put(process, exit);
+        ScheduledFuture<?> timeout = scheduler.schedule(
+                () -> kill(process, timeoutSeconds),
+                (long) (timeoutSeconds * 1000),
+                TimeUnit.MILLISECONDS);
+        exit.whenComplete((exitValue, t) -> timeout.cancel(false));
+        return exit;
+    }
+
+    /**
+     * Returns the number of processes which haven't yet exited or been killed.
+     */
+    int getRunningCount() {
+        return processes.size();
+    }
+
+    private void poll() {
+        // Exceptions must not escape, or the scheduler would stop polling.
+        try {
+            for (Map.Entry<Process, CompletableFuture<Integer>> entry : processes.entrySet()) {
+                Process process = entry.getKey();
+                if (!process.isAlive() && processes.remove(process, entry.getValue())) {
+                    entry.getValue().complete(process.exitValue());
+                }
+            }
+        } catch (Throwable t) {
+            LOGGER.error("Failed to poll check processes for exit", t);
+        }
+    }
+
+    private void kill(Process process, double timeoutSeconds) {
+        CompletableFuture<Integer> exit = processes.remove(process);
+        if (exit == null) {
+            // Already exited
+            return;
+        }
+        LOGGER.warn("Killing check process which exceeded its {}s timeout", timeoutSeconds);
+        // The descendants must be found before the process is killed, as they're then reparented:
+        Collection<Long> descendantPids = getDescendantPids(process);
+        process.destroyForcibly();
+        killPids(descendantPids);
+        exit.completeExceptionally(new TimeoutException(String.format(
+                "Check process didn't exit within its %ss timeout", timeoutSeconds)));
+    }
+
+    /**
+     * Returns the pids of all descendants of the provided process, e.g. the commands run by a check's shell. Java 8
+     * has no equivalent of {@code Process.descendants()}, so the process tree is read from {@code /proc}. Returns an
+     * empty list if the tree couldn't be read.
+     */
+    @VisibleForTesting
+    static Collection<Long> getDescendantPids(Process process) {
+        List<Long> descendantPids = new ArrayList<>();
+        Optional<Long> pid = getPid(process);
+        if (!pid.isPresent()) {
+            return descendantPids;
+        }
+        Deque<Long> parentPids = new ArrayDeque<>();
+        parentPids.add(pid.get());
+        while (!parentPids.isEmpty()) {
+            for (Long childPid : getChildPids(parentPids.remove())) {
+                descendantPids.add(childPid);
+                parentPids.add(childPid);
+            }
+        }
+        return descendantPids;
+    }
+
+    private static Collection<Long> getChildPids(long pid) {
+        Collection<Long> childPids = new ArrayList<>();
+        // Each thread of the process lists the children which it started:
+        File[] threadDirs = new File(String.format("/proc/%d/task", pid)).listFiles();
+        if (threadDirs == null) {
+            return childPids;
+        }
+        for (File threadDir : threadDirs) {
+            try {
+                String children = new String(
+                        Files.readAllBytes(new File(threadDir, "children").toPath()), StandardCharsets.UTF_8);
+                for (String childPid : children.trim().split("\\s+")) {
+                    if (!childPid.isEmpty()) {
+                        childPids.add(Long.parseLong(childPid));
+                    }
+                }
+            } catch (IOException | NumberFormatException e) {
+                LOGGER.warn(String.format("Failed to read child processes of pid %d", pid), e);
+            }
+        }
+        return childPids;
+    }
+
+    /**
+     * Returns the pid of the provided process, using {@code Process.pid()} where available (Java 9+), or the pid field
+     * of the Java 8 implementation otherwise.
+     */
+    private static Optional<Long> getPid(Process process) {
+        try {
+            return Optional.of((Long) Process.class.getMethod("pid").invoke(process));
+        } catch (ReflectiveOperationException e) {
+            // Java 8, fall through
+        }
+        try {
+            Field pidField = process.getClass().getDeclaredField("pid");
+            pidField.setAccessible(true);
+            return Optional.of(pidField.getLong(process));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOGGER.warn("Unable to get pid of check process, its child processes won't be killed", e);
+            return Optional.empty();
+        }
+    }
+
+    private static void killPids(Collection<Long> pids) {
+        if (pids.isEmpty()) {
+            return;
+        }
+        List<String> command = new ArrayList<>();
+        command.add("kill");
+        command.add("-KILL");
+        for (Long pid : pids) {
+            command.add(String.valueOf(pid));
+        }
+        try {
+            // Processes which have already exited are reported by kill, and are otherwise ignored. Nothing is read from
+            // or written to kill, so no pipes are left open for it:
+            new ProcessBuilder(command)
+                    .redirectOutput(ProcessBuilder.Redirect.to(DEV_NULL))
+                    .redirectError(ProcessBuilder.Redirect.to(DEV_NULL))
+                    .start()
+                    .getOutputStream()
+                    .close();
+        } catch (IOException e) {
+            LOGGER.error(String.format("Failed to kill child processes of check process: %s", pids), e);
+        }
+    }
+}
@@ -13,6 +13,7 @@ import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.net.ConnectException;
 import java.util.concurrent.*;
 
 import static org.awaitility.Awaitility.to;
@@ -29,9 +30,12 @@ public class CheckHandlerTest {
     private static final double SHORT_DELAY_S = 0.002;
     private static final double SHORT_GRACE_PERIOD_S = 0.003;
     private static final double TIMEOUT_S = 456;
+    private static final int HTTP_PORT = 8080;
+    private static final int TCP_PORT = 9042;
 
     private ScheduledExecutorService scheduledExecutorService;
     @Mock private CheckHandler.ProcessRunner mockProcessRunner;
+    @Mock private NetworkCheckRunner mockNetworkCheckRunner;
     @Mock private LaunchedTask mockLaunchedTask;
     @Mock private ExecutorDriver executorDriver;
     @Captor private ArgumentCaptor<Protos.TaskStatus> taskStatusCaptor;
@@ -72,9 +76,9 @@ public class CheckHandlerTest {
                 healthCheckStats,
                 "test");
 
-        when(mockProcessRunner.run(any(), anyDouble())).thenReturn(1);
+        when(mockProcessRunner.run(any(), anyDouble())).thenReturn(CompletableFuture.completedFuture(1));
 
-        ScheduledFuture<?> future = healthCheckHandler.start();
+        Future<?> future = healthCheckHandler.start();
         try {
             future.get();
         } catch (Throwable t) {
@@ -103,9 +107,9 @@ public class CheckHandlerTest {
                 healthCheckStats,
                 "test");
 
-        when(mockProcessRunner.run(any(), anyDouble())).thenReturn(1);
+        when(mockProcessRunner.run(any(), anyDouble())).thenReturn(CompletableFuture.completedFuture(1));
 
-        ScheduledFuture<?> future = healthCheckHandler.start();
+        Future<?> future = healthCheckHandler.start();
         try {
             future.get();
         } catch (Throwable t) {
@@ -136,7 +140,7 @@ public class CheckHandlerTest {
 
         when(mockProcessRunner.run(any(), anyDouble())).thenThrow(new IllegalArgumentException("hello"));
 
-        ScheduledFuture<?> future = healthCheckHandler.start();
+        Future<?> future = healthCheckHandler.start();
         try {
             future.get();
         } catch (Throwable t) {
@@ -167,7 +171,7 @@ public class CheckHandlerTest {
 
         when(mockProcessRunner.run(any(), anyDouble())).thenThrow(new IllegalArgumentException("hello"));
 
-        ScheduledFuture<?> future = healthCheckHandler.start();
+        Future<?> future = healthCheckHandler.start();
         try {
             future.get();
         } catch (Throwable t) {
@@ -195,7 +199,7 @@ public class CheckHandlerTest {
                 healthCheckStats,
                 "test");
 
-        when(mockProcessRunner.run(any(), anyDouble())).thenReturn(0);
+        when(mockProcessRunner.run(any(), anyDouble())).thenReturn(CompletableFuture.completedFuture(0));
 
         healthCheckHandler.start();
         Awaitility.await().atMost(5, TimeUnit.SECONDS).untilCall(to(healthCheckStats).getTotalSuccesses(), greaterThan(1L));
@@ -253,10 +257,10 @@ public class CheckHandlerTest {
     }
 
     @Test(expected=CheckHandler.CheckValidationException.class)
-    public void testFailHttpHealthCheckValidation() throws CheckHandler.CheckValidationException {
+    public void testFailHttpsHealthCheckValidation() throws CheckHandler.CheckValidationException {
         Protos.TaskInfo taskInfo = getTask().toBuilder()
                 .setHealthCheck(Protos.HealthCheck.newBuilder()
-                        .setHttp(Protos.HealthCheck.HTTPCheckInfo.newBuilder().setPort(2))
+                        .setHttp(Protos.HealthCheck.HTTPCheckInfo.newBuilder().setScheme("https").setPort(2))
                         .build())
                 .build();
 
@@ -304,6 +308,186 @@ public class CheckHandlerTest {
                 "test");
     }
 
+    @Test(expected=CheckHandler.CheckValidationException.class)
+    public void testFailNoPortHealthCheckValidation() throws CheckHandler.CheckValidationException {
+        Protos.TaskInfo taskInfo = getTask().toBuilder()
+                .setHealthCheck(getTcpHealthCheck(1).toBuilder().setTcp(Protos.HealthCheck.TCPCheckInfo.newBuilder()
+                        .setPort(0)))
+                .build();
+
+        CheckHandler.create(
+                executorDriver,
+                taskInfo,
+                mockLaunchedTask,
+                taskInfo.getHealthCheck(),
+                scheduledExecutorService,
+                new CheckStats("test"),
+                "test");
+    }
+
+    @Test
+    public void testRunningProcessesDontBlockOtherChecks() throws Exception {
+        // Two checks whose processes never exit:
+        CheckHandler.ProcessRunner hungProcessRunner = mock(CheckHandler.ProcessRunner.class);
+        when(hungProcessRunner.run(any(), anyDouble())).thenReturn(new CompletableFuture<>());
+        CheckStats hungCheckStats = new CheckStats("hung");
+        for (int i = 0; i < 2; ++i) {
+            new CheckHandler(
+                    executorDriver,
+                    taskInfo,
+                    mockLaunchedTask,
+                    hungProcessRunner,
+                    getHealthCheck(1),
+                    scheduledExecutorService,
+                    hungCheckStats,
+                    "test").start();
+        }
+
+        // Meanwhile, another check keeps running on the same single-threaded pool:
+        CheckStats healthCheckStats = new CheckStats("test");
+        CheckHandler healthCheckHandler = new CheckHandler(
+                executorDriver,
+                taskInfo,
+                mockLaunchedTask,
+                mockProcessRunner,
+                getHealthCheck(1),
+                scheduledExecutorService,
+                healthCheckStats,
+                "test");
+        when(mockProcessRunner.run(any(), anyDouble())).thenReturn(CompletableFuture.completedFuture(0));
+        healthCheckHandler.start();
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).untilCall(to(healthCheckStats).getTotalSuccesses(), greaterThan(5L));
+
+        verify(hungProcessRunner, times(2)).run(any(), eq(TIMEOUT_S));
+        Assert.assertEquals(0, hungCheckStats.getTotalSuccesses() + hungCheckStats.getTotalFailures());
+        Assert.assertTrue(healthCheckStats.getMaxQueueDelayMs() < 5000);
+    }
+
+    @Test
+    public void testQueueDelayIsRecorded() throws Exception {
+        CheckStats healthCheckStats = new CheckStats("test");
+        CheckHandler healthCheckHandler = new CheckHandler(
+                executorDriver,
+                taskInfo,
+                mockLaunchedTask,
+                mockProcessRunner,
+                getHealthCheck(1),
+                scheduledExecutorService,
+                healthCheckStats,
+                "test");
+        when(mockProcessRunner.run(any(), anyDouble())).thenReturn(CompletableFuture.completedFuture(0));
+
+        // Occupy the single pool thread past the time that the first check run is due:
+        CountDownLatch poolBlocked = new CountDownLatch(1);
+        scheduledExecutorService.execute(() -> {
+            poolBlocked.countDown();
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        poolBlocked.await();
+        healthCheckHandler.start();
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).untilCall(to(healthCheckStats).getTotalSuccesses(), greaterThan(1L));
+
+        Assert.assertTrue(healthCheckStats.toString(), healthCheckStats.getMaxQueueDelayMs() >= 250);
+        // Later runs aren't delayed by the pool:
+        Assert.assertTrue(healthCheckStats.toString(), healthCheckStats.getLastQueueDelayMs() < 250);
+    }
+
+    @Test
+    public void testHttpSuccess() throws Exception {
+        CheckStats healthCheckStats = new CheckStats("test");
+        CheckHandler healthCheckHandler = new CheckHandler(
+                executorDriver,
+                taskInfo,
+                mockLaunchedTask,
+                mockProcessRunner,
+                mockNetworkCheckRunner,
+                getHttpHealthCheck(1),
+                scheduledExecutorService,
+                healthCheckStats,
+                "test");
+
+        when(mockNetworkCheckRunner.runHttp(anyInt(), anyString(), anyDouble()))
+                .thenReturn(CompletableFuture.completedFuture(302));
+
+        healthCheckHandler.start();
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).untilCall(to(healthCheckStats).getTotalSuccesses(), greaterThan(1L));
+
+        Assert.assertEquals(0, healthCheckStats.getTotalFailures());
+        verify(mockNetworkCheckRunner, atLeast(2)).runHttp(eq(HTTP_PORT), eq("/health"), eq(TIMEOUT_S));
+        verifyZeroInteractions(mockProcessRunner);
+    }
+
+    @Test
+    public void testHttpUnexpectedStatus() throws Exception {
+        int maxConsecutiveFailures = 2;
+        CheckStats healthCheckStats = new CheckStats("test");
+        Protos.HealthCheck.Builder healthCheckBuilder = getHttpHealthCheck(maxConsecutiveFailures).toBuilder();
+        healthCheckBuilder.getHttpBuilder().addStatuses(204);
+        CheckHandler healthCheckHandler = new CheckHandler(
+                executorDriver,
+                taskInfo,
+                mockLaunchedTask,
+                mockProcessRunner,
+                mockNetworkCheckRunner,
+                healthCheckBuilder.build(),
+                scheduledExecutorService,
+                healthCheckStats,
+                "test");
+
+        // A 2xx status which isn't in the expected statuses:
+        when(mockNetworkCheckRunner.runHttp(anyInt(), anyString(), anyDouble()))
+                .thenReturn(CompletableFuture.completedFuture(200));
+
+        Future<?> future = healthCheckHandler.start();
+        try {
+            future.get();
+        } catch (Throwable t) {
+            Assert.assertTrue(t instanceof ExecutionException);
+        }
+
+        Assert.assertEquals(maxConsecutiveFailures, healthCheckStats.getTotalFailures());
+        Assert.assertEquals(0, healthCheckStats.getTotalSuccesses());
+        verify(mockNetworkCheckRunner, times(maxConsecutiveFailures)).runHttp(HTTP_PORT, "/health", TIMEOUT_S);
+    }
+
+    @Test
+    public void testTcpException() throws Exception {
+        int maxConsecutiveFailures = 2;
+        CheckStats healthCheckStats = new CheckStats("test");
+        CheckHandler healthCheckHandler = new CheckHandler(
+                executorDriver,
+                taskInfo,
+                mockLaunchedTask,
+                mockProcessRunner,
+                mockNetworkCheckRunner,
+                getTcpHealthCheck(maxConsecutiveFailures),
+                scheduledExecutorService,
+                healthCheckStats,
+                "test");
+
+        when(mockNetworkCheckRunner.runTcp(anyInt(), anyDouble())).then(invocation -> {
+            CompletableFuture<Void> result = new CompletableFuture<>();
+            result.completeExceptionally(new ConnectException("refused"));
+            return result;
+        });
+
+        Future<?> future = healthCheckHandler.start();
+        try {
+            future.get();
+        } catch (Throwable t) {
+            Assert.assertTrue(t instanceof ExecutionException);
+        }
+
+        Assert.assertEquals(maxConsecutiveFailures, healthCheckStats.getTotalFailures());
+        Assert.assertEquals(0, healthCheckStats.getTotalSuccesses());
+        verify(mockNetworkCheckRunner, times(maxConsecutiveFailures)).runTcp(TCP_PORT, TIMEOUT_S);
+        verifyZeroInteractions(mockProcessRunner);
+    }
+
     @Test
     public void testReadinessSuccess() throws Exception {
         CheckStats healthCheckStats = new CheckStats("test");
@@ -317,7 +501,7 @@ public class CheckHandlerTest {
                 healthCheckStats,
                 "test");
 
-        when(mockProcessRunner.run(any(), anyDouble())).thenReturn(0);
+        when(mockProcessRunner.run(any(), anyDouble())).thenReturn(CompletableFuture.completedFuture(0));
 
         healthCheckHandler.start();
         Awaitility.await().atMost(5, TimeUnit.SECONDS).untilCall(to(healthCheckStats).getTotalSuccesses(), greaterThanOrEqualTo(1L));
@@ -359,6 +543,25 @@ public class CheckHandlerTest {
                 .build();
     }
 
+    private static Protos.HealthCheck getHttpHealthCheck(int maxConsecutiveFailures) {
+        return getHealthCheck(maxConsecutiveFailures).toBuilder()
+                .clearCommand()
+                .setType(Protos.HealthCheck.Type.HTTP)
+                .setHttp(Protos.HealthCheck.HTTPCheckInfo.newBuilder()
+                        .setScheme("http")
+                        .setPort(HTTP_PORT)
+                        .setPath("/health"))
+                .build();
+    }
+
+    private static Protos.HealthCheck getTcpHealthCheck(int maxConsecutiveFailures) {
+        return getHealthCheck(maxConsecutiveFailures).toBuilder()
+                .clearCommand()
+                .setType(Protos.HealthCheck.Type.TCP)
+                .setTcp(Protos.HealthCheck.TCPCheckInfo.newBuilder().setPort(TCP_PORT))
+                .build();
+    }
+
     private static Protos.HealthCheck getReadinessCheck() {
         return getHealthCheck(0);
     }
@@ -61,7 +61,7 @@ public class CheckMonitorTest {
                 scheduledExecutorService,
                 new CheckStats("test"),
                 "test");
-        when(mockProcessRunner.run(any(), anyDouble())).thenReturn(1); // return failure
+        when(mockProcessRunner.run(any(), anyDouble())).thenReturn(CompletableFuture.completedFuture(1)); // return failure
 
         CheckMonitor healthCheckMonitor = new CheckMonitor(
                 healthCheck,
@@ -0,0 +1,44 @@
+package com.mesosphere.sdk.executor;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link CheckStats}.
+ */
+public class CheckStatsTest {
+
+    @Test
+    public void testSuccessesAndFailures() {
+        CheckStats checkStats = new CheckStats("test");
+        checkStats.failed();
+        checkStats.failed();
+        checkStats.succeeded();
+        Assert.assertEquals(2, checkStats.getTotalFailures());
+        Assert.assertEquals(0, checkStats.getConsecutiveFailures());
+        Assert.assertEquals(1, checkStats.getTotalSuccesses());
+        Assert.assertEquals(1, checkStats.getConsecutiveSuccesses());
+    }
+
+    @Test
+    public void testDurations() {
+        CheckStats checkStats = new CheckStats("test");
+        checkStats.recordDuration(20);
+        checkStats.recordDuration(50);
+        checkStats.recordDuration(10);
+        Assert.assertEquals(10, checkStats.getLastDurationMs());
+        Assert.assertEquals(50, checkStats.getMaxDurationMs());
+    }
+
+    @Test
+    public void testQueueDelays() {
+        CheckStats checkStats = new CheckStats("test");
+        Assert.assertEquals(0, checkStats.getLastQueueDelayMs());
+        Assert.assertEquals(0, checkStats.getMaxQueueDelayMs());
+        checkStats.recordQueueDelay(300);
+        checkStats.recordQueueDelay(5);
+        Assert.assertEquals(5, checkStats.getLastQueueDelayMs());
+        Assert.assertEquals(300, checkStats.getMaxQueueDelayMs());
+        Assert.assertTrue(checkStats.toString().contains("maxQueueDelayMs=300"));
+    }
+}
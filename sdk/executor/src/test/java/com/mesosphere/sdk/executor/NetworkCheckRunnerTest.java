@@ -0,0 +1,116 @@
+package com.mesosphere.sdk.executor;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link NetworkCheckRunner}.
+ */
+public class NetworkCheckRunnerTest {
+
+    private static final NetworkCheckRunner RUNNER = new NetworkCheckRunner();
+
+    private ServerSocket serverSocket;
+    private Thread serverThread;
+
+    @Before
+    public void beforeEach() throws IOException {
+        serverSocket = new ServerSocket(0, 10, InetAddress.getByName("127.0.0.1"));
+    }
+
+    @After
+    public void afterEach() throws Exception {
+        serverSocket.close();
+        if (serverThread != null) {
+            serverThread.join(5000);
+        }
+    }
+
+    @Test
+    public void testTcpSuccess() throws Exception {
+        RUNNER.runTcp(serverSocket.getLocalPort(), 5).get();
+    }
+
+    @Test(expected = IOException.class)
+    public void testTcpConnectionRefused() throws Throwable {
+        int port = serverSocket.getLocalPort();
+        serverSocket.close();
+        getResult(RUNNER.runTcp(port, 5));
+    }
+
+    @Test
+    public void testHttpStatus() throws Throwable {
+        serve("HTTP/1.1 204 No Content\r\nContent-Length: 0\r\n\r\n");
+        Assert.assertEquals(204, (int) getResult(RUNNER.runHttp(serverSocket.getLocalPort(), "/health", 5)));
+    }
+
+    @Test(expected = IOException.class)
+    public void testHttpInvalidStatusLine() throws Throwable {
+        serve("SSH-2.0-OpenSSH\r\n");
+        getResult(RUNNER.runHttp(serverSocket.getLocalPort(), "/", 5));
+    }
+
+    @Test(expected = SocketTimeoutException.class)
+    public void testHttpTimeout() throws Throwable {
+        // Nothing accepts or responds to the request, which is left waiting in the backlog:
+        getResult(RUNNER.runHttp(serverSocket.getLocalPort(), "/", 0.2));
+    }
+
+    @Test
+    public void testConcurrentChecksShareThread() throws Throwable {
+        // A check which is waiting for a response doesn't hold up other checks:
+        CompletableFuture<Integer> hungCheck = RUNNER.runHttp(serverSocket.getLocalPort(), "/", 5);
+        try (ServerSocket otherServerSocket = new ServerSocket(0, 10, InetAddress.getByName("127.0.0.1"))) {
+            RUNNER.runTcp(otherServerSocket.getLocalPort(), 5).get(1, TimeUnit.SECONDS);
+        }
+        Assert.assertFalse(hungCheck.isDone());
+    }
+
+    private static <T> T getResult(CompletableFuture<T> result) throws Throwable {
+        try {
+            return result.get(10, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Accepts a single connection, reads the request headers, and writes the provided response.
+     */
+    private void serve(String response) {
+        serverThread = new Thread(() -> {
+            try (Socket socket = serverSocket.accept()) {
+                InputStream in = socket.getInputStream();
+                int matched = 0;
+                byte[] end = "\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+                while (matched < end.length) {
+                    int b = in.read();
+                    if (b < 0) {
+                        return;
+                    }
+                    matched = (b == end[matched]) ? matched + 1 : (b == end[0] ? 1 : 0);
+                }
+                OutputStream out = socket.getOutputStream();
+                out.write(response.getBytes(StandardCharsets.US_ASCII));
+                out.flush();
+            } catch (IOException e) {
+                // Server socket was closed by the test
+            }
+        });
+        serverThread.start();
+    }
+}
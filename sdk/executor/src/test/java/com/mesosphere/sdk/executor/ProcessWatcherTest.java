@@ -0,0 +1,97 @@
+package com.mesosphere.sdk.executor;
+
+import org.awaitility.Awaitility;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Tests for {@link ProcessWatcher}.
+ */
+public class ProcessWatcherTest {
+
+    @Test
+    public void testExitValue() throws Exception {
+        ProcessWatcher watcher = new ProcessWatcher(5);
+        CompletableFuture<Integer> exit = watcher.watch(new ProcessBuilder("sh", "-c", "exit 3").start(), 10);
+        Assert.assertEquals(3, exit.get(5, TimeUnit.SECONDS).intValue());
+        Assert.assertEquals(0, watcher.getRunningCount());
+    }
+
+    @Test
+    public void testTimeoutKillsProcess() throws Exception {
+        ProcessWatcher watcher = new ProcessWatcher(5);
+        Process process = new ProcessBuilder("sleep", "60").start();
+        CompletableFuture<Integer> exit = watcher.watch(process, 0.1);
+        try {
+            exit.get(5, TimeUnit.SECONDS);
+            Assert.fail("Expected timeout");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        Assert.assertTrue(process.waitFor(5, TimeUnit.SECONDS));
+        Assert.assertEquals(0, watcher.getRunningCount());
+    }
+
+    @Test
+    public void testTimeoutKillsDescendants() throws Exception {
+        ProcessWatcher watcher = new ProcessWatcher(5);
+        // A shell which starts a child process and then waits on it, like a check command which runs another command:
+        Process process = new ProcessBuilder("sh", "-c", "sleep 60 & echo $!; wait").start();
+        long childPid = Long.parseLong(
+                new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))
+                        .readLine().trim());
+        Assert.assertEquals(Collections.singletonList(childPid), ProcessWatcher.getDescendantPids(process));
+
+        CompletableFuture<Integer> exit = watcher.watch(process, 0.1);
+        try {
+            exit.get(5, TimeUnit.SECONDS);
+            Assert.fail("Expected timeout");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        Assert.assertTrue(process.waitFor(5, TimeUnit.SECONDS));
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> !isRunning(childPid));
+    }
+
+    @Test
+    public void testManyConcurrentProcesses() throws Exception {
+        ProcessWatcher watcher = new ProcessWatcher(5);
+        List<CompletableFuture<Integer>> exits = new ArrayList<>();
+        for (int i = 0; i < 20; ++i) {
+            exits.add(watcher.watch(new ProcessBuilder("sh", "-c", "sleep 1; exit " + i).start(), 10));
+        }
+        // All processes run concurrently, while only the watcher thread is waiting on them:
+        Assert.assertEquals(20, watcher.getRunningCount());
+        for (int i = 0; i < exits.size(); ++i) {
+            Assert.assertEquals(i, exits.get(i).get(5, TimeUnit.SECONDS).intValue());
+        }
+    }
+
+    /**
+     * Returns whether the provided pid exists and isn't a zombie which is waiting to be reaped.
+     */
+    private static boolean isRunning(long pid) throws IOException {
+        Path statPath = Paths.get(String.format("/proc/%d/stat", pid));
+        if (!Files.exists(statPath)) {
+            return false;
+        }
+        // Format: "<pid> (<command>) <state> ..."
+        String stat = new String(Files.readAllBytes(statPath), StandardCharsets.UTF_8);
+        return !stat.substring(stat.lastIndexOf(')') + 1).trim().startsWith("Z");
+    }
+}
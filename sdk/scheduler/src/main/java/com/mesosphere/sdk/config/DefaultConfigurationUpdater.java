@@ -1,5 +1,6 @@
 package com.mesosphere.sdk.config;
 
+import com.codahale.metrics.Timer;
 import com.google.common.base.Joiner;
 import com.google.common.base.Splitter;
 import com.google.common.collect.Lists;
@@ -11,6 +12,7 @@ import com.mesosphere.sdk.offer.LoggingUtils;
 import com.mesosphere.sdk.offer.TaskException;
 import com.mesosphere.sdk.offer.taskdata.TaskLabelReader;
 import com.mesosphere.sdk.offer.taskdata.TaskLabelWriter;
+import com.mesosphere.sdk.scheduler.Metrics;
 import com.mesosphere.sdk.specification.DefaultPodSpec;
 import com.mesosphere.sdk.specification.DefaultServiceSpec;
 import com.mesosphere.sdk.specification.PodSpec;
@@ -52,6 +54,15 @@ public class DefaultConfigurationUpdater implements ConfigurationUpdater<Service
 
     @Override
     public UpdateResult updateConfiguration(ServiceSpec candidateConfig) throws ConfigStoreException {
+        Timer.Context context = Metrics.getConfigUpdateDurationTimer();
+        try {
+            return updateConfigurationInternal(candidateConfig);
+        } finally {
+            context.stop();
+        }
+    }
+
+    private UpdateResult updateConfigurationInternal(ServiceSpec candidateConfig) throws ConfigStoreException {
         // Get the currently stored target configuration
         UUID targetConfigId;
         try {
@@ -182,6 +193,12 @@ public class DefaultConfigurationUpdater implements ConfigurationUpdater<Service
         List<Protos.TaskInfo> taskInfosToUpdate = new ArrayList<>();
         Set<UUID> neededConfigs = new HashSet<>();
         neededConfigs.add(targetConfigId);
+        Map<UUID, Integer> taskCountsByConfig = new HashMap<>();
+        // Configs with the same content as the target don't need to be deserialized to be compared against it. Other
+        // configs are deserialized at most once, no matter how many tasks are using them.
+        final String targetContentHash = configStore.getMetadata(targetConfigId).getContentHash();
+        Map<UUID, ServiceSpec> taskConfigs = new HashMap<>();
+        Set<UUID> unreadableConfigs = new HashSet<>();
         // Search task labels for configs which need to be cleaned up.
         for (Protos.TaskInfo taskInfo : stateStore.fetchTasks()) {
             final UUID taskConfigId;
@@ -192,13 +209,30 @@ public class DefaultConfigurationUpdater implements ConfigurationUpdater<Service
                         taskInfo.getName(), TextFormat.shortDebugString(taskInfo)), e);
                 continue;
             }
+            taskCountsByConfig.merge(taskConfigId, 1, Integer::sum);
 
             if (taskConfigId.equals(targetConfigId)) {
                 LOGGER.info("Task {} configuration ID matches target: {}",
                         taskInfo.getName(), taskConfigId);
+            } else if (unreadableConfigs.contains(taskConfigId)) {
+                LOGGER.error("Configuration {} for task {} couldn't be fetched", taskConfigId, taskInfo.getName());
             } else {
                 try {
-                    final ServiceSpec taskConfig = configStore.fetch(taskConfigId);
+                    if (hasContentHash(taskConfigId, targetContentHash)) {
+                        LOGGER.info("Task {} configuration ID {} has the same content as target: {}",
+                                taskInfo.getName(), taskConfigId, targetConfigId);
+                        taskInfosToUpdate.add(taskInfo.toBuilder()
+                                .setLabels(new TaskLabelWriter(taskInfo)
+                                        .setTargetConfiguration(targetConfigId)
+                                        .toProto())
+                                .build());
+                        continue;
+                    }
+                    ServiceSpec taskConfig = taskConfigs.get(taskConfigId);
+                    if (taskConfig == null) {
+                        taskConfig = configStore.fetch(taskConfigId);
+                        taskConfigs.put(taskConfigId, taskConfig);
+                    }
                     if (!needsConfigUpdate(taskInfo, targetConfig, taskConfig)) {
                         // Task is effectively already on the target config. Update task's config ID to match target,
                         // and allow the duplicate config to be dropped from configStore.
@@ -215,6 +249,7 @@ public class DefaultConfigurationUpdater implements ConfigurationUpdater<Service
                     LOGGER.error(String.format("Failed to fetch configuration %s for task %s",
                             taskConfigId, taskInfo.getName()), e);
                     // Cannot read this task's config. Do not delete the config.
+                    unreadableConfigs.add(taskConfigId);
                     neededConfigs.add(taskConfigId);
                 }
             }
@@ -226,19 +261,34 @@ public class DefaultConfigurationUpdater implements ConfigurationUpdater<Service
             stateStore.storeTasks(taskInfosToUpdate);
         }
 
+        // Whether each listed config is kept or deleted was decided by the task scan above, using the content hashes of
+        // the configs. Only configs which were compared against the target have been deserialized.
         Collection<UUID> configIds = configStore.list();
-        LOGGER.info("Testing deserialization of {} listed configurations before cleanup:", configIds.size());
+        LOGGER.info("Checking {} listed configurations for cleanup:", configIds.size());
+        final Set<UUID> configsToClear = new HashSet<>();
         for (UUID configId : configIds) {
-            try {
-                configStore.fetch(configId);
-                LOGGER.info("- {}: OK", configId);
-            } catch (Exception e) {
-                LOGGER.info("- {}: FAILED, leaving as-is: {}", configId, e.getMessage());
-                neededConfigs.add(configId);
+            if (configId.equals(targetConfigId)) {
+                LOGGER.info("- {}: Keeping, current target in use by {} tasks",
+                        configId, taskCountsByConfig.getOrDefault(configId, 0));
+            } else if (neededConfigs.contains(configId)) {
+                LOGGER.info("- {}: Keeping, in use by {} tasks",
+                        configId, taskCountsByConfig.getOrDefault(configId, 0));
+            } else {
+                LOGGER.info("- {}: Deleting, not in use by any tasks", configId);
+                configsToClear.add(configId);
+            }
+            if (!configId.equals(targetConfigId)
+                    && !taskConfigs.containsKey(configId)
+                    && !unreadableConfigs.contains(configId)) {
+                Metrics.incrementConfigParsesSkipped();
             }
         }
 
-        clearConfigsNotListed(neededConfigs);
+        clearConfigs(configsToClear);
+    }
+
+    private boolean hasContentHash(UUID configId, String contentHash) throws ConfigStoreException {
+        return configStore.getMetadata(configId).getContentHash().equals(contentHash);
     }
 
     private static void printConfigDiff(ServiceSpec oldConfig, UUID oldConfigId, String newConfigJson) {
@@ -348,18 +398,11 @@ public class DefaultConfigurationUpdater implements ConfigurationUpdater<Service
     }
 
     /**
-     * Searches for any config IDs which are no longer active and removes them from the config
-     * store.
+     * Removes the provided config IDs, which are no longer active, from the config store.
      *
      * @throws ConfigStoreException if config access fails
      */
-    private void clearConfigsNotListed(Set<UUID> neededConfigs) throws ConfigStoreException {
-        final Set<UUID> configsToClear = new HashSet<>();
-        for (UUID configId : configStore.list()) {
-            if (!neededConfigs.contains(configId)) {
-                configsToClear.add(configId);
-            }
-        }
+    private void clearConfigs(Set<UUID> configsToClear) throws ConfigStoreException {
         LOGGER.info("Cleaning up {} unused configs: {}", configsToClear.size(), configsToClear);
         for (UUID configToClear : configsToClear) {
             configStore.clear(configToClear);
@@ -28,6 +28,8 @@ public class PodSpecsCannotUseUnsupportedFeatures implements ConfigValidator<Ser
         boolean supportsCNI = capabilities.supportsCNINetworking();
         boolean supportsEnvBasedSecrets = capabilities.supportsEnvBasedSecretsProtobuf();
         boolean supportsFileBasedSecrets = capabilities.supportsFileBasedSecrets();
+        // Tasks run by the default executor are checked by Mesos, which doesn't support custom HTTP check statuses:
+        boolean supportsHttpCheckStatuses = !capabilities.supportsDefaultExecutor();
 
         for (PodSpec podSpec : newConfig.getPods()) {
             if (!supportsGpus && podRequestsGpuResources(podSpec)) {
@@ -59,6 +61,11 @@ public class PodSpecsCannotUseUnsupportedFeatures implements ConfigValidator<Ser
                 errors.add(ConfigValidationError.valueError("pod:" + podSpec.getType(), "secrets:file",
                         "This DC/OS cluster does not support file-based secrets"));
             }
+            if (!supportsHttpCheckStatuses && podRequestsHttpCheckStatuses(podSpec)) {
+                errors.add(ConfigValidationError.valueError("pod:" + podSpec.getType(), "http:statuses",
+                        "HTTP checks in this DC/OS cluster do not support custom statuses, "
+                                + "any 2xx or 3xx status is treated as a success"));
+            }
         }
         return errors;
     }
@@ -117,4 +124,18 @@ public class PodSpecsCannotUseUnsupportedFeatures implements ConfigValidator<Ser
         }
         return false;
     }
+
+    private static boolean podRequestsHttpCheckStatuses(PodSpec podSpec) {
+        for (TaskSpec taskSpec : podSpec.getTasks()) {
+            Collection<ReadinessCheckSpec> checkSpecs = new ArrayList<>();
+            taskSpec.getHealthCheck().ifPresent(checkSpecs::add);
+            taskSpec.getReadinessCheck().ifPresent(checkSpecs::add);
+            for (ReadinessCheckSpec checkSpec : checkSpecs) {
+                if (checkSpec.getHttp().isPresent() && !checkSpec.getHttp().get().getStatuses().isEmpty()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
 }
@@ -2,8 +2,10 @@ package com.mesosphere.sdk.curator;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.mesosphere.sdk.offer.LoggingUtils;
+import com.mesosphere.sdk.scheduler.Metrics;
 import com.mesosphere.sdk.specification.ServiceSpec;
 import com.mesosphere.sdk.storage.Persister;
+import com.mesosphere.sdk.storage.PersisterChangeListener;
 import com.mesosphere.sdk.storage.PersisterException;
 import com.mesosphere.sdk.storage.PersisterUtils;
 import com.mesosphere.sdk.storage.StorageError.Reason;
@@ -12,7 +14,10 @@ import org.apache.curator.RetryPolicy;
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.CuratorFrameworkFactory;
 import org.apache.curator.framework.api.ACLProvider;
+import org.apache.curator.framework.api.BackgroundCallback;
+import org.apache.curator.framework.api.CuratorEvent;
 import org.apache.curator.framework.api.transaction.CuratorTransactionFinal;
+import org.apache.curator.framework.recipes.cache.TreeCache;
 import org.apache.zookeeper.KeeperException;
 import org.apache.zookeeper.ZooDefs;
 import org.apache.zookeeper.data.ACL;
@@ -20,6 +25,10 @@ import org.slf4j.Logger;
 
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -37,8 +46,22 @@ public class CuratorPersister implements Persister {
      */
     private static final int ATOMIC_WRITE_ATTEMPTS = 3;
 
+    /**
+     * Maximum number of background reads which may be outstanding at a time in getMany() and getAll(). This allows
+     * large reads to be pipelined without flooding the ZK connection with requests.
+     */
+    private static final int MAX_IN_FLIGHT_READS = 100;
+
+    /**
+     * Duration to wait for any outstanding background read to complete in getMany() and getAll() before giving up.
+     * This matches Curator's default session timeout, after which the session would have expired anyway.
+     */
+    private static final long DEFAULT_READ_TIMEOUT_MS = TimeUnit.SECONDS.toMillis(60);
+
     private final String serviceRootPath;
     private final CuratorFramework client;
+    private final long readTimeoutMs;
+    private final Collection<TreeCache> watches = new ArrayList<>();
 
     /**
      * Builder for constructing {@link CuratorPersister} instances.
@@ -147,13 +170,20 @@ public class CuratorPersister implements Persister {
 
     @VisibleForTesting
     CuratorPersister(String serviceName, CuratorFramework client) {
+        this(serviceName, client, DEFAULT_READ_TIMEOUT_MS);
+    }
+
+    @VisibleForTesting
+    CuratorPersister(String serviceName, CuratorFramework client, long readTimeoutMs) {
         this.serviceRootPath = CuratorUtils.getServiceRootPath(serviceName);
         this.client = client;
+        this.readTimeoutMs = readTimeoutMs;
         this.client.start();
     }
 
     @Override
     public byte[] get(String unprefixedPath) throws PersisterException {
+        Metrics.incrementStorageOperations();
         final String path = withFrameworkPrefix(unprefixedPath);
         try {
             return client.getData().forPath(path);
@@ -171,6 +201,7 @@ public class CuratorPersister implements Persister {
 
     @Override
     public Collection<String> getChildren(String unprefixedPath) throws PersisterException {
+        Metrics.incrementStorageOperations();
         final String path = withFrameworkPrefix(unprefixedPath);
         try {
             return new TreeSet<>(client.getChildren().forPath(path));
@@ -187,6 +218,7 @@ public class CuratorPersister implements Persister {
 
     @Override
     public void recursiveDelete(String unprefixedPath) throws PersisterException {
+        Metrics.incrementStorageOperations();
         final String path = withFrameworkPrefix(unprefixedPath);
         if (path.equals(serviceRootPath)) {
             // Special case: If we're being told to delete root, we should instead delete the contents OF root. We don't
@@ -246,6 +278,7 @@ public class CuratorPersister implements Persister {
 
     @Override
     public void set(String unprefixedPath, byte[] bytes) throws PersisterException {
+        Metrics.incrementStorageOperations();
         final String path = withFrameworkPrefix(unprefixedPath);
         LOGGER.debug("Setting {} => {}", path, getInfo(bytes));
         try {
@@ -271,6 +304,7 @@ public class CuratorPersister implements Persister {
             pathBytesMap.put(withFrameworkPrefix(entry.getKey()), entry.getValue());
         }
         LOGGER.debug("Updating {} entries: {}", pathBytesMap.size(), pathBytesMap.keySet());
+        Metrics.incrementStorageOperations();
         runTransactionWithRetries(new SetTransactionFactory(pathBytesMap));
     }
 
@@ -283,6 +317,7 @@ public class CuratorPersister implements Persister {
                 .map(unprefixedPath -> withFrameworkPrefix(unprefixedPath))
                 .collect(Collectors.toList());
         LOGGER.debug("Deleting {} entries: {}", paths.size(), paths);
+        Metrics.incrementStorageOperations();
         runTransactionWithRetries(new ClearTransactionFactory(paths));
     }
 
@@ -319,31 +354,204 @@ public class CuratorPersister implements Persister {
         }
         LOGGER.debug("Getting {} entries: {}", unprefixedPaths.size(), unprefixedPaths);
 
-        Map<String, byte[]> result = new TreeMap<>();
-        // Unlike with writes, there is not an atomic read operation. Therefore we wing it with a series of plain reads.
+        // Unlike with writes, there is not an atomic read operation. Therefore we wing it with a series of plain reads,
+        // which are pipelined to avoid waiting on a ZK round trip for each path.
         // We could conceivably add some form of locking here to avoid e.g. a race with another thread doing writes at
         // the same time, but assuming the PersisterCache is enabled, this function wouldn't be getting called anyway,
         // as the PersisterCache would have fetched all the data up-front to be served from memory. If this assumption
         // changes, then it may make sense to look into some form of proper read locking here.
+        Map<String, String> prefixedPaths = new HashMap<>();
         for (String unprefixedPath : unprefixedPaths) {
-            String path = withFrameworkPrefix(unprefixedPath);
-            try {
-                result.put(unprefixedPath, client.getData().forPath(path));
-            } catch (KeeperException.NoNodeException e) {
-                result.put(unprefixedPath, null);
-            } catch (Exception e) {
-                throw new PersisterException(Reason.STORAGE_ERROR,
-                        String.format("Unable to retrieve data from %s", path), e);
+            prefixedPaths.put(unprefixedPath, withFrameworkPrefix(unprefixedPath));
+        }
+        Map<String, CuratorEvent> events = readInBackground(new HashSet<>(prefixedPaths.values()), GET_DATA);
+
+        Map<String, byte[]> result = new TreeMap<>();
+        for (Map.Entry<String, String> entry : prefixedPaths.entrySet()) {
+            CuratorEvent event = events.get(entry.getValue());
+            switch (KeeperException.Code.get(event.getResultCode())) {
+            case OK:
+                result.put(entry.getKey(), event.getData());
+                break;
+            case NONODE:
+                result.put(entry.getKey(), null);
+                break;
+            default:
+                throw getReadException(entry.getValue(), event);
             }
         }
         return result;
     }
 
+    /**
+     * Returns all data under the service root, walking the tree one level at a time. The reads within each level are
+     * pipelined, so the number of ZK round trips scales with the depth of the tree rather than its size.
+     */
+    @Override
+    public Map<String, byte[]> getAll() throws PersisterException {
+        Map<String, byte[]> allData = new TreeMap<>(); // consistent ordering (mainly for tests)
+        Collection<String> parentPaths = Collections.singletonList(serviceRootPath);
+        while (!parentPaths.isEmpty()) {
+            List<String> childPaths = new ArrayList<>();
+            for (Map.Entry<String, CuratorEvent> entry : readInBackground(parentPaths, GET_CHILDREN).entrySet()) {
+                switch (KeeperException.Code.get(entry.getValue().getResultCode())) {
+                case OK:
+                    for (String child : entry.getValue().getChildren()) {
+                        childPaths.add(PersisterUtils.join(entry.getKey(), child));
+                    }
+                    break;
+                case NONODE:
+                    // Missing root, or the node was deleted after its parent was listed. Nothing to add.
+                    break;
+                default:
+                    throw getReadException(entry.getKey(), entry.getValue());
+                }
+            }
+
+            for (Map.Entry<String, CuratorEvent> entry : readInBackground(childPaths, GET_DATA).entrySet()) {
+                switch (KeeperException.Code.get(entry.getValue().getResultCode())) {
+                case OK:
+                    // omit empty parents which lack data of their own:
+                    if (entry.getValue().getData() != null) {
+                        allData.put(entry.getKey().substring(serviceRootPath.length()), entry.getValue().getData());
+                    }
+                    break;
+                case NONODE:
+                    // The node was deleted after its parent was listed. Nothing to add.
+                    break;
+                default:
+                    throw getReadException(entry.getKey(), entry.getValue());
+                }
+            }
+
+            parentPaths = childPaths;
+        }
+        return allData;
+    }
+
+    /**
+     * Issues the provided read against each of the provided (prefixed) paths in the background, with at most
+     * {@link #MAX_IN_FLIGHT_READS} reads outstanding at a time, and returns the result of each read once all of them
+     * have completed. Fails if no outstanding read completes within the read timeout. Each read is counted as a
+     * separate storage operation.
+     */
+    private Map<String, CuratorEvent> readInBackground(Collection<String> paths, BackgroundRead read)
+            throws PersisterException {
+        Map<String, CuratorEvent> events = new ConcurrentHashMap<>();
+        Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT_READS);
+        CountDownLatch remaining = new CountDownLatch(paths.size());
+        try {
+            for (String path : paths) {
+                if (!inFlight.tryAcquire(readTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    throw getReadTimeoutException(paths.size());
+                }
+                Metrics.incrementStorageOperations();
+                try {
+                    read.start(client, path, (curatorClient, event) -> {
+                        events.put(path, event);
+                        inFlight.release();
+                        remaining.countDown();
+                    });
+                } catch (Exception e) {
+                    throw new PersisterException(Reason.STORAGE_ERROR,
+                            String.format("Unable to retrieve data from %s", path), e);
+                }
+            }
+            // Keep waiting for as long as the reads are making progress:
+            long lastRemainingCount = remaining.getCount();
+            while (!remaining.await(readTimeoutMs, TimeUnit.MILLISECONDS)) {
+                if (remaining.getCount() == lastRemainingCount) {
+                    throw getReadTimeoutException(paths.size());
+                }
+                lastRemainingCount = remaining.getCount();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PersisterException(Reason.STORAGE_ERROR,
+                    String.format("Interrupted while retrieving %d entries", paths.size()), e);
+        }
+        return events;
+    }
+
+    private PersisterException getReadTimeoutException(int pathCount) {
+        return new PersisterException(Reason.STORAGE_ERROR, String.format(
+                "Timed out after %dms waiting for a response while retrieving %d entries", readTimeoutMs, pathCount));
+    }
+
+    private static PersisterException getReadException(String path, CuratorEvent event) {
+        return new PersisterException(Reason.STORAGE_ERROR,
+                String.format("Unable to retrieve data from %s", path),
+                KeeperException.create(KeeperException.Code.get(event.getResultCode()), path));
+    }
+
+    /**
+     * Starts watching the service's data in ZK, notifying the provided listener of each change to the data. This
+     * includes changes made via this instance as well as changes made by other clients, e.g. an operator editing ZK
+     * directly. When the watch is first started, the listener is notified of every node which is currently present.
+     * The listener is invoked on a background thread, and any exception that it throws is logged and otherwise ignored.
+     * The watch is stopped when this persister is closed.
+     *
+     * @throws PersisterException if the watch couldn't be started
+     */
+    public void watch(PersisterChangeListener listener) throws PersisterException {
+        TreeCache treeCache = TreeCache.newBuilder(client, serviceRootPath).setCacheData(false).build();
+        treeCache.getListenable().addListener((curatorClient, event) -> {
+            if (event.getData() == null || event.getData().getPath().equals(serviceRootPath)) {
+                // Connection state change, or the root node itself, which is always treated as present.
+                return;
+            }
+            String path = event.getData().getPath().substring(serviceRootPath.length());
+            // Don't let a failure to handle one change interrupt delivery of later changes:
+            try {
+                switch (event.getType()) {
+                case NODE_ADDED:
+                case NODE_UPDATED:
+                    listener.nodeUpdated(path, event.getData().getData());
+                    break;
+                case NODE_REMOVED:
+                    listener.nodeDeleted(path);
+                    break;
+                default:
+                    break;
+                }
+            } catch (RuntimeException e) {
+                LOGGER.error(String.format("Failed to handle %s of %s", event.getType(), path), e);
+            }
+        });
+        try {
+            treeCache.start();
+        } catch (Exception e) {
+            treeCache.close();
+            throw new PersisterException(Reason.STORAGE_ERROR,
+                    String.format("Unable to watch %s", serviceRootPath), e);
+        }
+        synchronized (watches) {
+            watches.add(treeCache);
+        }
+    }
+
     @Override
     public void close() {
+        synchronized (watches) {
+            watches.forEach(TreeCache::close);
+            watches.clear();
+        }
         client.close();
     }
 
+    /**
+     * A read which is issued against ZK in the background, with the result being passed to the provided callback.
+     */
+    private interface BackgroundRead {
+        public void start(CuratorFramework curatorClient, String path, BackgroundCallback callback) throws Exception;
+    }
+
+    private static final BackgroundRead GET_DATA =
+            (curatorClient, path, callback) -> curatorClient.getData().inBackground(callback).forPath(path);
+
+    private static final BackgroundRead GET_CHILDREN =
+            (curatorClient, path, callback) -> curatorClient.getChildren().inBackground(callback).forPath(path);
+
     private interface TransactionFactory {
         public CuratorTransactionFinal build(CuratorFramework client, String serviceRootPath) throws Exception;
     }
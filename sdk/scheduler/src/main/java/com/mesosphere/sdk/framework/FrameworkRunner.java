@@ -89,7 +89,6 @@ public class FrameworkRunner {
         FrameworkScheduler frameworkScheduler = new FrameworkScheduler(
                 frameworkConfig.getAllResourceRoles(),
                 schedulerConfig,
-                persister,
                 frameworkStore,
                 abstractScheduler);
         ApiServer httpServer = ApiServer.start(schedulerConfig, abstractScheduler.getResources(), new Runnable() {
@@ -56,19 +56,34 @@ public class FrameworkScheduler implements Scheduler {
     private TaskCleaner taskCleaner;
     private boolean multithreaded = true;
 
+    /**
+     * @deprecated The provided {@link Persister} is no longer used, as task state is now read via the
+     *     {@link AbstractScheduler}'s {@link StateStore}. Use
+     *     {@link #FrameworkScheduler(Set, SchedulerConfig, FrameworkStore, AbstractScheduler)} instead.
+     */
+    @Deprecated
     public FrameworkScheduler(
             Set<String> frameworkRolesWhitelist,
             SchedulerConfig schedulerConfig,
             Persister persister,
             FrameworkStore frameworkStore,
             AbstractScheduler abstractScheduler) {
+        this(frameworkRolesWhitelist, schedulerConfig, frameworkStore, abstractScheduler);
+    }
+
+    public FrameworkScheduler(
+            Set<String> frameworkRolesWhitelist,
+            SchedulerConfig schedulerConfig,
+            FrameworkStore frameworkStore,
+            AbstractScheduler abstractScheduler) {
         this(
                 frameworkRolesWhitelist,
                 frameworkStore,
                 abstractScheduler,
                 new OfferProcessor(abstractScheduler),
                 new ImplicitReconciler(schedulerConfig),
-                new StateStore(persister));
+                // Share the service's state store, so that its TaskID index reflects newly launched tasks:
+                abstractScheduler.getStateStore());
     }
 
     @VisibleForTesting
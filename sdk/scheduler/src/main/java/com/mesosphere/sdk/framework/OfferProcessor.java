@@ -1,5 +1,6 @@
 package com.mesosphere.sdk.framework;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
@@ -167,7 +168,9 @@ public class OfferProcessor {
      */
     private void processQueuedOffers() {
         LOGGER.info("Waiting for queued offers...");
-        List<Protos.Offer> offers = offerQueue.takeAll();
+        // In single-threaded mode, offers are only enqueued by the thread which is processing them, so there's no
+        // point in waiting for more.
+        List<Protos.Offer> offers = multithreaded ? offerQueue.takeAll() : offerQueue.takeAll(Duration.ZERO);
         try {
             if (offers.isEmpty() && !isInitialized.get()) {
                 // The scheduler hasn't finished registration yet, so many members haven't been initialized either.
@@ -178,10 +181,13 @@ public class OfferProcessor {
 
             // Match offers with work (call into implementation)
             final Timer.Context context = Metrics.getProcessOffersDurationTimer();
+            final long storageOperationCount = Metrics.getStorageOperationCount();
             try {
                 evaluateOffers(offers);
             } finally {
                 context.stop();
+                Metrics.recordOfferCycleStorageOperations(
+                        Metrics.getStorageOperationCount() - storageOperationCount);
             }
         } finally {
             Metrics.incrementProcessedOffers(offers.size());
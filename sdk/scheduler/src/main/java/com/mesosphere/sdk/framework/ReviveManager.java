@@ -14,6 +14,7 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -88,8 +89,23 @@ public class ReviveManager {
      *     kafka-0-broker recovers @ 10:35
      *     kafka-0-broker fails    @ 11:00, it's new work!
      *     ...
+     *
+     * @return whether offers were revived
+     */
+    public boolean revive(Collection<Step> activeWorkSet) {
+        return revive(activeWorkSet, newWork -> true);
+    }
+
+    /**
+     * Revives offers as described in {@link #revive(Collection)}, except that new work only results in a revive if
+     * {@code isReviveUseful} returns {@code true} for the new work. This allows the revive to be skipped if none of the
+     * offers which have been declined could be used by the new work. Reviving clears all of the framework's offer
+     * filters, so that the declined offers would just be sent and declined again. Work whose revive was skipped remains
+     * new, and is checked again on the next call.
+     *
+     * @return whether offers were revived
      */
-    public void revive(Collection<Step> activeWorkSet) {
+    public boolean revive(Collection<Step> activeWorkSet, Predicate<Collection<Step>> isReviveUseful) {
         Set<WorkItem> currCandidates = activeWorkSet.stream()
                 .map(step -> new WorkItem(step))
                 .collect(Collectors.toSet());
@@ -98,8 +114,19 @@ public class ReviveManager {
 
         logger.info("Candidates, old: {}, current: {}, new:{}", this.candidates, currCandidates, newCandidates);
 
+        boolean revived = false;
         if (!newCandidates.isEmpty()) {
-            if (tokenBucket.tryAcquire()) {
+            Collection<Step> newWork = activeWorkSet.stream()
+                    .filter(step -> newCandidates.contains(new WorkItem(step)))
+                    .collect(Collectors.toList());
+            if (!isReviveUseful.test(newWork)) {
+                // The new work has access to all of the offers which it could use, just as if we had revived. It's
+                // still new work though: offers which are declined later may be useful to it, so check it again next
+                // time rather than treating it as having been revived for.
+                logger.info("Skipping revive: no declined offers could be used by new candidates: {}", newCandidates);
+                Metrics.incrementRevivesSkipped();
+                currCandidates.removeAll(newCandidates);
+            } else if (tokenBucket.tryAcquire()) {
                 logger.info(
                         "Reviving offers with candidates, old: {}, current: {}, new:{}",
                         this.candidates,
@@ -113,14 +140,16 @@ public class ReviveManager {
                             "No driver present for reviving offers.  This should never happen.");
                 }
                 Metrics.incrementRevives();
+                revived = true;
             } else {
                 logger.warn("Revive attempt has been throttled.");
                 Metrics.incrementReviveThrottles();
-                return;
+                return false;
             }
         }
 
         this.candidates = currCandidates;
+        return revived;
     }
 
     /**
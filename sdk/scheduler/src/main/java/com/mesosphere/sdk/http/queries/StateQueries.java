@@ -214,6 +214,7 @@ public class StateQueries {
                     stateStore.fetchTaskNames(), stateStore.fetchPropertyKeys());
 
             cache.refresh();
+            stateStore.invalidateCachedState();
 
             LOGGER.info("After:\n- tasks: {}\n- properties: {}",
                     stateStore.fetchTaskNames(), stateStore.fetchPropertyKeys());
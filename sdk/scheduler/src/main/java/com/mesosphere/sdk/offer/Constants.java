@@ -97,6 +97,11 @@ public class Constants {
      */
     public static final int LONG_DECLINE_SECONDS = Math.toIntExact(Duration.ofDays(14).getSeconds());
 
+    /**
+     * The duration in seconds to decline offers which may be useful to pending work, but which weren't used.
+     */
+    public static final int MEDIUM_DECLINE_SECONDS = 60;
+
     /**
      * The duration in seconds to decline offers the scheduler does not need for a short time.
      */
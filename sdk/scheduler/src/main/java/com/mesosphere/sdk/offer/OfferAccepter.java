@@ -1,7 +1,9 @@
 package com.mesosphere.sdk.offer;
 
+import com.codahale.metrics.Timer;
 import com.google.protobuf.TextFormat;
 import com.mesosphere.sdk.framework.Driver;
+import com.mesosphere.sdk.scheduler.Metrics;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.mesos.Protos.Filters;
@@ -42,17 +44,22 @@ public class OfferAccepter {
 
         logOperations(operations);
 
+        Timer.Context context = Metrics.getOfferCyclePhaseTimer(Metrics.OfferCyclePhase.ACCEPT);
         try {
-            record(recommendations);
-        } catch (Exception ex) {
-            LOGGER.error("Failed to record Operations so not launching Task", ex);
-            return Collections.emptyList();
-        }
+            try {
+                record(recommendations);
+            } catch (Exception ex) {
+                LOGGER.error("Failed to record Operations so not launching Task", ex);
+                return Collections.emptyList();
+            }
 
-        if (CollectionUtils.isNotEmpty(operations)) {
-            driver.get().acceptOffers(offerIds, operations, FILTERS);
-        } else {
-            LOGGER.warn("No Operations to perform.");
+            if (CollectionUtils.isNotEmpty(operations)) {
+                driver.get().acceptOffers(offerIds, operations, FILTERS);
+            } else {
+                LOGGER.warn("No Operations to perform.");
+            }
+        } finally {
+            context.stop();
         }
 
         return offerIds;
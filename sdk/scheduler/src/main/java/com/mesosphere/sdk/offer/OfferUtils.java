@@ -52,6 +52,14 @@ public class OfferUtils {
         Metrics.incrementDeclinesLong(unusedOffers.size());
     }
 
+    /**
+     * Declines offers which may be useful to pending work, so that they're offered again without needing a revive.
+     */
+    public static void declineMedium(Collection<Protos.Offer> unusedOffers) {
+        OfferUtils.declineOffers(unusedOffers, Constants.MEDIUM_DECLINE_SECONDS);
+        Metrics.incrementDeclinesMedium(unusedOffers.size());
+    }
+
     /**
      * Decline unused {@link org.apache.mesos.Protos.Offer}s.
      *
@@ -1,5 +1,6 @@
 package com.mesosphere.sdk.offer;
 
+import org.apache.mesos.Protos;
 import org.apache.mesos.Protos.Offer;
 import org.apache.mesos.Protos.Resource;
 import org.slf4j.Logger;
@@ -8,10 +9,13 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.protobuf.TextFormat;
 import com.mesosphere.sdk.scheduler.decommission.DecommissionPlanFactory;
 import com.mesosphere.sdk.scheduler.recovery.FailureUtils;
+import com.mesosphere.sdk.state.GoalStateOverride;
+import com.mesosphere.sdk.state.StateSnapshot;
 import com.mesosphere.sdk.state.StateStore;
 import com.mesosphere.sdk.state.StateStoreException;
 
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -69,13 +73,25 @@ public class ResourceCleaner {
      */
     @VisibleForTesting
     public static Collection<Resource> getExpectedResources(StateStore stateStore) throws StateStoreException {
-        return stateStore.fetchTasks().stream()
+        return getExpectedResources(stateStore.fetchTasks(), stateStore::fetchGoalOverrideStatus);
+    }
+
+    /**
+     * Returns a list of all expected resources, based on the tasks in the provided {@link StateSnapshot}.
+     */
+    public static Collection<Resource> getExpectedResources(StateSnapshot snapshot) {
+        return getExpectedResources(snapshot.getTasks(), snapshot::getGoalOverrideStatus);
+    }
+
+    private static Collection<Resource> getExpectedResources(
+            Collection<Protos.TaskInfo> tasks, Function<String, GoalStateOverride.Status> overrideStatusFetcher) {
+        return tasks.stream()
                 // The task's resources should be unreserved if:
                 // - the task is marked as permanently failed, or
                 // - the task is in the process of being decommissioned
                 .filter(taskInfo ->
                         !FailureUtils.isPermanentlyFailed(taskInfo) &&
-                        !stateStore.fetchGoalOverrideStatus(taskInfo.getName())
+                        !overrideStatusFetcher.apply(taskInfo.getName())
                                 .equals(DecommissionPlanFactory.DECOMMISSIONING_STATUS))
                 .map(ResourceUtils::getAllResources)
                 .flatMap(Collection::stream)
@@ -5,8 +5,11 @@ import com.google.protobuf.TextFormat;
 import com.mesosphere.sdk.http.queries.ArtifactQueries;
 import com.mesosphere.sdk.offer.*;
 import com.mesosphere.sdk.offer.history.OfferOutcome;
+import com.mesosphere.sdk.offer.evaluate.placement.PlacementRule;
+import com.mesosphere.sdk.offer.evaluate.placement.PlacementRuleCompiler;
 import com.mesosphere.sdk.offer.history.OfferOutcomeTracker;
 import com.mesosphere.sdk.offer.taskdata.TaskLabelReader;
+import com.mesosphere.sdk.scheduler.Metrics;
 import com.mesosphere.sdk.scheduler.SchedulerConfig;
 import com.mesosphere.sdk.scheduler.plan.PodInstanceRequirement;
 import com.mesosphere.sdk.scheduler.recovery.FailureUtils;
@@ -14,12 +17,14 @@ import com.mesosphere.sdk.scheduler.recovery.RecoveryType;
 import com.mesosphere.sdk.specification.*;
 import com.mesosphere.sdk.state.FrameworkStore;
 import com.mesosphere.sdk.state.GoalStateOverride;
+import com.mesosphere.sdk.state.StateSnapshot;
 import com.mesosphere.sdk.state.StateStore;
 import org.apache.mesos.Protos;
 import org.slf4j.Logger;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -30,6 +35,8 @@ import java.util.stream.Collectors;
  */
 public class OfferEvaluator {
 
+    private static final String EXISTING_POD_DESCRIPTION = "existing";
+
     private final Logger logger;
     private final FrameworkStore frameworkStore;
     private final StateStore stateStore;
@@ -41,6 +48,53 @@ public class OfferEvaluator {
     private final Optional<String> resourceNamespace;
     private final boolean useDefaultExecutor;
 
+    /**
+     * Evaluation pipelines which have been built against {@link #pipelineCacheSnapshot}, keyed by requirement
+     * instance. A pipeline only depends on the requirement and the state of the service's tasks, and not on the offers
+     * being evaluated, so it may be reused until a different {@link StateSnapshot} is provided.
+     */
+    private final Object pipelineCacheLock = new Object();
+    private final Map<PodInstanceRequirement, EvaluationPipeline> pipelineCache = new IdentityHashMap<>();
+    private StateSnapshot pipelineCacheSnapshot;
+
+    /**
+     * The maximum number of compiled placement rules to retain, beyond which the least recently used rules are evicted.
+     */
+    @VisibleForTesting
+    static final int MAX_COMPILED_PLACEMENT_RULES = 100;
+
+    /**
+     * Compiled forms of the placement rules seen by this instance, which retain cached outcomes across offer cycles.
+     * See {@link PlacementRuleCompiler}.
+     */
+    private final Map<PlacementRule, PlacementRule> compiledPlacementRules =
+            new LinkedHashMap<PlacementRule, PlacementRule>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<PlacementRule, PlacementRule> eldest) {
+                    return size() > MAX_COMPILED_PLACEMENT_RULES;
+                }
+            };
+
+    /**
+     * Builder for the TLS stages of pods with transport encryption, which is retained so that certificate provisioning
+     * continues in the background across offer cycles. Only created once a pod with transport encryption is seen.
+     */
+    private final Object tlsStageBuilderLock = new Object();
+    private TLSEvaluationStage.Builder tlsStageBuilder;
+
+    /**
+     * Offers which have been evaluated since the last call to {@link #resetOfferSuitability()}, according to whether
+     * they passed the cheap checks for at least one requirement, or failed them for at least one requirement.
+     */
+    private final Set<Protos.OfferID> plausibleOfferIds = ConcurrentHashMap.newKeySet();
+    private final Set<Protos.OfferID> unsuitableOfferIds = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Offers which passed the cheap checks for a requirement whose TLS certificates were still being provisioned, and
+     * which that requirement may therefore want again soon. Reset along with the sets above.
+     */
+    private final Set<Protos.OfferID> awaitingTLSArtifactsOfferIds = ConcurrentHashMap.newKeySet();
+
     public OfferEvaluator(
             FrameworkStore frameworkStore,
             StateStore stateStore,
@@ -63,130 +117,379 @@ public class OfferEvaluator {
         this.useDefaultExecutor = useDefaultExecutor;
     }
 
-    public List<OfferRecommendation> evaluate(PodInstanceRequirement podInstanceRequirement, List<Protos.Offer> offers)
-            throws InvalidRequirementException, IOException {
-        // All tasks in the service (used by some PlacementRules):
-        Map<String, Protos.TaskInfo> allTasks = stateStore.fetchTasks().stream()
-                .collect(Collectors.toMap(Protos.TaskInfo::getName, Function.identity()));
-        // Preexisting tasks for this pod (if any):
-        Map<String, Protos.TaskInfo> thisPodTasks =
-                TaskUtils.getTaskNames(podInstanceRequirement.getPodInstance()).stream()
-                .map(taskName -> allTasks.get(taskName))
-                .filter(taskInfo -> taskInfo != null)
-                .collect(Collectors.toMap(Protos.TaskInfo::getName, Function.identity()));
+    /**
+     * Returns the target configuration which was provided to this instance.
+     */
+    public UUID getTargetConfigId() {
+        return targetConfigId;
+    }
 
-        for (int i = 0; i < offers.size(); ++i) {
-            List<OfferEvaluationStage> evaluationStages =
-                    getEvaluationPipeline(podInstanceRequirement, allTasks.values(), thisPodTasks);
+    /**
+     * Starts provisioning TLS certificates in the background for any tasks in the provided requirements which use
+     * transport encryption, so that they may be ready by the time that the requirements are evaluated against offers.
+     */
+    public void provisionTLSArtifacts(Collection<PodInstanceRequirement> podInstanceRequirements) {
+        for (PodInstanceRequirement podInstanceRequirement : podInstanceRequirements) {
+            if (!hasTransportEncryption(podInstanceRequirement)) {
+                continue;
+            }
+            try {
+                getTLSStageBuilder().provision(podInstanceRequirement.getPodInstance());
+            } catch (IOException e) {
+                logger.error(String.format("Failed to start provisioning TLS artifacts for %s",
+                        podInstanceRequirement.getName()), e);
+            }
+        }
+    }
 
-            Protos.Offer offer = offers.get(i);
+    /**
+     * Returns whether TLS certificates for the provided requirement are still being provisioned in the background.
+     * Evaluation of the requirement will fail until they are ready.
+     */
+    private boolean isProvisioningTLSArtifacts(PodInstanceRequirement podInstanceRequirement) {
+        if (!hasTransportEncryption(podInstanceRequirement)) {
+            return false;
+        }
+        synchronized (tlsStageBuilderLock) {
+            return tlsStageBuilder != null && tlsStageBuilder.isProvisioning(podInstanceRequirement.getPodInstance());
+        }
+    }
 
-            MesosResourcePool resourcePool = new MesosResourcePool(
-                    offer, OfferEvaluationUtils.getRole(podInstanceRequirement.getPodInstance().getPod()));
+    /**
+     * Returns whether the provided offer passes the cheap checks for the provided requirement, e.g. whether it's large
+     * enough for the requirement's new resources and whether it passes the requirement's placement rule. An offer which
+     * fails these checks can't be used by the requirement, while an offer which passes them may or may not be usable.
+     */
+    public boolean isPlausible(
+            PodInstanceRequirement podInstanceRequirement, StateSnapshot snapshot, Protos.Offer offer)
+            throws IOException {
+        return !getCachedEvaluationPipeline(podInstanceRequirement, snapshot)
+                .getFastRejection(offer, podInstanceRequirement.getPodInstance())
+                .isPresent();
+    }
 
-            Map<TaskSpec, GoalStateOverride> overrideMap = new HashMap<>();
-            for (TaskSpec taskSpec : podInstanceRequirement.getPodInstance().getPod().getTasks()) {
-                GoalStateOverride override =
-                        stateStore.fetchGoalOverrideStatus(
-                                TaskSpec.getInstanceName(podInstanceRequirement.getPodInstance(), taskSpec))
-                                .target;
+    /**
+     * Returns whether the provided offer has passed the cheap checks for at least one requirement which it was
+     * evaluated against since the last call to {@link #resetOfferSuitability()}.
+     */
+    public boolean wasPlausible(Protos.OfferID offerId) {
+        return plausibleOfferIds.contains(offerId);
+    }
 
-                overrideMap.put(taskSpec, override);
-            }
+    /**
+     * Returns whether the provided offer has failed the cheap checks for every requirement which it was evaluated
+     * against since the last call to {@link #resetOfferSuitability()}, and was evaluated against at least one.
+     */
+    public boolean wasUnsuitable(Protos.OfferID offerId) {
+        return unsuitableOfferIds.contains(offerId) && !plausibleOfferIds.contains(offerId);
+    }
 
-            PodInfoBuilder podInfoBuilder = new PodInfoBuilder(
-                    podInstanceRequirement,
-                    serviceName,
-                    getTargetConfig(podInstanceRequirement, thisPodTasks.values()),
-                    templateUrlFactory,
-                    schedulerConfig,
-                    thisPodTasks.values(),
-                    frameworkStore.fetchFrameworkId().get(),
-                    useDefaultExecutor,
-                    overrideMap);
-            List<EvaluationOutcome> outcomes = new ArrayList<>();
-            int failedOutcomeCount = 0;
-
-            for (OfferEvaluationStage evaluationStage : evaluationStages) {
-                EvaluationOutcome outcome = evaluationStage.evaluate(resourcePool, podInfoBuilder);
-                outcomes.add(outcome);
-                if (!outcome.isPassing()) {
-                    failedOutcomeCount++;
-                }
+    /**
+     * Returns whether the provided offer has passed the cheap checks for at least one requirement which was waiting on
+     * its TLS certificates to be provisioned, since the last call to {@link #resetOfferSuitability()}.
+     */
+    public boolean wasAwaitingTLSArtifacts(Protos.OfferID offerId) {
+        return awaitingTLSArtifactsOfferIds.contains(offerId);
+    }
+
+    /**
+     * Forgets the offers which have been evaluated so far. This should be invoked at the start of each offer cycle.
+     */
+    public void resetOfferSuitability() {
+        plausibleOfferIds.clear();
+        unsuitableOfferIds.clear();
+        awaitingTLSArtifactsOfferIds.clear();
+    }
+
+    /**
+     * Evaluates the provided offers against the provided requirement, using the current content of the
+     * {@link StateStore}. See {@link #evaluate(PodInstanceRequirement, StateSnapshot, List)}.
+     */
+    public List<OfferRecommendation> evaluate(PodInstanceRequirement podInstanceRequirement, List<Protos.Offer> offers)
+            throws InvalidRequirementException, IOException {
+        return evaluate(podInstanceRequirement, StateSnapshot.create(stateStore, targetConfigId), offers);
+    }
+
+    /**
+     * Evaluates the provided offers against the provided requirement, returning recommendations for the first offer
+     * which passes evaluation, or an empty list if no offers pass.
+     *
+     * @param podInstanceRequirement the requirement to be fulfilled
+     * @param snapshot the service's tasks and target configuration for the current offer cycle
+     * @param offers the offers to be evaluated, in order of preference
+     */
+    public List<OfferRecommendation> evaluate(
+            PodInstanceRequirement podInstanceRequirement, StateSnapshot snapshot, List<Protos.Offer> offers)
+            throws InvalidRequirementException, IOException {
+        if (offers.isEmpty()) {
+            return Collections.emptyList();
+        }
+        EvaluationPipeline pipeline = getCachedEvaluationPipeline(podInstanceRequirement, snapshot);
+        boolean awaitingTLSArtifacts = isProvisioningTLSArtifacts(podInstanceRequirement);
+
+        List<OfferEvaluation> evaluations = new ArrayList<>();
+        for (Protos.Offer offer : offers) {
+            OfferEvaluation evaluation = evaluateOffer(podInstanceRequirement, pipeline, awaitingTLSArtifacts, offer);
+            evaluations.add(evaluation);
+            if (evaluation.isPassing()) {
+                break;
             }
+        }
+        return recordEvaluations(podInstanceRequirement, evaluations);
+    }
+
+    /**
+     * Evaluates a single offer against the provided requirement, without logging or tracking the result. This allows
+     * offers to be evaluated concurrently against several requirements, where only some of the results end up being
+     * used. The results which are used should then be passed to {@link #recordEvaluations(PodInstanceRequirement,
+     * List)}.
+     *
+     * @param podInstanceRequirement the requirement to be fulfilled
+     * @param snapshot the service's tasks and target configuration for the current offer cycle
+     * @param offer the offer to be evaluated
+     */
+    public OfferEvaluation evaluateOffer(
+            PodInstanceRequirement podInstanceRequirement, StateSnapshot snapshot, Protos.Offer offer)
+            throws InvalidRequirementException, IOException {
+        return evaluateOffer(
+                podInstanceRequirement,
+                getCachedEvaluationPipeline(podInstanceRequirement, snapshot),
+                isProvisioningTLSArtifacts(podInstanceRequirement),
+                offer);
+    }
 
-            StringBuilder outcomeDetails = new StringBuilder();
-            for (EvaluationOutcome outcome : outcomes) {
-                logOutcome(outcomeDetails, outcome, "");
+    /**
+     * Logs and tracks the provided evaluations of offers against the provided requirement, in the order that the offers
+     * were considered, up to and including the first evaluation which passed. This has the same effect as if the
+     * offers had been passed to {@link #evaluate(PodInstanceRequirement, StateSnapshot, List)}.
+     *
+     * @return the recommendations from the first passing evaluation, or an empty list if none passed
+     */
+    public List<OfferRecommendation> recordEvaluations(
+            PodInstanceRequirement podInstanceRequirement, List<OfferEvaluation> evaluations) {
+        for (int i = 0; i < evaluations.size(); ++i) {
+            OfferEvaluation evaluation = evaluations.get(i);
+            recordEvaluation(podInstanceRequirement, evaluation, i);
+            if (evaluation.isPassing()) {
+                Metrics.recordOffersScanned(i + 1);
+                return evaluation.recommendations;
             }
-            if (outcomeDetails.length() != 0) {
-                // trim extra trailing newline:
-                outcomeDetails.deleteCharAt(outcomeDetails.length() - 1);
+        }
+        if (!evaluations.isEmpty()) {
+            Metrics.recordOffersScanned(evaluations.size());
+        }
+        return Collections.emptyList();
+    }
+
+    private OfferEvaluation evaluateOffer(
+            PodInstanceRequirement podInstanceRequirement,
+            EvaluationPipeline pipeline,
+            boolean awaitingTLSArtifacts,
+            Protos.Offer offer) throws InvalidRequirementException {
+        Optional<EvaluationOutcome> rejection =
+                pipeline.getFastRejection(offer, podInstanceRequirement.getPodInstance());
+        if (rejection.isPresent() && !schedulerConfig.isOfferEvaluationDebugEnabled()) {
+            // Most offers are rejected. Skip the full pipeline (and its diagnostics) for offers which fail the cheap
+            // checks.
+            return new OfferEvaluation(offer, rejection, awaitingTLSArtifacts);
+        }
+
+        MesosResourcePool resourcePool = new MesosResourcePool(
+                offer, OfferEvaluationUtils.getRole(podInstanceRequirement.getPodInstance().getPod()));
+
+        PodInfoBuilder podInfoBuilder = new PodInfoBuilder(
+                podInstanceRequirement,
+                serviceName,
+                pipeline.targetConfigId,
+                templateUrlFactory,
+                schedulerConfig,
+                pipeline.thisPodTasks.values(),
+                pipeline.frameworkId,
+                useDefaultExecutor,
+                pipeline.overrideMap);
+        List<EvaluationOutcome> outcomes = new ArrayList<>();
+        long[] stageDurationsNanos = new long[pipeline.stages.size()];
+        int failedOutcomeCount = 0;
+
+        for (int i = 0; i < pipeline.stages.size(); ++i) {
+            long stageStartNanos = System.nanoTime();
+            EvaluationOutcome outcome = pipeline.stages.get(i).evaluate(resourcePool, podInfoBuilder);
+            stageDurationsNanos[i] = System.nanoTime() - stageStartNanos;
+            outcomes.add(outcome);
+            if (!outcome.isPassing()) {
+                failedOutcomeCount++;
             }
+        }
 
-            if (failedOutcomeCount != 0) {
-                logger.info("Offer {}, {}: failed {} of {} evaluation stages:\n{}",
-                        i + 1,
-                        offer.getId().getValue(),
-                        failedOutcomeCount,
-                        evaluationStages.size(),
-                        outcomeDetails.toString());
-
-                offerOutcomeTracker.track(new OfferOutcome(
-                        podInstanceRequirement.getName(),
-                        false,
-                        offer,
-                        outcomeDetails.toString()));
-            } else {
-                List<OfferRecommendation> recommendations = outcomes.stream()
+        StringBuilder outcomeDetails = new StringBuilder();
+        for (EvaluationOutcome outcome : outcomes) {
+            logOutcome(outcomeDetails, outcome, "");
+        }
+        if (outcomeDetails.length() != 0) {
+            // trim extra trailing newline:
+            outcomeDetails.deleteCharAt(outcomeDetails.length() - 1);
+        }
+
+        List<OfferRecommendation> recommendations = failedOutcomeCount != 0
+                ? Collections.emptyList()
+                : outcomes.stream()
                         .map(outcome -> outcome.getOfferRecommendations())
                         .flatMap(xs -> xs.stream())
                         .collect(Collectors.toList());
-                logger.info("Offer {}: passed all {} evaluation stages, returning {} recommendations:\n{}",
-                        i + 1, evaluationStages.size(), recommendations.size(), outcomeDetails.toString());
+        return new OfferEvaluation(
+                offer,
+                rejection,
+                awaitingTLSArtifacts,
+                pipeline.stages,
+                stageDurationsNanos,
+                failedOutcomeCount,
+                outcomeDetails.toString(),
+                recommendations);
+    }
 
-                offerOutcomeTracker.track(new OfferOutcome(
-                        podInstanceRequirement.getName(),
-                        true,
-                        offer,
-                        outcomeDetails.toString()));
+    private void recordEvaluation(
+            PodInstanceRequirement podInstanceRequirement, OfferEvaluation evaluation, int index) {
+        Protos.Offer offer = evaluation.offer;
+        if (evaluation.fastRejection.isPresent()) {
+            unsuitableOfferIds.add(offer.getId());
+        } else {
+            plausibleOfferIds.add(offer.getId());
+            if (evaluation.awaitingTLSArtifacts) {
+                awaitingTLSArtifactsOfferIds.add(offer.getId());
+            }
+        }
+
+        if (!evaluation.stagesEvaluated) {
+            // Rejected by the cheap checks, without running the full pipeline.
+            logger.info("Offer {}, {}: rejected: {}",
+                    index + 1, offer.getId().getValue(), evaluation.fastRejection.get());
+            Metrics.incrementOffersFastRejected();
+            offerOutcomeTracker.track(new OfferOutcome(
+                    podInstanceRequirement.getName(),
+                    false,
+                    offer,
+                    evaluation.fastRejection.get().toString()));
+            return;
+        }
+
+        for (int i = 0; i < evaluation.stages.size(); ++i) {
+            Metrics.recordEvaluationStageDuration(evaluation.stages.get(i), evaluation.stageDurationsNanos[i]);
+        }
+
+        if (evaluation.failedOutcomeCount != 0) {
+            logger.info("Offer {}, {}: failed {} of {} evaluation stages:\n{}",
+                    index + 1,
+                    offer.getId().getValue(),
+                    evaluation.failedOutcomeCount,
+                    evaluation.stages.size(),
+                    evaluation.outcomeDetails);
+
+            offerOutcomeTracker.track(new OfferOutcome(
+                    podInstanceRequirement.getName(),
+                    false,
+                    offer,
+                    evaluation.outcomeDetails));
+        } else {
+            logger.info("Offer {}: passed all {} evaluation stages, returning {} recommendations:\n{}",
+                    index + 1, evaluation.stages.size(), evaluation.recommendations.size(), evaluation.outcomeDetails);
+
+            offerOutcomeTracker.track(new OfferOutcome(
+                    podInstanceRequirement.getName(),
+                    true,
+                    offer,
+                    evaluation.outcomeDetails));
+        }
+    }
 
-                return recommendations;
+    /**
+     * Returns the evaluation pipeline for the provided requirement and snapshot, building it if it isn't already
+     * cached.
+     */
+    private EvaluationPipeline getCachedEvaluationPipeline(
+            PodInstanceRequirement podInstanceRequirement, StateSnapshot snapshot) throws IOException {
+        synchronized (pipelineCacheLock) {
+            if (pipelineCacheSnapshot == snapshot) {
+                EvaluationPipeline pipeline = pipelineCache.get(podInstanceRequirement);
+                if (pipeline != null) {
+                    Metrics.incrementEvaluationPipelinesReused();
+                    return pipeline;
+                }
             }
         }
 
-        return Collections.emptyList();
+        // Build outside the lock: with concurrent evaluation, requirements shouldn't wait on each other's pipelines.
+        // Multiple threads may end up building the same pipeline, in which case the last one wins.
+        EvaluationPipeline pipeline = buildEvaluationPipeline(podInstanceRequirement, snapshot);
+        Metrics.incrementEvaluationPipelinesBuilt();
+
+        synchronized (pipelineCacheLock) {
+            if (pipelineCacheSnapshot != snapshot) {
+                // New snapshot: pipelines built against the previous snapshot are no longer valid.
+                pipelineCache.clear();
+                pipelineCacheSnapshot = snapshot;
+            }
+            pipelineCache.put(podInstanceRequirement, pipeline);
+        }
+        return pipeline;
+    }
+
+    private EvaluationPipeline buildEvaluationPipeline(
+            PodInstanceRequirement podInstanceRequirement, StateSnapshot snapshot) throws IOException {
+        // All tasks in the service (used by some PlacementRules):
+        Map<String, Protos.TaskInfo> allTasks = snapshot.getTasksByName();
+        // Preexisting tasks for this pod (if any):
+        Map<String, Protos.TaskInfo> thisPodTasks =
+                TaskUtils.getTaskNames(podInstanceRequirement.getPodInstance()).stream()
+                .map(taskName -> allTasks.get(taskName))
+                .filter(taskInfo -> taskInfo != null)
+                .collect(Collectors.toMap(Protos.TaskInfo::getName, Function.identity()));
+
+        Map<TaskSpec, GoalStateOverride> overrideMap = new HashMap<>();
+        for (TaskSpec taskSpec : podInstanceRequirement.getPodInstance().getPod().getTasks()) {
+            GoalStateOverride override =
+                    snapshot.getGoalOverrideStatus(
+                            TaskSpec.getInstanceName(podInstanceRequirement.getPodInstance(), taskSpec))
+                            .target;
+
+            overrideMap.put(taskSpec, override);
+        }
+
+        List<OfferEvaluationStage> stages = getEvaluationPipeline(podInstanceRequirement, snapshot, thisPodTasks);
+
+        // Cheap checks which may be run ahead of the full pipeline. These must never reject an offer which would have
+        // passed the full pipeline.
+        Optional<PlacementRuleEvaluationStage> placementRuleStage = stages.stream()
+                .filter(stage -> stage instanceof PlacementRuleEvaluationStage)
+                .map(stage -> (PlacementRuleEvaluationStage) stage)
+                .findFirst();
+        // Only new pods reserve all of their resources from the offer. Existing pods may use resources which are
+        // already reserved, and which may not all be present in the offer.
+        Optional<ResourceTotalsFilter> resourceTotalsFilter =
+                EXISTING_POD_DESCRIPTION.equals(getPodDescription(podInstanceRequirement, thisPodTasks))
+                        ? Optional.empty()
+                        : Optional.of(ResourceTotalsFilter.forResourceSets(
+                                getNewResourceSets(podInstanceRequirement).values(),
+                                podInstanceRequirement.getPodInstance().getPod().getVolumes()));
+
+        return new EvaluationPipeline(
+                stages,
+                placementRuleStage,
+                resourceTotalsFilter,
+                thisPodTasks,
+                overrideMap,
+                getTargetConfig(podInstanceRequirement, snapshot.getTargetConfigId(), thisPodTasks.values()),
+                frameworkStore.fetchFrameworkId().get());
     }
 
     public List<OfferEvaluationStage> getEvaluationPipeline(
             PodInstanceRequirement podInstanceRequirement,
-            Collection<Protos.TaskInfo> allTasks,
+            StateSnapshot snapshot,
             Map<String, Protos.TaskInfo> thisPodTasks) throws IOException {
+        // Shared by all placement rule evaluations against the snapshot:
+        Collection<Protos.TaskInfo> allTasks = snapshot.getPlacementTaskIndex();
 
-        boolean noLaunchedTasksExist = thisPodTasks.values().stream()
-                .flatMap(taskInfo -> taskInfo.getResourcesList().stream())
-                .map(resource -> ResourceUtils.getResourceId(resource))
-                .filter(resourceId -> resourceId.isPresent())
-                .map(Optional::get)
-                .filter(resourceId -> !resourceId.isEmpty())
-                .count() == 0;
-
-        boolean allTasksFailed =
-                thisPodTasks.size() > 0 &&
-                thisPodTasks.values().stream().allMatch(taskInfo -> FailureUtils.isPermanentlyFailed(taskInfo));
-
-        final String description;
-        final boolean shouldGetNewRequirement;
-        if (podInstanceRequirement.getRecoveryType().equals(RecoveryType.PERMANENT) || allTasksFailed) {
-            description = "failed";
-            shouldGetNewRequirement = true;
-        } else if (noLaunchedTasksExist) {
-            description = "new";
-            shouldGetNewRequirement = true;
-        } else {
-            description = "existing";
-            shouldGetNewRequirement = false;
-        }
+        final String description = getPodDescription(podInstanceRequirement, thisPodTasks);
+        final boolean shouldGetNewRequirement = !EXISTING_POD_DESCRIPTION.equals(description);
         logger.info("Generating requirement for {} pod '{}' containing tasks: {}",
                 description,
                 podInstanceRequirement.getPodInstance().getName(),
@@ -194,10 +497,8 @@ public class OfferEvaluator {
 
         // Only create a TLS Evaluation Stage builder if the service actually uses TLS certs.
         // This avoids performing TLS cert generation in cases where the cluster may not support it (e.g. DC/OS Open).
-        boolean anyTasksWithTLS = podInstanceRequirement.getPodInstance().getPod().getTasks().stream()
-                .anyMatch(taskSpec -> !taskSpec.getTransportEncryption().isEmpty());
-        Optional<TLSEvaluationStage.Builder> tlsStageBuilder = anyTasksWithTLS
-                ? Optional.of(new TLSEvaluationStage.Builder(serviceName, schedulerConfig))
+        Optional<TLSEvaluationStage.Builder> tlsStageBuilder = hasTransportEncryption(podInstanceRequirement)
+                ? Optional.of(getTLSStageBuilder())
                 : Optional.empty();
 
         List<OfferEvaluationStage> evaluationPipeline = new ArrayList<>();
@@ -205,7 +506,8 @@ public class OfferEvaluator {
             evaluationPipeline.add(new ExecutorEvaluationStage(serviceName, Optional.empty()));
             evaluationPipeline.addAll(getNewEvaluationPipeline(podInstanceRequirement, allTasks, tlsStageBuilder));
         } else {
-            Protos.ExecutorInfo executorInfo = getExecutorInfo(podInstanceRequirement, thisPodTasks.values());
+            Protos.ExecutorInfo executorInfo =
+                    getExecutorInfo(podInstanceRequirement, snapshot, thisPodTasks.values());
 
             // An empty ExecutorID indicates we should use a new Executor, otherwise we should attempt to launch
             // tasks on an already running Executor.
@@ -222,8 +524,50 @@ public class OfferEvaluator {
         return evaluationPipeline;
     }
 
+    private static boolean hasTransportEncryption(PodInstanceRequirement podInstanceRequirement) {
+        return podInstanceRequirement.getPodInstance().getPod().getTasks().stream()
+                .anyMatch(taskSpec -> !taskSpec.getTransportEncryption().isEmpty());
+    }
+
+    private TLSEvaluationStage.Builder getTLSStageBuilder() throws IOException {
+        synchronized (tlsStageBuilderLock) {
+            if (tlsStageBuilder == null) {
+                tlsStageBuilder = new TLSEvaluationStage.Builder(serviceName, schedulerConfig);
+            }
+            return tlsStageBuilder;
+        }
+    }
+
+    /**
+     * Returns a description of the provided requirement's pod: "new" or "failed" if the pod is to be launched from
+     * scratch, or "existing" if the pod has reserved resources which should be reused.
+     */
+    private static String getPodDescription(
+            PodInstanceRequirement podInstanceRequirement, Map<String, Protos.TaskInfo> thisPodTasks) {
+        boolean noLaunchedTasksExist = thisPodTasks.values().stream()
+                .flatMap(taskInfo -> taskInfo.getResourcesList().stream())
+                .map(resource -> ResourceUtils.getResourceId(resource))
+                .filter(resourceId -> resourceId.isPresent())
+                .map(Optional::get)
+                .filter(resourceId -> !resourceId.isEmpty())
+                .count() == 0;
+
+        boolean allTasksFailed =
+                thisPodTasks.size() > 0 &&
+                thisPodTasks.values().stream().allMatch(taskInfo -> FailureUtils.isPermanentlyFailed(taskInfo));
+
+        if (podInstanceRequirement.getRecoveryType().equals(RecoveryType.PERMANENT) || allTasksFailed) {
+            return "failed";
+        } else if (noLaunchedTasksExist) {
+            return "new";
+        } else {
+            return EXISTING_POD_DESCRIPTION;
+        }
+    }
+
     private Protos.ExecutorInfo getExecutorInfo(
             PodInstanceRequirement podInstanceRequirement,
+            StateSnapshot snapshot,
             Collection<Protos.TaskInfo> taskInfos) {
         // Filter which tasks are candidates for executor reuse.  Don't try to reuse your own executor.
         List<String> taskNames = TaskUtils.getTaskNames(
@@ -234,7 +578,7 @@ public class OfferEvaluator {
                 .collect(Collectors.toList());
 
         for (Protos.TaskInfo taskInfo : executorReuseCandidates) {
-            if (taskHasReusableExecutor(taskInfo)) {
+            if (taskHasReusableExecutor(snapshot, taskInfo)) {
                 logger.info("Using existing executor: {}", TextFormat.shortDebugString(taskInfo.getExecutor()));
                 return taskInfo.getExecutor();
             }
@@ -251,8 +595,8 @@ public class OfferEvaluator {
         return executorInfo;
     }
 
-    private boolean taskHasReusableExecutor(Protos.TaskInfo taskInfo) {
-        Optional<Protos.TaskStatus> taskStatus = stateStore.fetchStatus(taskInfo.getName());
+    private static boolean taskHasReusableExecutor(StateSnapshot snapshot, Protos.TaskInfo taskInfo) {
+        Optional<Protos.TaskStatus> taskStatus = snapshot.getStatus(taskInfo.getName());
         if (!taskStatus.isPresent() || FailureUtils.isPermanentlyFailed(taskInfo)) {
             return false;
         }
@@ -323,6 +667,17 @@ public class OfferEvaluator {
         return resourceSpecs;
     }
 
+    private PlacementRule getCompiledPlacementRule(PodInstanceRequirement podInstanceRequirement) {
+        return getCompiledPlacementRule(podInstanceRequirement.getPodInstance().getPod().getPlacementRule().get());
+    }
+
+    @VisibleForTesting
+    PlacementRule getCompiledPlacementRule(PlacementRule placementRule) {
+        synchronized (compiledPlacementRules) {
+            return compiledPlacementRules.computeIfAbsent(placementRule, rule -> PlacementRuleCompiler.compile(rule));
+        }
+    }
+
     private List<OfferEvaluationStage> getNewEvaluationPipeline(
             PodInstanceRequirement podInstanceRequirement,
             Collection<Protos.TaskInfo> allTasks,
@@ -330,7 +685,7 @@ public class OfferEvaluator {
         List<OfferEvaluationStage> evaluationStages = new ArrayList<>();
         if (podInstanceRequirement.getPodInstance().getPod().getPlacementRule().isPresent()) {
             evaluationStages.add(new PlacementRuleEvaluationStage(
-                    allTasks, podInstanceRequirement.getPodInstance().getPod().getPlacementRule().get()));
+                    allTasks, getCompiledPlacementRule(podInstanceRequirement)));
         }
 
         for (VolumeSpec volumeSpec : podInstanceRequirement.getPodInstance().getPod().getVolumes()) {
@@ -455,7 +810,7 @@ public class OfferEvaluator {
         if (podInstanceRequirement.getPodInstance().getPod().getPlacementRule().isPresent() &&
                 podInstanceRequirement.getRecoveryType().equals(RecoveryType.PERMANENT)) {
             evaluationStages.add(new PlacementRuleEvaluationStage(
-                    allTasks, podInstanceRequirement.getPodInstance().getPod().getPlacementRule().get()));
+                    allTasks, getCompiledPlacementRule(podInstanceRequirement)));
         }
 
         ResourceSpec firstResource = taskSpecs.get(0).getResourceSet().getResources().iterator().next();
@@ -528,6 +883,13 @@ public class OfferEvaluator {
 
     @VisibleForTesting
     UUID getTargetConfig(PodInstanceRequirement podInstanceRequirement, Collection<Protos.TaskInfo> taskInfos) {
+        return getTargetConfig(podInstanceRequirement, targetConfigId, taskInfos);
+    }
+
+    private UUID getTargetConfig(
+            PodInstanceRequirement podInstanceRequirement,
+            UUID targetConfigId,
+            Collection<Protos.TaskInfo> taskInfos) {
         if (podInstanceRequirement.getRecoveryType().equals(RecoveryType.NONE) || taskInfos.isEmpty()) {
             return targetConfigId;
         } else {
@@ -552,4 +914,111 @@ public class OfferEvaluator {
         }
     }
 
+
+    /**
+     * The offer-independent inputs to evaluating a {@link PodInstanceRequirement}. The stages do not hold any
+     * per-offer state, so a single pipeline may be evaluated against any number of offers.
+     */
+    private static class EvaluationPipeline {
+        private final List<OfferEvaluationStage> stages;
+        private final Optional<PlacementRuleEvaluationStage> placementRuleStage;
+        private final Optional<ResourceTotalsFilter> resourceTotalsFilter;
+        private final Map<String, Protos.TaskInfo> thisPodTasks;
+        private final Map<TaskSpec, GoalStateOverride> overrideMap;
+        private final UUID targetConfigId;
+        private final Protos.FrameworkID frameworkId;
+
+        private EvaluationPipeline(
+                List<OfferEvaluationStage> stages,
+                Optional<PlacementRuleEvaluationStage> placementRuleStage,
+                Optional<ResourceTotalsFilter> resourceTotalsFilter,
+                Map<String, Protos.TaskInfo> thisPodTasks,
+                Map<TaskSpec, GoalStateOverride> overrideMap,
+                UUID targetConfigId,
+                Protos.FrameworkID frameworkId) {
+            this.stages = Collections.unmodifiableList(stages);
+            this.placementRuleStage = placementRuleStage;
+            this.resourceTotalsFilter = resourceTotalsFilter;
+            this.thisPodTasks = Collections.unmodifiableMap(thisPodTasks);
+            this.overrideMap = Collections.unmodifiableMap(overrideMap);
+            this.targetConfigId = targetConfigId;
+            this.frameworkId = frameworkId;
+        }
+
+        /**
+         * Runs the cheap checks against the provided offer, stopping at the first failure. Returns the failing
+         * outcome, or an empty {@link Optional} if the offer may pass the full pipeline.
+         */
+        private Optional<EvaluationOutcome> getFastRejection(Protos.Offer offer, PodInstance podInstance) {
+            if (resourceTotalsFilter.isPresent()) {
+                EvaluationOutcome outcome = resourceTotalsFilter.get().evaluate(offer);
+                if (!outcome.isPassing()) {
+                    return Optional.of(outcome);
+                }
+            }
+            if (placementRuleStage.isPresent()) {
+                EvaluationOutcome outcome = placementRuleStage.get().evaluate(offer, podInstance);
+                if (!outcome.isPassing()) {
+                    return Optional.of(outcome);
+                }
+            }
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * The result of evaluating a single offer against a requirement, which hasn't been logged or tracked yet. See
+     * {@link #evaluateOffer(PodInstanceRequirement, StateSnapshot, Protos.Offer)}.
+     */
+    public static class OfferEvaluation {
+        private final Protos.Offer offer;
+        private final Optional<EvaluationOutcome> fastRejection;
+        private final boolean awaitingTLSArtifacts;
+        private final boolean stagesEvaluated;
+        private final List<OfferEvaluationStage> stages;
+        private final long[] stageDurationsNanos;
+        private final int failedOutcomeCount;
+        private final String outcomeDetails;
+        private final List<OfferRecommendation> recommendations;
+
+        private OfferEvaluation(
+                Protos.Offer offer, Optional<EvaluationOutcome> fastRejection, boolean awaitingTLSArtifacts) {
+            this.offer = offer;
+            this.fastRejection = fastRejection;
+            this.awaitingTLSArtifacts = awaitingTLSArtifacts;
+            this.stagesEvaluated = false;
+            this.stages = Collections.emptyList();
+            this.stageDurationsNanos = new long[0];
+            this.failedOutcomeCount = 0;
+            this.outcomeDetails = "";
+            this.recommendations = Collections.emptyList();
+        }
+
+        private OfferEvaluation(
+                Protos.Offer offer,
+                Optional<EvaluationOutcome> fastRejection,
+                boolean awaitingTLSArtifacts,
+                List<OfferEvaluationStage> stages,
+                long[] stageDurationsNanos,
+                int failedOutcomeCount,
+                String outcomeDetails,
+                List<OfferRecommendation> recommendations) {
+            this.offer = offer;
+            this.fastRejection = fastRejection;
+            this.awaitingTLSArtifacts = awaitingTLSArtifacts;
+            this.stagesEvaluated = true;
+            this.stages = stages;
+            this.stageDurationsNanos = stageDurationsNanos;
+            this.failedOutcomeCount = failedOutcomeCount;
+            this.outcomeDetails = outcomeDetails;
+            this.recommendations = recommendations;
+        }
+
+        /**
+         * Returns whether the offer passed all evaluation stages, in which case it may be used by the requirement.
+         */
+        public boolean isPassing() {
+            return stagesEvaluated && failedOutcomeCount == 0;
+        }
+    }
 }
@@ -2,6 +2,7 @@ package com.mesosphere.sdk.offer.evaluate;
 
 import com.mesosphere.sdk.offer.MesosResourcePool;
 import com.mesosphere.sdk.offer.evaluate.placement.PlacementRule;
+import com.mesosphere.sdk.specification.PodInstance;
 import org.apache.mesos.Protos;
 
 import java.util.Collection;
@@ -24,13 +25,18 @@ public class PlacementRuleEvaluationStage implements OfferEvaluationStage {
 
     @Override
     public EvaluationOutcome evaluate(MesosResourcePool mesosResourcePool, PodInfoBuilder podInfoBuilder) {
+        return evaluate(mesosResourcePool.getOffer(), podInfoBuilder.getPodInstance());
+    }
+
+    /**
+     * Evaluates the provided offer for the provided pod instance. This stage only looks at the offer's attributes and
+     * doesn't consume any resources, so it may be run on its own to quickly reject offers.
+     */
+    public EvaluationOutcome evaluate(Protos.Offer offer, PodInstance podInstance) {
         if (placementRule == null) {
             return pass(this, "No placement rule defined").build();
         }
 
-        return placementRule.filter(
-                mesosResourcePool.getOffer(),
-                podInfoBuilder.getPodInstance(),
-                deployedTasks);
+        return placementRule.filter(offer, podInstance, deployedTasks);
     }
 }
@@ -38,7 +38,8 @@ public class PodInfoBuilder {
     private static final String CONFIG_TEMPLATE_KEY_FORMAT = "CONFIG_TEMPLATE_%s";
     private static final String CONFIG_TEMPLATE_DOWNLOAD_PATH = "config-templates/";
 
-    private final Set<Long> assignedOverlayPorts = new HashSet<>();
+    private final PortAllocator overlayPorts = new PortAllocator();
+    private final PortAllocator hostPorts = new PortAllocator();
     private final Map<String, Protos.TaskInfo.Builder> taskBuilders = new HashMap<>();
     private final Protos.ExecutorInfo.Builder executorBuilder;
     private final PodInstance podInstance;
@@ -74,11 +75,15 @@ public class PodInfoBuilder {
             // as we're only looking at tasks within a given pod
             this.taskBuilders.put(taskSpec.getName(), taskInfoBuilder);
 
+            // Avoid dynamically assigning any ports which are explicitly requested elsewhere in the pod.
             taskSpec.getResourceSet().getResources().stream()
                     .filter(resourceSpec -> resourceSpec.getName().equals(Constants.PORTS_RESOURCE_TYPE))
                     .filter(resourceSpec -> resourceSpec.getValue().getRanges().getRange(0).getBegin() > 0)
-                    .forEach(resourceSpec -> assignedOverlayPorts
-                            .add(resourceSpec.getValue().getRanges().getRange(0).getBegin()));
+                    .forEach(resourceSpec -> {
+                        long port = resourceSpec.getValue().getRanges().getRange(0).getBegin();
+                        overlayPorts.claim(port);
+                        hostPorts.claim(port);
+                    });
 
         }
 
@@ -140,16 +145,36 @@ public class PodInfoBuilder {
     }
 
     public boolean isAssignedOverlayPort(long candidatePort) {
-        return assignedOverlayPorts.contains(candidatePort);
+        return overlayPorts.isClaimed(candidatePort);
     }
 
     public void addAssignedOverlayPort(long port) {
-        assignedOverlayPorts.add(port);
+        overlayPorts.claim(port);
     }
 
     @VisibleForTesting
     public Set<Long> getAssignedOverlayPorts() {
-        return assignedOverlayPorts;
+        return overlayPorts.getClaimed();
+    }
+
+    /**
+     * Returns the ports which have been assigned to tasks or the executor on overlay networks, or which are explicitly
+     * requested by the pod.
+     */
+    PortAllocator getOverlayPortAllocator() {
+        return overlayPorts;
+    }
+
+    /**
+     * Returns the ports which have been assigned to tasks or the executor on the host network, or which are explicitly
+     * requested by the pod.
+     *
+     * <p>This is kept here rather than in {@link com.mesosphere.sdk.offer.MesosResourcePool}: each pool is created
+     * alongside exactly one {@link PodInfoBuilder} when evaluating an offer, and the pod's explicit ports which seed the
+     * allocator are only known here. The pool's unreserved port ranges already exclude ports consumed from the offer.
+     */
+    PortAllocator getHostPortAllocator() {
+        return hostPorts;
     }
 
     public void setExecutorVolume(VolumeSpec volumeSpec) {
@@ -479,6 +504,10 @@ public class PodInfoBuilder {
                 .setConsecutiveFailures(healthCheckSpec.getMaxConsecutiveFailures())
                 .setGracePeriodSeconds(healthCheckSpec.getGracePeriod());
 
+        if (setNetworkCheck(healthCheckBuilder, healthCheckSpec)) {
+            return;
+        }
+
         if (useDefaultExecutor) {
             healthCheckBuilder.setType(Protos.HealthCheck.Type.COMMAND);
         }
@@ -523,10 +552,20 @@ public class PodInfoBuilder {
         if (useDefaultExecutor) {
             // Default executors supports the newer TaskInfo.check field:
             Protos.CheckInfo.Builder builder = taskInfoBuilder.getCheckBuilder()
-                    .setType(Protos.CheckInfo.Type.COMMAND)
                     .setDelaySeconds(readinessCheckSpec.getDelay())
                     .setIntervalSeconds(readinessCheckSpec.getInterval())
                     .setTimeoutSeconds(readinessCheckSpec.getTimeout());
+            // Ports are filled in by the PortEvaluationStage once they have been assigned:
+            if (readinessCheckSpec.getHttp().isPresent()) {
+                builder.setType(Protos.CheckInfo.Type.HTTP).getHttpBuilder()
+                        .setPort(0)
+                        .setPath(readinessCheckSpec.getHttp().get().getPath());
+                return;
+            } else if (readinessCheckSpec.getTcp().isPresent()) {
+                builder.setType(Protos.CheckInfo.Type.TCP).getTcpBuilder().setPort(0);
+                return;
+            }
+            builder.setType(Protos.CheckInfo.Type.COMMAND);
             builder.getCommandBuilder().getCommandBuilder()
                     .setValue(readinessCheckSpec.getCommand())
                     .setEnvironment(EnvUtils.toProto(getTaskEnvironment(serviceName,
@@ -539,18 +578,49 @@ public class PodInfoBuilder {
                     .setDelaySeconds(readinessCheckSpec.getDelay())
                     .setIntervalSeconds(readinessCheckSpec.getInterval())
                     .setTimeoutSeconds(readinessCheckSpec.getTimeout());
-            builder.getCommandBuilder()
-                    .setValue(readinessCheckSpec.getCommand())
-                    .setEnvironment(EnvUtils.toProto(getTaskEnvironment(serviceName,
-                            podInstance,
-                            taskSpec,
-                            schedulerConfig)));
+            if (!setNetworkCheck(builder, readinessCheckSpec)) {
+                builder.getCommandBuilder()
+                        .setValue(readinessCheckSpec.getCommand())
+                        .setEnvironment(EnvUtils.toProto(getTaskEnvironment(serviceName,
+                                podInstance,
+                                taskSpec,
+                                schedulerConfig)));
+            }
             taskInfoBuilder.setLabels(new TaskLabelWriter(taskInfoBuilder)
                     .setReadinessCheck(builder.build())
                     .toProto());
         }
     }
 
+    /**
+     * Configures the provided {@link Protos.HealthCheck} as an HTTP or TCP check if the provided spec is one. The port
+     * is left as zero, to be filled in by the {@link PortEvaluationStage} once it has been assigned.
+     *
+     * <p>Custom HTTP statuses are only passed to the custom executor. Mesos doesn't support them in checks run for the
+     * default executor, so {@link com.mesosphere.sdk.config.validate.PodSpecsCannotUseUnsupportedFeatures} rejects
+     * them in that case.
+     *
+     * @return whether the check was an HTTP or TCP check
+     */
+    private boolean setNetworkCheck(Protos.HealthCheck.Builder builder, ReadinessCheckSpec checkSpec) {
+        if (checkSpec.getHttp().isPresent()) {
+            HttpCheckSpec httpCheckSpec = checkSpec.getHttp().get();
+            Protos.HealthCheck.HTTPCheckInfo.Builder httpBuilder = builder.setType(Protos.HealthCheck.Type.HTTP)
+                    .getHttpBuilder()
+                    .setScheme("http")
+                    .setPort(0)
+                    .setPath(httpCheckSpec.getPath());
+            if (!useDefaultExecutor) {
+                httpBuilder.addAllStatuses(httpCheckSpec.getStatuses());
+            }
+            return true;
+        } else if (checkSpec.getTcp().isPresent()) {
+            builder.setType(Protos.HealthCheck.Type.TCP).getTcpBuilder().setPort(0);
+            return true;
+        }
+        return false;
+    }
+
     private static void setTaskKillGracePeriod(
             Protos.TaskInfo.Builder taskInfoBuilder,
             TaskSpec taskSpec) throws InvalidRequirementException {
@@ -0,0 +1,74 @@
+package com.mesosphere.sdk.offer.evaluate;
+
+import org.apache.mesos.Protos;
+
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Tracks the ports which have been claimed while evaluating a pod against an offer, and selects unclaimed ports from
+ * port ranges. Selection walks the ranges and skips over claimed ports using a bitset, rather than expanding each range
+ * into individual port values, so that it doesn't allocate and scales with the number of ranges.
+ */
+class PortAllocator {
+    private static final int MAX_PORT = 65535;
+
+    private final BitSet claimedPorts = new BitSet();
+
+    /**
+     * Marks the provided port as claimed. Out of range values, including the zero "dynamic port" value, are ignored.
+     */
+    void claim(long port) {
+        if (port > 0 && port <= MAX_PORT) {
+            claimedPorts.set((int) port);
+        }
+    }
+
+    boolean isClaimed(long port) {
+        return port > 0 && port <= MAX_PORT && claimedPorts.get((int) port);
+    }
+
+    /**
+     * Claims and returns the first unclaimed port within the provided ranges, in the order that the ranges are listed,
+     * or returns an empty {@link Optional} if every port in the ranges has been claimed.
+     */
+    Optional<Integer> claimFirstUnclaimed(Protos.Value.Ranges ranges) {
+        for (int i = 0; i < ranges.getRangeCount(); ++i) {
+            Protos.Value.Range range = ranges.getRange(i);
+            Optional<Integer> port = claimFirstUnclaimed(range.getBegin(), range.getEnd());
+            if (port.isPresent()) {
+                return port;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Claims and returns the first unclaimed port between {@code begin} and {@code end} inclusive, or returns an empty
+     * {@link Optional} if every port in the range has been claimed.
+     */
+    Optional<Integer> claimFirstUnclaimed(long begin, long end) {
+        int first = (int) Math.max(begin, 1);
+        int last = (int) Math.min(end, MAX_PORT);
+        if (first > last) {
+            return Optional.empty();
+        }
+        int port = claimedPorts.nextClearBit(first);
+        if (port > last) {
+            return Optional.empty();
+        }
+        claimedPorts.set(port);
+        return Optional.of(port);
+    }
+
+    /**
+     * Returns the claimed ports. This expands the claimed ports into individual values, and is intended for tests.
+     */
+    Set<Long> getClaimed() {
+        Set<Long> ports = new HashSet<>();
+        claimedPorts.stream().forEach(port -> ports.add((long) port));
+        return ports;
+    }
+}
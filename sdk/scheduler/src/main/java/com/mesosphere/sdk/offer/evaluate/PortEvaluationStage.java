@@ -5,15 +5,14 @@ import com.mesosphere.sdk.dcos.DcosConstants;
 import com.mesosphere.sdk.offer.*;
 import com.mesosphere.sdk.offer.taskdata.*;
 import com.mesosphere.sdk.specification.PortSpec;
-import com.mesosphere.sdk.specification.ResourceSpec;
+import com.mesosphere.sdk.specification.ReadinessCheckSpec;
 import com.mesosphere.sdk.specification.TaskSpec;
+import com.mesosphere.sdk.specification.TcpCheckSpec;
 
 import org.apache.mesos.Protos;
 import org.slf4j.Logger;
 
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 
 /**
@@ -85,6 +84,9 @@ public class PortEvaluationStage implements OfferEvaluationStage {
         PortSpec updatedPortSpec = PortSpec.withValue(portSpec, valueBuilder.build());
 
         if (useHostPorts) {
+            // Avoid assigning this port dynamically to any later ports in the pod.
+            podInfoBuilder.getHostPortAllocator().claim(assignedPort);
+
             OfferEvaluationUtils.ReserveEvaluationOutcome reserveEvaluationOutcome =
                     OfferEvaluationUtils.evaluateSimpleResource(
                             this, updatedPortSpec, resourceId, resourceNamespace, mesosResourcePool);
@@ -146,18 +148,18 @@ public class PortEvaluationStage implements OfferEvaluationStage {
                 taskBuilder.getCommandBuilder().setEnvironment(
                         EnvUtils.withEnvVar(taskBuilder.getCommandBuilder().getEnvironment(), portEnvKey, portEnvVal));
 
-                // Add port to the health check environment (if defined):
-                if (taskBuilder.hasHealthCheck()) {
+                // Add port to the health check environment (if defined as a command):
+                if (taskBuilder.getHealthCheck().hasCommand()) {
                     Protos.CommandInfo.Builder healthCheckCmdBuilder =
                             taskBuilder.getHealthCheckBuilder().getCommandBuilder();
                     healthCheckCmdBuilder.setEnvironment(
                             EnvUtils.withEnvVar(healthCheckCmdBuilder.getEnvironment(), portEnvKey, portEnvVal));
                 } else {
-                    logger.info("Health check is not defined for task: {}", taskName);
+                    logger.info("Command health check is not defined for task: {}", taskName);
                 }
 
                 // Add port to the readiness check environment (if a readiness check is defined):
-                if (taskBuilder.hasCheck()) {
+                if (taskBuilder.getCheck().getCommand().hasCommand()) {
                     // Readiness check version used with default executor
                     Protos.CommandInfo.Builder checkCmdBuilder =
                             taskBuilder.getCheckBuilder().getCommandBuilder().getCommandBuilder();
@@ -176,6 +178,8 @@ public class PortEvaluationStage implements OfferEvaluationStage {
                 }
             }
 
+            setCheckPorts(podInfoBuilder, taskBuilder, (int) port);
+
             if (useHostPorts) { // we only use the resource if we're using the host ports
                 taskBuilder.addResources(resource);
             }
@@ -193,65 +197,70 @@ public class PortEvaluationStage implements OfferEvaluationStage {
         }
     }
 
-    private static Optional<Integer> selectDynamicPort(
-            MesosResourcePool mesosResourcePool, PodInfoBuilder podInfoBuilder) {
-        Set<Integer> consumedPorts = new HashSet<>();
+    /**
+     * Points any HTTP or TCP health or readiness checks which refer to this port at the assigned port value.
+     */
+    private void setCheckPorts(PodInfoBuilder podInfoBuilder, Protos.TaskInfo.Builder taskBuilder, int port) {
+        Optional<TaskSpec> taskSpec = podInfoBuilder.getPodInstance().getPod().getTasks().stream()
+                .filter(task -> task.getName().equals(getTaskName().get()))
+                .findFirst();
+        if (!taskSpec.isPresent()) {
+            return;
+        }
 
-        // We don't want to accidentally dynamically consume a port that's explicitly claimed elsewhere in this pod, so
-        // compile a list of those to check against the offered ports.
-        for (TaskSpec task : podInfoBuilder.getPodInstance().getPod().getTasks()) {
-            for (ResourceSpec resourceSpec : task.getResourceSet().getResources()) {
-                if (resourceSpec instanceof PortSpec) {
-                    PortSpec portSpec = (PortSpec) resourceSpec;
-                    if (portSpec.getPort() != 0) {
-                        consumedPorts.add((int) portSpec.getPort());
-                    }
-                }
+        if (isCheckPort(taskSpec.get().getHealthCheck())) {
+            if (taskBuilder.getHealthCheck().hasHttp()) {
+                taskBuilder.getHealthCheckBuilder().getHttpBuilder().setPort(port);
+            } else if (taskBuilder.getHealthCheck().hasTcp()) {
+                taskBuilder.getHealthCheckBuilder().getTcpBuilder().setPort(port);
             }
         }
 
-        // Also check other dynamically allocated ports which had been taken by earlier stages of this evaluation round.
-        for (Protos.Resource.Builder resourceBuilder : podInfoBuilder.getTaskResourceBuilders()) {
-            consumedPorts.addAll(getPortsInResource(resourceBuilder.build()));
+        if (isCheckPort(taskSpec.get().getReadinessCheck())) {
+            // Readiness check version used with default executor
+            if (taskBuilder.getCheck().hasHttp()) {
+                taskBuilder.getCheckBuilder().getHttpBuilder().setPort(port);
+            } else if (taskBuilder.getCheck().hasTcp()) {
+                taskBuilder.getCheckBuilder().getTcpBuilder().setPort(port);
+            }
+            if (new TaskLabelReader(taskBuilder).hasReadinessCheckLabel()) {
+                // Readiness check version used with custom executor
+                try {
+                    taskBuilder.setLabels(new TaskLabelWriter(taskBuilder)
+                            .setReadinessCheckPort(port)
+                            .toProto());
+                } catch (TaskException e) {
+                    logger.error("Got exception while adding port to ReadinessCheck", e);
+                }
+            }
         }
-        for (Protos.Resource.Builder resourceBuilder : podInfoBuilder.getExecutorResourceBuilders()) {
-            consumedPorts.addAll(getPortsInResource(resourceBuilder.build()));
+    }
+
+    private boolean isCheckPort(Optional<? extends ReadinessCheckSpec> checkSpec) {
+        if (!checkSpec.isPresent()) {
+            return false;
         }
+        Optional<String> checkPortName = checkSpec.get().getHttp().isPresent()
+                ? Optional.of(checkSpec.get().getHttp().get().getPortName())
+                : checkSpec.get().getTcp().map(TcpCheckSpec::getPortName);
+        return checkPortName.isPresent() && checkPortName.get().equals(portSpec.getPortName());
+    }
 
+    private static Optional<Integer> selectDynamicPort(
+            MesosResourcePool mesosResourcePool, PodInfoBuilder podInfoBuilder) {
+        // The host port allocator excludes any ports which are explicitly claimed elsewhere in this pod, as well as
+        // any ports which were assigned by earlier stages of this evaluation round.
         Protos.Value availablePorts = mesosResourcePool.getUnreservedMergedPool().get(Constants.PORTS_RESOURCE_TYPE);
-        Optional<Integer> dynamicPort = Optional.empty();
-        if (availablePorts != null) {
-            dynamicPort = availablePorts.getRanges().getRangeList().stream()
-                    .flatMap(r -> IntStream.rangeClosed((int) r.getBegin(), (int) r.getEnd()).boxed())
-                    .filter(p -> !consumedPorts.contains(p))
-                    .findFirst();
+        if (availablePorts == null) {
+            return Optional.empty();
         }
-
-        return dynamicPort;
+        return podInfoBuilder.getHostPortAllocator().claimFirstUnclaimed(availablePorts.getRanges());
     }
 
     private static Optional<Integer> selectOverlayPort(PodInfoBuilder podInfoBuilder) {
         // take the next available port in the range.
-        Optional<Integer> dynamicPort = Optional.empty();
-        for (Integer i = DcosConstants.OVERLAY_DYNAMIC_PORT_RANGE_START;
-             i <= DcosConstants.OVERLAY_DYNAMIC_PORT_RANGE_END; i++) {
-            if (!podInfoBuilder.isAssignedOverlayPort(i.longValue())) {
-                dynamicPort = Optional.of(i);
-                podInfoBuilder.addAssignedOverlayPort(i.longValue());
-                break;
-            }
-        }
-        return dynamicPort;
-    }
-
-    private static Set<Integer> getPortsInResource(Protos.Resource resource) {
-        if (!resource.getName().equals(Constants.PORTS_RESOURCE_TYPE)) {
-            return Collections.emptySet();
-        }
-        return resource.getRanges().getRangeList().stream()
-                .flatMap(r -> IntStream.rangeClosed((int) r.getBegin(), (int) r.getEnd()).boxed())
-                .filter(p -> p != 0)
-                .collect(Collectors.toSet());
+        return podInfoBuilder.getOverlayPortAllocator().claimFirstUnclaimed(
+                DcosConstants.OVERLAY_DYNAMIC_PORT_RANGE_START, DcosConstants.OVERLAY_DYNAMIC_PORT_RANGE_END);
     }
 
     private static boolean requireHostPorts(Collection<String> networkNames) {
@@ -0,0 +1,77 @@
+package com.mesosphere.sdk.offer.evaluate;
+
+import com.mesosphere.sdk.specification.ResourceSet;
+import com.mesosphere.sdk.specification.ResourceSpec;
+import com.mesosphere.sdk.specification.VolumeSpec;
+import org.apache.mesos.Protos;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.mesosphere.sdk.offer.evaluate.EvaluationOutcome.fail;
+import static com.mesosphere.sdk.offer.evaluate.EvaluationOutcome.pass;
+
+/**
+ * This class performs a cheap check of whether an offer could possibly fulfill a set of resource requirements, by
+ * comparing the total amount of each scalar resource (e.g. cpus, mem, disk) in the offer against the total amount
+ * which is required. An offer which fails this check would also fail the full evaluation pipeline, while an offer
+ * which passes it may still fail the full pipeline, e.g. due to its resources having the wrong role.
+ */
+public class ResourceTotalsFilter {
+    /**
+     * Mesos represents scalar values with three decimal places of precision. Allow for floating point error in the
+     * summed totals so that we never reject an offer which would have passed the full evaluation.
+     */
+    private static final double SCALAR_TOLERANCE = 0.001;
+
+    private final Map<String, Double> requiredTotals;
+
+    /**
+     * Returns a filter for the scalar resources and volumes in the provided resource sets, plus any pod-level volumes.
+     */
+    public static ResourceTotalsFilter forResourceSets(
+            Collection<ResourceSet> resourceSets, Collection<VolumeSpec> podVolumes) {
+        Map<String, Double> requiredTotals = new HashMap<>();
+        for (ResourceSet resourceSet : resourceSets) {
+            resourceSet.getResources().forEach(resourceSpec -> addScalar(requiredTotals, resourceSpec));
+            resourceSet.getVolumes().forEach(volumeSpec -> addScalar(requiredTotals, volumeSpec));
+        }
+        podVolumes.forEach(volumeSpec -> addScalar(requiredTotals, volumeSpec));
+        return new ResourceTotalsFilter(requiredTotals);
+    }
+
+    private ResourceTotalsFilter(Map<String, Double> requiredTotals) {
+        this.requiredTotals = requiredTotals;
+    }
+
+    /**
+     * Returns a failing outcome if the provided offer has less of any required resource than is required, or a
+     * passing outcome otherwise.
+     */
+    public EvaluationOutcome evaluate(Protos.Offer offer) {
+        Map<String, Double> offeredTotals = new HashMap<>();
+        for (Protos.Resource resource : offer.getResourcesList()) {
+            if (resource.getType() == Protos.Value.Type.SCALAR && requiredTotals.containsKey(resource.getName())) {
+                offeredTotals.merge(resource.getName(), resource.getScalar().getValue(), Double::sum);
+            }
+        }
+
+        for (Map.Entry<String, Double> required : requiredTotals.entrySet()) {
+            double offered = offeredTotals.getOrDefault(required.getKey(), 0.0);
+            if (offered + SCALAR_TOLERANCE < required.getValue()) {
+                return fail(this, "Offer has insufficient '%s' in total: offered %s, required %s",
+                        required.getKey(), offered, required.getValue())
+                        .build();
+            }
+        }
+
+        return pass(this, "Offer has sufficient resources in total").build();
+    }
+
+    private static void addScalar(Map<String, Double> totals, ResourceSpec resourceSpec) {
+        if (resourceSpec.getValue().getType() == Protos.Value.Type.SCALAR) {
+            totals.merge(resourceSpec.getName(), resourceSpec.getValue().getScalar().getValue(), Double::sum);
+        }
+    }
+}
@@ -9,6 +9,7 @@ import com.mesosphere.sdk.offer.LoggingUtils;
 import com.mesosphere.sdk.offer.MesosResourcePool;
 import com.mesosphere.sdk.offer.evaluate.security.*;
 import com.mesosphere.sdk.scheduler.SchedulerConfig;
+import com.mesosphere.sdk.specification.PodInstance;
 import com.mesosphere.sdk.specification.TaskSpec;
 import com.mesosphere.sdk.specification.TransportEncryptionSpec;
 import org.apache.http.client.methods.HttpPut;
@@ -18,10 +19,16 @@ import org.slf4j.Logger;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * A {@link TLSEvaluationStage} is responsible for provisioning X.509 certificates, converting them to
  * PEM and KeyStore formats and injecting them to the container as a secret.
+ *
+ * <p>The certificates are provisioned in the background by a {@link TLSArtifactsProvisioner}, which is normally started
+ * before the offers are evaluated via {@link Builder#provision(PodInstance)}. Evaluation fails until the certificates
+ * are ready.
  */
 public class TLSEvaluationStage implements OfferEvaluationStage {
 
@@ -29,16 +36,17 @@ public class TLSEvaluationStage implements OfferEvaluationStage {
     private final String serviceName;
     private final String taskName;
     private final String namespace;
-    private final TLSArtifactsUpdater tlsArtifactsUpdater;
+    private final TLSArtifactsProvisioner tlsArtifactsProvisioner;
     private final SchedulerConfig schedulerConfig;
 
     /**
-     * Class for building {@link TLSEvaluationStage} instances for individual tasks that need it.
+     * Class for building {@link TLSEvaluationStage} instances for individual tasks that need it. The stages built by a
+     * given builder share its {@link TLSArtifactsProvisioner}, so a builder should be retained across offer cycles.
      */
     static class Builder {
         private final String serviceName;
         private final String namespace;
-        private final TLSArtifactsUpdater tlsArtifactsUpdater;
+        private final TLSArtifactsProvisioner tlsArtifactsProvisioner;
         private final SchedulerConfig schedulerConfig;
 
         /**
@@ -60,12 +68,58 @@ public class TLSEvaluationStage implements OfferEvaluationStage {
                             return method.equalsIgnoreCase(HttpPut.METHOD_NAME) || super.isRedirectable(method);
                         }
                     }));
-            this.tlsArtifactsUpdater = new TLSArtifactsUpdater(
-                    serviceName, new SecretsClient(executor), new CertificateAuthorityClient(executor));
+            this.tlsArtifactsProvisioner = new TLSArtifactsProvisioner(new TLSArtifactsUpdater(
+                    serviceName,
+                    new SecretsClient(executor),
+                    new CertificateAuthorityClient(executor),
+                    schedulerConfig));
         }
 
         public TLSEvaluationStage build(String taskName) {
-            return new TLSEvaluationStage(serviceName, taskName, namespace, tlsArtifactsUpdater, schedulerConfig);
+            return new TLSEvaluationStage(serviceName, taskName, namespace, tlsArtifactsProvisioner, schedulerConfig);
+        }
+
+        /**
+         * Starts provisioning the certificates of any tasks in the provided pod instance which use transport
+         * encryption, if their provisioning hasn't already been started, or verifies previously provisioned
+         * certificates if they're due to be checked again.
+         */
+        public void provision(PodInstance podInstance) {
+            for (TaskSpec taskSpec : podInstance.getPod().getTasks()) {
+                if (taskSpec.getTransportEncryption().isEmpty()) {
+                    continue;
+                }
+                CertificateNamesGenerator certificateNamesGenerator =
+                        new CertificateNamesGenerator(serviceName, taskSpec, podInstance, schedulerConfig);
+                TLSArtifactPaths tlsArtifactPaths =
+                        getTLSArtifactPaths(namespace, podInstance, taskSpec.getName(), certificateNamesGenerator);
+                for (TransportEncryptionSpec transportEncryptionSpec : taskSpec.getTransportEncryption()) {
+                    tlsArtifactsProvisioner.provision(
+                            tlsArtifactPaths, certificateNamesGenerator, transportEncryptionSpec.getName());
+                }
+            }
+        }
+
+        /**
+         * Returns whether the provisioning of any certificates for the provided pod instance is still in progress.
+         */
+        public boolean isProvisioning(PodInstance podInstance) {
+            for (TaskSpec taskSpec : podInstance.getPod().getTasks()) {
+                if (taskSpec.getTransportEncryption().isEmpty()) {
+                    continue;
+                }
+                TLSArtifactPaths tlsArtifactPaths = getTLSArtifactPaths(
+                        namespace,
+                        podInstance,
+                        taskSpec.getName(),
+                        new CertificateNamesGenerator(serviceName, taskSpec, podInstance, schedulerConfig));
+                for (TransportEncryptionSpec transportEncryptionSpec : taskSpec.getTransportEncryption()) {
+                    if (tlsArtifactsProvisioner.isProvisioning(tlsArtifactPaths, transportEncryptionSpec.getName())) {
+                        return true;
+                    }
+                }
+            }
+            return false;
         }
     }
 
@@ -73,13 +127,13 @@ public class TLSEvaluationStage implements OfferEvaluationStage {
     TLSEvaluationStage(String serviceName,
                        String taskName,
                        String namespace,
-                       TLSArtifactsUpdater tlsArtifactsUpdater,
+                       TLSArtifactsProvisioner tlsArtifactsProvisioner,
                        SchedulerConfig schedulerConfig) {
         this.logger = LoggingUtils.getLogger(getClass(), serviceName);
         this.serviceName = serviceName;
         this.taskName = taskName;
         this.namespace = namespace;
-        this.tlsArtifactsUpdater = tlsArtifactsUpdater;
+        this.tlsArtifactsProvisioner = tlsArtifactsProvisioner;
         this.schedulerConfig = schedulerConfig;
     }
 
@@ -95,18 +149,25 @@ public class TLSEvaluationStage implements OfferEvaluationStage {
 
         CertificateNamesGenerator certificateNamesGenerator =
                 new CertificateNamesGenerator(serviceName, taskSpec, podInfoBuilder.getPodInstance(), schedulerConfig);
-        TLSArtifactPaths tlsArtifactPaths = new TLSArtifactPaths(
-                namespace,
-                TaskSpec.getInstanceName(podInfoBuilder.getPodInstance(), taskName),
-                certificateNamesGenerator.getSANsHash());
+        TLSArtifactPaths tlsArtifactPaths = getTLSArtifactPaths(
+                namespace, podInfoBuilder.getPodInstance(), taskName, certificateNamesGenerator);
         for (TransportEncryptionSpec transportEncryptionSpec : taskSpec.getTransportEncryption()) {
+            CompletableFuture<Void> provisioning = tlsArtifactsProvisioner.getProvisioning(
+                    tlsArtifactPaths, certificateNamesGenerator, transportEncryptionSpec.getName());
+            if (!provisioning.isDone()) {
+                return EvaluationOutcome.fail(
+                        this, "TLS artifacts for task %s are still being provisioned", taskName)
+                        .build();
+            }
             try {
-                tlsArtifactsUpdater.update(
-                        tlsArtifactPaths, certificateNamesGenerator, transportEncryptionSpec.getName());
-            } catch (Exception e) {
-                logger.error(String.format("Failed to process certificates for %s", taskName), e);
+                provisioning.join();
+            } catch (CompletionException e) {
+                // Retry provisioning on the next evaluation, now that the failure has been reported.
+                tlsArtifactsProvisioner.reset(tlsArtifactPaths, transportEncryptionSpec.getName());
+                logger.error(String.format("Failed to process certificates for %s", taskName), e.getCause());
                 return EvaluationOutcome.fail(
-                        this, "Failed to store TLS artifacts for task %s because of exception: %s", taskName, e)
+                        this, "Failed to store TLS artifacts for task %s because of exception: %s",
+                        taskName, e.getCause())
                         .build();
             }
 
@@ -121,6 +182,15 @@ public class TLSEvaluationStage implements OfferEvaluationStage {
         return EvaluationOutcome.pass(this, "TLS certificate created and added to the task").build();
     }
 
+    private static TLSArtifactPaths getTLSArtifactPaths(
+            String namespace,
+            PodInstance podInstance,
+            String taskName,
+            CertificateNamesGenerator certificateNamesGenerator) {
+        return new TLSArtifactPaths(
+                namespace, TaskSpec.getInstanceName(podInstance, taskName), certificateNamesGenerator.getSANsHash());
+    }
+
     private static Collection<Protos.Volume> getExecutorInfoSecretVolumes(
             TransportEncryptionSpec spec, TLSArtifactPaths tlsArtifactPaths) {
         Collection<Protos.Volume> volumes = new ArrayList<>();
@@ -11,6 +11,7 @@ import org.apache.mesos.Protos.TaskInfo;
 import org.slf4j.Logger;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -53,28 +54,35 @@ abstract class AbstractRoundRobinRule implements PlacementRule {
             return EvaluationOutcome.fail(this, "Offer lacks required round robin key").build();
         }
 
-        // search across tasks, keeping key counts on a per-key basis.
+        // key counts across tasks, only tallying tasks which match the task matcher (eg 'index-.*'). These are
+        // computed once per task index, rather than for every offer.
         // key => # of instances on key
-        Map<String, Integer> counts = new HashMap<>();
-        for (TaskInfo task : tasks) {
-            // only tally tasks which match the task matcher (eg 'index-.*')
+        PlacementTaskIndex taskIndex = PlacementTaskIndex.of(tasks);
+        Map<String, Integer> counts = new HashMap<>(taskIndex.getKeyCounts(
+                this,
+                task -> taskFilter.matches(task.getName()),
+                task -> {
+                    String taskKey = getKey(task);
+                    // tasks where no key matching the name was found are ignored.
+                    return taskKey == null ? Collections.emptyList() : Collections.singletonList(taskKey);
+                }));
+        for (TaskInfo task : taskIndex.getEquivalentTasks(podInstance)) {
+            // This is stale data for the same task that we're currently evaluating for
+            // placement. Don't worry about counting its usage. This occurs when we're
+            // redeploying a given task with a new configuration (old data not deleted yet).
             if (!taskFilter.matches(task.getName())) {
                 continue;
             }
-            if (PlacementUtils.areEquivalent(task, podInstance)) {
-                // This is stale data for the same task that we're currently evaluating for
-                // placement. Don't worry about counting its usage. This occurs when we're
-                // redeploying a given task with a new configuration (old data not deleted yet).
-                continue;
-            }
-
             final String taskKey = getKey(task);
             if (taskKey == null) {
-                // no key matching the name was found. ignore.
                 continue;
             }
-            Integer count = counts.get(taskKey);
-            counts.put(taskKey, (count == null) ? 1 : count + 1);
+            int count = counts.get(taskKey) - 1;
+            if (count == 0) {
+                counts.remove(taskKey);
+            } else {
+                counts.put(taskKey, count);
+            }
         }
 
         int maxKnownKeyCount = 0;
@@ -0,0 +1,88 @@
+package com.mesosphere.sdk.offer.evaluate.placement;
+
+import com.mesosphere.sdk.offer.evaluate.EvaluationOutcome;
+import com.mesosphere.sdk.scheduler.Metrics;
+import com.mesosphere.sdk.specification.PodInstance;
+import org.apache.mesos.Protos.Offer;
+import org.apache.mesos.Protos.TaskInfo;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wraps a {@link PlacementRule} whose outcome only depends on the offer's agent ID, hostname, attributes, and domain,
+ * and reuses its outcome for any later offers which have the same values. See {@link PlacementRuleCompiler}.
+ */
+class CachedOfferRule implements PlacementRule {
+
+    /**
+     * The maximum number of distinct agents to retain outcomes for, beyond which the least recently used outcomes are
+     * evicted.
+     */
+    private static final int MAX_CACHED_OUTCOMES = 1000;
+
+    private final PlacementRule rule;
+    private final Map<List<Object>, EvaluationOutcome> outcomes =
+            new LinkedHashMap<List<Object>, EvaluationOutcome>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<List<Object>, EvaluationOutcome> eldest) {
+                    return size() > MAX_CACHED_OUTCOMES;
+                }
+            };
+
+    CachedOfferRule(PlacementRule rule) {
+        this.rule = rule;
+    }
+
+    @Override
+    public EvaluationOutcome filter(Offer offer, PodInstance podInstance, Collection<TaskInfo> tasks) {
+        List<Object> key = getKey(offer);
+        synchronized (outcomes) {
+            EvaluationOutcome outcome = outcomes.get(key);
+            if (outcome != null) {
+                Metrics.incrementPlacementCacheHits();
+                return outcome;
+            }
+        }
+        // Evaluate outside the lock. Concurrent evaluations for the same agent produce equivalent outcomes.
+        EvaluationOutcome outcome = rule.filter(offer, podInstance, tasks);
+        synchronized (outcomes) {
+            outcomes.put(key, outcome);
+        }
+        return outcome;
+    }
+
+    @Override
+    public Collection<PlacementField> getPlacementFields() {
+        return rule.getPlacementFields();
+    }
+
+    @Override
+    public String toString() {
+        return rule.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof CachedOfferRule && rule.equals(((CachedOfferRule) o).rule);
+    }
+
+    @Override
+    public int hashCode() {
+        return rule.hashCode();
+    }
+
+    /**
+     * Returns the fields of the offer which may be examined by the wrapped rule.
+     */
+    private static List<Object> getKey(Offer offer) {
+        return Arrays.asList(
+                offer.getSlaveId(),
+                offer.getHostname(),
+                offer.getAttributesList(),
+                offer.hasDomain() ? offer.getDomain() : null);
+    }
+}
@@ -11,7 +11,6 @@ import javax.validation.constraints.Min;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * This interface defines the required methods for generic application of a PlacementRule which forces a
@@ -46,27 +45,39 @@ public abstract class MaxPerRule implements PlacementRule {
         this.taskFilter = taskFilter;
     }
 
+    /**
+     * Returns whether the provided offer's keys would each have no more than {@code max} tasks if the pod instance
+     * were launched there. Per-key task counts are taken from the {@link PlacementTaskIndex} if the provided tasks are
+     * an index, rather than being recomputed for every offer.
+     */
     protected boolean isAcceptable(
             Protos.Offer offer,
             PodInstance podInstance,
             Collection<Protos.TaskInfo> tasks) {
-
-        tasks = tasks.stream()
-                .filter(task -> getTaskFilter().matches(task.getName()))
-                .filter(task -> !PlacementUtils.areEquivalent(task, podInstance))
-                .collect(Collectors.toList());
+        PlacementTaskIndex taskIndex = PlacementTaskIndex.of(tasks);
+        Map<String, Integer> taskKeyCounts =
+                taskIndex.getKeyCounts(this, task -> getTaskFilter().matches(task.getName()), this::getKeys);
 
         Map<String, Integer> counts = new HashMap<>();
 
         Collection<String> offerKeys = getKeys(offer);
         updateMap(counts, offerKeys);
 
-        for (Protos.TaskInfo task : tasks) {
-            updateMap(
-                    counts,
-                    getKeys(task).stream()
-                            .filter(key -> offerKeys.contains(key))
-                            .collect(Collectors.toList()));
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            entry.setValue(entry.getValue() + taskKeyCounts.getOrDefault(entry.getKey(), 0));
+        }
+
+        // Don't count any existing tasks for the pod instance being placed:
+        for (Protos.TaskInfo task : taskIndex.getEquivalentTasks(podInstance)) {
+            if (!getTaskFilter().matches(task.getName())) {
+                continue;
+            }
+            for (String key : getKeys(task)) {
+                Integer count = counts.get(key);
+                if (count != null) {
+                    counts.put(key, count - 1);
+                }
+            }
         }
 
         return counts.values().stream().allMatch(value -> value <= max);
@@ -31,7 +31,9 @@ public interface PlacementRule {
      * @param tasks the currently deployed tasks in the system, possibly including a duplicate
      *              of the task being launched as represented in the offerRequirement. Use
      *              {@link PlacementUtils#areEquivalent(TaskInfo, PodInstance)} to detect
-     *              duplicates
+     *              duplicates. During offer evaluation this is a {@link PlacementTaskIndex} shared
+     *              across the offer cycle, which rules may use to avoid rescanning every task for
+     *              each offer
      * @return an {@link EvaluationOutcome} object describing whether the placement succeeded or failed and why
      */
     EvaluationOutcome filter(Offer offer, PodInstance podInstance, Collection<TaskInfo> tasks);
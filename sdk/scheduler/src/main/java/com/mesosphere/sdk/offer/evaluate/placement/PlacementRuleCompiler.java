@@ -0,0 +1,73 @@
+package com.mesosphere.sdk.offer.evaluate.placement;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Prepares {@link PlacementRule} trees for repeated evaluation against offers.
+ *
+ * <p>Placement rules which only look at the offer's agent ID, hostname, attributes, or domain return the same outcome
+ * for every offer from a given agent, regardless of the pod being placed or the tasks already deployed. Compiling a
+ * rule wraps each maximal subtree of such rules in a {@link CachedOfferRule}, which only evaluates the subtree once per
+ * distinct agent. Any rules which depend on deployed tasks (e.g. {@link MaxPerRule}s or round-robin rules) remain
+ * outside the cached subtrees and are evaluated for every offer as before.
+ */
+public class PlacementRuleCompiler {
+
+    /**
+     * Rules whose outcome is only a function of the offer fields captured by {@link CachedOfferRule}. Subclasses
+     * aren't included, as they may depend on other state.
+     */
+    private static final Set<Class<?>> OFFER_ONLY_RULES = new HashSet<>(Arrays.asList(
+            AgentRule.class,
+            AttributeRule.class,
+            HostnameRule.class,
+            PassthroughRule.class,
+            RegionRule.class,
+            ZoneRule.class));
+
+    private PlacementRuleCompiler() {
+        // do not instantiate
+    }
+
+    /**
+     * Returns an equivalent rule to the provided rule, with any offer-only subtrees replaced by cached evaluations.
+     * The returned rule produces the same outcomes as the provided rule, but must only be used for evaluation and not
+     * for serialization or comparison.
+     */
+    public static PlacementRule compile(PlacementRule rule) {
+        if (isOfferOnly(rule)) {
+            return new CachedOfferRule(rule);
+        } else if (rule.getClass().equals(AndRule.class)) {
+            return new AndRule(compile(((AndRule) rule).getRules()));
+        } else if (rule.getClass().equals(OrRule.class)) {
+            return new OrRule(compile(((OrRule) rule).getRules()));
+        } else if (rule.getClass().equals(NotRule.class)) {
+            return new NotRule(compile(((NotRule) rule).getRule()));
+        }
+        return rule;
+    }
+
+    /**
+     * Returns whether the outcome of the provided rule only depends on the offer being evaluated.
+     */
+    static boolean isOfferOnly(PlacementRule rule) {
+        if (OFFER_ONLY_RULES.contains(rule.getClass())) {
+            return true;
+        } else if (rule.getClass().equals(AndRule.class)) {
+            return ((AndRule) rule).getRules().stream().allMatch(child -> isOfferOnly(child));
+        } else if (rule.getClass().equals(OrRule.class)) {
+            return ((OrRule) rule).getRules().stream().allMatch(child -> isOfferOnly(child));
+        } else if (rule.getClass().equals(NotRule.class)) {
+            return isOfferOnly(((NotRule) rule).getRule());
+        }
+        return false;
+    }
+
+    private static Collection<PlacementRule> compile(Collection<PlacementRule> rules) {
+        return rules.stream().map(rule -> compile(rule)).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,106 @@
+package com.mesosphere.sdk.offer.evaluate.placement;
+
+import com.mesosphere.sdk.offer.LoggingUtils;
+import com.mesosphere.sdk.offer.TaskException;
+import com.mesosphere.sdk.offer.taskdata.TaskLabelReader;
+import com.mesosphere.sdk.specification.PodInstance;
+import org.apache.mesos.Protos.TaskInfo;
+import org.slf4j.Logger;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A read-only collection of the tasks which are deployed in a service, which additionally memoizes aggregates over
+ * those tasks on behalf of {@link PlacementRule}s. An index is created once per offer cycle (see
+ * {@link com.mesosphere.sdk.state.StateSnapshot}) and passed to each {@link PlacementRule} as its collection of tasks,
+ * so that rules which would otherwise scan every task for every offer only need to do so once per cycle.
+ *
+ * <p>When tasks are launched within a cycle, a new snapshot (and therefore a new index) reflecting those tasks is used
+ * for any subsequent evaluations in the cycle.
+ */
+public class PlacementTaskIndex extends AbstractCollection<TaskInfo> {
+
+    private static final Logger LOGGER = LoggingUtils.getLogger(PlacementTaskIndex.class);
+
+    private final Collection<TaskInfo> tasks;
+
+    // Access must be synchronized on this:
+    private final Map<PlacementRule, Map<String, Integer>> keyCountsByRule = new IdentityHashMap<>();
+    private Map<String, Map<Integer, List<TaskInfo>>> tasksByPodInstance;
+
+    /**
+     * Returns the provided tasks as-is if they're already an index, or a new index of the provided tasks otherwise.
+     */
+    public static PlacementTaskIndex of(Collection<TaskInfo> tasks) {
+        return tasks instanceof PlacementTaskIndex ? (PlacementTaskIndex) tasks : new PlacementTaskIndex(tasks);
+    }
+
+    public PlacementTaskIndex(Collection<TaskInfo> tasks) {
+        this.tasks = Collections.unmodifiableCollection(tasks);
+    }
+
+    @Override
+    public Iterator<TaskInfo> iterator() {
+        return tasks.iterator();
+    }
+
+    @Override
+    public int size() {
+        return tasks.size();
+    }
+
+    /**
+     * Returns the number of occurrences of each key across all tasks which match the provided filter. The counts are
+     * computed on the first call for a given rule, and are then reused for any later calls for the same rule.
+     *
+     * @param rule the rule requesting the counts, which must provide the same filter and keys on every call
+     * @param taskFilter selects the tasks to be counted
+     * @param getKeys returns the keys to be counted for a given task
+     */
+    synchronized Map<String, Integer> getKeyCounts(
+            PlacementRule rule, Predicate<TaskInfo> taskFilter, Function<TaskInfo, Collection<String>> getKeys) {
+        Map<String, Integer> keyCounts = keyCountsByRule.get(rule);
+        if (keyCounts == null) {
+            Map<String, Integer> counts = new HashMap<>();
+            for (TaskInfo task : tasks) {
+                if (!taskFilter.test(task)) {
+                    continue;
+                }
+                for (String key : getKeys.apply(task)) {
+                    counts.merge(key, 1, Integer::sum);
+                }
+            }
+            keyCounts = Collections.unmodifiableMap(counts);
+            keyCountsByRule.put(rule, keyCounts);
+        }
+        return keyCounts;
+    }
+
+    /**
+     * Returns the tasks which belong to the provided pod instance, i.e. those for which
+     * {@link PlacementUtils#areEquivalent(TaskInfo, PodInstance)} would return {@code true}.
+     */
+    synchronized Collection<TaskInfo> getEquivalentTasks(PodInstance podInstance) {
+        if (tasksByPodInstance == null) {
+            tasksByPodInstance = new HashMap<>();
+            for (TaskInfo task : tasks) {
+                try {
+                    TaskLabelReader labels = new TaskLabelReader(task);
+                    tasksByPodInstance.computeIfAbsent(labels.getType(), type -> new HashMap<>())
+                            .computeIfAbsent(labels.getIndex(), index -> new ArrayList<>())
+                            .add(task);
+                } catch (TaskException e) {
+                    LOGGER.warn("Unable to extract pod type or index from TaskInfo", e);
+                }
+            }
+        }
+        Map<Integer, List<TaskInfo>> tasksByIndex = tasksByPodInstance.get(podInstance.getPod().getType());
+        if (tasksByIndex == null) {
+            return Collections.emptyList();
+        }
+        List<TaskInfo> podTasks = tasksByIndex.get(podInstance.getIndex());
+        return podTasks == null ? Collections.emptyList() : podTasks;
+    }
+}
@@ -0,0 +1,144 @@
+package com.mesosphere.sdk.offer.evaluate.security;
+
+import com.codahale.metrics.Timer;
+import com.google.common.annotations.VisibleForTesting;
+import com.mesosphere.sdk.offer.LoggingUtils;
+import com.mesosphere.sdk.scheduler.Metrics;
+import org.slf4j.Logger;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Hands out RSA keypairs for TLS certificates. Key generation is the most expensive part of creating a certificate, so
+ * a bounded number of keypairs are generated in advance by a low priority background thread, and handed out on demand.
+ * If the pool has been emptied, for example during a large rollout, keypairs are generated inline by the caller.
+ */
+class KeyPairPool {
+
+    private static final long GENERATION_FAILURE_BACKOFF_MS = 1000;
+
+    private final Logger logger = LoggingUtils.getLogger(getClass());
+
+    private final Supplier<KeyPair> keyPairSource;
+    private final BlockingQueue<KeyPair> pool;
+    private final ExecutorService executor;
+
+    /**
+     * Creates a pool of RSA keypairs of the provided key size in bits, which pre-generates up to {@code poolSize}
+     * keypairs. A {@code poolSize} of zero disables pre-generation.
+     */
+    KeyPairPool(int keySize, int poolSize) {
+        this(() -> generateKeyPair(keySize), poolSize);
+    }
+
+    /**
+     * Creates a pool which uses the provided thread-safe source of keypairs.
+     */
+    @VisibleForTesting
+    KeyPairPool(Supplier<KeyPair> keyPairSource, int poolSize) {
+        this.keyPairSource = keyPairSource;
+        if (poolSize > 0) {
+            this.pool = new ArrayBlockingQueue<>(poolSize);
+            this.executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "tls-keypair-pool");
+                thread.setDaemon(true);
+                // Generate keys using spare cycles, rather than competing with offer processing.
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+            this.executor.execute(this::fill);
+        } else {
+            this.pool = new ArrayBlockingQueue<>(1);
+            this.executor = null;
+        }
+    }
+
+    /**
+     * Returns a pre-generated keypair if one is available, or otherwise generates a new keypair.
+     */
+    KeyPair take() {
+        Timer.Context context = Metrics.getKeyPairWaitTimer();
+        try {
+            KeyPair keyPair = pool.poll();
+            if (keyPair != null) {
+                Metrics.updateKeyPairsPooled(-1);
+                return keyPair;
+            }
+            Metrics.incrementKeyPairPoolMisses();
+            return keyPairSource.get();
+        } finally {
+            context.stop();
+        }
+    }
+
+    /**
+     * Returns the number of pre-generated keypairs which are waiting to be used.
+     */
+    int getPooledCount() {
+        return pool.size();
+    }
+
+    /**
+     * Stops pre-generating keypairs. Any keypairs which are already in the pool may still be taken.
+     */
+    @VisibleForTesting
+    void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @VisibleForTesting
+    boolean awaitStopped(long timeout, TimeUnit unit) throws InterruptedException {
+        return executor == null || executor.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * Generates keypairs until the pool is full, then waits for room in the pool to generate another.
+     */
+    private void fill() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                KeyPair keyPair = keyPairSource.get();
+                // Count the keypair before it's visible to take(), so that the count doesn't go negative.
+                Metrics.updateKeyPairsPooled(1);
+                try {
+                    pool.put(keyPair);
+                } catch (InterruptedException e) {
+                    Metrics.updateKeyPairsPooled(-1);
+                    throw e;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                logger.error("Failed to generate keypair for pool, retrying", e);
+                try {
+                    Thread.sleep(GENERATION_FAILURE_BACKOFF_MS);
+                } catch (InterruptedException e2) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private static KeyPair generateKeyPair(int keySize) {
+        // KeyPairGenerators aren't guaranteed to be thread-safe, and keypairs may be generated by both the pool thread
+        // and callers. Getting a new instance is cheap compared to generating a keypair.
+        KeyPairGenerator keyPairGenerator;
+        try {
+            keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        keyPairGenerator.initialize(keySize);
+        return keyPairGenerator.generateKeyPair();
+    }
+}
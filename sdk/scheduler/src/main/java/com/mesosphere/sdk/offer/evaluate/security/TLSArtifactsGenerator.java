@@ -6,7 +6,6 @@ import java.io.UncheckedIOException;
 import java.security.KeyPair;
 import java.security.KeyPairGenerator;
 import java.security.KeyStore;
-import java.security.NoSuchAlgorithmException;
 import java.security.cert.Certificate;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
@@ -15,6 +14,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
@@ -43,34 +43,31 @@ class TLSArtifactsGenerator {
     static final char[] KEYSTORE_PASSWORD = "notsecure".toCharArray();
 
     private final CertificateAuthorityClient caClient;
-    private final KeyPairGenerator keyPairGenerator;
-
-    public TLSArtifactsGenerator(CertificateAuthorityClient caClient) {
-        this(caClient, getDefaultKeyPairGenerator());
-    }
+    private final Supplier<KeyPair> keyPairSource;
 
     /**
-     * Wrapper to allow construction in {@code this()} above.
+     * Creates a generator which uses RSA keys of the provided size in bits, taken from a {@link KeyPairPool} which
+     * pre-generates up to {@code keyPairPoolSize} keypairs.
      */
-    private static KeyPairGenerator getDefaultKeyPairGenerator() {
-        try {
-            return KeyPairGenerator.getInstance("RSA");
-        } catch (NoSuchAlgorithmException e) {
-            throw new IllegalStateException(e);
-        }
+    public TLSArtifactsGenerator(CertificateAuthorityClient caClient, int keySize, int keyPairPoolSize) {
+        this(caClient, new KeyPairPool(keySize, keyPairPoolSize)::take);
     }
 
     @VisibleForTesting
     TLSArtifactsGenerator(CertificateAuthorityClient caClient, KeyPairGenerator keyPairGenerator) {
+        this(caClient, keyPairGenerator::generateKeyPair);
+    }
+
+    private TLSArtifactsGenerator(CertificateAuthorityClient caClient, Supplier<KeyPair> keyPairSource) {
         this.caClient = caClient;
-        this.keyPairGenerator = keyPairGenerator;
+        this.keyPairSource = keyPairSource;
     }
 
     /**
      * Returns a mapping of {@link TLSArtifact} types to generated secret content, to be stored in a SecretStore.
      */
     Map<TLSArtifact, String> generate(CertificateNamesGenerator certificateNamesGenerator) throws Exception {
-        KeyPair keyPair = keyPairGenerator.generateKeyPair();
+        KeyPair keyPair = keyPairSource.get();
 
         // Get new end-entity certificate from CA
         X509Certificate certificate = caClient.sign(generateCSR(keyPair, certificateNamesGenerator));
@@ -0,0 +1,225 @@
+package com.mesosphere.sdk.offer.evaluate.security;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.mesosphere.sdk.offer.LoggingUtils;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Provisions TLS artifacts in the background using a {@link TLSArtifactsUpdater}, so that the secrets store and
+ * certificate authority calls (and key generation) don't block offer evaluation. Provisioning is started ahead of time
+ * for the tasks of candidate steps, and offer evaluation then only checks whether the artifacts are ready.
+ *
+ * <p>Successfully provisioned artifacts are verified again when their task is next a candidate for offers, if they
+ * were provisioned more than {@link #DEFAULT_REVERIFY_INTERVAL} ago. This picks up secrets which were deleted by an
+ * operator to have the artifacts regenerated. Verification uses the {@link TLSArtifactsUpdater}'s cached secrets
+ * listing, so it's normally cheap. Failed provisioning is retried once the failure has been reported, see
+ * {@link #reset(TLSArtifactPaths, String)}.
+ */
+public class TLSArtifactsProvisioner {
+
+    private static final int DEFAULT_THREAD_COUNT = 4;
+
+    /**
+     * Matches the lifetime of the secrets listings cached by {@link TLSArtifactsUpdater}, as verifying more often than
+     * that wouldn't notice any further deletions.
+     */
+    private static final Duration DEFAULT_REVERIFY_INTERVAL = Duration.ofSeconds(30);
+
+    private final Logger logger = LoggingUtils.getLogger(getClass());
+
+    private final TLSArtifactsUpdater tlsArtifactsUpdater;
+    private final Executor executor;
+    private final long reverifyIntervalMs;
+
+    /**
+     * Provisioning which is in progress or has completed, keyed by the namespace, task instance, and spec name. A pod
+     * which is replaced keeps the same task instance names, so its entries are reused rather than added to, while an
+     * entry whose SANs no longer match the task is replaced, see {@link Provisioning#certificatePath}.
+     */
+    private final Map<String, Provisioning> provisions = new ConcurrentHashMap<>();
+
+    /**
+     * A single run of the {@link TLSArtifactsUpdater} for a task's artifacts, along with the time that it succeeded.
+     */
+    private static class Attempt {
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private volatile long succeededTimeMs;
+    }
+
+    /**
+     * The provisioning of a task's artifacts. The {@code current} attempt is the one which is used by offer evaluation,
+     * while a {@code verifying} attempt re-verifies artifacts which were already provisioned. The current attempt is
+     * only replaced once the verification has finished, so that evaluation isn't held up by the verification.
+     * Instances are only accessed within the atomic operations of {@link #provisions}.
+     */
+    private static class Provisioning {
+        /**
+         * The secret store path of the task's certificate, which covers the SANs hash of the task.
+         */
+        private final String certificatePath;
+        private Attempt current;
+        private Attempt verifying;
+
+        private Provisioning(String certificatePath, Attempt current) {
+            this.certificatePath = certificatePath;
+            this.current = current;
+        }
+
+        /**
+         * Makes a finished verification the current attempt, whether it succeeded or failed.
+         */
+        private Provisioning settle() {
+            if (verifying != null && verifying.future.isDone()) {
+                current = verifying;
+                verifying = null;
+            }
+            return this;
+        }
+    }
+
+    public TLSArtifactsProvisioner(TLSArtifactsUpdater tlsArtifactsUpdater) {
+        this(tlsArtifactsUpdater, Executors.newFixedThreadPool(DEFAULT_THREAD_COUNT, runnable -> {
+            Thread thread = new Thread(runnable, "tls-artifacts-provisioner");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    @VisibleForTesting
+    public TLSArtifactsProvisioner(TLSArtifactsUpdater tlsArtifactsUpdater, Executor executor) {
+        this(tlsArtifactsUpdater, executor, DEFAULT_REVERIFY_INTERVAL);
+    }
+
+    @VisibleForTesting
+    TLSArtifactsProvisioner(TLSArtifactsUpdater tlsArtifactsUpdater, Executor executor, Duration reverifyInterval) {
+        this.tlsArtifactsUpdater = tlsArtifactsUpdater;
+        this.executor = executor;
+        this.reverifyIntervalMs = reverifyInterval.toMillis();
+    }
+
+    /**
+     * Returns the provisioning of the artifacts for the provided encryption spec, starting it in the background if it
+     * hasn't already been started, or if it succeeded long enough ago that the artifacts should be verified again.
+     * This should be invoked when the task becomes a candidate for offers. The returned future is complete once the
+     * artifacts are present in the secrets store, or has failed if they couldn't be provisioned.
+     */
+    public CompletableFuture<Void> provision(
+            TLSArtifactPaths tlsArtifactPaths,
+            CertificateNamesGenerator certificateNamesGenerator,
+            String encryptionSpecName) {
+        Provisioning provisioning = provisions.compute(getKey(tlsArtifactPaths, encryptionSpecName), (key, current) -> {
+            Provisioning updated = getOrStart(current, tlsArtifactPaths, certificateNamesGenerator, encryptionSpecName);
+            if (updated.verifying == null && isDueForVerification(updated.current)) {
+                updated.verifying = start(tlsArtifactPaths, certificateNamesGenerator, encryptionSpecName);
+            }
+            return updated;
+        });
+        return getLatestFuture(provisioning);
+    }
+
+    /**
+     * Returns the current provisioning of the artifacts for the provided encryption spec, starting it in the
+     * background if it hasn't already been started. Unlike
+     * {@link #provision(TLSArtifactPaths, CertificateNamesGenerator, String)}, artifacts which were already provisioned
+     * aren't verified again, and the prior provisioning is returned while any verification is still in progress.
+     */
+    public CompletableFuture<Void> getProvisioning(
+            TLSArtifactPaths tlsArtifactPaths,
+            CertificateNamesGenerator certificateNamesGenerator,
+            String encryptionSpecName) {
+        return provisions.compute(getKey(tlsArtifactPaths, encryptionSpecName), (key, current) ->
+                getOrStart(current, tlsArtifactPaths, certificateNamesGenerator, encryptionSpecName))
+                .current.future;
+    }
+
+    /**
+     * Forgets a failed provisioning of the artifacts for the provided encryption spec, so that it will be started
+     * again by the next call to {@link #provision(TLSArtifactPaths, CertificateNamesGenerator, String)}. Provisioning
+     * which is in progress or which succeeded is left as-is.
+     */
+    public void reset(TLSArtifactPaths tlsArtifactPaths, String encryptionSpecName) {
+        provisions.computeIfPresent(getKey(tlsArtifactPaths, encryptionSpecName), (key, provisioning) ->
+                provisioning.settle().current.future.isCompletedExceptionally() ? null : provisioning);
+    }
+
+    /**
+     * Returns whether the provisioning of the artifacts for the provided encryption spec is still in progress, such
+     * that offer evaluation can't use them yet. A verification of previously provisioned artifacts doesn't count.
+     */
+    public boolean isProvisioning(TLSArtifactPaths tlsArtifactPaths, String encryptionSpecName) {
+        Provisioning provisioning = provisions.get(getKey(tlsArtifactPaths, encryptionSpecName));
+        return provisioning != null
+                && provisioning.certificatePath.equals(getCertificatePath(tlsArtifactPaths, encryptionSpecName))
+                && !provisioning.current.future.isDone();
+    }
+
+    /**
+     * Returns the provided provisioning after settling any finished verification, or a newly started provisioning if
+     * there wasn't one for the task's current SANs.
+     */
+    private Provisioning getOrStart(
+            Provisioning provisioning,
+            TLSArtifactPaths tlsArtifactPaths,
+            CertificateNamesGenerator certificateNamesGenerator,
+            String encryptionSpecName) {
+        String certificatePath = getCertificatePath(tlsArtifactPaths, encryptionSpecName);
+        if (provisioning != null && provisioning.certificatePath.equals(certificatePath)) {
+            return provisioning.settle();
+        }
+        if (provisioning != null) {
+            logger.info("SANs of task '{}' have changed for TLS config '{}', replacing prior provisioning",
+                    tlsArtifactPaths.getTaskInstanceName(), encryptionSpecName);
+        }
+        return new Provisioning(
+                certificatePath, start(tlsArtifactPaths, certificateNamesGenerator, encryptionSpecName));
+    }
+
+    private Attempt start(
+            TLSArtifactPaths tlsArtifactPaths,
+            CertificateNamesGenerator certificateNamesGenerator,
+            String encryptionSpecName) {
+        logger.info("Provisioning TLS artifacts for task '{}' and TLS config '{}'",
+                tlsArtifactPaths.getTaskInstanceName(), encryptionSpecName);
+        Attempt attempt = new Attempt();
+        executor.execute(() -> {
+            try {
+                tlsArtifactsUpdater.update(tlsArtifactPaths, certificateNamesGenerator, encryptionSpecName);
+            } catch (Exception e) {
+                logger.error(String.format("Failed to provision TLS artifacts for task '%s' and TLS config '%s'",
+                        tlsArtifactPaths.getTaskInstanceName(), encryptionSpecName), e);
+                attempt.future.completeExceptionally(new CompletionException(e));
+                return;
+            }
+            attempt.succeededTimeMs = System.currentTimeMillis();
+            attempt.future.complete(null);
+        });
+        return attempt;
+    }
+
+    private static CompletableFuture<Void> getLatestFuture(Provisioning provisioning) {
+        return provisioning.verifying != null ? provisioning.verifying.future : provisioning.current.future;
+    }
+
+    private boolean isDueForVerification(Attempt attempt) {
+        return attempt.future.isDone()
+                && !attempt.future.isCompletedExceptionally()
+                && System.currentTimeMillis() - attempt.succeededTimeMs >= reverifyIntervalMs;
+    }
+
+    private static String getKey(TLSArtifactPaths tlsArtifactPaths, String encryptionSpecName) {
+        return String.join("/",
+                tlsArtifactPaths.getTaskSecretsNamespace(), tlsArtifactPaths.getTaskInstanceName(), encryptionSpecName);
+    }
+
+    private static String getCertificatePath(TLSArtifactPaths tlsArtifactPaths, String encryptionSpecName) {
+        return tlsArtifactPaths.getSecretStorePath(TLSArtifact.CERTIFICATE, encryptionSpecName);
+    }
+}
@@ -6,8 +6,11 @@ import com.google.common.annotations.VisibleForTesting;
 import com.mesosphere.sdk.dcos.clients.CertificateAuthorityClient;
 import com.mesosphere.sdk.dcos.clients.SecretsClient;
 import com.mesosphere.sdk.offer.LoggingUtils;
+import com.mesosphere.sdk.scheduler.SchedulerConfig;
 
+import java.time.Duration;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
@@ -15,24 +18,68 @@ import java.util.stream.Collectors;
 
 /**
  * Automatically populates a secret service with missing TLS certificate content.
+ *
+ * <p>All of a service's tasks share a secrets namespace, so the listing of each namespace is cached for a short time
+ * and shared by the updates of all tasks, rather than being fetched again for each task. The cached listing is kept
+ * up to date with the secrets written by this instance.
  */
 public class TLSArtifactsUpdater {
 
+    /**
+     * The duration that a secrets listing is reused for. This bounds how long a secret which was deleted from outside
+     * of this instance may go unnoticed.
+     */
+    private static final Duration LISTING_TTL = Duration.ofSeconds(30);
+
     private final Logger logger = LoggingUtils.getLogger(getClass());
 
     private final String serviceName;
     private final SecretsClient secretsClient;
     private final TLSArtifactsGenerator tlsArtifactsGenerator;
+    private final long listingTtlMs;
+
+    /**
+     * Cached secrets listings, keyed by namespace. Access must be synchronized on the map, as updates for several
+     * tasks may run concurrently.
+     */
+    private final Map<String, Listing> listings = new HashMap<>();
 
-    public TLSArtifactsUpdater(String serviceName, SecretsClient secretsClient, CertificateAuthorityClient caClient) {
-        this(serviceName, secretsClient, new TLSArtifactsGenerator(caClient));
+    /**
+     * A listing of the secrets in a namespace, as of the time it was fetched.
+     */
+    private static class Listing {
+        private final Set<String> secretNames;
+        private final long fetchedTimeMs;
+
+        private Listing(Collection<String> secretNames, long fetchedTimeMs) {
+            this.secretNames = new TreeSet<>(secretNames);
+            this.fetchedTimeMs = fetchedTimeMs;
+        }
+    }
+
+    public TLSArtifactsUpdater(
+            String serviceName,
+            SecretsClient secretsClient,
+            CertificateAuthorityClient caClient,
+            SchedulerConfig schedulerConfig) {
+        this(
+                serviceName,
+                secretsClient,
+                new TLSArtifactsGenerator(
+                        caClient, schedulerConfig.getTLSKeySize(), schedulerConfig.getTLSKeyPairPoolSize()),
+                LISTING_TTL);
     }
 
     @VisibleForTesting
-    TLSArtifactsUpdater(String serviceName, SecretsClient secretsClient, TLSArtifactsGenerator tlsArtifactsGenerator) {
+    TLSArtifactsUpdater(
+            String serviceName,
+            SecretsClient secretsClient,
+            TLSArtifactsGenerator tlsArtifactsGenerator,
+            Duration listingTtl) {
         this.serviceName = serviceName;
         this.secretsClient = secretsClient;
         this.tlsArtifactsGenerator = tlsArtifactsGenerator;
+        this.listingTtlMs = listingTtl.toMillis();
     }
 
     /**
@@ -43,7 +90,7 @@ public class TLSArtifactsUpdater {
             CertificateNamesGenerator certificateNamesGenerator,
             String encryptionSpecName) throws Exception {
         String namespace = tlsArtifactPaths.getTaskSecretsNamespace();
-        Collection<String> currentSecretNames = secretsClient.list(namespace);
+        Collection<String> currentSecretNames = listSecrets(namespace);
         // Convert "namespace/secret" => "secret":
         Set<String> expectedSecretNames = new TreeSet<>(tlsArtifactPaths.getAllNames(encryptionSpecName));
         Set<String> missingSecrets = new TreeSet<>();
@@ -73,21 +120,76 @@ public class TLSArtifactsUpdater {
         // where we delete old secrets, then fail to generate their replacements and leave everything in a bad state.
         Map<TLSArtifact, String> newArtifactValues = tlsArtifactsGenerator.generate(certificateNamesGenerator);
 
-        // One or more secrets are missing. Erase any current values and start from scratch.
-        for (String secretName : currentSecretNames.stream()
-                .filter(path -> expectedSecretNames.contains(path))
-                .collect(Collectors.toList())) {
-            String secretPath = namespace + "/" + secretName;
-            logger.info("Deleting secret: {}", secretPath);
-            secretsClient.delete(secretPath);
+        try {
+            // One or more secrets are missing. Erase any current values and start from scratch.
+            for (String secretName : currentSecretNames.stream()
+                    .filter(path -> expectedSecretNames.contains(path))
+                    .collect(Collectors.toList())) {
+                String secretPath = namespace + "/" + secretName;
+                logger.info("Deleting secret: {}", secretPath);
+                secretsClient.delete(secretPath);
+            }
+
+            // Generate and write new values after deleting any current values.
+            for (Map.Entry<TLSArtifact, String> entry : newArtifactValues.entrySet()) {
+                String secretStorePath = tlsArtifactPaths.getSecretStorePath(entry.getKey(), encryptionSpecName);
+                logger.info("Creating new secret: {}", secretStorePath);
+                secretsClient.create(secretStorePath,
+                        new SecretsClient.Payload(serviceName, entry.getValue(), entry.getKey().getDescription()));
+            }
+        } catch (Exception e) {
+            // The writes may have failed partway through, leaving the cached listing inaccurate.
+            forgetListing(namespace);
+            throw e;
         }
 
-        // Generate and write new values after deleting any current values.
-        for (Map.Entry<TLSArtifact, String> entry : newArtifactValues.entrySet()) {
-            String secretStorePath = tlsArtifactPaths.getSecretStorePath(entry.getKey(), encryptionSpecName);
-            logger.info("Creating new secret: {}", secretStorePath);
-            secretsClient.create(secretStorePath,
-                    new SecretsClient.Payload(serviceName, entry.getValue(), entry.getKey().getDescription()));
+        // Keep the cached listing up to date with the secrets which were just written.
+        synchronized (listings) {
+            Listing listing = listings.get(namespace);
+            if (listing != null) {
+                listing.secretNames.addAll(expectedSecretNames);
+            }
         }
     }
+
+    /**
+     * Returns the names of the secrets in the provided namespace, using a cached listing if one was fetched within the
+     * TTL.
+     */
+    private Collection<String> listSecrets(String namespace) throws Exception {
+        synchronized (listings) {
+            Listing listing = listings.get(namespace);
+            if (listing != null && !isExpired(listing)) {
+                return new TreeSet<>(listing.secretNames);
+            }
+        }
+        // Fetched outside the lock, so that a slow listing doesn't hold up updates which have a cached listing.
+        Listing listing = new Listing(secretsClient.list(namespace), getCurrentTimeMillis());
+        synchronized (listings) {
+            // Don't replace a listing which was fetched concurrently, as it may since have had secrets added to it.
+            Listing current = listings.get(namespace);
+            if (current == null || isExpired(current)) {
+                listings.put(namespace, listing);
+            }
+            return new TreeSet<>(listing.secretNames);
+        }
+    }
+
+    private boolean isExpired(Listing listing) {
+        return getCurrentTimeMillis() >= listing.fetchedTimeMs + listingTtlMs;
+    }
+
+    private void forgetListing(String namespace) {
+        synchronized (listings) {
+            listings.remove(namespace);
+        }
+    }
+
+    /**
+     * Returns the current system time in milliseconds. May be overridden in tests.
+     */
+    @VisibleForTesting
+    protected long getCurrentTimeMillis() {
+        return System.currentTimeMillis();
+    }
 }
@@ -35,18 +35,21 @@ public class OfferOutcomeTracker {
         this.outcomes = EvictingQueue.create(capacity);
     }
 
-    public void track(OfferOutcome outcome) {
+    public synchronized void track(OfferOutcome outcome) {
         outcomes.add(outcome);
     }
 
-    public void track(OfferOutcome... outcomes) {
+    public synchronized void track(OfferOutcome... outcomes) {
         this.outcomes.addAll(Arrays.asList(outcomes));
     }
 
     private List<OfferOutcome> reverseList() {
         // Read the current outcomes into a list, reversing the list
         // as callers want to see the most recent offer outcomes first.
-        List<OfferOutcome> recentFirst = outcomes.stream().collect(Collectors.toList());
+        List<OfferOutcome> recentFirst;
+        synchronized (this) {
+            recentFirst = outcomes.stream().collect(Collectors.toList());
+        }
         Collections.reverse(recentFirst);
         return recentFirst;
     }
@@ -108,6 +108,13 @@ public class TaskLabelReader {
             // check not applicable: PASS
             return true;
         } else if (taskStatus.hasCheckStatus()) {
+            if (taskStatus.getCheckStatus().hasHttp()) {
+                // Mesos treats 2xx and 3xx responses as successful in its HTTP health checks:
+                int statusCode = taskStatus.getCheckStatus().getHttp().getStatusCode();
+                return taskStatus.getCheckStatus().getHttp().hasStatusCode() && statusCode >= 200 && statusCode < 400;
+            } else if (taskStatus.getCheckStatus().hasTcp()) {
+                return taskStatus.getCheckStatus().getTcp().getSucceeded();
+            }
             return taskStatus.getCheckStatus().getCommand().hasExitCode() &&
                     taskStatus.getCheckStatus().getCommand().getExitCode() == 0;
         }
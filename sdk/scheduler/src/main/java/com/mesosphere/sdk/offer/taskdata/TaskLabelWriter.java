@@ -141,12 +141,38 @@ public class TaskLabelWriter {
         if (!readinessCheck.isPresent()) {
             return this;
         }
+        if (!readinessCheck.get().hasCommand()) {
+            // HTTP and TCP checks don't have an environment.
+            return this;
+        }
         HealthCheck.Builder readinessCheckBuilder = readinessCheck.get().toBuilder();
         readinessCheckBuilder.getCommandBuilder().setEnvironment(
                 EnvUtils.withEnvVar(readinessCheckBuilder.getCommand().getEnvironment(), key, value));
         return setReadinessCheck(readinessCheckBuilder.build());
     }
 
+    /**
+     * Updates the stored readiness check, if any, to connect to the provided port. Does nothing if no readiness check
+     * is present, or if the readiness check isn't an HTTP or TCP check.
+     *
+     * @throws TaskException if parsing a previously set {@link HealthCheck}
+     */
+    public TaskLabelWriter setReadinessCheckPort(int port) throws TaskException {
+        Optional<HealthCheck> readinessCheck = getReadinessCheck();
+        if (!readinessCheck.isPresent()) {
+            return this;
+        }
+        HealthCheck.Builder readinessCheckBuilder = readinessCheck.get().toBuilder();
+        if (readinessCheckBuilder.hasHttp()) {
+            readinessCheckBuilder.getHttpBuilder().setPort(port);
+        } else if (readinessCheckBuilder.hasTcp()) {
+            readinessCheckBuilder.getTcpBuilder().setPort(port);
+        } else {
+            return this;
+        }
+        return setReadinessCheck(readinessCheckBuilder.build());
+    }
+
     /**
      * Returns a protobuf representation of all contained label entries.
      */
@@ -1,5 +1,6 @@
 package com.mesosphere.sdk.scheduler;
 
+import com.codahale.metrics.Timer;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.protobuf.TextFormat;
 import com.mesosphere.sdk.framework.FrameworkConfig;
@@ -69,6 +70,14 @@ public abstract class AbstractScheduler {
         return serviceSpec;
     }
 
+    /**
+     * Returns the state store for this service. Other components which look up the service's tasks should use this
+     * instance rather than creating their own, as its in-memory indexes are only kept up to date with its own writes.
+     */
+    public StateStore getStateStore() {
+        return stateStore;
+    }
+
     /**
      * Starts any internal threads to be used by the service.
      * Must be called after construction, once, in order for work to proceed.
@@ -122,7 +131,12 @@ public abstract class AbstractScheduler {
         /* Task Reconciliation must complete before any Tasks may be launched.  It ensures that a Scheduler and
          * Mesos have agreed upon the state of all Tasks of interest to the scheduler.
          * See also: http://mesos.apache.org/documentation/latest/reconciliation/ */
-        reconciler.reconcile();
+        Timer.Context context = Metrics.getOfferCyclePhaseTimer(Metrics.OfferCyclePhase.RECONCILE);
+        try {
+            reconciler.reconcile();
+        } finally {
+            context.stop();
+        }
         if (!reconciler.isReconciled()) {
             LOGGER.info("Not ready for offers: Waiting for task reconciliation to complete.");
             OfferProcessor.declineShort(offers);
@@ -130,17 +144,31 @@ public abstract class AbstractScheduler {
         }
 
         // Get the current work
-        Collection<Step> steps = getPlanCoordinator().getCandidates();
+        Collection<Step> steps;
+        Collection<Step> inProgressSteps;
+        context = Metrics.getOfferCyclePhaseTimer(Metrics.OfferCyclePhase.CANDIDATES);
+        try {
+            steps = getPlanCoordinator().getCandidates();
+            inProgressSteps = getInProgressSteps(getPlanCoordinator());
+        } finally {
+            context.stop();
+        }
 
         // Revive previously suspended offers, if necessary
         Collection<Step> activeWorkSet = new HashSet<>(steps);
-        Collection<Step> inProgressSteps = getInProgressSteps(getPlanCoordinator());
         if (!inProgressSteps.isEmpty()) {
             LOGGER.info("Steps in progress: {}",
                     inProgressSteps.stream().map(step -> step.getMessage()).collect(Collectors.toList()));
         }
         activeWorkSet.addAll(inProgressSteps);
-        reviveManager.revive(activeWorkSet);
+        context = Metrics.getOfferCyclePhaseTimer(Metrics.OfferCyclePhase.REVIVE);
+        try {
+            if (reviveManager.revive(activeWorkSet, this::isReviveUseful)) {
+                offersRevived();
+            }
+        } finally {
+            context.stop();
+        }
 
         LOGGER.info("Processing {} offer{} against {} step{}{}",
                 offers.size(), offers.size() == 1 ? "" : "s",
@@ -200,6 +228,21 @@ public abstract class AbstractScheduler {
      */
     protected abstract void processOffers(Collection<Protos.Offer> offers, Collection<Step> steps);
 
+    /**
+     * Returns whether reviving offers may be useful to the provided new candidate steps. By default, new work always
+     * results in a revive.
+     */
+    protected boolean isReviveUseful(Collection<Step> newWork) {
+        return true;
+    }
+
+    /**
+     * Invoked after offers have been revived, which clears any filters from offers which had been declined.
+     */
+    protected void offersRevived() {
+        // Do nothing by default.
+    }
+
     /**
      * Invoked when Mesos has provided a task status to be processed.
      *
@@ -0,0 +1,135 @@
+package com.mesosphere.sdk.scheduler;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.mesosphere.sdk.offer.Constants;
+import org.apache.mesos.Protos;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Tracks the agents whose offers have been declined for a long time, and the reasons they were declined. Mesos won't
+ * send offers for the declined resources until the decline expires or offers are revived, and reviving offers clears
+ * the filters for all agents. Comparing new work against the declined offers allows a revive to be skipped when none
+ * of the declined agents could be used by the new work, rather than having every declined agent offered and declined
+ * again.
+ *
+ * <p>The tracker only knows about offers declined since the last revive. Until the first revive, there may be filters
+ * left over from earlier scheduler instances, so any new work is assumed to need a revive.
+ */
+class DeclinedAgentTracker {
+
+    /**
+     * The reason that an offer was declined for a long time.
+     */
+    enum Reason {
+        /**
+         * The offer failed the cheap checks for every requirement which evaluated it, e.g. it was too small or failed
+         * the placement rules.
+         */
+        UNSUITABLE,
+
+        /**
+         * The offer wasn't evaluated against any requirement, e.g. because there was no pending work.
+         */
+        NOT_EVALUATED
+    }
+
+    private static class DeclinedOffer {
+        private final Protos.Offer offer;
+        private final Reason reason;
+        private final long declinedTimeMs;
+
+        private DeclinedOffer(Protos.Offer offer, Reason reason, long declinedTimeMs) {
+            this.offer = offer;
+            this.reason = reason;
+            this.declinedTimeMs = declinedTimeMs;
+        }
+    }
+
+    private final long declineDurationMs;
+    private final Map<String, List<DeclinedOffer>> declinedOffersByAgent = new HashMap<>();
+    private boolean isTrackingAllFilters = false;
+
+    DeclinedAgentTracker() {
+        this(TimeUnit.SECONDS.toMillis(Constants.LONG_DECLINE_SECONDS));
+    }
+
+    @VisibleForTesting
+    DeclinedAgentTracker(long declineDurationMs) {
+        this.declineDurationMs = declineDurationMs;
+    }
+
+    /**
+     * Records that the provided offers were declined for a long time for the provided reason.
+     */
+    synchronized void recordDeclined(Collection<Protos.Offer> offers, Reason reason) {
+        long nowMs = getCurrentTimeMillis();
+        for (Protos.Offer offer : offers) {
+            declinedOffersByAgent.computeIfAbsent(offer.getSlaveId().getValue(), agentId -> new ArrayList<>())
+                    .add(new DeclinedOffer(offer, reason, nowMs));
+        }
+    }
+
+    /**
+     * Records that offers were revived, which clears all of the framework's offer filters.
+     */
+    synchronized void recordRevived() {
+        declinedOffersByAgent.clear();
+        isTrackingAllFilters = true;
+    }
+
+    /**
+     * Returns whether any declined offer which may still be filtered passes the provided check. Always returns
+     * {@code true} if offers haven't been revived yet, as there may be filters which aren't being tracked.
+     */
+    synchronized boolean anyDeclinedOfferMatches(Predicate<Protos.Offer> isPlausible) {
+        if (!isTrackingAllFilters) {
+            return true;
+        }
+        removeExpired();
+        return declinedOffersByAgent.values().stream()
+                .flatMap(List::stream)
+                .anyMatch(declinedOffer -> isPlausible.test(declinedOffer.offer));
+    }
+
+    /**
+     * Returns the number of agents with offers which may still be filtered, by the reason for their most recent
+     * decline.
+     */
+    synchronized Map<Reason, Integer> getAgentCounts() {
+        removeExpired();
+        Map<Reason, Integer> counts = new EnumMap<>(Reason.class);
+        for (List<DeclinedOffer> declinedOffers : declinedOffersByAgent.values()) {
+            counts.merge(declinedOffers.get(declinedOffers.size() - 1).reason, 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    private void removeExpired() {
+        long nowMs = getCurrentTimeMillis();
+        Iterator<List<DeclinedOffer>> iter = declinedOffersByAgent.values().iterator();
+        while (iter.hasNext()) {
+            List<DeclinedOffer> declinedOffers = iter.next();
+            declinedOffers.removeIf(declinedOffer -> nowMs >= declinedOffer.declinedTimeMs + declineDurationMs);
+            if (declinedOffers.isEmpty()) {
+                iter.remove();
+            }
+        }
+    }
+
+    /**
+     * Returns the current system time in milliseconds. May be overridden in tests.
+     */
+    @VisibleForTesting
+    protected long getCurrentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+}
@@ -1,8 +1,10 @@
 package com.mesosphere.sdk.scheduler;
 
+import com.codahale.metrics.Timer;
 import com.google.common.annotations.VisibleForTesting;
 import com.mesosphere.sdk.dcos.Capabilities;
 import com.mesosphere.sdk.framework.FrameworkConfig;
+import com.mesosphere.sdk.framework.OfferProcessor;
 import com.mesosphere.sdk.framework.TaskKiller;
 import com.mesosphere.sdk.http.endpoints.*;
 import com.mesosphere.sdk.http.queries.ArtifactQueries;
@@ -21,6 +23,7 @@ import com.mesosphere.sdk.storage.PersisterException;
 import org.apache.mesos.Protos;
 import org.slf4j.Logger;
 
+import java.io.IOException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -41,8 +44,17 @@ public class DefaultScheduler extends AbstractScheduler {
     private final PodResource podResource;
     private final PlanCoordinator planCoordinator;
 
+    private final UUID targetConfigId;
+    private final OfferEvaluator offerEvaluator;
+    private final DeclinedAgentTracker declinedAgentTracker = new DeclinedAgentTracker();
     private PlanScheduler planScheduler;
 
+    /**
+     * The task state as of the most recent offer cycle. This is shared by the revive check and the evaluation of
+     * offers, so that the evaluation pipelines cached against it by the {@link OfferEvaluator} are reused by both.
+     */
+    private StateSnapshot offerCycleSnapshot;
+
     private final OfferOutcomeTracker offerOutcomeTracker;
 
     /**
@@ -107,21 +119,24 @@ public class DefaultScheduler extends AbstractScheduler {
         this.resources.add(this.podResource);
         this.resources.add(new StateResource(frameworkStore, stateStore, new StringPropertyDeserializer()));
 
+        this.targetConfigId = configStore.getTargetConfig();
         this.offerOutcomeTracker = new OfferOutcomeTracker();
         this.resources.add(new OfferOutcomeResource(offerOutcomeTracker));
+        this.offerEvaluator = new OfferEvaluator(
+                frameworkStore,
+                stateStore,
+                offerOutcomeTracker,
+                serviceSpec.getName(),
+                targetConfigId,
+                templateUrlFactory,
+                schedulerConfig,
+                namespace,
+                Capabilities.getInstance().supportsDefaultExecutor());
         this.planScheduler = new DefaultPlanScheduler(
                 offerAccepter,
-                new OfferEvaluator(
-                        frameworkStore,
-                        stateStore,
-                        offerOutcomeTracker,
-                        serviceSpec.getName(),
-                        configStore.getTargetConfig(),
-                        templateUrlFactory,
-                        schedulerConfig,
-                        namespace,
-                        Capabilities.getInstance().supportsDefaultExecutor()),
-                stateStore);
+                offerEvaluator,
+                stateStore,
+                schedulerConfig.getOfferEvaluationThreads());
     }
 
     private static OfferAccepter getOfferAccepter(
@@ -224,9 +239,29 @@ public class DefaultScheduler extends AbstractScheduler {
 
     @Override
     public void processOffers(Collection<Protos.Offer> offers, Collection<Step> steps) {
+        // Task state is read once for the whole cycle, rather than separately by each step evaluation.
+        StateSnapshot snapshot = refreshOfferCycleSnapshot();
+        offerEvaluator.resetOfferSuitability();
+
         // See which offers are useful to the plans.
         List<Protos.OfferID> planOffers = new ArrayList<>();
-        planOffers.addAll(planScheduler.resourceOffers(offers, steps));
+        Timer.Context context = Metrics.getOfferCyclePhaseTimer(Metrics.OfferCyclePhase.PLANS);
+        try {
+            // Candidate steps may need TLS certificates, which are provisioned in the background. Start provisioning
+            // now, even if there aren't any offers, so that the certificates may be ready when matching offers arrive.
+            offerEvaluator.provisionTLSArtifacts(steps.stream()
+                    .map(Step::getPodInstanceRequirement)
+                    .filter(Optional::isPresent)
+                    .map(Optional::get)
+                    .collect(Collectors.toList()));
+            planOffers.addAll(planScheduler.resourceOffers(offers, steps, snapshot));
+        } finally {
+            context.stop();
+        }
+        Metrics.incrementAcceptedOffers(planOffers.size());
+        // The plans may have launched tasks or otherwise updated task state, which the cleaner must take into account.
+        snapshot = snapshot.refresh(stateStore);
+        offerCycleSnapshot = snapshot;
         List<Protos.Offer> unusedOffers = OfferUtils.filterOutAcceptedOffers(offers, planOffers);
 
         // Resource Cleaning:
@@ -238,14 +273,25 @@ public class DefaultScheduler extends AbstractScheduler {
         // Note: If there are unused reserved resources on a dirtied offer, then it will be cleaned in the next
         // offer cycle.
         // Note: We reconstruct the instance every cycle to trigger internal reevaluation of expected resources.
-        ResourceCleanerScheduler cleanerScheduler = new ResourceCleanerScheduler(
-                new ResourceCleaner(ResourceCleaner.getExpectedResources(stateStore)), offerAccepter);
-        List<Protos.OfferID> cleanerOffers = cleanerScheduler.resourceOffers(unusedOffers);
+        List<Protos.OfferID> cleanerOffers;
+        context = Metrics.getOfferCyclePhaseTimer(Metrics.OfferCyclePhase.CLEAN);
+        try {
+            ResourceCleanerScheduler cleanerScheduler = new ResourceCleanerScheduler(
+                    new ResourceCleaner(ResourceCleaner.getExpectedResources(snapshot)), offerAccepter);
+            cleanerOffers = cleanerScheduler.resourceOffers(unusedOffers);
+        } finally {
+            context.stop();
+        }
         unusedOffers = OfferUtils.filterOutAcceptedOffers(unusedOffers, cleanerOffers);
 
         // Decline remaining offers.
         if (!unusedOffers.isEmpty()) {
-            OfferUtils.declineLong(unusedOffers);
+            context = Metrics.getOfferCyclePhaseTimer(Metrics.OfferCyclePhase.DECLINE);
+            try {
+                declineUnusedOffers(unusedOffers);
+            } finally {
+                context.stop();
+            }
         }
 
         if (offers.isEmpty()) {
@@ -266,6 +312,93 @@ public class DefaultScheduler extends AbstractScheduler {
         }
     }
 
+    /**
+     * Declines the provided offers for a duration which depends on whether they may be useful to pending work. Offers
+     * which can't be used by any pending work are declined for a long time and tracked, so that offers are only revived
+     * for new work if the new work could use them.
+     */
+    private void declineUnusedOffers(List<Protos.Offer> unusedOffers) {
+        List<Protos.Offer> awaitingTLSArtifactsOffers = new ArrayList<>();
+        List<Protos.Offer> plausibleOffers = new ArrayList<>();
+        List<Protos.Offer> unsuitableOffers = new ArrayList<>();
+        List<Protos.Offer> unevaluatedOffers = new ArrayList<>();
+        for (Protos.Offer offer : unusedOffers) {
+            if (offerEvaluator.wasAwaitingTLSArtifacts(offer.getId())) {
+                awaitingTLSArtifactsOffers.add(offer);
+            } else if (offerEvaluator.wasPlausible(offer.getId())) {
+                plausibleOffers.add(offer);
+            } else if (offerEvaluator.wasUnsuitable(offer.getId())) {
+                unsuitableOffers.add(offer);
+            } else {
+                unevaluatedOffers.add(offer);
+            }
+        }
+        if (!awaitingTLSArtifactsOffers.isEmpty()) {
+            // Steps waiting on certificates will want these offers again soon, and reviving only occurs for new steps,
+            // so the offers are only declined briefly.
+            LOGGER.info("Declining {} offers for a short time: TLS artifacts are still being provisioned",
+                    awaitingTLSArtifactsOffers.size());
+            OfferProcessor.declineShort(awaitingTLSArtifactsOffers);
+        }
+        if (!plausibleOffers.isEmpty()) {
+            // The pending work may be able to use these offers in a later cycle, e.g. once a placement conflict has
+            // cleared, so they should come back without needing a revive.
+            OfferUtils.declineMedium(plausibleOffers);
+        }
+        if (!unsuitableOffers.isEmpty()) {
+            OfferUtils.declineLong(unsuitableOffers);
+            declinedAgentTracker.recordDeclined(unsuitableOffers, DeclinedAgentTracker.Reason.UNSUITABLE);
+        }
+        if (!unevaluatedOffers.isEmpty()) {
+            OfferUtils.declineLong(unevaluatedOffers);
+            declinedAgentTracker.recordDeclined(unevaluatedOffers, DeclinedAgentTracker.Reason.NOT_EVALUATED);
+        }
+        LOGGER.info("Agents with declined offers by reason: {}", declinedAgentTracker.getAgentCounts());
+    }
+
+    @Override
+    protected boolean isReviveUseful(Collection<Step> newWork) {
+        List<PodInstanceRequirement> podInstanceRequirements = new ArrayList<>();
+        for (Step step : newWork) {
+            Optional<PodInstanceRequirement> podInstanceRequirement = step.getPodInstanceRequirement();
+            if (!podInstanceRequirement.isPresent()) {
+                // Can't tell what offers the step may need.
+                return true;
+            }
+            podInstanceRequirements.add(podInstanceRequirement.get());
+        }
+        StateSnapshot snapshot = refreshOfferCycleSnapshot();
+        return declinedAgentTracker.anyDeclinedOfferMatches(offer -> podInstanceRequirements.stream()
+                .anyMatch(podInstanceRequirement -> isPlausible(podInstanceRequirement, snapshot, offer)));
+    }
+
+    @Override
+    protected void offersRevived() {
+        declinedAgentTracker.recordRevived();
+    }
+
+    /**
+     * Returns a snapshot of the current task state, which is the snapshot from the previous check if no task data has
+     * changed since.
+     */
+    private StateSnapshot refreshOfferCycleSnapshot() {
+        offerCycleSnapshot = offerCycleSnapshot == null
+                ? StateSnapshot.create(stateStore, targetConfigId)
+                : offerCycleSnapshot.refresh(stateStore);
+        return offerCycleSnapshot;
+    }
+
+    private boolean isPlausible(
+            PodInstanceRequirement podInstanceRequirement, StateSnapshot snapshot, Protos.Offer offer) {
+        try {
+            return offerEvaluator.isPlausible(podInstanceRequirement, snapshot, offer);
+        } catch (IOException e) {
+            LOGGER.error(String.format("Failed to check offer %s against %s, assuming that it may be used",
+                    offer.getId().getValue(), podInstanceRequirement.getName()), e);
+            return true;
+        }
+    }
+
     @Override
     public void processStatusUpdate(Protos.TaskStatus status) {
         // Store status, then pass status to PlanManager => Plan => Steps
@@ -1,15 +1,19 @@
 package com.mesosphere.sdk.scheduler;
 
 import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.RatioGauge;
 import com.codahale.metrics.Timer;
 import com.mesosphere.sdk.offer.LaunchOfferRecommendation;
 import com.mesosphere.sdk.offer.OfferRecommendation;
 import com.mesosphere.sdk.offer.OperationRecorder;
+import com.mesosphere.sdk.offer.evaluate.OfferEvaluationStage;
 import com.readytalk.metrics.StatsDReporter;
 
 import io.prometheus.client.CollectorRegistry;
 import io.prometheus.client.dropwizard.DropwizardExports;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.mesos.Protos;
@@ -59,6 +63,20 @@ public class Metrics {
     static final String RECEIVED_OFFERS = "offers.received";
     static final String PROCESSED_OFFERS = "offers.processed";
     static final String PROCESS_OFFERS = "offers.process";
+    static final String ACCEPTED_OFFERS = "offers.accepted";
+    static final String PROCESSED_OFFERS_PER_ACCEPT = "offers.processed_per_accept";
+
+    static {
+        // The number of offers processed for each offer which was used to launch or update tasks. Offers which were
+        // only used to clean up resources don't count towards the accepted offers.
+        metrics.register(PROCESSED_OFFERS_PER_ACCEPT, new RatioGauge() {
+            @Override
+            protected Ratio getRatio() {
+                return Ratio.of(
+                        metrics.counter(PROCESSED_OFFERS).getCount(), metrics.counter(ACCEPTED_OFFERS).getCount());
+            }
+        });
+    }
 
     public static void incrementReceivedOffers(long amount) {
         metrics.counter(RECEIVED_OFFERS).inc(amount);
@@ -68,6 +86,10 @@ public class Metrics {
         metrics.counter(PROCESSED_OFFERS).inc(amount);
     }
 
+    public static void incrementAcceptedOffers(long amount) {
+        metrics.counter(ACCEPTED_OFFERS).inc(amount);
+    }
+
     /**
      * Returns a timer context which may be used to measure the time spent processing offers. The returned timer must
      * be terminated by invoking {@link Timer.Context#stop()}.
@@ -76,10 +98,118 @@ public class Metrics {
         return metrics.timer(PROCESS_OFFERS).time();
     }
 
+    // Offer cycle breakdown
+    static final String OFFER_CYCLE_PREFIX = "offers.cycle";
+    static final String OFFER_CYCLE_STORAGE_OPERATIONS = "offers.cycle.storage_operations";
+
+    /**
+     * The phases of an offer cycle which are timed separately. The phases are timed in the order listed, except for
+     * {@link #ACCEPT}, which is nested within {@link #PLANS} and {@link #CLEAN} whenever offers are accepted.
+     */
+    public enum OfferCyclePhase {
+        /** Explicit task reconciliation with Mesos. */
+        RECONCILE,
+        /** Selecting the plan steps which are candidates for offers. */
+        CANDIDATES,
+        /** Deciding whether to revive offers. */
+        REVIVE,
+        /** Evaluating offers against the candidate steps, including accepting any matching offers. */
+        PLANS,
+        /** Recording the accepted operations to the state store and sending them to Mesos. */
+        ACCEPT,
+        /** Unreserving any unexpected reserved resources. */
+        CLEAN,
+        /** Declining any unused offers. */
+        DECLINE;
+
+        String getMetricName() {
+            return String.format("%s.%s", OFFER_CYCLE_PREFIX, name().toLowerCase());
+        }
+    }
+
+    /**
+     * Returns a timer context which may be used to measure the time spent in the provided phase of an offer cycle. The
+     * returned timer must be terminated by invoking {@link Timer.Context#stop()}.
+     */
+    public static Timer.Context getOfferCyclePhaseTimer(OfferCyclePhase phase) {
+        return metrics.timer(phase.getMetricName()).time();
+    }
+
+    /**
+     * Records the number of storage operations which were performed while processing a single batch of offers. As
+     * status updates are handled concurrently with offers, this may include some of their operations.
+     */
+    public static void recordOfferCycleStorageOperations(long count) {
+        metrics.histogram(OFFER_CYCLE_STORAGE_OPERATIONS).update(count);
+    }
+
+    // Offer evaluation
+    static final String EVALUATION_STAGE_PREFIX = "offers.evaluation.stage";
+    static final String EVALUATION_OFFERS_SCANNED = "offers.evaluation.scanned";
+    static final String EVALUATION_OFFERS_SCANNED_PER_EVALUATION = "offers.evaluation.scanned_per_evaluation";
+    static final String EVALUATION_PIPELINES_BUILT = "offers.evaluation.pipelines.built";
+    static final String EVALUATION_PIPELINES_REUSED = "offers.evaluation.pipelines.reused";
+    static final String EVALUATION_FAST_REJECTS = "offers.evaluation.fast_rejects";
+    static final String EVALUATION_PLACEMENT_CACHE_HITS = "offers.evaluation.placement.cache_hits";
+
+    public static void incrementEvaluationPipelinesBuilt() {
+        metrics.counter(EVALUATION_PIPELINES_BUILT).inc();
+    }
+
+    public static void incrementEvaluationPipelinesReused() {
+        metrics.counter(EVALUATION_PIPELINES_REUSED).inc();
+    }
+
+    public static void incrementOffersFastRejected() {
+        metrics.counter(EVALUATION_FAST_REJECTS).inc();
+    }
+
+    public static void incrementPlacementCacheHits() {
+        metrics.counter(EVALUATION_PLACEMENT_CACHE_HITS).inc();
+    }
+
+    /**
+     * Records the number of offers which were examined while evaluating a single pod instance requirement, including
+     * any offers which were rejected early.
+     */
+    public static void recordOffersScanned(int count) {
+        metrics.counter(EVALUATION_OFFERS_SCANNED).inc(count);
+        metrics.histogram(EVALUATION_OFFERS_SCANNED_PER_EVALUATION).update(count);
+    }
+
+    /**
+     * Timers for each {@link OfferEvaluationStage} implementation, looked up once per class rather than once per stage
+     * evaluation.
+     */
+    private static final Map<Class<?>, Timer> EVALUATION_STAGE_TIMERS = new ConcurrentHashMap<>();
+
+    /**
+     * Records the time spent in a single evaluation of the provided stage, measured in nanoseconds.
+     */
+    public static void recordEvaluationStageDuration(OfferEvaluationStage stage, long durationNanos) {
+        EVALUATION_STAGE_TIMERS.computeIfAbsent(stage.getClass(), Metrics::getEvaluationStageTimer)
+                .update(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    static String getEvaluationStageMetricName(Class<?> stageClass) {
+        String name = stageClass.getSimpleName();
+        if (name.isEmpty()) {
+            // Anonymous class
+            name = stageClass.getName().substring(stageClass.getName().lastIndexOf('.') + 1);
+        }
+        return String.format("%s.%s", EVALUATION_STAGE_PREFIX, name);
+    }
+
+    private static Timer getEvaluationStageTimer(Class<?> stageClass) {
+        return metrics.timer(getEvaluationStageMetricName(stageClass));
+    }
+
     // Decline / Revive
     static final String REVIVES = "revives";
     static final String REVIVE_THROTTLES = "revives.throttles";
+    static final String REVIVES_SKIPPED = "revives.skipped";
     static final String DECLINE_SHORT = "declines.short";
+    static final String DECLINE_MEDIUM = "declines.medium";
     static final String DECLINE_LONG = "declines.long";
 
     public static void incrementRevives() {
@@ -90,14 +220,130 @@ public class Metrics {
         metrics.counter(REVIVE_THROTTLES).inc();
     }
 
+    public static void incrementRevivesSkipped() {
+        metrics.counter(REVIVES_SKIPPED).inc();
+    }
+
     public static void incrementDeclinesShort(long amount) {
         metrics.counter(DECLINE_SHORT).inc(amount);
     }
 
+    public static void incrementDeclinesMedium(long amount) {
+        metrics.counter(DECLINE_MEDIUM).inc(amount);
+    }
+
     public static void incrementDeclinesLong(long amount) {
         metrics.counter(DECLINE_LONG).inc(amount);
     }
 
+    // TLS
+    static final String TLS_KEYPAIRS_POOLED = "tls.keypairs.pooled";
+    static final String TLS_KEYPAIRS_POOL_MISSES = "tls.keypairs.pool_misses";
+    static final String TLS_KEYPAIRS_WAIT = "tls.keypairs.wait";
+
+    /**
+     * Adjusts the number of pre-generated keypairs which are waiting to be used, across all keypair pools.
+     */
+    public static void updateKeyPairsPooled(long delta) {
+        metrics.counter(TLS_KEYPAIRS_POOLED).inc(delta);
+    }
+
+    public static void incrementKeyPairPoolMisses() {
+        metrics.counter(TLS_KEYPAIRS_POOL_MISSES).inc();
+    }
+
+    /**
+     * Returns a timer context which may be used to measure the time spent waiting for a keypair, whether it was taken
+     * from a pool or generated inline. The returned timer must be terminated by invoking {@link Timer.Context#stop()}.
+     */
+    public static Timer.Context getKeyPairWaitTimer() {
+        return metrics.timer(TLS_KEYPAIRS_WAIT).time();
+    }
+
+    // State store
+    static final String STATE_CACHE_HITS = "state.cache.hits";
+    static final String STATE_CACHE_MISSES = "state.cache.misses";
+    static final String STATE_CACHE_HIT_RATIO = "state.cache.hit_ratio";
+    static final String STATE_PARSE = "state.parse";
+    static final String STATE_STATUS_WRITES_COALESCED = "state.status.writes.coalesced";
+
+    static {
+        metrics.register(STATE_CACHE_HIT_RATIO, new RatioGauge() {
+            @Override
+            protected Ratio getRatio() {
+                long hits = metrics.counter(STATE_CACHE_HITS).getCount();
+                return Ratio.of(hits, hits + metrics.counter(STATE_CACHE_MISSES).getCount());
+            }
+        });
+    }
+
+    public static void incrementStateCacheHits() {
+        metrics.counter(STATE_CACHE_HITS).inc();
+    }
+
+    public static void incrementStateCacheMisses() {
+        metrics.counter(STATE_CACHE_MISSES).inc();
+    }
+
+    public static void incrementStateStatusWritesCoalesced() {
+        metrics.counter(STATE_STATUS_WRITES_COALESCED).inc();
+    }
+
+    /**
+     * Returns a timer context which may be used to measure the time spent parsing task data retrieved from the
+     * persister. The returned timer must be terminated by invoking {@link Timer.Context#stop()}.
+     */
+    public static Timer.Context getStateParseDurationTimer() {
+        return metrics.timer(STATE_PARSE).time();
+    }
+
+    // Config store
+    static final String CONFIG_UPDATE = "config.update";
+    static final String CONFIG_CACHE_EVICTIONS = "config.cache.evictions";
+    static final String CONFIG_PARSES_SKIPPED = "config.parses.skipped";
+
+    /**
+     * Returns a timer context which may be used to measure the time spent updating the target configuration and
+     * cleaning up unused configurations during scheduler startup. The returned timer must be terminated by invoking
+     * {@link Timer.Context#stop()}.
+     */
+    public static Timer.Context getConfigUpdateDurationTimer() {
+        return metrics.timer(CONFIG_UPDATE).time();
+    }
+
+    public static void incrementConfigCacheEvictions() {
+        metrics.counter(CONFIG_CACHE_EVICTIONS).inc();
+    }
+
+    public static void incrementConfigParsesSkipped() {
+        metrics.counter(CONFIG_PARSES_SKIPPED).inc();
+    }
+
+    // Persister
+    static final String PERSISTER_CACHE_LOAD = "persister.cache.load";
+    static final String PERSISTER_STORAGE_OPERATIONS = "persister.storage.operations";
+
+    /**
+     * Returns a timer context which may be used to measure the time spent loading the persister cache from the
+     * underlying storage, e.g. during scheduler startup. The returned timer must be terminated by invoking
+     * {@link Timer.Context#stop()}.
+     */
+    public static Timer.Context getPersisterCacheLoadDurationTimer() {
+        return metrics.timer(PERSISTER_CACHE_LOAD).time();
+    }
+
+    /**
+     * Counts a read or write which was sent to the underlying storage (e.g. ZooKeeper), rather than being served from
+     * a cache.
+     */
+    public static void incrementStorageOperations() {
+        metrics.counter(PERSISTER_STORAGE_OPERATIONS).inc();
+    }
+
+    public static long getStorageOperationCount() {
+        return metrics.counter(PERSISTER_STORAGE_OPERATIONS).getCount();
+    }
+
     /**
      * This class records counter metrics for all Mesos Operations performed by the scheduler.
      */
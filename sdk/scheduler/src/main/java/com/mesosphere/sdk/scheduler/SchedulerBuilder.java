@@ -74,12 +74,7 @@ public class SchedulerBuilder {
     private Optional<ArtifactQueries.TemplateUrlFactory> templateUrlFactory = Optional.empty();
 
     SchedulerBuilder(ServiceSpec serviceSpec, SchedulerConfig schedulerConfig) throws PersisterException {
-        this(
-                serviceSpec,
-                schedulerConfig,
-                schedulerConfig.isStateCacheEnabled() ?
-                        new PersisterCache(CuratorPersister.newBuilder(serviceSpec).build()) :
-                        CuratorPersister.newBuilder(serviceSpec).build());
+        this(serviceSpec, schedulerConfig, createPersister(serviceSpec, schedulerConfig));
     }
 
     SchedulerBuilder(ServiceSpec serviceSpec, SchedulerConfig schedulerConfig, Persister persister) {
@@ -91,6 +86,20 @@ public class SchedulerBuilder {
         this.persister = persister;
     }
 
+    private static Persister createPersister(ServiceSpec serviceSpec, SchedulerConfig schedulerConfig)
+            throws PersisterException {
+        CuratorPersister curatorPersister = CuratorPersister.newBuilder(serviceSpec).build();
+        if (!schedulerConfig.isStateCacheEnabled()) {
+            return curatorPersister;
+        }
+        PersisterCache persisterCache = new PersisterCache(curatorPersister);
+        if (schedulerConfig.isStateCacheWatchEnabled()) {
+            // Reported changes are ignored until the cache is first loaded in build(), so the watch only reads from ZK.
+            curatorPersister.watch(persisterCache);
+        }
+        return persisterCache;
+    }
+
     /**
      * Returns the {@link ServiceSpec} which was provided via the constructor.
      */
@@ -276,9 +285,19 @@ public class SchedulerBuilder {
         // Otherwise use an empty namespace, which indicates single-service mode.
         String namespaceStr = namespace.orElse("");
         FrameworkStore frameworkStore = new FrameworkStore(persister);
-        StateStore stateStore = new StateStore(persister, namespaceStr);
+        StateStore stateStore =
+                new StateStore(persister, namespaceStr, schedulerConfig.getTaskStatusWriteBehindMs());
+        if (schedulerConfig.getTaskStatusWriteBehindMs() > 0) {
+            // The process exits via System.exit(), so write any pending TaskStatuses from a shutdown hook:
+            Runtime.getRuntime().addShutdownHook(new Thread(stateStore::close, "StateStore-close"));
+        }
         ConfigStore<ServiceSpec> configStore = new ConfigStore<>(
                 DefaultServiceSpec.getConfigurationFactory(serviceSpec), persister, namespaceStr);
+        if (persister instanceof PersisterCache) {
+            // Ensure that any changes to the cached data by other clients are reflected in the state and config stores:
+            ((PersisterCache) persister).addChangeListener(stateStore);
+            ((PersisterCache) persister).addChangeListener(configStore);
+        }
 
         if (schedulerConfig.isUninstallEnabled()) {
             // FRAMEWORK UNINSTALL: The scheduler and all its service(s) are being uninstalled. Launch this service in
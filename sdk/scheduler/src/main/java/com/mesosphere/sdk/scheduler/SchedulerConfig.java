@@ -74,6 +74,13 @@ public class SchedulerConfig {
      */
     private static final String DISABLE_STATE_CACHE_ENV = "DISABLE_STATE_CACHE";
 
+    /**
+     * Controls whether the ZK write-through cache is kept up to date with changes made to ZK by other clients, e.g. an
+     * operator editing ZK directly (disabled by default). Otherwise such changes are only picked up when the cache is
+     * refreshed via the {@code /state/refresh} endpoint.
+     */
+    private static final String STATE_CACHE_WATCH_ENV = "STATE_CACHE_WATCH";
+
     /**
      * When a port named {@code api} is added to the Marathon app definition for the scheduler, marathon should create
      * an envvar with this name in the scheduler env. This is preferred over using e.g. the {@code PORT0} envvar which
@@ -140,6 +147,35 @@ public class SchedulerConfig {
      */
     private static final String ALLOW_REGION_AWARENESS_ENV = "ALLOW_REGION_AWARENESS";
 
+    /**
+     * Environment variable for the number of threads to use when evaluating offers against plan steps. Values greater
+     * than one enable concurrent evaluation of offers across steps.
+     */
+    private static final String OFFER_EVALUATION_THREADS_ENV = "OFFER_EVALUATION_THREADS";
+
+    /**
+     * Environment variable for running the full offer evaluation pipeline against every offer, so that the details of
+     * every rejection are available via the offers endpoint.
+     */
+    private static final String OFFER_EVALUATION_DEBUG_ENV = "OFFER_EVALUATION_DEBUG";
+
+    /**
+     * Environment variable for the number of RSA keypairs to generate in advance for TLS certificates. Zero disables
+     * pre-generation, so that keypairs are only generated when a certificate is needed.
+     */
+    private static final String TLS_KEYPAIR_POOL_SIZE_ENV = "TLS_KEYPAIR_POOL_SIZE";
+
+    /**
+     * Environment variable for the size in bits of the RSA keys generated for TLS certificates.
+     */
+    private static final String TLS_KEY_SIZE_ENV = "TLS_KEY_SIZE";
+
+    /**
+     * Environment variable for the window over which repeated TaskStatus updates for a task are coalesced before being
+     * written to storage (in milliseconds). Zero disables coalescing.
+     */
+    private static final String TASK_STATUS_WRITE_BEHIND_MS_ENV = "TASK_STATUS_WRITE_BEHIND_MS";
+
     /**
      * Environment variable for setting a custom TLD for the service (replaces Constants.TLD_NET).
      */
@@ -244,6 +280,14 @@ public class SchedulerConfig {
         return !envStore.isPresent(DISABLE_STATE_CACHE_ENV);
     }
 
+    /**
+     * Returns whether the state cache should watch ZK for changes made by other clients, rather than only being
+     * refreshed on request.
+     */
+    public boolean isStateCacheWatchEnabled() {
+        return envStore.getOptionalBoolean(STATE_CACHE_WATCH_ENV, false);
+    }
+
     public boolean isUninstallEnabled() {
         return envStore.isPresent(SDK_UNINSTALL);
     }
@@ -375,4 +419,44 @@ public class SchedulerConfig {
     public boolean isRegionAwarenessEnabled() {
         return envStore.getOptionalBoolean(ALLOW_REGION_AWARENESS_ENV, false);
     }
+
+    /**
+     * Returns the number of threads to use when evaluating offers against plan steps. A value of one (the default)
+     * evaluates offers against each step in turn, while larger values evaluate offers against all steps concurrently.
+     */
+    public int getOfferEvaluationThreads() {
+        return envStore.getOptionalInt(OFFER_EVALUATION_THREADS_ENV, 1);
+    }
+
+    /**
+     * Returns whether every offer should be evaluated against the full evaluation pipeline. By default, offers which
+     * fail cheap checks (e.g. insufficient total resources, or a placement rule mismatch) are rejected without running
+     * the full pipeline, and only the failing check is reported.
+     */
+    public boolean isOfferEvaluationDebugEnabled() {
+        return envStore.getOptionalBoolean(OFFER_EVALUATION_DEBUG_ENV, false);
+    }
+
+    /**
+     * Returns the number of RSA keypairs to generate in advance for services which use TLS. Keypairs are generated in
+     * the background until this many are waiting to be used. Zero disables pre-generation.
+     */
+    public int getTLSKeyPairPoolSize() {
+        return envStore.getOptionalInt(TLS_KEYPAIR_POOL_SIZE_ENV, 4);
+    }
+
+    /**
+     * Returns the size in bits of the RSA keys to generate for TLS certificates.
+     */
+    public int getTLSKeySize() {
+        return envStore.getOptionalInt(TLS_KEY_SIZE_ENV, 2048);
+    }
+
+    /**
+     * Returns the window over which repeated TaskStatus updates for a task may be coalesced before being written to
+     * storage, in milliseconds. Zero (the default) writes every update to storage before it's processed.
+     */
+    public long getTaskStatusWriteBehindMs() {
+        return envStore.getOptionalLong(TASK_STATUS_WRITE_BEHIND_MS_ENV, 0 /* disabled */);
+    }
 }
@@ -4,10 +4,9 @@ import com.mesosphere.sdk.framework.TaskKiller;
 import com.mesosphere.sdk.state.StateStore;
 import org.apache.mesos.Protos;
 
-import java.util.Collection;
+import java.util.Collections;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.stream.Collectors;
 
 /**
  * This class kills unexpected Tasks which are not in a terminal state.  This scenario could be encountered if a Task
@@ -41,11 +40,7 @@ public class TaskCleaner {
             return;
         }
 
-        Collection<Protos.TaskID> expectedTaskIds = stateStore.fetchTasks().stream()
-                .map(taskInfo -> taskInfo.getTaskId())
-                .collect(Collectors.toList());
-
-        if (!expectedTaskIds.contains(taskStatus.getTaskId())) {
+        if (stateStore.fetchTaskNamesByIds(Collections.singleton(taskStatus.getTaskId())).isEmpty()) {
             TaskKiller.killTask(taskStatus.getTaskId());
         }
     }
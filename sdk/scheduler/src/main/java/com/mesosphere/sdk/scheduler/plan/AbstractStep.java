@@ -8,6 +8,7 @@ import com.mesosphere.sdk.offer.LoggingUtils;
 
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Provides a default implementation of commonly-used {@link Step} logic.
@@ -25,6 +26,8 @@ public abstract class AbstractStep implements Step {
     private final Object statusLock = new Object();
     private Status status;
     private boolean interrupted;
+    // Transient: excluded from reflection-based toString() and equals()
+    private final transient AtomicLong statusVersion = new AtomicLong(0);
 
     protected AbstractStep(String name, Status status) {
         this.name = name;
@@ -63,6 +66,7 @@ public abstract class AbstractStep implements Step {
         synchronized (statusLock) {
             oldStatus = status;
             status = newStatus;
+            statusVersion.incrementAndGet();
             logger.info("{}: changed status from: {} to: {} (interrupted={})",
                     getName(), oldStatus, newStatus, interrupted);
         }
@@ -72,6 +76,7 @@ public abstract class AbstractStep implements Step {
     public void interrupt() {
         synchronized (statusLock) {
             interrupted = true;
+            statusVersion.incrementAndGet();
         }
     }
 
@@ -79,6 +84,7 @@ public abstract class AbstractStep implements Step {
     public void proceed() {
         synchronized (statusLock) {
             interrupted = false;
+            statusVersion.incrementAndGet();
         }
     }
 
@@ -89,6 +95,23 @@ public abstract class AbstractStep implements Step {
         }
     }
 
+    /**
+     * Returns whether every change to this step's status, interruption, and errors is made via
+     * {@link #setStatus(Status)}, {@link #interrupt()}, or {@link #proceed()}, so that the aggregate status of its
+     * parents may be memoized, see {@link StatusCache}. Subclasses which may change their status in any other way, e.g.
+     * by overriding {@link #getStatus()}, must not opt in to this.
+     */
+    protected boolean isStatusTracked() {
+        return false;
+    }
+
+    /**
+     * Returns a value which increases whenever this step's status or interruption is changed.
+     */
+    long getStatusVersion() {
+        return statusVersion.get();
+    }
+
     @Override
     public void restart() {
         logger.warn("Restarting step: '{} [{}]'", getName(), getId());
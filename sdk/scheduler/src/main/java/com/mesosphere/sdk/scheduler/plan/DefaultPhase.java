@@ -20,6 +20,8 @@ public class DefaultPhase implements Phase {
     private final Strategy<Step> strategy;
     private final List<String> errors;
     private final List<Step> steps;
+    // Transient: excluded from reflection-based toString() and equals()
+    final transient StatusCache statusCache = new StatusCache(this);
 
     public DefaultPhase(String name, List<Step> steps, Strategy<Step> strategy, List<String> errors) {
         this.name = name;
@@ -43,6 +45,15 @@ public class DefaultPhase implements Phase {
         return name;
     }
 
+    /**
+     * Returns the aggregate status of this phase's steps, which is only recomputed after the state of a step or
+     * strategy has changed. See {@link StatusCache}.
+     */
+    @Override
+    public Status getStatus() {
+        return statusCache.get(() -> Phase.super.getStatus());
+    }
+
     @Override
     public List<String> getErrors() {
         return getErrors(errors);
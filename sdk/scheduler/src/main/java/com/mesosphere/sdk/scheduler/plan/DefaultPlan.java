@@ -3,13 +3,18 @@ package com.mesosphere.sdk.scheduler.plan;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 
 import com.google.common.base.Joiner;
+import com.google.protobuf.TextFormat;
 import com.mesosphere.sdk.scheduler.plan.strategy.SerialStrategy;
 import com.mesosphere.sdk.scheduler.plan.strategy.Strategy;
 
+import org.apache.mesos.Protos;
+
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -24,6 +29,8 @@ public class DefaultPlan implements Plan {
     private final List<Phase> phases;
     private final List<String> errors;
     private final String name;
+    private final TaskStatusRouter taskStatusRouter;
+    private final StatusCache statusCache = new StatusCache(this);
 
     public DefaultPlan(
             final String name,
@@ -34,6 +41,7 @@ public class DefaultPlan implements Plan {
         this.strategy = strategy;
         this.phases = phases;
         this.errors = errors;
+        this.taskStatusRouter = new TaskStatusRouter(phases);
     }
 
     public DefaultPlan(String name, List<Phase> phases) {
@@ -49,6 +57,22 @@ public class DefaultPlan implements Plan {
         return phases;
     }
 
+    /**
+     * Offers the provided status to the steps which launched the task in question, or to every element in the plan if
+     * the task isn't known to have been launched by any step. See {@link TaskStatusRouter}.
+     */
+    @Override
+    public void update(Protos.TaskStatus status) {
+        Optional<Collection<Element>> targets = taskStatusRouter.getTargets(status.getTaskId());
+        if (targets.isPresent()) {
+            LOGGER.debug("Updated {} elements of {} with TaskStatus: {}",
+                    targets.get().size(), getName(), TextFormat.shortDebugString(status));
+            targets.get().forEach(element -> element.update(status));
+        } else {
+            Plan.super.update(status);
+        }
+    }
+
     @Override
     public Strategy<Phase> getStrategy() {
         return strategy;
@@ -64,6 +88,15 @@ public class DefaultPlan implements Plan {
         return name;
     }
 
+    /**
+     * Returns the aggregate status of this plan's phases, which is only recomputed after the state of a step or
+     * strategy has changed. See {@link StatusCache}.
+     */
+    @Override
+    public Status getStatus() {
+        return statusCache.get(() -> Plan.super.getStatus());
+    }
+
     @Override
     public List<String> getErrors() {
         return getErrors(errors);
@@ -3,7 +3,9 @@ package com.mesosphere.sdk.scheduler.plan;
 import com.mesosphere.sdk.framework.TaskKiller;
 import com.mesosphere.sdk.offer.*;
 import com.mesosphere.sdk.offer.evaluate.OfferEvaluator;
+import com.mesosphere.sdk.offer.evaluate.OfferEvaluator.OfferEvaluation;
 import com.mesosphere.sdk.specification.TaskSpec;
+import com.mesosphere.sdk.state.StateSnapshot;
 import com.mesosphere.sdk.state.StateStore;
 
 import org.apache.mesos.Protos;
@@ -14,6 +16,13 @@ import org.slf4j.Logger;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 /**
@@ -23,28 +32,77 @@ public class DefaultPlanScheduler implements PlanScheduler {
 
     private static final Logger LOGGER = LoggingUtils.getLogger(DefaultPlanScheduler.class);
 
+    /**
+     * How long an offer evaluation thread may be idle before it exits. Offers arrive in bursts, so threads are only
+     * kept around while offers are being processed.
+     */
+    private static final long EVALUATION_THREAD_KEEPALIVE_SECONDS = 60;
+
     private final OfferAccepter offerAccepter;
     private final OfferEvaluator offerEvaluator;
     private final StateStore stateStore;
+    private final Optional<ExecutorService> evaluationExecutor;
 
     public DefaultPlanScheduler(OfferAccepter offerAccepter, OfferEvaluator offerEvaluator, StateStore stateStore) {
+        this(offerAccepter, offerEvaluator, stateStore, 1);
+    }
+
+    /**
+     * Creates a new instance which evaluates offers using up to {@code evaluationThreads} threads. If this is greater
+     * than one, offers are evaluated against all candidate steps concurrently, see
+     * {@link #resourceOffersParallel(List, Collection, StateSnapshot, ExecutorService)}. Otherwise offers are evaluated
+     * against each step in turn on the calling thread. Evaluation threads are daemon threads which exit when idle, so
+     * they don't need to be explicitly stopped.
+     */
+    public DefaultPlanScheduler(
+            OfferAccepter offerAccepter, OfferEvaluator offerEvaluator, StateStore stateStore, int evaluationThreads) {
         this.offerAccepter = offerAccepter;
         this.offerEvaluator = offerEvaluator;
         this.stateStore = stateStore;
+        if (evaluationThreads > 1) {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                    evaluationThreads,
+                    evaluationThreads,
+                    EVALUATION_THREAD_KEEPALIVE_SECONDS,
+                    TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "offer-evaluation");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            executor.allowCoreThreadTimeOut(true);
+            this.evaluationExecutor = Optional.of(executor);
+        } else {
+            this.evaluationExecutor = Optional.empty();
+        }
     }
 
     @Override
     public Collection<OfferID> resourceOffers(final Collection<Offer> offers, final Collection<? extends Step> steps) {
+        return resourceOffers(offers, steps, StateSnapshot.create(stateStore, offerEvaluator.getTargetConfigId()));
+    }
+
+    @Override
+    public Collection<OfferID> resourceOffers(
+            final Collection<Offer> offers, final Collection<? extends Step> steps, StateSnapshot snapshot) {
         if (offers == null || steps == null) {
             LOGGER.error("Unexpected null argument(s) encountered: offers='{}', steps='{}'", offers, steps);
             return Collections.emptyList();
         }
 
+        if (evaluationExecutor.isPresent()) {
+            return resourceOffersParallel(new ArrayList<>(offers), steps, snapshot, evaluationExecutor.get());
+        }
+
         List<OfferID> acceptedOfferIds = new ArrayList<>();
         List<Offer> availableOffers = new ArrayList<>(offers);
 
         for (Step step : steps) {
-            acceptedOfferIds.addAll(resourceOffers(availableOffers, step));
+            // Earlier steps may have launched tasks or otherwise updated task state. If so, refresh the snapshot so
+            // that this step (and any placement rules it has) sees those changes.
+            snapshot = snapshot.refresh(stateStore);
+            acceptedOfferIds.addAll(resourceOffers(availableOffers, step, snapshot));
             availableOffers = availableOffers.stream()
                     .filter(offer -> !acceptedOfferIds.contains(offer.getId()))
                     .collect(Collectors.toList());
@@ -53,21 +111,209 @@ public class DefaultPlanScheduler implements PlanScheduler {
         return acceptedOfferIds;
     }
 
-    private Collection<OfferID> resourceOffers(List<Offer> offers, Step step) {
+    private Collection<OfferID> resourceOffers(List<Offer> offers, Step step, StateSnapshot snapshot) {
+        Optional<PodInstanceRequirement> podInstanceRequirementOptional = startStep(step);
+        if (!podInstanceRequirementOptional.isPresent()) {
+            return Collections.emptyList();
+        }
+
+        PodInstanceRequirement podInstanceRequirement = podInstanceRequirementOptional.get();
+        // It is harmless to attempt to kill tasks which have never been launched.  This call attempts to Kill all Tasks
+        // with a Task name which is equivalent to that expressed by the OfferRequirement.  If no such Task is currently
+        // running no operation occurs.
+        killTasks(podInstanceRequirement, snapshot);
 
-        if (offers == null) {
-            LOGGER.error("Unexpected null argument: 'offers'");
+        // Step has returned an OfferRequirement to process. Find offers which match the
+        // requirement and accept them, if any are found:
+        List<OfferRecommendation> recommendations = null;
+        try {
+            recommendations = offerEvaluator.evaluate(podInstanceRequirement, snapshot, offers);
+        } catch (InvalidRequirementException | IOException e) {
+            LOGGER.error("Failed generate OfferRecommendations.", e);
             return Collections.emptyList();
         }
 
+        return acceptRecommendations(step, podInstanceRequirement, recommendations);
+    }
+
+    /**
+     * Evaluates the provided offers against all of the provided steps concurrently, then assigns offers to steps in a
+     * separate serial pass. The assignment pass walks the steps in order and gives each step the first offer which
+     * passed evaluation for that step and which hasn't already been accepted by an earlier step. This produces the same
+     * step-to-offer assignments as evaluating the steps one at a time.
+     *
+     * <p>The concurrent evaluations are made against each step's current requirement, before the step is started.
+     * Steps are only started, and have their tasks killed, during the serial pass, in the same order and against the
+     * same state as when evaluating serially. A step is reevaluated on the calling thread against the updated state if
+     * starting it produced a different requirement, or if the concurrent evaluations may be stale: an earlier step
+     * launched tasks and the step has a placement rule (which looks at all tasks in the service), or the step's own
+     * tasks have changed.
+     */
+    private Collection<OfferID> resourceOffersParallel(
+            List<Offer> offers, Collection<? extends Step> steps, StateSnapshot snapshot, ExecutorService executor) {
+        // Evaluate every step/offer pair concurrently. Nothing is logged or tracked for these evaluations until they're
+        // used in the serial pass, as many of them may be discarded.
+        final StateSnapshot evaluatedSnapshot = snapshot.refresh(stateStore);
+        final AtomicBoolean abandoned = new AtomicBoolean(false);
+        Map<Step, StepEvaluation> stepEvaluations = new IdentityHashMap<>();
+        for (Step step : steps) {
+            if (step == null || !(step.isPending() || step.isPrepared())) {
+                continue;
+            }
+            Optional<PodInstanceRequirement> podInstanceRequirement = step.getPodInstanceRequirement();
+            if (!podInstanceRequirement.isPresent()) {
+                continue;
+            }
+            StepEvaluation stepEvaluation = new StepEvaluation(podInstanceRequirement.get());
+            for (Offer offer : offers) {
+                stepEvaluation.offerResults.add(executor.submit(() -> abandoned.get()
+                        ? null
+                        : offerEvaluator.evaluateOffer(
+                                stepEvaluation.podInstanceRequirement, evaluatedSnapshot, offer)));
+            }
+            stepEvaluations.put(step, stepEvaluation);
+        }
+
+        // Start the steps and assign offers to them in order, discarding the results for offers which were taken by
+        // earlier steps.
+        List<OfferID> acceptedOfferIds = new ArrayList<>();
+        snapshot = evaluatedSnapshot;
+        try {
+            for (Step step : steps) {
+                snapshot = snapshot.refresh(stateStore);
+                Optional<PodInstanceRequirement> podInstanceRequirementOptional = startStep(step);
+                if (!podInstanceRequirementOptional.isPresent()) {
+                    continue;
+                }
+                PodInstanceRequirement podInstanceRequirement = podInstanceRequirementOptional.get();
+                killTasks(podInstanceRequirement, snapshot);
+
+                StepEvaluation stepEvaluation = stepEvaluations.get(step);
+                List<OfferRecommendation> recommendations;
+                try {
+                    if (stepEvaluation == null
+                            || !stepEvaluation.podInstanceRequirement.equals(podInstanceRequirement)
+                            || isStale(podInstanceRequirement, evaluatedSnapshot, snapshot)) {
+                        LOGGER.info("Reevaluating step {} against current task state", step.getName());
+                        recommendations = offerEvaluator.evaluate(
+                                podInstanceRequirement,
+                                snapshot,
+                                offers.stream()
+                                        .filter(offer -> !acceptedOfferIds.contains(offer.getId()))
+                                        .collect(Collectors.toList()));
+                    } else {
+                        recommendations = offerEvaluator.recordEvaluations(
+                                podInstanceRequirement,
+                                getEvaluationsUntilPassing(stepEvaluation, offers, acceptedOfferIds));
+                    }
+                } catch (InvalidRequirementException | IOException e) {
+                    LOGGER.error("Failed generate OfferRecommendations.", e);
+                    continue;
+                } catch (InterruptedException e) {
+                    LOGGER.error("Interrupted while waiting for offer evaluation.", e);
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                acceptedOfferIds.addAll(acceptRecommendations(step, podInstanceRequirement, recommendations));
+            }
+        } finally {
+            // Skip any evaluations which haven't started yet, as their results will never be used, and wait for the
+            // rest to finish so that they don't run into the next offer cycle.
+            abandoned.set(true);
+            awaitAll(stepEvaluations.values());
+        }
+
+        return acceptedOfferIds;
+    }
+
+    private static void awaitAll(Collection<StepEvaluation> stepEvaluations) {
+        for (StepEvaluation stepEvaluation : stepEvaluations) {
+            for (Future<OfferEvaluation> result : stepEvaluation.offerResults) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    // Already logged or rethrown when the result was used, or not needed.
+                } catch (InterruptedException e) {
+                    LOGGER.error("Interrupted while waiting for offer evaluations to finish.", e);
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the concurrent evaluations of the offers which haven't been accepted by earlier steps, in order, up to
+     * and including the first which passed. These are the offers which would have been evaluated when evaluating
+     * serially.
+     */
+    private static List<OfferEvaluation> getEvaluationsUntilPassing(
+            StepEvaluation stepEvaluation, List<Offer> offers, Collection<OfferID> acceptedOfferIds)
+            throws InvalidRequirementException, IOException, InterruptedException {
+        List<OfferEvaluation> evaluations = new ArrayList<>();
+        for (int i = 0; i < offers.size(); ++i) {
+            if (acceptedOfferIds.contains(offers.get(i).getId())) {
+                continue;
+            }
+            OfferEvaluation evaluation;
+            try {
+                evaluation = stepEvaluation.offerResults.get(i).get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof InvalidRequirementException) {
+                    throw (InvalidRequirementException) e.getCause();
+                } else if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                } else if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+            evaluations.add(evaluation);
+            if (evaluation.isPassing()) {
+                break;
+            }
+        }
+        return evaluations;
+    }
+
+    /**
+     * Returns whether evaluations of the provided requirement which were made against {@code evaluatedSnapshot} may
+     * produce different results against {@code currentSnapshot}.
+     */
+    private static boolean isStale(
+            PodInstanceRequirement podInstanceRequirement,
+            StateSnapshot evaluatedSnapshot,
+            StateSnapshot currentSnapshot) {
+        if (evaluatedSnapshot == currentSnapshot) {
+            return false;
+        }
+        if (podInstanceRequirement.getPodInstance().getPod().getPlacementRule().isPresent()) {
+            return true;
+        }
+        for (String taskName : TaskUtils.getTaskNames(podInstanceRequirement.getPodInstance())) {
+            if (!evaluatedSnapshot.getTask(taskName).equals(currentSnapshot.getTask(taskName))
+                    || !evaluatedSnapshot.getStatus(taskName).equals(currentSnapshot.getStatus(taskName))
+                    || !evaluatedSnapshot.getGoalOverrideStatus(taskName)
+                            .equals(currentSnapshot.getGoalOverrideStatus(taskName))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Starts the provided step if it's eligible for offers, returning its requirement, or an empty {@link Optional} if
+     * the step doesn't need any offers.
+     */
+    private static Optional<PodInstanceRequirement> startStep(Step step) {
         if (step == null) {
             LOGGER.info("Ignoring resource offers for null step.");
-            return Collections.emptyList();
+            return Optional.empty();
         }
 
         if (!(step.isPending() || step.isPrepared())) {
             LOGGER.info("Ignoring resource offers for step: {} status: {}", step.getName(), step.getStatus());
-            return Collections.emptyList();
+            return Optional.empty();
         }
 
         LOGGER.info("Processing resource offers for step: {}", step.getName());
@@ -75,25 +321,15 @@ public class DefaultPlanScheduler implements PlanScheduler {
         if (!podInstanceRequirementOptional.isPresent()) {
             LOGGER.info("No PodInstanceRequirement for step: {}", step.getName());
             step.updateOfferStatus(Collections.emptyList());
-            return Collections.emptyList();
-        }
-
-        PodInstanceRequirement podInstanceRequirement = podInstanceRequirementOptional.get();
-        // It is harmless to attempt to kill tasks which have never been launched.  This call attempts to Kill all Tasks
-        // with a Task name which is equivalent to that expressed by the OfferRequirement.  If no such Task is currently
-        // running no operation occurs.
-        killTasks(podInstanceRequirement);
-
-        // Step has returned an OfferRequirement to process. Find offers which match the
-        // requirement and accept them, if any are found:
-        List<OfferRecommendation> recommendations = null;
-        try {
-            recommendations = offerEvaluator.evaluate(podInstanceRequirement, offers);
-        } catch (InvalidRequirementException | IOException e) {
-            LOGGER.error("Failed generate OfferRecommendations.", e);
-            return Collections.emptyList();
         }
+        return podInstanceRequirementOptional;
+    }
 
+    /**
+     * Accepts the provided recommendations for the provided step, if any, and notifies the step of the outcome.
+     */
+    private Collection<OfferID> acceptRecommendations(
+            Step step, PodInstanceRequirement podInstanceRequirement, List<OfferRecommendation> recommendations) {
         if (recommendations.isEmpty()) {
             // Log that we're not finding suitable offers, possibly due to insufficient resources.
             LOGGER.warn(
@@ -117,9 +353,8 @@ public class DefaultPlanScheduler implements PlanScheduler {
         return acceptedOffers;
     }
 
-    private void killTasks(PodInstanceRequirement podInstanceRequirement) {
-        Map<String, TaskInfo> taskInfoMap = new HashMap<>();
-        stateStore.fetchTasks().forEach(taskInfo -> taskInfoMap.put(taskInfo.getName(), taskInfo));
+    private void killTasks(PodInstanceRequirement podInstanceRequirement, StateSnapshot snapshot) {
+        Map<String, TaskInfo> taskInfoMap = snapshot.getTasksByName();
         LOGGER.info("Killing tasks for pod instance requirement: {}:{}",
                 podInstanceRequirement.getPodInstance().getName(),
                 podInstanceRequirement.getTasksToLaunch());
@@ -147,7 +382,7 @@ public class DefaultPlanScheduler implements PlanScheduler {
         for (String taskName : tasksToKill) {
             TaskInfo taskInfo = taskInfoMap.get(taskName);
             if (taskInfo != null) {
-                Optional<Protos.TaskStatus> taskStatusOptional = stateStore.fetchStatus(taskInfo.getName());
+                Optional<Protos.TaskStatus> taskStatusOptional = snapshot.getStatus(taskInfo.getName());
 
                 Protos.TaskState state = Protos.TaskState.TASK_RUNNING;
                 if (taskStatusOptional.isPresent()) {
@@ -182,4 +417,17 @@ public class DefaultPlanScheduler implements PlanScheduler {
 
         return filteredRecommendations;
     }
+
+    /**
+     * A step's requirement and the pending results of evaluating each offer against it, in the same order as the
+     * offers.
+     */
+    private static class StepEvaluation {
+        private final PodInstanceRequirement podInstanceRequirement;
+        private final List<Future<OfferEvaluation>> offerResults = new ArrayList<>();
+
+        private StepEvaluation(PodInstanceRequirement podInstanceRequirement) {
+            this.podInstanceRequirement = podInstanceRequirement;
+        }
+    }
 }
@@ -13,6 +13,7 @@ import org.apache.mesos.Protos;
 
 import java.util.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
@@ -26,6 +27,10 @@ public class DeploymentStep extends AbstractStep {
     private final List<String> errors = new ArrayList<>();
     private final Map<String, String> parameters = new HashMap<>();
     private Map<Protos.TaskID, TaskStatusPair> tasks = new HashMap<>();
+    // Immutable copy of the keys in tasks, which may be read without synchronizing on this step. Transient: excluded
+    // from reflection-based toString() and equals(), along with the count of changes to it.
+    private transient volatile Set<Protos.TaskID> taskIds = Collections.emptySet();
+    private final transient AtomicLong taskIdsVersion = new AtomicLong();
     private final AtomicBoolean prepared = new AtomicBoolean(false);
 
     /**
@@ -113,6 +118,10 @@ public class DeploymentStep extends AbstractStep {
                 .forEach(taskInfo -> tasks.put(taskInfo.getTaskId(), new TaskStatusPair(taskInfo, Status.PREPARED)));
 
         logger.info("Step '{} [{}]' is now waiting for updates for task IDs: {}", getName(), getId(), tasks.keySet());
+        if (!taskIds.equals(tasks.keySet())) {
+            taskIds = Collections.unmodifiableSet(new HashSet<>(tasks.keySet()));
+            taskIdsVersion.incrementAndGet();
+        }
 
         if (recommendations.isEmpty()) {
             tasks.keySet().forEach(id -> setTaskStatus(id, Status.PREPARED));
@@ -129,6 +138,39 @@ public class DeploymentStep extends AbstractStep {
         return errors;
     }
 
+    /**
+     * Returns the IDs of the tasks launched by this step, whose {@link Protos.TaskStatus} updates are relevant to this
+     * step. Status updates for any other tasks are ignored by {@link #update(Protos.TaskStatus)}.
+     */
+    Set<Protos.TaskID> getTaskIds() {
+        return taskIds;
+    }
+
+    /**
+     * Returns a value which increases whenever the result of {@link #getTaskIds()} changes.
+     */
+    long getTaskIdsVersion() {
+        return taskIdsVersion.get();
+    }
+
+    /**
+     * Returns whether {@link #update(Protos.TaskStatus)} ignores statuses for any tasks other than those returned by
+     * {@link #getTaskIds()}, in which case the plan may skip this step for those statuses. See
+     * {@link TaskStatusRouter}. Subclasses may change how statuses are handled, so they must opt in by overriding
+     * this.
+     */
+    protected boolean ignoresOtherTaskStatuses() {
+        return getClass() == DeploymentStep.class;
+    }
+
+    /**
+     * Subclasses may change how their status is determined, so they must opt in by overriding this.
+     */
+    @Override
+    protected boolean isStatusTracked() {
+        return getClass() == DeploymentStep.class;
+    }
+
     @Override
     public String getDisplayStatus() {
         // NOTE: This is obtained on the fly because it's only effectively needed when someone is actually fetching
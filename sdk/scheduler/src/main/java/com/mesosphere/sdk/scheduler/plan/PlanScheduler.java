@@ -1,5 +1,6 @@
 package com.mesosphere.sdk.scheduler.plan;
 
+import com.mesosphere.sdk.state.StateSnapshot;
 import org.apache.mesos.Protos.Offer;
 import org.apache.mesos.Protos.OfferID;
 
@@ -21,4 +22,21 @@ public interface PlanScheduler {
     Collection<OfferID> resourceOffers(
             final Collection<Offer> offers,
             final Collection<? extends Step> steps);
+
+    /**
+     * Processes the provided {@code Offer}s against the provided {@link Step}s as with
+     * {@link #resourceOffers(Collection, Collection)}, reading task state from the provided {@link StateSnapshot}
+     * rather than from the state store. The default implementation ignores the snapshot and reads task state as usual
+     * via {@link #resourceOffers(Collection, Collection)}.
+     *
+     * @param snapshot the service's tasks and target configuration at the start of the current offer cycle
+     * @return a list of zero or more of the provided offers which were accepted to fulfill offer
+     *         requirements returned by the {@link Step}
+     */
+    default Collection<OfferID> resourceOffers(
+            final Collection<Offer> offers,
+            final Collection<? extends Step> steps,
+            final StateSnapshot snapshot) {
+        return resourceOffers(offers, steps);
+    }
 }
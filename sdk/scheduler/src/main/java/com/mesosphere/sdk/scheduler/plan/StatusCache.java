@@ -0,0 +1,89 @@
+package com.mesosphere.sdk.scheduler.plan;
+
+import com.mesosphere.sdk.scheduler.plan.strategy.Strategy;
+
+import java.util.function.Supplier;
+
+/**
+ * Memoizes the aggregate {@link Status} of a {@link ParentElement}, which would otherwise be recomputed from every
+ * descendant (including a walk of each {@link Strategy}'s candidates) whenever it's queried.
+ *
+ * <p>Elements may be shared across parents (e.g. recovery phases are carried over into each new recovery plan), so
+ * changes aren't pushed to specific parents. Instead, each tracked step and strategy counts the changes to its own
+ * state, and a parent's cached status is reused for as long as the sum of those counts across its descendants is
+ * unchanged. Summing the counts is much cheaper than computing the status, and only involves the parent's own
+ * descendants.
+ *
+ * <p>Statuses are only cached for parents whose descendants have all opted in to this tracking: {@link AbstractStep}s
+ * which return {@code true} from {@link AbstractStep#isStatusTracked()}, {@link DefaultPhase}s, and strategies which
+ * return {@code true} from {@link Strategy#isStatusTracked()}. Any other implementations may change their status at
+ * will, so parents of those always compute their status on demand.
+ */
+public class StatusCache {
+
+    private static final long UNTRACKED = -1;
+
+    private final ParentElement<?> parent;
+
+    private long cachedVersion = UNTRACKED;
+    private Status cachedStatus;
+
+    StatusCache(ParentElement<?> parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Returns the cached status of the parent element, or the result of {@code computeStatus} if the state of any of
+     * its descendants may have changed since it was last computed.
+     */
+    synchronized Status get(Supplier<Status> computeStatus) {
+        // Get the version before computing: If anything changes while we're computing, we'll recompute next time.
+        long version = getVersion(parent);
+        if (version == UNTRACKED) {
+            cachedVersion = UNTRACKED;
+            return computeStatus.get();
+        }
+        if (version != cachedVersion) {
+            cachedStatus = computeStatus.get();
+            cachedVersion = version;
+        }
+        return cachedStatus;
+    }
+
+    /**
+     * Returns whether changes to the state of the parent element and all of its descendants are currently tracked. This
+     * is checked on every query, so it reflects any changes to the parent's children.
+     */
+    boolean isTracked() {
+        return getVersion(parent) != UNTRACKED;
+    }
+
+    /**
+     * Returns the sum of the change counts of the provided parent's strategy and descendants, or {@link #UNTRACKED} if
+     * any of them aren't tracked.
+     */
+    private static long getVersion(ParentElement<?> parent) {
+        Strategy<?> strategy = parent.getStrategy();
+        if (!strategy.isStatusTracked()) {
+            return UNTRACKED;
+        }
+        long version = strategy.getStatusVersion();
+        for (Element child : parent.getChildren()) {
+            long childVersion = getVersion(child);
+            if (childVersion == UNTRACKED) {
+                return UNTRACKED;
+            }
+            version += childVersion;
+        }
+        return version;
+    }
+
+    private static long getVersion(Element element) {
+        if (element instanceof AbstractStep && ((AbstractStep) element).isStatusTracked()) {
+            return ((AbstractStep) element).getStatusVersion();
+        } else if (element.getClass() == DefaultPhase.class) {
+            return getVersion((DefaultPhase) element);
+        }
+        return UNTRACKED;
+    }
+}
@@ -0,0 +1,95 @@
+package com.mesosphere.sdk.scheduler.plan;
+
+import org.apache.mesos.Protos;
+
+import java.util.*;
+
+/**
+ * Routes {@link Protos.TaskStatus} updates within a plan to the {@link DeploymentStep}s which launched the tasks in
+ * question, rather than offering each status to every step in the plan.
+ *
+ * <p>A {@link DeploymentStep} which {@link DeploymentStep#ignoresOtherTaskStatuses()} may be safely skipped for updates
+ * about tasks other than those which it launched. Any other {@link Step}s, or any {@link Phase}s other than
+ * {@link DefaultPhase}s, may have other behavior and therefore continue to receive every update. Updates for tasks
+ * which aren't known to have been launched by any step in the plan are offered to every element, as before.
+ */
+class TaskStatusRouter {
+
+    private final List<Phase> phases;
+
+    private long indexedVersion = -1;
+    private Map<Protos.TaskID, List<Element>> stepsByTaskId = Collections.emptyMap();
+    private List<Element> unroutedElements = Collections.emptyList();
+
+    TaskStatusRouter(List<Phase> phases) {
+        this.phases = phases;
+    }
+
+    /**
+     * Returns the elements which should be offered the status update for the provided task, or an empty
+     * {@link Optional} if the update should be offered to every element.
+     */
+    synchronized Optional<Collection<Element>> getTargets(Protos.TaskID taskId) {
+        // Get the version before the task IDs themselves: If a step's task IDs change while we're rebuilding, the
+        // index will be rebuilt again on the next update.
+        long version = getTaskIdsVersion();
+        if (version != indexedVersion) {
+            rebuildIndex();
+            indexedVersion = version;
+        }
+
+        List<Element> steps = stepsByTaskId.get(taskId);
+        if (steps == null) {
+            return Optional.empty();
+        }
+        List<Element> targets = new ArrayList<>(steps.size() + unroutedElements.size());
+        targets.addAll(steps);
+        targets.addAll(unroutedElements);
+        return Optional.of(targets);
+    }
+
+    /**
+     * Returns a value which increases whenever the task IDs of any routed step in this plan change. This is a sum of
+     * the steps' own counts of changes, so it only reflects the steps in this plan.
+     */
+    private long getTaskIdsVersion() {
+        long version = 0;
+        for (Phase phase : phases) {
+            if (!(phase instanceof DefaultPhase)) {
+                continue;
+            }
+            for (Step step : phase.getChildren()) {
+                if (isRouted(step)) {
+                    version += ((DeploymentStep) step).getTaskIdsVersion();
+                }
+            }
+        }
+        return version;
+    }
+
+    private void rebuildIndex() {
+        Map<Protos.TaskID, List<Element>> updatedStepsByTaskId = new HashMap<>();
+        List<Element> updatedUnroutedElements = new ArrayList<>();
+        for (Phase phase : phases) {
+            if (!(phase instanceof DefaultPhase)) {
+                updatedUnroutedElements.add(phase);
+                continue;
+            }
+            for (Step step : phase.getChildren()) {
+                if (!isRouted(step)) {
+                    updatedUnroutedElements.add(step);
+                    continue;
+                }
+                for (Protos.TaskID taskId : ((DeploymentStep) step).getTaskIds()) {
+                    updatedStepsByTaskId.computeIfAbsent(taskId, id -> new ArrayList<>()).add(step);
+                }
+            }
+        }
+        stepsByTaskId = updatedStepsByTaskId;
+        unroutedElements = updatedUnroutedElements;
+    }
+
+    private static boolean isRouted(Step step) {
+        return step instanceof DeploymentStep && ((DeploymentStep) step).ignoresOtherTaskStatuses();
+    }
+}
@@ -109,6 +109,19 @@ public class CanaryStrategy implements Strategy<Step> {
         strategy.proceed();
     }
 
+    /**
+     * The canary steps are also children of the parent, so only the underlying strategy needs to be tracked.
+     */
+    @Override
+    public boolean isStatusTracked() {
+        return strategy.isStatusTracked();
+    }
+
+    @Override
+    public long getStatusVersion() {
+        return strategy.getStatusVersion();
+    }
+
     @Override
     public boolean isInterrupted() {
         if (getNextCanaryStep() != null && getNextProceedStep() == null) {
@@ -3,6 +3,7 @@ package com.mesosphere.sdk.scheduler.plan.strategy;
 import com.mesosphere.sdk.scheduler.plan.Element;
 
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This class provides an encapsulation of common implementations for the methods associated with pausing and resuming
@@ -12,15 +13,23 @@ import java.util.concurrent.atomic.AtomicBoolean;
  */
 public abstract class InterruptibleStrategy<C extends Element> implements Strategy<C> {
     private AtomicBoolean interrupted = new AtomicBoolean(false);
+    private final AtomicLong statusVersion = new AtomicLong(0);
 
     @Override
     public void interrupt() {
         interrupted.set(true);
+        statusVersion.incrementAndGet();
     }
 
     @Override
     public void proceed() {
         interrupted.set(false);
+        statusVersion.incrementAndGet();
+    }
+
+    @Override
+    public long getStatusVersion() {
+        return statusVersion.get();
     }
 
     @Override
@@ -23,6 +23,11 @@ public class ParallelStrategy<C extends Element> extends InterruptibleStrategy<C
         return "parallel";
     }
 
+    @Override
+    public boolean isStatusTracked() {
+        return true;
+    }
+
     public StrategyGenerator<C> getGenerator() {
         return new Generator<>();
     }
@@ -27,6 +27,11 @@ public class SerialStrategy<C extends Element> extends InterruptibleStrategy<C>
         return "serial";
     }
 
+    @Override
+    public boolean isStatusTracked() {
+        return true;
+    }
+
     public StrategyGenerator<C> getGenerator() {
         return new Generator<>();
     }
@@ -25,4 +25,22 @@ public interface Strategy<C extends Element> extends Interruptible {
     Collection<C> getCandidates(Collection<C> elements, Collection<PodInstanceRequirement> dirtyAssets);
 
     String getName();
+
+    /**
+     * Returns whether every change to this strategy's interruption is reflected in {@link #getStatusVersion()}, and
+     * its candidates only depend on the state of the provided elements. If so, the aggregate status of a parent using
+     * this strategy may be memoized, see {@link com.mesosphere.sdk.scheduler.plan.StatusCache}. Strategies must
+     * explicitly opt in to this.
+     */
+    default boolean isStatusTracked() {
+        return false;
+    }
+
+    /**
+     * Returns a value which increases whenever this strategy is interrupted or proceeds. Only meaningful if
+     * {@link #isStatusTracked()} returns {@code true}.
+     */
+    default long getStatusVersion() {
+        return 0;
+    }
 }
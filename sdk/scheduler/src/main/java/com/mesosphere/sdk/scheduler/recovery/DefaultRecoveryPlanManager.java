@@ -1,7 +1,9 @@
 package com.mesosphere.sdk.scheduler.recovery;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.mesosphere.sdk.config.SerializationUtils;
 import com.mesosphere.sdk.http.types.PlanInfo;
+import com.mesosphere.sdk.offer.CommonIdUtils;
 import com.mesosphere.sdk.offer.LoggingUtils;
 import com.mesosphere.sdk.offer.TaskException;
 import com.mesosphere.sdk.offer.TaskUtils;
@@ -20,6 +22,7 @@ import org.slf4j.Logger;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -28,10 +31,17 @@ import java.util.stream.Collectors;
  * This is an implementation of {@code PlanManager} that performs task recovery using dynamically generated
  * {@code Plan}. {@link DefaultRecoveryPlanManager} tracks currently failed (permanent) and stopped (transient) tasks,
  * generates a new {@link RecoveryStep} for them and adds them to the recovery Plan, if not already added.
+ * <p>
+ * Rather than checking every task for failure on each offer cycle, only tasks which may have failed are checked: Tasks
+ * which have received a status update since they were last checked, tasks which have been marked as permanently failed
+ * since they were last checked (e.g. by a pod replace, or by the {@link FailureMonitor}), and tasks which were found to
+ * need recovery when last checked (whose recovery type may since have changed). All tasks are checked on startup, and
+ * periodically thereafter in case of any other changes which weren't accompanied by a status update.
  */
 public class DefaultRecoveryPlanManager implements PlanManager {
     public static final String DEFAULT_RECOVERY_PLAN_NAME = "recovery";
     public static final String DEFAULT_RECOVERY_PHASE_NAME = "default";
+    private static final long FULL_EVALUATION_INTERVAL_MS = TimeUnit.MINUTES.toMillis(5);
     protected final Logger logger = LoggingUtils.getLogger(getClass());
     protected final ConfigStore<ServiceSpec> configStore;
     private final List<RecoveryPlanOverrider> recoveryPlanOverriders;
@@ -44,6 +54,12 @@ public class DefaultRecoveryPlanManager implements PlanManager {
     protected final LaunchConstrainer launchConstrainer;
     protected final Object planLock = new Object();
 
+    // Access must be synchronized on planLock:
+    private final Set<String> possiblyFailedTaskNames = new HashSet<>();
+    private long checkedTaskInfoVersion = -1;
+    private long lastFullEvaluationMs = 0;
+    private boolean evaluateAllTasks = true;
+
     public DefaultRecoveryPlanManager(
             StateStore stateStore,
             ConfigStore<ServiceSpec> configStore,
@@ -121,6 +137,13 @@ public class DefaultRecoveryPlanManager implements PlanManager {
     public void update(Protos.TaskStatus status) {
         synchronized (planLock) {
             getPlan().update(status);
+            try {
+                possiblyFailedTaskNames.add(CommonIdUtils.toTaskName(status.getTaskId()));
+            } catch (TaskException e) {
+                logger.warn(String.format(
+                        "Unable to determine task name for status, checking all tasks: %s", status.getTaskId()), e);
+                evaluateAllTasks = true;
+            }
         }
     }
 
@@ -137,6 +160,11 @@ public class DefaultRecoveryPlanManager implements PlanManager {
                 return;
             }
 
+            if (newRequirements.isEmpty()) {
+                // Nothing to add: The current plan would be recreated as-is.
+                return;
+            }
+
             List<PodInstanceRequirement> defaultRequirements = new ArrayList<>();
             List<Phase> phases = new ArrayList<>();
             for (PodInstanceRequirement requirement : newRequirements) {
@@ -250,11 +278,11 @@ public class DefaultRecoveryPlanManager implements PlanManager {
     private List<PodInstanceRequirement> getNewFailedPods(Collection<PodInstanceRequirement> dirtyAssets)
             throws TaskException {
 
-        Collection<Protos.TaskInfo> failedTasks = StateStoreUtils.fetchTasksNeedingRecovery(
-                stateStore,
-                configStore,
-                recoverableTaskNames);
+        Collection<Protos.TaskInfo> failedTasks = getFailedTasks();
         logger.info("Found tasks needing recovery: {}", getTaskNames(failedTasks));
+        if (failedTasks.isEmpty()) {
+            return Collections.emptyList();
+        }
 
         List<Protos.TaskInfo> allLaunchedTasks = stateStore.fetchTasks().stream()
                 .filter(taskInfo -> stateStore.fetchStatus(taskInfo.getName()).isPresent())
@@ -312,6 +340,66 @@ public class DefaultRecoveryPlanManager implements PlanManager {
         return failedPods;
     }
 
+    /**
+     * Returns the recoverable tasks which need recovery, checking either all tasks or only those which may have failed
+     * since they were last checked. Must be called while holding {@link #planLock}.
+     */
+    private Collection<Protos.TaskInfo> getFailedTasks() throws TaskException {
+        long nowMs = getCurrentTimeMs();
+        // Get the version before reading any tasks: If a task is marked failed while we're reading, we'll check again.
+        long taskInfoVersion = stateStore.getTaskInfoVersion();
+        if (evaluateAllTasks || nowMs - lastFullEvaluationMs >= FULL_EVALUATION_INTERVAL_MS) {
+            Collection<Protos.TaskInfo> failedTasks = StateStoreUtils.fetchTasksNeedingRecovery(
+                    stateStore,
+                    configStore,
+                    recoverableTaskNames);
+            possiblyFailedTaskNames.clear();
+            possiblyFailedTaskNames.addAll(getTaskNames(failedTasks));
+            evaluateAllTasks = false;
+            lastFullEvaluationMs = nowMs;
+            checkedTaskInfoVersion = taskInfoVersion;
+            return failedTasks;
+        }
+
+        if (taskInfoVersion != checkedTaskInfoVersion) {
+            // Tasks may be marked as permanently failed without any status update, e.g. when they're replaced via the
+            // API or have been failed for too long. Marking a task updates its TaskInfo, so only look for marked tasks
+            // after a TaskInfo has changed. TaskInfos are cached by the StateStore, so this doesn't hit storage.
+            stateStore.fetchTasks().stream()
+                    .filter(FailureUtils::isPermanentlyFailed)
+                    .forEach(taskInfo -> possiblyFailedTaskNames.add(taskInfo.getName()));
+            checkedTaskInfoVersion = taskInfoVersion;
+        }
+
+        logger.info("Checking tasks which may have failed: {}", possiblyFailedTaskNames);
+        List<Protos.TaskInfo> failedTasks = new ArrayList<>();
+        Iterator<String> taskNames = possiblyFailedTaskNames.iterator();
+        while (taskNames.hasNext()) {
+            String taskName = taskNames.next();
+            Optional<Protos.TaskInfo> taskInfo = stateStore.fetchTask(taskName);
+            Optional<Protos.TaskStatus> taskStatus = stateStore.fetchStatus(taskName);
+            if (recoverableTaskNames.contains(taskName)
+                    && taskInfo.isPresent()
+                    && taskStatus.isPresent()
+                    && taskInfo.get().getTaskId().equals(taskStatus.get().getTaskId())
+                    && StateStoreUtils.needsRecovery(configStore, taskInfo.get(), taskStatus.get())) {
+                // Keep checking the task on each cycle until it no longer needs recovery.
+                failedTasks.add(taskInfo.get());
+            } else {
+                taskNames.remove();
+            }
+        }
+        return failedTasks;
+    }
+
+    /**
+     * Returns the current time in epoch milliseconds. Broken out into a separate function to allow overriding in tests.
+     */
+    @VisibleForTesting
+    protected long getCurrentTimeMs() {
+        return System.currentTimeMillis();
+    }
+
     private void logFailedPod(String failedPodName, List<Protos.TaskInfo> failedTasks) {
         List<String> permanentlyFailedTasks = failedTasks.stream()
                 .filter(taskInfo -> isTaskPermanentlyFailed(taskInfo))
@@ -48,6 +48,16 @@ public class RecoveryStep extends DeploymentStep {
         }
     }
 
+    @Override
+    protected boolean ignoresOtherTaskStatuses() {
+        return getClass() == RecoveryStep.class;
+    }
+
+    @Override
+    protected boolean isStatusTracked() {
+        return getClass() == RecoveryStep.class;
+    }
+
     public RecoveryType getRecoveryType() {
         return podInstanceRequirement.getRecoveryType();
     }
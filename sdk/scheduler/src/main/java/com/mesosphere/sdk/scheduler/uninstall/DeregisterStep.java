@@ -44,6 +44,7 @@ public class DeregisterStep extends UninstallStep {
             logger.info("Deleting service root path for framework...");
             try {
                 PersisterUtils.clearAllData(stateStore.getPersister());
+                stateStore.invalidateCachedState();
             } catch (PersisterException e) {
                 // Best effort.
                 logger.error("Failed to clear all data", e);
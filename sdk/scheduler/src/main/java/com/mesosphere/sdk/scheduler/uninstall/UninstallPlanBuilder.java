@@ -61,6 +61,7 @@ public class UninstallPlanBuilder {
             LOGGER.info("Framework ID is unset. Clearing state data and using an empty completed plan.");
             try {
                 PersisterUtils.clearAllData(stateStore.getPersister());
+                stateStore.invalidateCachedState();
             } catch (PersisterException e) {
                 // Best effort.
                 LOGGER.error("Failed to clear all data", e);
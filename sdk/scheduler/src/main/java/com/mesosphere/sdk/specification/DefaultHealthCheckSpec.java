@@ -5,19 +5,28 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+import com.mesosphere.sdk.specification.validation.ExactlyOneCheckType;
 import com.mesosphere.sdk.specification.validation.ValidationUtils;
 
+import javax.validation.Valid;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
+import java.util.Optional;
 
 /**
  * Default implementation of {@link HealthCheckSpec}.
  */
+@ExactlyOneCheckType(message = "Exactly one of command, http, or tcp must be set")
 public class DefaultHealthCheckSpec implements HealthCheckSpec {
-    @NotNull
     private String command;
 
+    @Valid
+    private HttpCheckSpec http;
+
+    @Valid
+    private TcpCheckSpec tcp;
+
     @NotNull
     @Min(1)
     private Integer maxConsecutiveFailures;
@@ -38,15 +47,29 @@ public class DefaultHealthCheckSpec implements HealthCheckSpec {
     @Min(0)
     private Integer gracePeriod;
 
+    public DefaultHealthCheckSpec(
+            String command,
+            Integer maxConsecutiveFailures,
+            Integer delay,
+            Integer interval,
+            Integer timeout,
+            Integer gracePeriod) {
+        this(command, null, null, maxConsecutiveFailures, delay, interval, timeout, gracePeriod);
+    }
+
     @JsonCreator
     public DefaultHealthCheckSpec(
             @JsonProperty("command") String command,
+            @JsonProperty("http") HttpCheckSpec http,
+            @JsonProperty("tcp") TcpCheckSpec tcp,
             @JsonProperty("max-consecutive-failures") Integer maxConsecutiveFailures,
             @JsonProperty("delay") Integer delay,
             @JsonProperty("interval") Integer interval,
             @JsonProperty("timeout") Integer timeout,
             @JsonProperty("grace-period") Integer gracePeriod) {
         this.command = command;
+        this.http = http;
+        this.tcp = tcp;
         this.maxConsecutiveFailures = maxConsecutiveFailures;
         this.delay = delay;
         this.interval = interval;
@@ -56,6 +79,8 @@ public class DefaultHealthCheckSpec implements HealthCheckSpec {
 
     private DefaultHealthCheckSpec(Builder builder) {
         command = builder.command;
+        http = builder.http;
+        tcp = builder.tcp;
         maxConsecutiveFailures = builder.maxConsecutiveFailures;
         delay = builder.delay;
         interval = builder.interval;
@@ -70,6 +95,8 @@ public class DefaultHealthCheckSpec implements HealthCheckSpec {
     public static Builder newBuilder(DefaultHealthCheckSpec copy) {
         Builder builder = new Builder();
         builder.command = copy.command;
+        builder.http = copy.http;
+        builder.tcp = copy.tcp;
         builder.maxConsecutiveFailures = copy.maxConsecutiveFailures;
         builder.delay = copy.delay;
         builder.interval = copy.interval;
@@ -79,12 +106,21 @@ public class DefaultHealthCheckSpec implements HealthCheckSpec {
     }
 
     @Override
-    @NotNull
     @Size(min = 1)
     public String getCommand() {
         return command;
     }
 
+    @Override
+    public Optional<HttpCheckSpec> getHttp() {
+        return Optional.ofNullable(http);
+    }
+
+    @Override
+    public Optional<TcpCheckSpec> getTcp() {
+        return Optional.ofNullable(tcp);
+    }
+
     @Override
     @JsonProperty("max-consecutive-failures")
     @Min(0)
@@ -136,6 +172,8 @@ public class DefaultHealthCheckSpec implements HealthCheckSpec {
      */
     public static final class Builder {
         private String command;
+        private HttpCheckSpec http;
+        private TcpCheckSpec tcp;
         private Integer maxConsecutiveFailures;
         private Integer delay;
         private Integer interval;
@@ -156,6 +194,30 @@ public class DefaultHealthCheckSpec implements HealthCheckSpec {
             return this;
         }
 
+        /**
+         * Sets the {@code http} check and returns a reference to this Builder so that the methods can be chained
+         * together.
+         *
+         * @param http the {@code http} check to set
+         * @return a reference to this Builder
+         */
+        public Builder http(HttpCheckSpec http) {
+            this.http = http;
+            return this;
+        }
+
+        /**
+         * Sets the {@code tcp} check and returns a reference to this Builder so that the methods can be chained
+         * together.
+         *
+         * @param tcp the {@code tcp} check to set
+         * @return a reference to this Builder
+         */
+        public Builder tcp(TcpCheckSpec tcp) {
+            this.tcp = tcp;
+            return this;
+        }
+
         /**
          * Sets the {@code maxConsecutiveFailures} and returns a reference to this Builder so that the methods can be
          * chained together.
@@ -1,21 +1,31 @@
 package com.mesosphere.sdk.specification;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.mesosphere.sdk.specification.validation.ExactlyOneCheckType;
 import com.mesosphere.sdk.specification.validation.ValidationUtils;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
 
+import javax.validation.Valid;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
+import java.util.Optional;
 
 /**
  * Default implementation of {@link ReadinessCheckSpec}.
  */
+@ExactlyOneCheckType(message = "Exactly one of command, http, or tcp must be set")
 public class DefaultReadinessCheckSpec implements ReadinessCheckSpec {
-    @NotNull
     private String command;
 
+    @Valid
+    private HttpCheckSpec http;
+
+    @Valid
+    private TcpCheckSpec tcp;
+
     @Min(0)
     private Integer delay;
 
@@ -27,12 +37,21 @@ public class DefaultReadinessCheckSpec implements ReadinessCheckSpec {
     @Min(0)
     private Integer timeout;
 
+    public DefaultReadinessCheckSpec(String command, Integer delay, Integer interval, Integer timeout) {
+        this(command, null, null, delay, interval, timeout);
+    }
+
+    @JsonCreator
     public DefaultReadinessCheckSpec(
             @JsonProperty("command") String command,
+            @JsonProperty("http") HttpCheckSpec http,
+            @JsonProperty("tcp") TcpCheckSpec tcp,
             @JsonProperty("delay") Integer delay,
             @JsonProperty("interval") Integer interval,
             @JsonProperty("timeout") Integer timeout) {
         this.command = command;
+        this.http = http;
+        this.tcp = tcp;
         this.delay = delay;
         this.interval = interval;
         this.timeout = timeout;
@@ -41,6 +60,8 @@ public class DefaultReadinessCheckSpec implements ReadinessCheckSpec {
     private DefaultReadinessCheckSpec(Builder builder) {
         super();
         command = builder.command;
+        http = builder.http;
+        tcp = builder.tcp;
         delay = builder.delay;
         interval = builder.interval;
         timeout = builder.timeout;
@@ -53,6 +74,8 @@ public class DefaultReadinessCheckSpec implements ReadinessCheckSpec {
     public static Builder newBuilder(DefaultReadinessCheckSpec copy) {
         Builder builder = new Builder();
         builder.command = copy.command;
+        builder.http = copy.http;
+        builder.tcp = copy.tcp;
         builder.delay = copy.delay;
         builder.interval = copy.interval;
         builder.timeout = copy.timeout;
@@ -64,6 +87,16 @@ public class DefaultReadinessCheckSpec implements ReadinessCheckSpec {
         return command;
     }
 
+    @Override
+    public Optional<HttpCheckSpec> getHttp() {
+        return Optional.ofNullable(http);
+    }
+
+    @Override
+    public Optional<TcpCheckSpec> getTcp() {
+        return Optional.ofNullable(tcp);
+    }
+
     @Override
     public Integer getDelay() {
         return delay;
@@ -99,6 +132,8 @@ public class DefaultReadinessCheckSpec implements ReadinessCheckSpec {
      */
     public static final class Builder {
         private String command;
+        private HttpCheckSpec http;
+        private TcpCheckSpec tcp;
         private Integer delay;
         private Integer interval;
         private Integer timeout;
@@ -117,6 +152,30 @@ public class DefaultReadinessCheckSpec implements ReadinessCheckSpec {
             return this;
         }
 
+        /**
+         * Sets the {@code http} check and returns a reference to this Builder so that the methods can be chained
+         * together.
+         *
+         * @param http the {@code http} check to set
+         * @return a reference to this Builder
+         */
+        public Builder http(HttpCheckSpec http) {
+            this.http = http;
+            return this;
+        }
+
+        /**
+         * Sets the {@code tcp} check and returns a reference to this Builder so that the methods can be chained
+         * together.
+         *
+         * @param tcp the {@code tcp} check to set
+         * @return a reference to this Builder
+         */
+        public Builder tcp(TcpCheckSpec tcp) {
+            this.tcp = tcp;
+            return this;
+        }
+
         /**
          * Sets the {@code delay} and returns a reference to this Builder so that the methods can be chained together.
          *
@@ -0,0 +1,82 @@
+package com.mesosphere.sdk.specification;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Specification of a check which makes an HTTP GET request against one of the task's ports. The check passes if the
+ * response has one of the expected status codes, or a 2xx or 3xx status code if no status codes are listed.
+ *
+ * <p>Tasks run by the default executor are checked by Mesos, which doesn't support custom status codes and always
+ * expects a 2xx or 3xx response. Status codes may therefore only be listed for tasks run by the custom executor.
+ */
+public class HttpCheckSpec {
+    @NotNull
+    @Size(min = 1)
+    private final String portName;
+
+    /** Mesos rejects HTTP checks whose path doesn't start with a slash. */
+    @NotNull
+    @Pattern(regexp = "/.*", message = "must start with '/'")
+    private final String path;
+
+    @NotNull
+    private final List<Integer> statuses;
+
+    @JsonCreator
+    public HttpCheckSpec(
+            @JsonProperty("port-name") String portName,
+            @JsonProperty("path") String path,
+            @JsonProperty("statuses") List<Integer> statuses) {
+        this.portName = portName;
+        this.path = path == null ? "/" : path;
+        this.statuses = statuses == null ? Collections.emptyList() : new ArrayList<>(statuses);
+    }
+
+    /**
+     * Returns the name of the task port to send the request to.
+     */
+    @JsonProperty("port-name")
+    public String getPortName() {
+        return portName;
+    }
+
+    @JsonProperty("path")
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Returns the response status codes which are treated as passing, or an empty list if any 2xx or 3xx status code
+     * passes.
+     */
+    @JsonProperty("statuses")
+    public List<Integer> getStatuses() {
+        return statuses;
+    }
+
+    @Override
+    public String toString() {
+        return ReflectionToStringBuilder.toString(this);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return EqualsBuilder.reflectionEquals(this, o);
+    }
+
+    @Override
+    public int hashCode() {
+        return HashCodeBuilder.reflectionHashCode(this);
+    }
+}
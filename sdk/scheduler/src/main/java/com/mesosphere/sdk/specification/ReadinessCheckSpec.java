@@ -3,14 +3,25 @@ package com.mesosphere.sdk.specification;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 
+import java.util.Optional;
+
 /**
- * ReadinessCheck specification.
+ * ReadinessCheck specification. Exactly one of the command, HTTP, or TCP check is set.
  */
 @JsonDeserialize(as = DefaultReadinessCheckSpec.class)
 public interface ReadinessCheckSpec {
+    /**
+     * Returns the command to run, or {@code null} if this is an HTTP or TCP check.
+     */
     @JsonProperty("command")
     String getCommand();
 
+    @JsonProperty("http")
+    Optional<HttpCheckSpec> getHttp();
+
+    @JsonProperty("tcp")
+    Optional<TcpCheckSpec> getTcp();
+
     @JsonProperty("delay")
     Integer getDelay();
 
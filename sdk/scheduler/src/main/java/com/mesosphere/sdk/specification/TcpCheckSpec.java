@@ -0,0 +1,47 @@
+package com.mesosphere.sdk.specification;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+/**
+ * Specification of a check which passes if a TCP connection can be established to one of the task's ports.
+ */
+public class TcpCheckSpec {
+    @NotNull
+    @Size(min = 1)
+    private final String portName;
+
+    @JsonCreator
+    public TcpCheckSpec(@JsonProperty("port-name") String portName) {
+        this.portName = portName;
+    }
+
+    /**
+     * Returns the name of the task port to connect to.
+     */
+    @JsonProperty("port-name")
+    public String getPortName() {
+        return portName;
+    }
+
+    @Override
+    public String toString() {
+        return ReflectionToStringBuilder.toString(this);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return EqualsBuilder.reflectionEquals(this, o);
+    }
+
+    @Override
+    public int hashCode() {
+        return HashCodeBuilder.reflectionHashCode(this);
+    }
+}
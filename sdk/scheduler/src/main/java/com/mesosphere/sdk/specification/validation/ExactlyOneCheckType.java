@@ -0,0 +1,25 @@
+package com.mesosphere.sdk.specification.validation;
+
+import javax.validation.Constraint;
+import javax.validation.Payload;
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.*;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Defines ExactlyOneCheckType annotation, for checks which must have exactly one of a command, HTTP, or TCP check.
+ */
+@Target({TYPE, ANNOTATION_TYPE})
+@Retention(RUNTIME)
+@Constraint(validatedBy = ExactlyOneCheckTypeValidator.class)
+@Documented
+public @interface ExactlyOneCheckType {
+    String message() default "{com.mesosphere.sdk.specification.validation.ExactlyOneCheckType.message}";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
@@ -0,0 +1,26 @@
+package com.mesosphere.sdk.specification.validation;
+
+import com.mesosphere.sdk.specification.ReadinessCheckSpec;
+
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+
+/**
+ * Defines validator for ExactlyOneCheckType annotation.
+ */
+public class ExactlyOneCheckTypeValidator implements ConstraintValidator<ExactlyOneCheckType, ReadinessCheckSpec> {
+    @Override
+    public void initialize(ExactlyOneCheckType constraintAnnotation) {
+    }
+
+    @Override
+    public boolean isValid(ReadinessCheckSpec checkSpec, ConstraintValidatorContext constraintContext) {
+        if (checkSpec == null) {
+            return true;
+        }
+        int checkTypes = (checkSpec.getCommand() != null ? 1 : 0)
+                + (checkSpec.getHttp().isPresent() ? 1 : 0)
+                + (checkSpec.getTcp().isPresent() ? 1 : 0);
+        return checkTypes == 1;
+    }
+}
@@ -12,12 +12,14 @@ public class RawHealthCheck extends RawReadinessCheck {
 
     private RawHealthCheck(
             @JsonProperty("cmd") String cmd,
+            @JsonProperty("http") RawHttpCheck http,
+            @JsonProperty("tcp") RawTcpCheck tcp,
             @JsonProperty("interval") Integer intervalSecs,
             @JsonProperty("grace-period") Integer gracePeriodSecs,
             @JsonProperty("max-consecutive-failures") Integer maxConsecutiveFailures,
             @JsonProperty("delay") Integer delaySecs,
             @JsonProperty("timeout") Integer timeoutSecs) {
-        super(cmd, intervalSecs, delaySecs, timeoutSecs);
+        super(cmd, http, tcp, intervalSecs, delaySecs, timeoutSecs);
         this.gracePeriod = gracePeriodSecs;
         this.maxConsecutiveFailures = maxConsecutiveFailures;
     }
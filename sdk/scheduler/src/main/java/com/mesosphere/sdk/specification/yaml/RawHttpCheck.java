@@ -0,0 +1,35 @@
+package com.mesosphere.sdk.specification.yaml;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Raw YAML HTTP check, for use in a health or readiness check.
+ */
+public class RawHttpCheck {
+    private final String port;
+    private final String path;
+    private final List<Integer> statuses;
+
+    private RawHttpCheck(
+            @JsonProperty("port") String port,
+            @JsonProperty("path") String path,
+            @JsonProperty("statuses") List<Integer> statuses) {
+        this.port = port;
+        this.path = path;
+        this.statuses = statuses;
+    }
+
+    public String getPort() {
+        return port;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public List<Integer> getStatuses() {
+        return statuses;
+    }
+}
@@ -7,16 +7,22 @@ import com.fasterxml.jackson.annotation.JsonProperty;
  */
 public class RawReadinessCheck {
     private final String cmd;
+    private final RawHttpCheck http;
+    private final RawTcpCheck tcp;
     private final Integer interval;
     private final Integer delay;
     private final Integer timeout;
 
     protected RawReadinessCheck(
             @JsonProperty("cmd") String cmd,
+            @JsonProperty("http") RawHttpCheck http,
+            @JsonProperty("tcp") RawTcpCheck tcp,
             @JsonProperty("interval") Integer intervalSecs,
             @JsonProperty("delay") Integer delaySecs,
             @JsonProperty("timeout") Integer timeoutSecs) {
         this.cmd = cmd;
+        this.http = http;
+        this.tcp = tcp;
         this.interval = intervalSecs;
         this.delay = delaySecs;
         this.timeout = timeoutSecs;
@@ -26,6 +32,14 @@ public class RawReadinessCheck {
         return cmd;
     }
 
+    public RawHttpCheck getHttp() {
+        return http;
+    }
+
+    public RawTcpCheck getTcp() {
+        return tcp;
+    }
+
     public Integer getInterval() {
         return interval;
     }
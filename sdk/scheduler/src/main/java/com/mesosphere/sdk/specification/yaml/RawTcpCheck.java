@@ -0,0 +1,18 @@
+package com.mesosphere.sdk.specification.yaml;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Raw YAML TCP check, for use in a health or readiness check.
+ */
+public class RawTcpCheck {
+    private final String port;
+
+    private RawTcpCheck(@JsonProperty("port") String port) {
+        this.port = port;
+    }
+
+    public String getPort() {
+        return port;
+    }
+}
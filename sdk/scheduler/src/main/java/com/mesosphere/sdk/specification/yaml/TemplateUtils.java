@@ -2,9 +2,12 @@ package com.mesosphere.sdk.specification.yaml;
 
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
@@ -14,6 +17,7 @@ import org.apache.commons.lang3.StringUtils;
 import com.github.mustachejava.Binding;
 import com.github.mustachejava.Code;
 import com.github.mustachejava.DefaultMustacheFactory;
+import com.github.mustachejava.Mustache;
 import com.github.mustachejava.MustacheException;
 import com.github.mustachejava.ObjectHandler;
 import com.github.mustachejava.TemplateContext;
@@ -21,13 +25,50 @@ import com.github.mustachejava.codes.ValueCode;
 import com.github.mustachejava.reflect.GuardedBinding;
 import com.github.mustachejava.reflect.MissingWrapper;
 import com.github.mustachejava.reflect.ReflectionObjectHandler;
-import com.github.mustachejava.util.Wrapper;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hashing;
 
 /**
  * Utility methods relating to rendering mustache templates.
  */
 public class TemplateUtils {
 
+    /**
+     * The maximum number of compiled templates to retain, beyond which the least recently used templates are evicted.
+     */
+    @VisibleForTesting
+    static final int MAX_CACHED_TEMPLATES = 100;
+
+    /**
+     * Shared factory for compiling templates. Templates compiled by this factory report any missing values to the
+     * list in {@link #MISSING_VALUES} for the thread which is rendering them.
+     */
+    private static final DefaultMustacheFactory MUSTACHE_FACTORY = new DefaultMustacheFactory();
+    static {
+        MUSTACHE_FACTORY.setObjectHandler(new ReflectionObjectHandler() {
+            @Override
+            public Binding createBinding(String name, final TemplateContext tc, Code code) {
+                return new MissingValueBinding(this, name, tc, code);
+            }
+        });
+    }
+
+    /**
+     * The list of missing values for the template currently being rendered by each thread.
+     */
+    private static final ThreadLocal<List<MissingValue>> MISSING_VALUES = new ThreadLocal<>();
+
+    /**
+     * Compiled templates, keyed by template name and a hash of the template content.
+     */
+    private static final Map<List<String>, Mustache> COMPILED_TEMPLATES =
+            new LinkedHashMap<List<String>, Mustache>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<List<String>, Mustache> eldest) {
+                    return size() > MAX_CACHED_TEMPLATES;
+                }
+            };
+
     private TemplateUtils() {
         // do not instantiate
     }
@@ -74,14 +115,7 @@ public class TemplateUtils {
             String templateContent,
             Map<String, String> values,
             final List<MissingValue> missingValues) {
-        StringWriter writer = new StringWriter();
-        DefaultMustacheFactory mustacheFactory = new DefaultMustacheFactory();
-        mustacheFactory.setObjectHandler(new ReflectionObjectHandler() {
-            @Override
-            public Binding createBinding(String name, final TemplateContext tc, Code code) {
-                return new MissingValueBinding(this, name, tc, code, missingValues);
-            }
-        });
+        Mustache mustache = getCompiledTemplate(templateName, templateContent);
 
         Map<String, Object> objEnv = new HashMap<>();
         for (Map.Entry<String, String> entry : values.entrySet()) {
@@ -93,9 +127,15 @@ public class TemplateUtils {
             }
         }
 
-        mustacheFactory
-                .compile(new StringReader(templateContent), templateName)
-                .execute(writer, objEnv);
+        StringWriter writer = new StringWriter();
+        // Templates are executed synchronously on the calling thread, so missing values are reported to this list:
+        List<MissingValue> previousMissingValues = MISSING_VALUES.get();
+        MISSING_VALUES.set(missingValues);
+        try {
+            mustache.execute(writer, objEnv);
+        } finally {
+            MISSING_VALUES.set(previousMissingValues);
+        }
         return writer.toString();
     }
 
@@ -116,6 +156,29 @@ public class TemplateUtils {
         return rendered;
     }
 
+    /**
+     * Returns a compiled version of the provided template, compiling it if it isn't already in the cache. Compiled
+     * templates are stateless and may be executed concurrently.
+     */
+    @VisibleForTesting
+    static Mustache getCompiledTemplate(String templateName, String templateContent) {
+        List<String> key = Arrays.asList(
+                templateName,
+                Hashing.sha256().hashString(templateContent, StandardCharsets.UTF_8).toString());
+        synchronized (COMPILED_TEMPLATES) {
+            Mustache mustache = COMPILED_TEMPLATES.get(key);
+            if (mustache != null) {
+                return mustache;
+            }
+        }
+        // Compile outside the lock. Concurrent compilations of the same template produce equivalent results.
+        Mustache mustache = MUSTACHE_FACTORY.compile(new StringReader(templateContent), templateName);
+        synchronized (COMPILED_TEMPLATES) {
+            COMPILED_TEMPLATES.put(key, mustache);
+        }
+        return mustache;
+    }
+
     /**
      * Throws a descriptive exception if {@code missingValues} is non-empty. Exposed as a utility function to allow
      * custom filtering of missing values before the validation occurs.
@@ -137,29 +200,30 @@ public class TemplateUtils {
     }
 
     /**
-     * An extension of {@link GuardedBinding} which collects missing values against the provided list.
+     * An extension of {@link GuardedBinding} which collects missing values against the list for the current render.
+     *
+     * <p>Bindings are created once when a template is compiled, and {@link GuardedBinding} then reuses its wrappers
+     * across renders for as long as their guards pass. Missing values are therefore detected on each lookup, rather
+     * than only when a new wrapper is created.
      */
     private static class MissingValueBinding extends GuardedBinding {
 
+        private final ObjectHandler oh;
+        private final String name;
         private final TemplateContext tc;
         private final Code code;
-        private final List<MissingValue> missingValues;
-
-        private MissingValueBinding(
-                ObjectHandler oh,
-                String name,
-                final TemplateContext tc,
-                Code code,
-                List<MissingValue> missingValues) {
+
+        private MissingValueBinding(ObjectHandler oh, String name, final TemplateContext tc, Code code) {
             super(oh, name, tc, code);
+            this.oh = oh;
+            this.name = name;
             this.tc = tc;
             this.code = code;
-            this.missingValues = missingValues;
         }
 
         @Override
-        protected synchronized Wrapper getWrapper(String name, List<Object> scopes) {
-            Wrapper wrapper = super.getWrapper(name, scopes);
+        public Object get(List<Object> scopes) {
+            Object value = super.get(scopes);
             // This should only do anything when the template param is e.g. "{{hello}}", not "{{#hello}}hi{{/hello}}".
             // The latter case implies an expectation that the value will sometimes be unset. We can determine the
             // situation based on the code type:
@@ -167,10 +231,14 @@ public class TemplateUtils {
             // - "{{#hello}}{{/hello}}" = IterableCode
             // - "{{^hello}}{{/hello}}" = NotIterableCode
             // - etc... "{{>partial}}", "{{!comment}}"
-            if (code instanceof ValueCode && wrapper instanceof MissingWrapper) {
-                missingValues.add(new MissingValue(name, tc.line()));
+            // A value may also be present but null, so only a null result is looked up again to check if it's missing.
+            if (value == null && code instanceof ValueCode) {
+                List<MissingValue> missingValues = MISSING_VALUES.get();
+                if (missingValues != null && oh.find(name, scopes) instanceof MissingWrapper) {
+                    missingValues.add(new MissingValue(name, tc.line()));
+                }
             }
-            return wrapper;
+            return value;
         }
     }
 }
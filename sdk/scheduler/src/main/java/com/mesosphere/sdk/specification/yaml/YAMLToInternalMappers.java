@@ -182,6 +182,8 @@ public class YAMLToInternalMappers {
     private static ReadinessCheckSpec convertReadinessCheck(RawReadinessCheck rawReadinessCheck) {
         return DefaultReadinessCheckSpec.newBuilder()
                 .command(rawReadinessCheck.getCmd())
+                .http(convertHttpCheck(rawReadinessCheck.getHttp()))
+                .tcp(convertTcpCheck(rawReadinessCheck.getTcp()))
                 .delay(rawReadinessCheck.getDelay() == null ? Integer.valueOf(0) : rawReadinessCheck.getDelay())
                 .interval(rawReadinessCheck.getInterval())
                 .timeout(rawReadinessCheck.getTimeout())
@@ -346,8 +348,11 @@ public class YAMLToInternalMappers {
         HealthCheckSpec healthCheckSpec = null;
         if (rawTask.getHealthCheck() != null) {
             RawHealthCheck rawHealthCheck = rawTask.getHealthCheck();
+            validateRawCheck("health-check", taskName, rawHealthCheck);
             healthCheckSpec = DefaultHealthCheckSpec.newBuilder()
                     .command(rawHealthCheck.getCmd())
+                    .http(convertHttpCheck(rawHealthCheck.getHttp()))
+                    .tcp(convertTcpCheck(rawHealthCheck.getTcp()))
                     .delay(rawHealthCheck.getDelay())
                     .gracePeriod(rawHealthCheck.getGracePeriod())
                     .interval(rawHealthCheck.getInterval())
@@ -358,6 +363,7 @@ public class YAMLToInternalMappers {
 
         ReadinessCheckSpec readinessCheckSpec = null;
         if (rawTask.getReadinessCheck() != null) {
+           validateRawCheck("readiness-check", taskName, rawTask.getReadinessCheck());
            readinessCheckSpec = convertReadinessCheck(rawTask.getReadinessCheck());
         }
 
@@ -388,15 +394,15 @@ public class YAMLToInternalMappers {
                 .setTransportEncryption(transportEncryption)
                 .name(taskName);
 
+        ResourceSet resourceSet;
         if (StringUtils.isNotBlank(rawTask.getResourceSet())) {
             // Use resource set content:
-            builder.resourceSet(
-                    resourceSets.stream()
-                            .filter(resourceSet -> resourceSet.getId().equals(rawTask.getResourceSet()))
-                            .findFirst().get());
+            resourceSet = resourceSets.stream()
+                    .filter(set -> set.getId().equals(rawTask.getResourceSet()))
+                    .findFirst().get();
         } else {
             // Use task content:
-            builder.resourceSet(convertResourceSet(
+            resourceSet = convertResourceSet(
                     taskName + "-resource-set",
                     rawTask.getCpus(),
                     rawTask.getGpus(),
@@ -407,12 +413,62 @@ public class YAMLToInternalMappers {
                     role,
                     preReservedRole,
                     principal,
-                    networkNames));
+                    networkNames);
         }
+        validateCheckPort("health-check", taskName, healthCheckSpec, resourceSet);
+        validateCheckPort("readiness-check", taskName, readinessCheckSpec, resourceSet);
+        builder.resourceSet(resourceSet);
 
         return builder.build();
     }
 
+    private static void validateRawCheck(String checkName, String taskName, RawReadinessCheck rawCheck) {
+        int checkTypes = (StringUtils.isNotBlank(rawCheck.getCmd()) ? 1 : 0)
+                + (rawCheck.getHttp() != null ? 1 : 0)
+                + (rawCheck.getTcp() != null ? 1 : 0);
+        if (checkTypes != 1) {
+            throw new IllegalArgumentException(String.format(
+                    "Exactly one of 'cmd', 'http', or 'tcp' must be specified in the %s for task %s",
+                    checkName, taskName));
+        }
+        if ((rawCheck.getHttp() != null && StringUtils.isBlank(rawCheck.getHttp().getPort()))
+                || (rawCheck.getTcp() != null && StringUtils.isBlank(rawCheck.getTcp().getPort()))) {
+            throw new IllegalArgumentException(String.format(
+                    "The %s for task %s must specify the 'port' to check", checkName, taskName));
+        }
+    }
+
+    private static void validateCheckPort(
+            String checkName, String taskName, ReadinessCheckSpec checkSpec, ResourceSet resourceSet) {
+        if (checkSpec == null) {
+            return;
+        }
+        Optional<String> portName = checkSpec.getHttp().isPresent()
+                ? Optional.ofNullable(checkSpec.getHttp().get().getPortName())
+                : checkSpec.getTcp().map(TcpCheckSpec::getPortName);
+        if (!portName.isPresent()) {
+            return;
+        }
+        boolean portFound = resourceSet.getResources().stream()
+                .anyMatch(resource -> resource instanceof PortSpec
+                        && ((PortSpec) resource).getPortName().equals(portName.get()));
+        if (!portFound) {
+            throw new IllegalArgumentException(String.format(
+                    "The %s for task %s refers to port '%s', which isn't one of the task's ports",
+                    checkName, taskName, portName.get()));
+        }
+    }
+
+    private static HttpCheckSpec convertHttpCheck(RawHttpCheck rawHttpCheck) {
+        return rawHttpCheck == null
+                ? null
+                : new HttpCheckSpec(rawHttpCheck.getPort(), rawHttpCheck.getPath(), rawHttpCheck.getStatuses());
+    }
+
+    private static TcpCheckSpec convertTcpCheck(RawTcpCheck rawTcpCheck) {
+        return rawTcpCheck == null ? null : new TcpCheckSpec(rawTcpCheck.getPort());
+    }
+
     private static DefaultResourceSet convertResourceSet(
             String id,
             Double cpus,
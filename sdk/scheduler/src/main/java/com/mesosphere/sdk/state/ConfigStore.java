@@ -1,12 +1,17 @@
 package com.mesosphere.sdk.state;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hashing;
 import com.mesosphere.sdk.config.Configuration;
 import com.mesosphere.sdk.config.ConfigurationFactory;
 import com.mesosphere.sdk.offer.LoggingUtils;
+import com.mesosphere.sdk.scheduler.Metrics;
 import com.mesosphere.sdk.storage.Persister;
+import com.mesosphere.sdk.storage.PersisterChangeListener;
 import com.mesosphere.sdk.storage.PersisterException;
 import com.mesosphere.sdk.storage.PersisterUtils;
 import com.mesosphere.sdk.storage.StorageError.Reason;
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 
 import java.nio.charset.StandardCharsets;
@@ -22,19 +27,63 @@ import java.util.*;
  * <br>&nbsp; &nbsp; UUID-0 (contains serialized config)
  * <br>&nbsp; &nbsp; UUID-1 (contains serialized config)
  *
+ * <p>Up to a fixed number of the most recently used deserialized configs are kept in memory. Long-lived services may
+ * have accumulated many historical configs, which are only deserialized when specifically requested. Lightweight
+ * {@link ConfigMetadata} may be retrieved for any config without deserializing it. If stored configs may be modified
+ * by other means, changes should be reported via this class's {@link PersisterChangeListener} methods, so that any
+ * affected configs are dropped from memory.
+ *
  * @param <T> The {@code Configuration} object to be serialized and deserialized in the
  *            implementation of this interface
  */
-public class ConfigStore<T extends Configuration> implements ConfigTargetStore {
+public class ConfigStore<T extends Configuration> implements ConfigTargetStore, PersisterChangeListener {
 
     private static final Logger logger = LoggingUtils.getLogger(ConfigStore.class);
 
     private static final String TARGET_ID_PATH_NAME = "ConfigTarget";
     private static final String CONFIGURATIONS_PATH_NAME = "Configurations";
 
+    /**
+     * The default number of deserialized configs to keep in memory. In practice only the current target config and
+     * any configs which are still in use by tasks during a rollout are accessed regularly.
+     */
+    private static final int DEFAULT_CACHE_SIZE = 10;
+
+    /**
+     * Summary of a stored config, which may be obtained without deserializing the config itself.
+     */
+    public static class ConfigMetadata {
+        private final UUID id;
+        private final String contentHash;
+        private final int sizeBytes;
+
+        public ConfigMetadata(UUID id, byte[] data) {
+            this.id = id;
+            this.contentHash = Hashing.sha256().hashBytes(data).toString();
+            this.sizeBytes = data.length;
+        }
+
+        public UUID getId() {
+            return id;
+        }
+
+        /**
+         * Returns a hash of the serialized config. Configs with matching hashes have identical content.
+         */
+        public String getContentHash() {
+            return contentHash;
+        }
+
+        public int getSizeBytes() {
+            return sizeBytes;
+        }
+    }
+
     private final Persister persister;
     private final String namespace;
-    private final Map<UUID, T> cache = new HashMap<>();
+    // Access-ordered, so that the least recently used config is evicted first. Access must be synchronized on the map.
+    private final Map<UUID, T> cache;
+    private final Map<UUID, ConfigMetadata> metadata = new HashMap<>();
 
     private ConfigurationFactory<T> factory;
 
@@ -58,9 +107,25 @@ public class ConfigStore<T extends Configuration> implements ConfigTargetStore {
      * @param namespace The namespace for data to be stored within, or an empty string for no namespacing
      */
     public ConfigStore(ConfigurationFactory<T> factory, Persister persister, String namespace) {
+        this(factory, persister, namespace, DEFAULT_CACHE_SIZE);
+    }
+
+    @VisibleForTesting
+    ConfigStore(ConfigurationFactory<T> factory, Persister persister, String namespace, int cacheSize) {
         this.factory = factory;
         this.persister = persister;
         this.namespace = namespace;
+        this.cache = new LinkedHashMap<UUID, T>(cacheSize + 1, 1.0f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, T> eldest) {
+                if (size() > cacheSize) {
+                    logger.info("Evicting configuration with ID={} from cache", eldest.getKey());
+                    Metrics.incrementConfigCacheEvictions();
+                    return true;
+                }
+                return false;
+            }
+        };
     }
 
     /**
@@ -74,7 +139,12 @@ public class ConfigStore<T extends Configuration> implements ConfigTargetStore {
      * Indicates whether the provided key is present in the store.
      */
     public boolean hasKey(UUID id) throws ConfigStoreException {
-        return cache.containsKey(id) || list().contains(id);
+        synchronized (cache) {
+            if (cache.containsKey(id)) {
+                return true;
+            }
+        }
+        return list().contains(id);
     }
 
     /**
@@ -105,7 +175,10 @@ public class ConfigStore<T extends Configuration> implements ConfigTargetStore {
                     "Failed to store configuration to path '%s': %s", path, config));
         }
 
-        cache.put(id, config);
+        synchronized (cache) {
+            cache.put(id, config);
+            metadata.put(id, new ConfigMetadata(id, data));
+        }
     }
 
     /**
@@ -118,28 +191,43 @@ public class ConfigStore<T extends Configuration> implements ConfigTargetStore {
      *                              config is missing
      */
     public T fetch(UUID id) throws ConfigStoreException {
-        if (cache.containsKey(id)) {
-            return cache.get(id);
+        synchronized (cache) {
+            T config = cache.get(id);
+            if (config != null) {
+                return config;
+            }
         }
 
         String path = getConfigPath(namespace, id);
         logger.info("Fetching configuration with ID={} from {}", id, path);
-        byte[] data;
-        try {
-            data = persister.get(path);
-        } catch (PersisterException e) {
-            if (e.getReason() == Reason.NOT_FOUND) {
-                throw new ConfigStoreException(Reason.NOT_FOUND, String.format(
-                        "Configuration '%s' was not found at path '%s'", id, path), e);
-            } else {
-                throw new ConfigStoreException(e, String.format(
-                        "Failed to retrieve configuration '%s' from path '%s'", id, path));
+        byte[] data = fetchBytes(id);
+        T config = factory.parse(data);
+        synchronized (cache) {
+            cache.put(id, config);
+            metadata.put(id, new ConfigMetadata(id, data));
+        }
+        return config;
+    }
+
+    /**
+     * Returns a summary of the configuration assigned to the provided UUID, without deserializing the configuration.
+     *
+     * @param id The UUID of the configuration to be summarized
+     * @throws ConfigStoreException if retrieval fails, or if the requested config is missing
+     */
+    public ConfigMetadata getMetadata(UUID id) throws ConfigStoreException {
+        synchronized (cache) {
+            ConfigMetadata configMetadata = metadata.get(id);
+            if (configMetadata != null) {
+                return configMetadata;
             }
         }
 
-        T config = factory.parse(data);
-        cache.put(id, config);
-        return config;
+        ConfigMetadata configMetadata = new ConfigMetadata(id, fetchBytes(id));
+        synchronized (cache) {
+            metadata.put(id, configMetadata);
+        }
+        return configMetadata;
     }
 
     /**
@@ -164,7 +252,10 @@ public class ConfigStore<T extends Configuration> implements ConfigTargetStore {
             }
         }
 
-        cache.remove(id);
+        synchronized (cache) {
+            cache.remove(id);
+            metadata.remove(id);
+        }
     }
 
     /**
@@ -232,6 +323,67 @@ public class ConfigStore<T extends Configuration> implements ConfigTargetStore {
         }
     }
 
+    /**
+     * Discards any in-memory copy of the updated config.
+     */
+    @Override
+    public void nodeUpdated(String path, byte[] data) {
+        invalidatePath(path);
+    }
+
+    /**
+     * Discards any in-memory copies of the deleted config(s).
+     */
+    @Override
+    public void nodeDeleted(String path) {
+        invalidatePath(path);
+    }
+
+    /**
+     * Discards any in-memory data for the config(s) at or under the provided path. Changes to the target config ID or
+     * to anything outside this store's configs are ignored, as they aren't kept in memory.
+     */
+    private void invalidatePath(String path) {
+        String configsPath = getConfigsPath(namespace);
+        String relativePath = StringUtils.stripStart(path, PersisterUtils.PATH_DELIM_STR);
+        if ((configsPath + PersisterUtils.PATH_DELIM).startsWith(relativePath + PersisterUtils.PATH_DELIM)
+                || relativePath.isEmpty()) {
+            synchronized (cache) {
+                cache.clear();
+                metadata.clear();
+            }
+            return;
+        }
+        if (!relativePath.startsWith(configsPath + PersisterUtils.PATH_DELIM)) {
+            return;
+        }
+        UUID id;
+        try {
+            id = UUID.fromString(relativePath.substring(configsPath.length() + 1));
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        synchronized (cache) {
+            cache.remove(id);
+            metadata.remove(id);
+        }
+    }
+
+    private byte[] fetchBytes(UUID id) throws ConfigStoreException {
+        String path = getConfigPath(namespace, id);
+        try {
+            return persister.get(path);
+        } catch (PersisterException e) {
+            if (e.getReason() == Reason.NOT_FOUND) {
+                throw new ConfigStoreException(Reason.NOT_FOUND, String.format(
+                        "Configuration '%s' was not found at path '%s'", id, path), e);
+            } else {
+                throw new ConfigStoreException(e, String.format(
+                        "Failed to retrieve configuration '%s' from path '%s'", id, path));
+            }
+        }
+    }
+
     /**
      * @return {@code Services/[namespace]/ConfigTarget}, or {@code ConfigTarget}
      */
@@ -0,0 +1,134 @@
+package com.mesosphere.sdk.state;
+
+import com.mesosphere.sdk.offer.evaluate.placement.PlacementTaskIndex;
+import org.apache.mesos.Protos;
+
+import java.util.*;
+
+/**
+ * An immutable point-in-time view of the tasks in a {@link StateStore}, along with the service's target configuration.
+ * A snapshot is built once at the start of an offer cycle and is then shared by everything which evaluates offers
+ * within that cycle, so that the cost of reading task state is paid once per cycle rather than once per step.
+ * <p>
+ * A snapshot does not reflect any changes which are written to the {@link StateStore} after it was created. Callers
+ * which may have written to the {@link StateStore} mid-cycle, e.g. by launching tasks, should use
+ * {@link #refresh(StateStore)} to get an up-to-date snapshot.
+ */
+public class StateSnapshot {
+
+    private final Map<String, Protos.TaskInfo> tasks;
+    private final PlacementTaskIndex placementTaskIndex;
+    private final Map<String, Protos.TaskStatus> statuses;
+    private final Map<String, GoalStateOverride.Status> goalOverrideStatuses;
+    private final UUID targetConfigId;
+    private final long taskDataVersion;
+
+    /**
+     * Returns a new snapshot containing the current task data in the provided {@link StateStore}.
+     *
+     * @param stateStore the state store to read task data from
+     * @param targetConfigId the service's current target configuration
+     * @throws StateStoreException if fetching the task data fails
+     */
+    public static StateSnapshot create(StateStore stateStore, UUID targetConfigId) throws StateStoreException {
+        // Get the version before reading any data: if there's a concurrent write then we'll just rebuild on refresh.
+        long taskDataVersion = stateStore.getTaskDataVersion();
+        Map<String, Protos.TaskInfo> tasks = new LinkedHashMap<>();
+        Map<String, Protos.TaskStatus> statuses = new HashMap<>();
+        Map<String, GoalStateOverride.Status> goalOverrideStatuses = new HashMap<>();
+        for (Protos.TaskInfo taskInfo : stateStore.fetchTasks()) {
+            tasks.put(taskInfo.getName(), taskInfo);
+
+            Optional<Protos.TaskStatus> status = stateStore.fetchStatus(taskInfo.getName());
+            if (status.isPresent()) {
+                statuses.put(taskInfo.getName(), status.get());
+            }
+
+            GoalStateOverride.Status overrideStatus = stateStore.fetchGoalOverrideStatus(taskInfo.getName());
+            if (!GoalStateOverride.Status.INACTIVE.equals(overrideStatus)) {
+                goalOverrideStatuses.put(taskInfo.getName(), overrideStatus);
+            }
+        }
+        return new StateSnapshot(tasks, statuses, goalOverrideStatuses, targetConfigId, taskDataVersion);
+    }
+
+    private StateSnapshot(
+            Map<String, Protos.TaskInfo> tasks,
+            Map<String, Protos.TaskStatus> statuses,
+            Map<String, GoalStateOverride.Status> goalOverrideStatuses,
+            UUID targetConfigId,
+            long taskDataVersion) {
+        this.tasks = Collections.unmodifiableMap(tasks);
+        this.placementTaskIndex = new PlacementTaskIndex(this.tasks.values());
+        this.statuses = Collections.unmodifiableMap(statuses);
+        this.goalOverrideStatuses = Collections.unmodifiableMap(goalOverrideStatuses);
+        this.targetConfigId = targetConfigId;
+        this.taskDataVersion = taskDataVersion;
+    }
+
+    /**
+     * Returns a snapshot reflecting the current task data in the provided {@link StateStore}, which must be the same
+     * {@link StateStore} that this snapshot was created from. If no task data has changed since this snapshot was
+     * created, this snapshot is returned as-is.
+     *
+     * @throws StateStoreException if fetching the task data fails
+     */
+    public StateSnapshot refresh(StateStore stateStore) throws StateStoreException {
+        return stateStore.getTaskDataVersion() == taskDataVersion ? this : create(stateStore, targetConfigId);
+    }
+
+    /**
+     * Returns all tasks in the snapshot, equivalent to {@link StateStore#fetchTasks()}.
+     */
+    public Collection<Protos.TaskInfo> getTasks() {
+        return tasks.values();
+    }
+
+    /**
+     * Returns all tasks in the snapshot as a {@link PlacementTaskIndex}, which memoizes the aggregates used by
+     * placement rules across all evaluations against this snapshot.
+     */
+    public PlacementTaskIndex getPlacementTaskIndex() {
+        return placementTaskIndex;
+    }
+
+    /**
+     * Returns a mapping of task name to task for all tasks in the snapshot.
+     */
+    public Map<String, Protos.TaskInfo> getTasksByName() {
+        return tasks;
+    }
+
+    /**
+     * Returns the task with the provided name, or an empty {@link Optional} if it isn't present, equivalent to
+     * {@link StateStore#fetchTask(String)}.
+     */
+    public Optional<Protos.TaskInfo> getTask(String taskName) {
+        return Optional.ofNullable(tasks.get(taskName));
+    }
+
+    /**
+     * Returns the status of the task with the provided name, or an empty {@link Optional} if it isn't present,
+     * equivalent to {@link StateStore#fetchStatus(String)}.
+     */
+    public Optional<Protos.TaskStatus> getStatus(String taskName) {
+        return Optional.ofNullable(statuses.get(taskName));
+    }
+
+    /**
+     * Returns the goal state override status of the task with the provided name, equivalent to
+     * {@link StateStore#fetchGoalOverrideStatus(String)}. Tasks without an override, including tasks which aren't
+     * present in the snapshot, have a status of {@link GoalStateOverride.Status#INACTIVE}.
+     */
+    public GoalStateOverride.Status getGoalOverrideStatus(String taskName) {
+        GoalStateOverride.Status status = goalOverrideStatuses.get(taskName);
+        return status == null ? GoalStateOverride.Status.INACTIVE : status;
+    }
+
+    /**
+     * Returns the service's target configuration at the time the snapshot was created.
+     */
+    public UUID getTargetConfigId() {
+        return targetConfigId;
+    }
+}
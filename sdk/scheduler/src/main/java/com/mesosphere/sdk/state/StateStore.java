@@ -1,9 +1,13 @@
 package com.mesosphere.sdk.state;
 
+import com.codahale.metrics.Timer;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.protobuf.InvalidProtocolBufferException;
 import com.mesosphere.sdk.offer.LoggingUtils;
 import com.mesosphere.sdk.offer.TaskUtils;
+import com.mesosphere.sdk.scheduler.Metrics;
 import com.mesosphere.sdk.storage.Persister;
+import com.mesosphere.sdk.storage.PersisterChangeListener;
 import com.mesosphere.sdk.storage.PersisterException;
 import com.mesosphere.sdk.storage.PersisterUtils;
 import com.mesosphere.sdk.storage.StorageError.Reason;
@@ -14,6 +18,12 @@ import org.slf4j.Logger;
 
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * A {@code StateStore} stores the state of a service, including tasks' TaskInfo and TaskStatus objects. Each
@@ -24,6 +34,16 @@ import java.util.*;
  * <p>
  * TaskStatus is reported by Mesos to Frameworks at various points including at Task Reconciliation and when Tasks
  * change state.  The TaskStatus of a Task should be recorded so that the state of a Framework's Tasks can be queried.
+ * <p>
+ * Parsed TaskInfo, TaskStatus, and goal state override data is cached in memory after it's first fetched, and is kept
+ * up to date as it's written via this class. If the underlying persister is modified by other means, including via
+ * another {@link StateStore}, either the affected paths must be reported via this class's
+ * {@link PersisterChangeListener} methods, e.g. by registering it with
+ * {@link com.mesosphere.sdk.storage.PersisterCache#addChangeListener(PersisterChangeListener)}, or
+ * {@link #invalidateCachedState()} must be invoked.
+ * <p>
+ * Optionally, TaskStatus updates which don't change a task's state (e.g. health check results) may be coalesced in
+ * memory for a short window before being written to the persister. See {@link #storeStatus(String, Protos.TaskStatus)}.
  *
  * <p>The structure used in the underlying persister is as follows:
  * <br>namespacedPath/ ("Services/NAMESPACE/" or "/")
@@ -43,7 +63,7 @@ import java.util.*;
  * <br>&nbsp; &nbsp; some-property
  * <br>&nbsp; &nbsp; another-property
  */
-public class StateStore {
+public class StateStore implements PersisterChangeListener {
 
     private static final int MAX_VALUE_LENGTH_BYTES = 1024 * 1024; // 1MB
 
@@ -57,10 +77,86 @@ public class StateStore {
     private static final String PROPERTIES_ROOT_NAME = "Properties";
     private static final String TASKS_ROOT_NAME = "Tasks";
 
+    /**
+     * The number of times to try building the TaskID index while TaskInfos are being changed concurrently, before
+     * falling back to searching the TaskInfos without building the index.
+     */
+    private static final int MAX_INDEX_BUILD_ATTEMPTS = 3;
+
     private final Logger logger;
     protected final Persister persister;
     protected final String namespace;
 
+    /**
+     * Serializes writes to task data, so that the persister and the in-memory task data below are updated in the same
+     * order. This is held across persister writes, but is never taken by readers. Change notifications which are
+     * received by a thread holding this lock are for this instance's own writes.
+     */
+    private final Object storeLock = new Object();
+
+    /**
+     * Guards all of the in-memory task data below. This is only held while accessing the in-memory data, and never
+     * across persister operations. Cache misses are read from the persister without holding this lock, and are only
+     * added to the cache if the version of that kind of data didn't change in the meantime, so that a concurrent write
+     * cannot be overwritten with a stale value.
+     */
+    private final ReadWriteLock cacheLock = new ReentrantReadWriteLock();
+
+    /**
+     * Index of TaskID values to the name(s) of the task(s) which currently have that TaskID, along with the reverse
+     * mapping of task names to their current TaskID values. These are lazily populated on first lookup, after which
+     * they're kept up to date by {@link #storeTasks(Collection)} and {@link #clearTask(String)}.
+     */
+    private Map<String, Set<String>> taskNamesByIdIndex;
+    private Map<String, String> taskIdsByNameIndex;
+
+    /**
+     * Write-through caches of parsed task data, keyed by task name. Entries are populated on first fetch and are
+     * replaced or removed whenever the corresponding data is stored or cleared. Protobuf messages are immutable, so
+     * cached values are shared directly with callers. An empty {@link Optional} means that the data was found to be
+     * absent.
+     */
+    private final Map<String, Optional<Protos.TaskInfo>> taskInfoCache = new HashMap<>();
+    private final Map<String, Optional<Protos.TaskStatus>> taskStatusCache = new HashMap<>();
+    private final Map<String, GoalStateOverride.Status> goalOverrideStatusCache = new HashMap<>();
+
+    /**
+     * Unmodifiable snapshots returned by {@link #fetchTasks()} and {@link #fetchStatuses()}, or {@code null} if they
+     * need to be rebuilt following a change.
+     */
+    private Collection<Protos.TaskInfo> tasksSnapshot;
+    private Collection<Protos.TaskStatus> statusesSnapshot;
+
+    /**
+     * Incremented whenever TaskInfo, TaskStatus, or goal state override data respectively is changed or invalidated.
+     * These are tracked separately so that e.g. a stream of status updates doesn't prevent TaskInfos from being cached.
+     * See also {@link #getTaskDataVersion()}.
+     */
+    private long taskInfoVersion;
+    private long taskStatusVersion;
+    private long goalOverrideVersion;
+
+    /**
+     * The window over which TaskStatus updates may be coalesced before being written to the persister, or zero if
+     * every update is written immediately.
+     */
+    private final long statusWriteBehindMs;
+
+    /**
+     * TaskStatuses which have been stored to the cache but not yet written to the persister, keyed by task name. These
+     * are written by {@link #flushPendingStatuses()}, which is run on {@link #statusFlushExecutor} after the
+     * write-behind window has passed. Both are only used when write-behind is enabled, and are only modified while
+     * holding {@link #storeLock}. Until they're written, pending statuses are only visible via this instance.
+     */
+    private final Map<String, Protos.TaskStatus> pendingStatuses = new ConcurrentSkipListMap<>();
+    private ScheduledExecutorService statusFlushExecutor;
+
+    /**
+     * Set by {@link #close()}, after which all TaskStatuses are written immediately. Only accessed while holding
+     * {@link #storeLock}.
+     */
+    private boolean closed;
+
     /**
      * Creates a new {@link StateStore} which uses the provided {@link Persister} to access state data.
      *
@@ -84,9 +180,23 @@ public class StateStore {
      * @param namespace The namespace for data to be stored within, or an empty string for no namespacing
      */
     public StateStore(Persister persister, String namespace) {
+        this(persister, namespace, 0);
+    }
+
+    /**
+     * Creates a new {@link StateStore} where data is placed within a namespace under the provided name, and where
+     * TaskStatus updates which don't change a task's state may be coalesced before being written to the persister.
+     *
+     * @param persister The persister which holds the state data
+     * @param namespace The namespace for data to be stored within, or an empty string for no namespacing
+     * @param statusWriteBehindMs The window over which to coalesce TaskStatus updates, or zero to write all updates
+     *                            immediately
+     */
+    public StateStore(Persister persister, String namespace, long statusWriteBehindMs) {
         this.logger = LoggingUtils.getLogger(getClass(), namespace);
         this.persister = persister;
         this.namespace = namespace;
+        this.statusWriteBehindMs = statusWriteBehindMs;
 
         StateStoreUtils.repairTaskIDs(this);
     }
@@ -106,10 +216,26 @@ public class StateStore {
         for (Protos.TaskInfo taskInfo : tasks) {
             taskBytesMap.put(getTaskInfoPath(namespace, taskInfo.getName()), taskInfo.toByteArray());
         }
-        try {
-            persister.setMany(taskBytesMap);
-        } catch (PersisterException e) {
-            throw new StateStoreException(e, String.format("Failed to store %d TaskInfos", tasks.size()));
+        synchronized (storeLock) {
+            try {
+                persister.setMany(taskBytesMap);
+            } catch (PersisterException e) {
+                throw new StateStoreException(e, String.format("Failed to store %d TaskInfos", tasks.size()));
+            }
+            cacheLock.writeLock().lock();
+            try {
+                for (Protos.TaskInfo taskInfo : tasks) {
+                    taskInfoCache.put(taskInfo.getName(), Optional.of(taskInfo));
+                    if (taskNamesByIdIndex != null) {
+                        removeFromTaskIdIndex(taskInfo.getName());
+                        addToTaskIdIndex(taskInfo);
+                    }
+                }
+                tasksSnapshot = null;
+                ++taskInfoVersion;
+            } finally {
+                cacheLock.writeLock().unlock();
+            }
         }
     }
 
@@ -117,12 +243,28 @@ public class StateStore {
      * Stores the TaskStatus of a particular Task. The {@link Protos.TaskInfo} for this exact task MUST have already
      * been written via {@link #storeTasks(Collection)} beforehand. The TaskId must be well-formatted as produced by
      * {@link com.mesosphere.sdk.offer.CommonIdUtils#toTaskId(String)}.
+     * <p>
+     * If write-behind is enabled, a status which only differs from the task's current status in how it was delivered
+     * (its timestamp, UUID, message, reason, or source), e.g. a repeated status from reconciliation, is visible to
+     * readers immediately but is only written to the persister after the write-behind window has passed, along with
+     * any other such statuses. All other statuses, including any change in state, labels, health, or check results,
+     * and all terminal states, are written to the persister before this returns, along with any pending statuses.
+     * Pending statuses therefore never carry anything which the persisted status lacks, beyond delivery details.
      *
      * @param status The status to be stored, which meets the above requirements
      * @throws StateStoreException if storing the TaskStatus fails, or if its TaskId is malformed, or if its matching
      *                             TaskInfo wasn't stored first
      */
     public void storeStatus(String taskName, Protos.TaskStatus status) throws StateStoreException {
+        synchronized (storeLock) {
+            storeStatusInternal(taskName, status);
+        }
+    }
+
+    /**
+     * Must be called while holding {@link #storeLock}.
+     */
+    private void storeStatusInternal(String taskName, Protos.TaskStatus status) throws StateStoreException {
         Optional<Protos.TaskStatus> currentStatusOptional = fetchStatus(taskName);
         if (currentStatusOptional.isPresent()
                 && status.getState().equals(Protos.TaskState.TASK_LOST)
@@ -141,15 +283,63 @@ public class StateStore {
         }
 
         String path = getTaskStatusPath(namespace, taskName);
-        logger.info("Storing status '{}' for '{}' in '{}'", status.getState(), taskName, path);
-
+        if (statusWriteBehindMs > 0
+                && !closed
+                && currentStatusOptional.isPresent()
+                && !TaskUtils.isTerminal(status)
+                && withoutDeliveryFields(currentStatusOptional.get()).equals(withoutDeliveryFields(status))) {
+            logger.debug("Deferring storage of status '{}' for '{}' in '{}'", status.getState(), taskName, path);
+            if (pendingStatuses.isEmpty()) {
+                scheduleStatusFlush();
+            }
+            if (pendingStatuses.put(taskName, status) != null) {
+                Metrics.incrementStateStatusWritesCoalesced();
+            }
+        } else {
+            logger.info("Storing status '{}' for '{}' in '{}'", status.getState(), taskName, path);
+            // This status supersedes any pending status for the same task:
+            Protos.TaskStatus pendingStatus = pendingStatuses.remove(taskName);
+            try {
+                if (pendingStatuses.isEmpty()) {
+                    persister.set(path, status.toByteArray());
+                } else {
+                    // Write any pending statuses for other tasks in the same transaction:
+                    Map<String, byte[]> statusBytesMap = getStatusBytesMap(pendingStatuses);
+                    statusBytesMap.put(path, status.toByteArray());
+                    persister.setMany(statusBytesMap);
+                    pendingStatuses.clear();
+                }
+            } catch (PersisterException e) {
+                if (pendingStatus != null) {
+                    pendingStatuses.put(taskName, pendingStatus);
+                }
+                throw new StateStoreException(e);
+            }
+        }
+        cacheLock.writeLock().lock();
         try {
-            persister.set(path, status.toByteArray());
-        } catch (PersisterException e) {
-            throw new StateStoreException(e);
+            taskStatusCache.put(taskName, Optional.of(status));
+            statusesSnapshot = null;
+            ++taskStatusVersion;
+        } finally {
+            cacheLock.writeLock().unlock();
         }
     }
 
+    /**
+     * Returns a copy of the provided status without the fields which describe how the status was delivered, rather
+     * than the state of the task.
+     */
+    private static Protos.TaskStatus withoutDeliveryFields(Protos.TaskStatus status) {
+        return status.toBuilder()
+                .clearTimestamp()
+                .clearUuid()
+                .clearMessage()
+                .clearReason()
+                .clearSource()
+                .build();
+    }
+
     /**
      * Removes all data associated with a particular Task including any stored TaskInfo and/or TaskStatus.
      *
@@ -157,14 +347,34 @@ public class StateStore {
      * @throws StateStoreException when clearing the indicated Task's information fails
      */
     public void clearTask(String taskName) throws StateStoreException {
-        try {
-            persister.recursiveDelete(getTaskPath(namespace, taskName));
-        } catch (PersisterException e) {
-            if (e.getReason() == Reason.NOT_FOUND) {
-                // Clearing a non-existent Task should not result in an exception from us.
-                logger.warn("Cleared nonexistent Task, continuing silently: {}", taskName, e);
-            } else {
-                throw new StateStoreException(e);
+        synchronized (storeLock) {
+            // Avoid recreating the task's status after it's been deleted:
+            pendingStatuses.remove(taskName);
+            try {
+                persister.recursiveDelete(getTaskPath(namespace, taskName));
+            } catch (PersisterException e) {
+                if (e.getReason() == Reason.NOT_FOUND) {
+                    // Clearing a non-existent Task should not result in an exception from us.
+                    logger.warn("Cleared nonexistent Task, continuing silently: {}", taskName, e);
+                } else {
+                    throw new StateStoreException(e);
+                }
+            }
+            cacheLock.writeLock().lock();
+            try {
+                if (taskNamesByIdIndex != null) {
+                    removeFromTaskIdIndex(taskName);
+                }
+                taskInfoCache.remove(taskName);
+                taskStatusCache.remove(taskName);
+                goalOverrideStatusCache.remove(taskName);
+                tasksSnapshot = null;
+                statusesSnapshot = null;
+                ++taskInfoVersion;
+                ++taskStatusVersion;
+                ++goalOverrideVersion;
+            } finally {
+                cacheLock.writeLock().unlock();
             }
         }
     }
@@ -203,7 +413,18 @@ public class StateStore {
      * @throws StateStoreException if fetching the TaskInfo information otherwise fails
      */
     public Collection<Protos.TaskInfo> fetchTasks() throws StateStoreException {
-        Collection<Protos.TaskInfo> taskInfos = new ArrayList<>();
+        long version;
+        cacheLock.readLock().lock();
+        try {
+            if (tasksSnapshot != null) {
+                Metrics.incrementStateCacheHits();
+                return tasksSnapshot;
+            }
+            version = taskInfoVersion;
+        } finally {
+            cacheLock.readLock().unlock();
+        }
+        List<Protos.TaskInfo> taskInfos = new ArrayList<>();
         for (String taskName : fetchTaskNames()) {
             Optional<Protos.TaskInfo> taskInfoOptional = fetchTask(taskName);
             if (taskInfoOptional.isPresent()) {
@@ -214,7 +435,85 @@ public class StateStore {
                         String.format("Expected task named %s to be present when retrieving all tasks", taskName));
             }
         }
-        return taskInfos;
+        Collection<Protos.TaskInfo> snapshot = Collections.unmodifiableList(taskInfos);
+        cacheLock.writeLock().lock();
+        try {
+            if (taskInfoVersion == version) {
+                tasksSnapshot = snapshot;
+            }
+        } finally {
+            cacheLock.writeLock().unlock();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns the names of the tasks whose current {@link Protos.TaskInfo} has each of the provided TaskIDs. TaskIDs
+     * which don't match any stored task are omitted from the returned map. Lookups are served from an in-memory index,
+     * so this doesn't require fetching and parsing every stored {@link Protos.TaskInfo}. If TaskInfos are changed too
+     * frequently for the index to be built, the current TaskInfos are searched directly instead.
+     *
+     * @param taskIds The TaskIDs to be looked up
+     * @return A mapping of each found TaskID to the name of its task
+     * @throws StateStoreException if a TaskID is shared by multiple tasks, or if building the index fails
+     */
+    public Map<Protos.TaskID, String> fetchTaskNamesByIds(Collection<Protos.TaskID> taskIds)
+            throws StateStoreException {
+        Collection<Protos.TaskInfo> taskInfos = null;
+        for (int attempt = 0; attempt < MAX_INDEX_BUILD_ATTEMPTS; ++attempt) {
+            long version;
+            cacheLock.readLock().lock();
+            try {
+                if (taskNamesByIdIndex != null) {
+                    return getTaskNames(taskIds, taskNamesByIdIndex);
+                }
+                version = taskInfoVersion;
+            } finally {
+                cacheLock.readLock().unlock();
+            }
+            // Build the index from the current tasks, unless they were changed in the meantime, then try again:
+            taskInfos = fetchTasks();
+            cacheLock.writeLock().lock();
+            try {
+                if (taskNamesByIdIndex == null && taskInfoVersion == version) {
+                    buildTaskIdIndex(taskInfos);
+                }
+                if (taskNamesByIdIndex != null) {
+                    return getTaskNames(taskIds, taskNamesByIdIndex);
+                }
+            } finally {
+                cacheLock.writeLock().unlock();
+            }
+        }
+        logger.info("TaskInfos changed while indexing TaskIDs, searching {} TaskInfos directly", taskInfos.size());
+        Map<String, Set<String>> taskNamesById = new HashMap<>();
+        for (Protos.TaskInfo taskInfo : taskInfos) {
+            taskNamesById.computeIfAbsent(taskInfo.getTaskId().getValue(), id -> new TreeSet<>())
+                    .add(taskInfo.getName());
+        }
+        return getTaskNames(taskIds, taskNamesById);
+    }
+
+    /**
+     * Returns the names of the tasks with the provided TaskIDs from the provided mapping of TaskIDs to task names. If
+     * the mapping is the {@link #taskNamesByIdIndex}, this must be called while holding {@link #cacheLock}.
+     */
+    private Map<Protos.TaskID, String> getTaskNames(
+            Collection<Protos.TaskID> taskIds, Map<String, Set<String>> taskNamesById) throws StateStoreException {
+        Map<Protos.TaskID, String> taskNames = new HashMap<>();
+        for (Protos.TaskID taskId : taskIds) {
+            Set<String> names = taskNamesById.get(taskId.getValue());
+            if (names == null) {
+                continue;
+            }
+            if (names.size() > 1) {
+                logger.error("Found duplicate TaskID {} in Tasks: {}", taskId.getValue(), names);
+                throw new StateStoreException(Reason.LOGIC_ERROR, String.format(
+                        "There are more than one tasks with TaskID: %s", taskId.getValue()));
+            }
+            taskNames.put(taskId, names.iterator().next());
+        }
+        return taskNames;
     }
 
     /**
@@ -226,11 +525,37 @@ public class StateStore {
      *                             fails
      */
     public Optional<Protos.TaskInfo> fetchTask(String taskName) throws StateStoreException {
+        long version;
+        cacheLock.readLock().lock();
+        try {
+            Optional<Protos.TaskInfo> taskInfo = taskInfoCache.get(taskName);
+            if (taskInfo != null) {
+                Metrics.incrementStateCacheHits();
+                return taskInfo;
+            }
+            version = taskInfoVersion;
+        } finally {
+            cacheLock.readLock().unlock();
+        }
+        Metrics.incrementStateCacheMisses();
+        Optional<Protos.TaskInfo> taskInfo = fetchTaskFromPersister(taskName);
+        cacheLock.writeLock().lock();
+        try {
+            if (taskInfoVersion == version) {
+                taskInfoCache.put(taskName, taskInfo);
+            }
+        } finally {
+            cacheLock.writeLock().unlock();
+        }
+        return taskInfo;
+    }
+
+    private Optional<Protos.TaskInfo> fetchTaskFromPersister(String taskName) throws StateStoreException {
         String path = getTaskInfoPath(namespace, taskName);
         try {
             byte[] bytes = persister.get(path);
             if (bytes.length > 0) {
-                return Optional.of(Protos.TaskInfo.parseFrom(bytes));
+                return Optional.of(parseTaskInfo(bytes));
             } else {
                 throw new StateStoreException(Reason.SERIALIZATION_ERROR, String.format(
                         "Empty TaskInfo for TaskName: %s", taskName));
@@ -255,24 +580,36 @@ public class StateStore {
      * @throws StateStoreException if fetching the TaskStatus information fails
      */
     public Collection<Protos.TaskStatus> fetchStatuses() throws StateStoreException {
-        Collection<Protos.TaskStatus> taskStatuses = new ArrayList<>();
+        long version;
+        cacheLock.readLock().lock();
+        try {
+            if (statusesSnapshot != null) {
+                Metrics.incrementStateCacheHits();
+                return statusesSnapshot;
+            }
+            version = taskStatusVersion;
+        } finally {
+            cacheLock.readLock().unlock();
+        }
+        List<Protos.TaskStatus> taskStatuses = new ArrayList<>();
         for (String taskName : fetchTaskNames()) {
-            try {
-                byte[] bytes = persister.get(getTaskStatusPath(namespace, taskName));
-                taskStatuses.add(Protos.TaskStatus.parseFrom(bytes));
-            } catch (PersisterException e) {
-                if (e.getReason() == Reason.NOT_FOUND) {
-                    // The task node exists, but it doesn't contain a TaskStatus node. This may occur if
-                    // the only contents are a TaskInfo.
-                    continue;
-                } else {
-                    throw new StateStoreException(e);
-                }
-            } catch (InvalidProtocolBufferException e) {
-                throw new StateStoreException(Reason.SERIALIZATION_ERROR, e);
+            // The task node exists, but it may not contain a TaskStatus node. This may occur if the only contents are
+            // a TaskInfo.
+            Optional<Protos.TaskStatus> taskStatus = fetchStatus(taskName, false);
+            if (taskStatus.isPresent()) {
+                taskStatuses.add(taskStatus.get());
+            }
+        }
+        Collection<Protos.TaskStatus> snapshot = Collections.unmodifiableList(taskStatuses);
+        cacheLock.writeLock().lock();
+        try {
+            if (taskStatusVersion == version) {
+                statusesSnapshot = snapshot;
             }
+        } finally {
+            cacheLock.writeLock().unlock();
         }
-        return taskStatuses;
+        return snapshot;
     }
 
     /**
@@ -285,18 +622,52 @@ public class StateStore {
      *                             information otherwise fails
      */
     public Optional<Protos.TaskStatus> fetchStatus(String taskName) throws StateStoreException {
+        return fetchStatus(taskName, true);
+    }
+
+    private Optional<Protos.TaskStatus> fetchStatus(String taskName, boolean warnIfMissing)
+            throws StateStoreException {
+        long version;
+        cacheLock.readLock().lock();
+        try {
+            Optional<Protos.TaskStatus> taskStatus = taskStatusCache.get(taskName);
+            if (taskStatus != null) {
+                Metrics.incrementStateCacheHits();
+                return taskStatus;
+            }
+            version = taskStatusVersion;
+        } finally {
+            cacheLock.readLock().unlock();
+        }
+        Metrics.incrementStateCacheMisses();
+        Optional<Protos.TaskStatus> taskStatus = fetchStatusFromPersister(taskName, warnIfMissing);
+        cacheLock.writeLock().lock();
+        try {
+            if (taskStatusVersion == version) {
+                taskStatusCache.put(taskName, taskStatus);
+            }
+        } finally {
+            cacheLock.writeLock().unlock();
+        }
+        return taskStatus;
+    }
+
+    private Optional<Protos.TaskStatus> fetchStatusFromPersister(String taskName, boolean warnIfMissing)
+            throws StateStoreException {
         String path = getTaskStatusPath(namespace, taskName);
         try {
             byte[] bytes = persister.get(path);
             if (bytes.length > 0) {
-                return Optional.of(Protos.TaskStatus.parseFrom(bytes));
+                return Optional.of(parseTaskStatus(bytes));
             } else {
                 throw new StateStoreException(Reason.SERIALIZATION_ERROR, String.format(
                         "Empty TaskStatus for TaskName: %s", taskName));
             }
         } catch (PersisterException e) {
             if (e.getReason() == Reason.NOT_FOUND) {
-                logger.warn("No TaskStatus found for the requested name: {} at: {}", taskName, path);
+                if (warnIfMissing) {
+                    logger.warn("No TaskStatus found for the requested name: {} at: {}", taskName, path);
+                }
                 return Optional.empty();
             } else {
                 throw new StateStoreException(e);
@@ -423,6 +794,20 @@ public class StateStore {
      */
     public void storeGoalOverrideStatus(String taskName, GoalStateOverride.Status status)
             throws StateStoreException {
+        synchronized (storeLock) {
+            storeGoalOverrideStatusInternal(taskName, status);
+            cacheLock.writeLock().lock();
+            try {
+                goalOverrideStatusCache.put(taskName, status);
+                ++goalOverrideVersion;
+            } finally {
+                cacheLock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void storeGoalOverrideStatusInternal(String taskName, GoalStateOverride.Status status)
+            throws StateStoreException {
         try {
             if (GoalStateOverride.Status.INACTIVE.equals(status)) {
                 // Mark inactive state by clearing any override bits.
@@ -449,6 +834,33 @@ public class StateStore {
      * @throws StateStoreException in the event of a storage error
      */
     public GoalStateOverride.Status fetchGoalOverrideStatus(String taskName) throws StateStoreException {
+        long version;
+        cacheLock.readLock().lock();
+        try {
+            GoalStateOverride.Status status = goalOverrideStatusCache.get(taskName);
+            if (status != null) {
+                Metrics.incrementStateCacheHits();
+                return status;
+            }
+            version = goalOverrideVersion;
+        } finally {
+            cacheLock.readLock().unlock();
+        }
+        Metrics.incrementStateCacheMisses();
+        GoalStateOverride.Status status = fetchGoalOverrideStatusFromPersister(taskName);
+        cacheLock.writeLock().lock();
+        try {
+            if (goalOverrideVersion == version) {
+                goalOverrideStatusCache.put(taskName, status);
+            }
+        } finally {
+            cacheLock.writeLock().unlock();
+        }
+        return status;
+    }
+
+    private GoalStateOverride.Status fetchGoalOverrideStatusFromPersister(String taskName)
+            throws StateStoreException {
         try {
             String goalOverridePath = getGoalOverridePath(namespace, taskName);
             String goalOverrideStatusPath = getGoalOverrideStatusPath(namespace, taskName);
@@ -478,15 +890,106 @@ public class StateStore {
         if (namespace.isEmpty()) {
             return; // Not namespaced, no-op
         }
+        synchronized (storeLock) {
+            pendingStatuses.clear();
+            try {
+                // Delete data WITHIN THE NAMESPACE
+                persister.recursiveDelete(PersisterUtils.getServiceNamespacedRoot(namespace));
+            } catch (PersisterException e) {
+                if (e.getReason() == Reason.NOT_FOUND) {
+                    // Nothing to delete, apparently. Treat as a no-op
+                } else {
+                    throw new StateStoreException(e);
+                }
+            }
+            clearCaches();
+        }
+    }
+
+    /**
+     * Returns a value which changes whenever any TaskInfo is written via this instance, or is invalidated via
+     * {@link #invalidateCachedState()} or a change notification. Unlike {@link #getTaskDataVersion()}, this doesn't
+     * change when TaskStatuses are stored.
+     */
+    public long getTaskInfoVersion() {
+        cacheLock.readLock().lock();
         try {
-            // Delete data WITHIN THE NAMESPACE
-            persister.recursiveDelete(PersisterUtils.getServiceNamespacedRoot(namespace));
-        } catch (PersisterException e) {
-            if (e.getReason() == Reason.NOT_FOUND) {
-                // Nothing to delete, apparently. Treat as a no-op
-            } else {
-                throw new StateStoreException(e);
+            return taskInfoVersion;
+        } finally {
+            cacheLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a value which changes whenever any task data (TaskInfos, TaskStatuses, or goal state overrides) is
+     * written via this instance, or is invalidated via {@link #invalidateCachedState()} or a change notification.
+     * Callers may compare two returned values to cheaply detect whether they need to re-read task data.
+     */
+    public long getTaskDataVersion() {
+        cacheLock.readLock().lock();
+        try {
+            // Each version only increases, so their sum changes whenever any of them changes:
+            return taskInfoVersion + taskStatusVersion + goalOverrideVersion;
+        } finally {
+            cacheLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Discards any in-memory data which was derived from the underlying persister, such that it will be rebuilt from
+     * the persister's current content on next access. This is only needed if the persister was modified behind this
+     * {@link StateStore}'s back, e.g. via {@link com.mesosphere.sdk.storage.PersisterCache#refresh()}.
+     */
+    public void invalidateCachedState() {
+        synchronized (storeLock) {
+            // Pending statuses are newer than anything in the persister, so write them before they're dropped from the
+            // cache:
+            flushPendingStatuses();
+            clearCaches();
+        }
+    }
+
+    /**
+     * Writes any TaskStatuses which are pending write-behind to the persister and stops the background thread which
+     * writes them. Any TaskStatuses which are stored after this is called are written immediately. This should be
+     * invoked when the scheduler is exiting. If the pending TaskStatuses can't be written, they're logged and dropped,
+     * and will be recovered via task reconciliation when the scheduler is restarted.
+     */
+    public void close() {
+        synchronized (storeLock) {
+            closed = true;
+            try {
+                flushPendingStatuses();
+            } catch (StateStoreException e) {
+                logger.error(String.format("Failed to store %d pending TaskStatuses on close: %s",
+                        pendingStatuses.size(), pendingStatuses.keySet()), e);
+            }
+            if (statusFlushExecutor != null) {
+                statusFlushExecutor.shutdownNow();
+                statusFlushExecutor = null;
+            }
+        }
+    }
+
+    /**
+     * Writes any TaskStatuses which are pending write-behind to the persister in a single transaction.
+     *
+     * @throws StateStoreException if writing the TaskStatuses fails, in which case they remain pending
+     */
+    @VisibleForTesting
+    void flushPendingStatuses() throws StateStoreException {
+        synchronized (storeLock) {
+            if (pendingStatuses.isEmpty()) {
+                return;
             }
+            try {
+                persister.setMany(getStatusBytesMap(pendingStatuses));
+            } catch (PersisterException e) {
+                throw new StateStoreException(e,
+                        String.format("Failed to store %d pending TaskStatuses", pendingStatuses.size()));
+            }
+            logger.info("Stored {} pending TaskStatuses: {}", pendingStatuses.size(), pendingStatuses.keySet());
+            pendingStatuses.clear();
         }
     }
 
@@ -521,8 +1024,195 @@ public class StateStore {
         return GoalStateOverride.Status.INACTIVE.progress;
     }
 
+    // Change notifications
+
+    /**
+     * Discards any cached data for the updated path, unless the update was made via this instance.
+     */
+    @Override
+    public void nodeUpdated(String path, byte[] data) {
+        invalidatePath(path);
+    }
+
+    /**
+     * Discards any cached data for the deleted path and its children, unless the deletion was made via this instance.
+     */
+    @Override
+    public void nodeDeleted(String path) {
+        invalidatePath(path);
+    }
+
     // Internals
 
+    /**
+     * Populates the TaskID index from the provided TaskInfos. Must be called while holding the write lock of
+     * {@link #cacheLock}.
+     */
+    private void buildTaskIdIndex(Collection<Protos.TaskInfo> taskInfos) {
+        taskNamesByIdIndex = new HashMap<>();
+        taskIdsByNameIndex = new HashMap<>();
+        for (Protos.TaskInfo taskInfo : taskInfos) {
+            addToTaskIdIndex(taskInfo);
+        }
+        logger.info("Indexed TaskIDs for {} tasks", taskIdsByNameIndex.size());
+    }
+
+    /**
+     * Must be called while holding the write lock of {@link #cacheLock}, and after the index has been built.
+     */
+    private void addToTaskIdIndex(Protos.TaskInfo taskInfo) {
+        String taskId = taskInfo.getTaskId().getValue();
+        taskIdsByNameIndex.put(taskInfo.getName(), taskId);
+        Set<String> names = taskNamesByIdIndex.get(taskId);
+        if (names == null) {
+            names = new TreeSet<>();
+            taskNamesByIdIndex.put(taskId, names);
+        }
+        names.add(taskInfo.getName());
+    }
+
+    /**
+     * Must be called while holding the write lock of {@link #cacheLock}, and after the index has been built.
+     */
+    private void removeFromTaskIdIndex(String taskName) {
+        String taskId = taskIdsByNameIndex.remove(taskName);
+        if (taskId == null) {
+            return;
+        }
+        Set<String> names = taskNamesByIdIndex.get(taskId);
+        if (names != null) {
+            names.remove(taskName);
+            if (names.isEmpty()) {
+                taskNamesByIdIndex.remove(taskId);
+            }
+        }
+    }
+
+    /**
+     * Schedules a write of any pending TaskStatuses once the write-behind window has passed. Must be called while
+     * holding {@link #storeLock}.
+     */
+    private void scheduleStatusFlush() {
+        if (statusFlushExecutor == null) {
+            statusFlushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "StateStore-status-flush");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        statusFlushExecutor.schedule(() -> {
+            try {
+                flushPendingStatuses();
+            } catch (Throwable e) {
+                logger.error("Failed to store pending TaskStatuses, retrying", e);
+                synchronized (storeLock) {
+                    if (!pendingStatuses.isEmpty() && !closed) {
+                        scheduleStatusFlush();
+                    }
+                }
+            }
+        }, statusWriteBehindMs, TimeUnit.MILLISECONDS);
+    }
+
+    private Map<String, byte[]> getStatusBytesMap(Map<String, Protos.TaskStatus> statuses) {
+        Map<String, byte[]> statusBytesMap = new HashMap<>();
+        for (Map.Entry<String, Protos.TaskStatus> entry : statuses.entrySet()) {
+            statusBytesMap.put(getTaskStatusPath(namespace, entry.getKey()), entry.getValue().toByteArray());
+        }
+        return statusBytesMap;
+    }
+
+    private void clearCaches() {
+        cacheLock.writeLock().lock();
+        try {
+            taskNamesByIdIndex = null;
+            taskIdsByNameIndex = null;
+            taskInfoCache.clear();
+            taskStatusCache.clear();
+            goalOverrideStatusCache.clear();
+            tasksSnapshot = null;
+            statusesSnapshot = null;
+            ++taskInfoVersion;
+            ++taskStatusVersion;
+            ++goalOverrideVersion;
+        } finally {
+            cacheLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Discards any in-memory data which was derived from the provided path, following a change to that path which
+     * wasn't made via this instance. Changes to paths outside of this instance's tasks, such as properties, configs, or
+     * other namespaces, are ignored. Statuses which are pending write-behind are kept, as they're newer than the
+     * persister's content.
+     */
+    private void invalidatePath(String path) {
+        if (Thread.holdsLock(storeLock)) {
+            // Notification of a write which is being made by this instance, which updates the cache itself.
+            return;
+        }
+        String tasksRootPath = PersisterUtils.getServiceNamespacedRootPath(namespace, TASKS_ROOT_NAME);
+        String relativePath = StringUtils.stripStart(path, PersisterUtils.PATH_DELIM_STR);
+        if ((tasksRootPath + PersisterUtils.PATH_DELIM).startsWith(relativePath + PersisterUtils.PATH_DELIM)
+                || relativePath.isEmpty()) {
+            // The change affects all tasks, e.g. the namespace or the persister root was deleted.
+            logger.info("Discarding all cached task data following change to {}", path);
+            clearCaches();
+            return;
+        }
+        if (!relativePath.startsWith(tasksRootPath + PersisterUtils.PATH_DELIM)) {
+            return;
+        }
+        // Tasks/[taskName], or Tasks/[taskName]/[TaskInfo|TaskStatus|Metadata/...]
+        String[] taskPathElements = relativePath.substring(tasksRootPath.length() + 1)
+                .split(PersisterUtils.PATH_DELIM_STR, 2);
+        String taskName = taskPathElements[0];
+        String taskDataName = taskPathElements.length > 1 ? taskPathElements[1] : null;
+        boolean invalidateInfo = taskDataName == null || taskDataName.equals(TASK_INFO_PATH_NAME);
+        boolean invalidateStatus = taskDataName == null || taskDataName.equals(TASK_STATUS_PATH_NAME);
+        boolean invalidateGoalOverride = taskDataName == null || taskDataName.startsWith(TASK_METADATA_PATH_NAME);
+
+        cacheLock.writeLock().lock();
+        try {
+            if (invalidateInfo) {
+                taskInfoCache.remove(taskName);
+                taskNamesByIdIndex = null;
+                taskIdsByNameIndex = null;
+                tasksSnapshot = null;
+                ++taskInfoVersion;
+            }
+            if (invalidateStatus && !pendingStatuses.containsKey(taskName)) {
+                taskStatusCache.remove(taskName);
+                statusesSnapshot = null;
+                ++taskStatusVersion;
+            }
+            if (invalidateGoalOverride) {
+                goalOverrideStatusCache.remove(taskName);
+                ++goalOverrideVersion;
+            }
+        } finally {
+            cacheLock.writeLock().unlock();
+        }
+    }
+
+    private static Protos.TaskInfo parseTaskInfo(byte[] bytes) throws InvalidProtocolBufferException {
+        Timer.Context timer = Metrics.getStateParseDurationTimer();
+        try {
+            return Protos.TaskInfo.parseFrom(bytes);
+        } finally {
+            timer.stop();
+        }
+    }
+
+    private static Protos.TaskStatus parseTaskStatus(byte[] bytes) throws InvalidProtocolBufferException {
+        Timer.Context timer = Metrics.getStateParseDurationTimer();
+        try {
+            return Protos.TaskStatus.parseFrom(bytes);
+        } finally {
+            timer.stop();
+        }
+    }
+
     /**
      * @return Services/[namespace]/Tasks/[taskName]/TaskInfo, or Tasks/[taskName]/TaskInfo
      */
@@ -62,6 +62,40 @@ public class StateStoreUtils {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Returns whether the provided task needs recovery, given its most recent status.
+     *
+     * @throws TaskException if the task's {@link TaskSpec} couldn't be found
+     */
+    public static boolean needsRecovery(
+            ConfigStore<ServiceSpec> configStore,
+            Protos.TaskInfo info,
+            Protos.TaskStatus status) throws TaskException {
+        Optional<TaskSpec> taskSpec = TaskUtils.getTaskSpec(configStore, info);
+        if (!taskSpec.isPresent()) {
+            throw new TaskException("Failed to determine TaskSpec from TaskInfo: " + info);
+        }
+
+        boolean markedFailed = FailureUtils.isPermanentlyFailed(info);
+        boolean isPermanentlyFailed = markedFailed && taskSpec.get().getGoal() == GoalState.RUNNING;
+
+        if (TaskUtils.needsRecovery(taskSpec.get(), status) || isPermanentlyFailed) {
+            LOGGER.info(
+                    "Task: '{}' needs recovery " +
+                            "with status: {}, " +
+                            "marked failed: {}, " +
+                            "goal state: {}, " +
+                            "permanently failed: {}.",
+                    taskSpec.get().getName(),
+                    TextFormat.shortDebugString(status),
+                    markedFailed,
+                    taskSpec.get().getGoal().name(),
+                    isPermanentlyFailed);
+            return true;
+        }
+        return false;
+    }
+
     /**
      * Fetches and returns all {@link Protos.TaskInfo}s for tasks needing recovery.
      *
@@ -82,31 +116,7 @@ public class StateStoreUtils {
         List<Protos.TaskInfo> results = new ArrayList<>();
         for (Protos.TaskInfo info : allInfos) {
             Protos.TaskStatus status = statusMap.get(info.getTaskId());
-            if (status == null) {
-                continue;
-            }
-
-            Optional<TaskSpec> taskSpec = TaskUtils.getTaskSpec(configStore, info);
-            if (!taskSpec.isPresent()) {
-                throw new TaskException("Failed to determine TaskSpec from TaskInfo: " + info);
-            }
-
-            boolean markedFailed = FailureUtils.isPermanentlyFailed(info);
-            boolean isPermanentlyFailed = markedFailed && taskSpec.get().getGoal() == GoalState.RUNNING;
-
-            if (TaskUtils.needsRecovery(taskSpec.get(), status) || isPermanentlyFailed) {
-
-                LOGGER.info(
-                        "Task: '{}' needs recovery " +
-                                "with status: {}, " +
-                                "marked failed: {}, " +
-                                "goal state: {}, " +
-                                "permanently failed: {}.",
-                        taskSpec.get().getName(),
-                        TextFormat.shortDebugString(status),
-                        markedFailed,
-                        taskSpec.get().getGoal().name(),
-                        isPermanentlyFailed);
+            if (status != null && needsRecovery(configStore, info, status)) {
                 results.add(info);
             }
         }
@@ -134,34 +144,22 @@ public class StateStoreUtils {
 
     /**
      * Verifies that the supplied TaskStatus corresponds to a single TaskInfo in the provided StateStore and returns the
-     * TaskInfo.
+     * name of that task.
      *
-     * @return The singular {@link Protos.TaskInfo} if it is present
+     * @return The name of the singular {@link Protos.TaskInfo} if it is present
      * @throws StateStoreException if zero or multiple corresponding {@link Protos.TaskInfo}s are found
      */
     public static String getTaskName(StateStore stateStore, Protos.TaskStatus taskStatus)
             throws StateStoreException {
-        Optional<Protos.TaskInfo> taskInfoOptional = Optional.empty();
-
-        for (Protos.TaskInfo taskInfo : stateStore.fetchTasks()) {
-            if (taskInfo.getTaskId().getValue().equals(taskStatus.getTaskId().getValue())) {
-                if (taskInfoOptional.isPresent()) {
-                    LOGGER.error("Found duplicate TaskIDs in Task{} and Task {}",
-                            taskInfoOptional.get(), taskInfo.getName());
-                    throw new StateStoreException(Reason.LOGIC_ERROR, String.format(
-                            "There are more than one tasks with TaskID: %s", taskStatus));
-                } else {
-                    taskInfoOptional = Optional.of(taskInfo);
-                }
-            }
-        }
-
-        if (!taskInfoOptional.isPresent()) {
+        String taskName = taskStatus == null
+                ? null
+                : stateStore.fetchTaskNamesByIds(Collections.singleton(taskStatus.getTaskId()))
+                        .get(taskStatus.getTaskId());
+        if (taskName == null) {
             throw new StateStoreException(Reason.NOT_FOUND, String.format(
                     "Failed to find a task with TaskID: %s", taskStatus));
         }
-
-        return taskInfoOptional.get().getName();
+        return taskName;
     }
 
     /**
@@ -8,6 +8,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -38,6 +39,10 @@ public class MemPersister implements Persister {
     private final Optional<Lock> rlock;
     private final Optional<Lock> rwlock;
 
+    // Counts of the calls made against this instance, see getReadCount() and getWriteCount():
+    private final AtomicLong readCount = new AtomicLong();
+    private final AtomicLong writeCount = new AtomicLong();
+
     /**
      * Whether to enable or disable thread-safe locking.
      * Locking may be disabled if the parent implements its own locking.
@@ -64,7 +69,7 @@ public class MemPersister implements Persister {
     public MemPersister(LockMode mode, Map<String, byte[]> data) {
         this.root = new Node();
         for (Map.Entry<String, byte[]> entry : data.entrySet()) {
-            getNode(root, entry.getKey(), true).data = Optional.of(entry.getValue());
+            getNode(root, entry.getKey(), true).data = Optional.ofNullable(entry.getValue());
         }
         if (mode == LockMode.ENABLED) {
             internalLock = Optional.of(new ReentrantReadWriteLock());
@@ -79,6 +84,7 @@ public class MemPersister implements Persister {
 
     @Override
     public byte[] get(String path) throws PersisterException {
+        readCount.incrementAndGet();
         lockR();
         try {
             Node node = getNode(root, path, false);
@@ -93,6 +99,7 @@ public class MemPersister implements Persister {
 
     @Override
     public Collection<String> getChildren(String path) throws PersisterException {
+        readCount.incrementAndGet();
         lockR();
         try {
             Node node = getNode(root, path, false);
@@ -107,9 +114,10 @@ public class MemPersister implements Persister {
 
     @Override
     public void set(String path, byte[] bytes) throws PersisterException {
+        writeCount.incrementAndGet();
         lockRW();
         try {
-            getNode(root, path, true).data = Optional.of(bytes);
+            getNode(root, path, true).data = Optional.ofNullable(bytes);
         } finally {
             unlockRW();
         }
@@ -120,10 +128,11 @@ public class MemPersister implements Persister {
         if (pathBytesMap.isEmpty()) {
             return;
         }
+        writeCount.incrementAndGet();
         lockRW();
         try {
             for (Map.Entry<String, byte[]> entry : pathBytesMap.entrySet()) {
-                getNode(root, entry.getKey(), true).data = Optional.of(entry.getValue());
+                getNode(root, entry.getKey(), true).data = Optional.ofNullable(entry.getValue());
             }
         } finally {
             unlockRW();
@@ -132,6 +141,9 @@ public class MemPersister implements Persister {
 
     @Override
     public void recursiveDeleteMany(Collection<String> paths) throws PersisterException {
+        if (!paths.isEmpty()) {
+            writeCount.incrementAndGet();
+        }
         lockRW();
         try {
             for (String path: paths) {
@@ -144,6 +156,7 @@ public class MemPersister implements Persister {
 
     @Override
     public Map<String, byte[]> getMany(Collection<String> paths) throws PersisterException {
+        readCount.addAndGet(paths.size());
         lockR();
         try {
             Map<String, byte[]> values = new TreeMap<>(); // return consistent ordering (mainly to simplify testing)
@@ -161,8 +174,21 @@ public class MemPersister implements Persister {
         }
     }
 
+    @Override
+    public Map<String, byte[]> getAll() throws PersisterException {
+        lockR();
+        try {
+            Map<String, byte[]> allData = new TreeMap<>(); // consistent ordering (mainly for tests)
+            readCount.addAndGet(getAllData(allData, PersisterUtils.PATH_DELIM_STR, root));
+            return allData;
+        } finally {
+            unlockR();
+        }
+    }
+
     @Override
     public void recursiveDelete(String path) throws PersisterException {
+        writeCount.incrementAndGet();
         lockRW();
         try {
             if (!deleteAllImpl(path)) {
@@ -184,6 +210,25 @@ public class MemPersister implements Persister {
         }
     }
 
+    /**
+     * Returns the number of node reads which have been made against this instance. As with the storage operation
+     * metrics in {@link com.mesosphere.sdk.curator.CuratorPersister}, each path in a {@link #getMany(Collection)}
+     * counts as a separate read, and {@link #getAll()} counts one listing per node plus one data read per node below
+     * the root. This may be used to estimate the ZooKeeper load of a scheduler in simulations.
+     */
+    public long getReadCount() {
+        return readCount.get();
+    }
+
+    /**
+     * Returns the number of write and delete requests which have been made against this instance. As with
+     * {@link com.mesosphere.sdk.curator.CuratorPersister}, a multi-path {@link #setMany(Map)} or
+     * {@link #recursiveDeleteMany(Collection)} is a single transaction and counts once. See {@link #getReadCount()}.
+     */
+    public long getWriteCount() {
+        return writeCount.get();
+    }
+
     /**
      * Returns a summary of this instance in a newline-separated string.
      */
@@ -256,6 +301,23 @@ public class MemPersister implements Persister {
         }
     }
 
+    /**
+     * Collects all data below the provided node, returning the number of listings and data reads which the same
+     * traversal would have performed against ZooKeeper.
+     */
+    private static long getAllData(Map<String, byte[]> allData, String path, Node node) {
+        long reads = 1; // list children of this node
+        for (Map.Entry<String, Node> child : node.children.entrySet()) {
+            String childPath = PersisterUtils.join(path, child.getKey());
+            // omit empty parents which lack data of their own:
+            if (child.getValue().data.isPresent()) {
+                allData.put(childPath, child.getValue().data.get());
+            }
+            reads += 1 + getAllData(allData, childPath, child.getValue()); // RECURSE
+        }
+        return reads;
+    }
+
     private static String getInfo(byte[] bytes) {
         if (bytes == null) {
             return "NULL";
@@ -52,6 +52,18 @@ public interface Persister {
      */
     Map<String, byte[]> getMany(Collection<String> paths) throws PersisterException;
 
+    /**
+     * Returns all data present in storage in a flat map, omitting any stub parent entries with {@code null} data.
+     *
+     * <p>The default implementation walks the tree one node at a time. Implementations where each access is a remote
+     * call should override this with something more efficient.
+     *
+     * @throws PersisterException in the event of an access error
+     */
+    default Map<String, byte[]> getAll() throws PersisterException {
+        return PersisterUtils.getAllDataUnder(this, PersisterUtils.PATH_DELIM_STR);
+    }
+
     /**
      * Atomically writes many values to storage at once.
      *
@@ -1,28 +1,46 @@
 package com.mesosphere.sdk.storage;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 
+import com.codahale.metrics.Timer;
+import com.mesosphere.sdk.scheduler.Metrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * A transparent write-through cache for an underlying {@link Persister} instance. Each cache instance is thread-safe,
  * but there is no guarantee of consistent behavior across multiple cache instances.
+ *
+ * <p>Changes made to the underlying storage by other clients are not reflected in the cache until {@link #refresh()}
+ * is invoked, unless the cache is registered as a {@link PersisterChangeListener} against the underlying storage, in
+ * which case each change is applied to the cache as it's reported.
+ *
+ * <p>Other components which keep data derived from the cache may register their own {@link PersisterChangeListener}s
+ * via {@link #addChangeListener(PersisterChangeListener)}, to be told about each change applied to the cache.
+ *
+ * <p>Writes are serialized against each other, but reads are not blocked while a write is waiting on the underlying
+ * storage. A read which is concurrent with a write returns either the prior value or the written value, and the
+ * written value is visible to all reads once the write has returned.
  */
-public class PersisterCache implements Persister {
+public class PersisterCache implements Persister, PersisterChangeListener {
 
     private static final Logger logger = LoggerFactory.getLogger(PersisterCache.class);
 
-    private final ReadWriteLock internalLock = new ReentrantReadWriteLock();
-    private final Lock rlock = internalLock.readLock();
-    private final Lock rwlock = internalLock.writeLock();
+    /**
+     * Held while writing to the underlying storage and then to the cache, and while (re)loading the cache. Reads
+     * don't take this lock, and instead rely on the locking within the cache itself, which is only held briefly while
+     * the cache is being updated in memory.
+     */
+    private final Lock writeLock = new ReentrantLock();
 
     private final Persister persister;
-    private MemPersister cache;
+    private final Collection<PersisterChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+    private volatile MemPersister cache;
 
     public PersisterCache(Persister persister) throws PersisterException {
         this.persister = persister;
@@ -30,73 +48,70 @@ public class PersisterCache implements Persister {
 
     @Override
     public byte[] get(String path) throws PersisterException {
-        rlock.lock();
-        try {
-            return getCache().get(path);
-        } finally {
-            rlock.unlock();
-        }
+        return getCache().get(path);
     }
 
     @Override
     public Collection<String> getChildren(String path) throws PersisterException {
-        rlock.lock();
-        try {
-            return getCache().getChildren(path);
-        } finally {
-            rlock.unlock();
-        }
+        return getCache().getChildren(path);
     }
 
     @Override
     public void set(String path, byte[] bytes) throws PersisterException {
-        rwlock.lock();
+        writeLock.lock();
         try {
             MemPersister cache = getCache();
             persister.set(path, bytes);
             cache.set(path, bytes);
         } finally {
-            rwlock.unlock();
+            writeLock.unlock();
         }
+        notifyUpdated(path, bytes);
     }
 
     @Override
     public Map<String, byte[]> getMany(Collection<String> paths) throws PersisterException {
-        rwlock.lock();
-        try {
-            return getCache().getMany(paths);
-        } finally {
-            rwlock.unlock();
-        }
+        return getCache().getMany(paths);
+    }
+
+    @Override
+    public Map<String, byte[]> getAll() throws PersisterException {
+        return getCache().getAll();
     }
 
     @Override
     public void setMany(Map<String, byte[]> pathBytesMap) throws PersisterException {
-        rwlock.lock();
+        writeLock.lock();
         try {
             MemPersister cache = getCache();
             persister.setMany(pathBytesMap);
             cache.setMany(pathBytesMap);
         } finally {
-            rwlock.unlock();
+            writeLock.unlock();
+        }
+        for (Map.Entry<String, byte[]> entry : pathBytesMap.entrySet()) {
+            notifyUpdated(entry.getKey(), entry.getValue());
         }
     }
 
     @Override
     public void recursiveDeleteMany(Collection<String> paths) throws PersisterException {
-        rwlock.lock();
+        writeLock.lock();
         try {
             MemPersister cache = getCache();
             persister.recursiveDeleteMany(paths);
             cache.recursiveDeleteMany(paths);
         } finally {
-            rwlock.unlock();
+            writeLock.unlock();
+        }
+        for (String path : paths) {
+            notifyDeleted(path);
         }
     }
 
     @Override
     public void recursiveDelete(String path) throws PersisterException {
-        rwlock.lock();
+        writeLock.lock();
         try {
             MemPersister cache = getCache();
             persister.recursiveDelete(path);
@@ -109,20 +124,21 @@ public class PersisterCache implements Persister {
                 logger.error("Didn't find value {} in cache to delete, but underlying storage had the value", path);
             }
         } finally {
-            rwlock.unlock();
+            writeLock.unlock();
         }
+        notifyDeleted(path);
     }
 
     @Override
     public void close() {
-        rwlock.lock();
+        writeLock.lock();
         try {
             persister.close();
             if (cache != null) {
                 cache.close();
             }
         } finally {
-            rwlock.unlock();
+            writeLock.unlock();
         }
     }
 
@@ -130,24 +146,174 @@ public class PersisterCache implements Persister {
      * Refreshes the cache with the underlying persister's data.
      */
     public void refresh() throws PersisterException {
-        rwlock.lock();
+        writeLock.lock();
         try {
             if (cache != null) {
                 logger.info("Cache content before refresh:\n{}", cache.getDebugString());
             }
+            // Reads continue to be served from the prior cache until the replacement has been loaded:
+            MemPersister refreshedCache;
+            try {
+                refreshedCache = loadCache();
+            } catch (PersisterException e) {
+                cache = null; // retry on next access
+                throw e;
+            }
+            cache = refreshedCache;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Registers a listener to be notified after each change which is applied to the cache, whether the change was made
+     * via this cache or was made to the underlying storage by another client (see
+     * {@link #nodeUpdated(String, byte[])}). Listeners are invoked on the thread which applied the change, after the
+     * change is visible to reads. Any exception thrown by a listener is logged and otherwise ignored. Replacing the
+     * entire cache via {@link #refresh()} is not reported.
+     */
+    public void addChangeListener(PersisterChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Applies a reported update of a node in the underlying storage to the cache. Reports of changes which were made
+     * via this cache, or which have already been applied, are ignored.
+     */
+    @Override
+    public void nodeUpdated(String path, byte[] data) {
+        applyChange(path, true, data);
+    }
+
+    /**
+     * Applies a reported deletion of a node in the underlying storage to the cache. Reports of changes which were made
+     * via this cache, or which have already been applied, are ignored.
+     */
+    @Override
+    public void nodeDeleted(String path) {
+        applyChange(path, false, null);
+    }
+
+    /**
+     * Updates the cache to reflect a reported change to the node at the provided path.
+     */
+    private void applyChange(String path, boolean reportedExists, byte[] reportedData) {
+        boolean notifyListeners = true;
+        boolean exists = true;
+        byte[] data = null;
+        writeLock.lock();
+        try {
+            if (cache == null || isCached(path, reportedExists, reportedData)) {
+                // Cache hasn't been loaded yet, or the change was made via this cache.
+                return;
+            }
+            // The report may be stale, e.g. if a later write was made via this cache before the report was delivered.
+            // Get the current value before updating the cache.
+            try {
+                data = persister.get(path);
+            } catch (PersisterException e) {
+                if (e.getReason() != StorageError.Reason.NOT_FOUND) {
+                    throw e;
+                }
+                exists = false;
+            }
+            if (isCached(path, exists, data)) {
+                return;
+            }
+            if (exists) {
+                logger.info("Updating {} in cache following external change", path);
+                if (isCached(path, true, null)) {
+                    // Parent nodes which were created implicitly lack data in the cache, whereas the underlying
+                    // storage may have given them default data. Filling that in doesn't affect any data of interest.
+                    notifyListeners = false;
+                }
+                cache.set(path, data);
+            } else {
+                logger.info("Deleting {} from cache following external change", path);
+                cache.recursiveDelete(path);
+            }
+        } catch (PersisterException e) {
+            logger.error(String.format(
+                    "Failed to apply external change to %s, cache will be reloaded on next access", path), e);
             cache = null;
-            getCache(); // recreate cache
+            // Pass the reported change along as-is, so that derived data is still invalidated:
+            exists = reportedExists;
+            data = reportedData;
         } finally {
-            rwlock.unlock();
+            writeLock.unlock();
+        }
+        // Invoke listeners without holding the lock, as they may access the cache themselves:
+        if (notifyListeners) {
+            if (exists) {
+                notifyUpdated(path, data);
+            } else {
+                notifyDeleted(path);
+            }
+        }
+    }
+
+    private void notifyUpdated(String path, byte[] data) {
+        for (PersisterChangeListener listener : changeListeners) {
+            try {
+                listener.nodeUpdated(path, data);
+            } catch (RuntimeException e) {
+                logger.error(String.format("Change listener failed to handle update of %s", path), e);
+            }
+        }
+    }
+
+    private void notifyDeleted(String path) {
+        for (PersisterChangeListener listener : changeListeners) {
+            try {
+                listener.nodeDeleted(path);
+            } catch (RuntimeException e) {
+                logger.error(String.format("Change listener failed to handle deletion of %s", path), e);
+            }
+        }
+    }
+
+    /**
+     * Returns whether the cache already has the provided value at the provided path. Must be called while holding
+     * {@link #writeLock}, after the cache has been loaded.
+     */
+    private boolean isCached(String path, boolean exists, byte[] data) throws PersisterException {
+        try {
+            byte[] cachedData = cache.get(path);
+            return exists && Arrays.equals(data, cachedData);
+        } catch (PersisterException e) {
+            if (e.getReason() == StorageError.Reason.NOT_FOUND) {
+                return !exists;
+            }
+            throw e;
         }
     }
 
     private MemPersister getCache() throws PersisterException {
-        if (cache == null) {
-            // We already have our own locking, so we can disable locking in the underlying MemPersister:
-            cache = new MemPersister(MemPersister.LockMode.DISABLED, PersisterUtils.getAllData(persister));
-            logger.info("Loaded data from persister:\n{}", cache.getDebugString());
+        MemPersister currentCache = cache;
+        if (currentCache != null) {
+            return currentCache;
+        }
+        writeLock.lock();
+        try {
+            if (cache == null) {
+                cache = loadCache();
+            }
+            return cache;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private MemPersister loadCache() throws PersisterException {
+        // Reads don't take our own lock, so the cache must perform its own locking:
+        MemPersister loadedCache;
+        Timer.Context context = Metrics.getPersisterCacheLoadDurationTimer();
+        try {
+            loadedCache = new MemPersister(MemPersister.LockMode.ENABLED, PersisterUtils.getAllData(persister));
+        } finally {
+            context.stop();
         }
-        return cache;
+        logger.info("Loaded data from persister:\n{}", loadedCache.getDebugString());
+        return loadedCache;
     }
 }
@@ -0,0 +1,23 @@
+package com.mesosphere.sdk.storage;
+
+/**
+ * A listener for changes to the data in a {@link Persister}'s underlying storage. Changes may have been made via the
+ * {@link Persister} itself, or by another client of the same storage, e.g. an operator editing ZK directly.
+ */
+public interface PersisterChangeListener {
+
+    /**
+     * Invoked when the node at the provided path has been created or updated.
+     *
+     * @param path the path of the node, in the same form as the keys returned by {@link Persister#getAll()}
+     * @param data the current data of the node, which may be {@code null}
+     */
+    void nodeUpdated(String path, byte[] data);
+
+    /**
+     * Invoked when the node at the provided path, along with any children, has been deleted.
+     *
+     * @param path the path of the node, in the same form as the keys returned by {@link Persister#getAll()}
+     */
+    void nodeDeleted(String path);
+}
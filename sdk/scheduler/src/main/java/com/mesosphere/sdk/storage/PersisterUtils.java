@@ -133,13 +133,13 @@ public class PersisterUtils {
      * @throws PersisterException if the underlying {@link Persister} couldn't be accessed
      */
     public static Map<String, byte[]> getAllData(Persister persister) throws PersisterException {
-        return getAllDataUnder(persister, PATH_DELIM_STR);
+        return persister.getAll();
     }
 
     /**
      * Returns all data present within the provided {@link Persister}, under the provided path.
      */
-    private static Map<String, byte[]> getAllDataUnder(Persister persister, String path) throws PersisterException {
+    static Map<String, byte[]> getAllDataUnder(Persister persister, String path) throws PersisterException {
         Map<String, byte[]> allData = new TreeMap<>(); // consistent ordering (mainly for tests)
         for (String child : persister.getChildren(path)) {
             String childPath = join(path, child);
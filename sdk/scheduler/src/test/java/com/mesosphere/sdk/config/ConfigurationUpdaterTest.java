@@ -3,6 +3,8 @@ package com.mesosphere.sdk.config;
 import com.mesosphere.sdk.config.validate.DefaultConfigValidators;
 import com.mesosphere.sdk.dcos.Capabilities;
 import com.mesosphere.sdk.dcos.DcosConstants;
+import com.mesosphere.sdk.offer.taskdata.TaskLabelReader;
+import com.mesosphere.sdk.offer.taskdata.TaskLabelWriter;
 import com.mesosphere.sdk.specification.DefaultPodSpec;
 import com.mesosphere.sdk.specification.DefaultServiceSpec;
 import com.mesosphere.sdk.specification.PodSpec;
@@ -13,14 +15,20 @@ import com.mesosphere.sdk.state.StateStore;
 import com.mesosphere.sdk.testutils.SchedulerConfigTestUtils;
 import com.mesosphere.sdk.testutils.TestConstants;
 import com.mesosphere.sdk.testutils.TestPodFactory;
+import org.apache.mesos.Protos;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Matchers;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -28,6 +36,7 @@ public class ConfigurationUpdaterTest {
     private static final UUID TARGET_ID = UUID.randomUUID();
     private static final UUID NEW_ID = UUID.randomUUID();
     private static final UUID UNKNOWN_ID = UUID.randomUUID();
+    private static final UUID DUPLICATE_ID = UUID.randomUUID();
 
     private static final String SERVICE_NAME = "test-service";
     private static final int TASK_A_COUNT = 1;
@@ -115,9 +124,14 @@ public class ConfigurationUpdaterTest {
     @Mock private Capabilities mockCapabilities;
 
     @Before
-    public void beforeEach() {
+    public void beforeEach() throws Exception {
         MockitoAnnotations.initMocks(this);
         Capabilities.overrideCapabilities(mockCapabilities);
+        // Each config has distinct content, unless specified otherwise:
+        when(mockConfigStore.getMetadata(Matchers.any())).thenAnswer(invocation -> {
+            UUID id = (UUID) invocation.getArguments()[0];
+            return new ConfigStore.ConfigMetadata(id, id.toString().getBytes(StandardCharsets.UTF_8));
+        });
     }
 
     @Test
@@ -155,6 +169,81 @@ public class ConfigurationUpdaterTest {
         Assert.assertTrue(result.getErrors().isEmpty());
     }
 
+    @Test
+    public void testDuplicateConfigNotDeserialized() throws Exception {
+        final ConfigurationUpdater<ServiceSpec> configurationUpdater = new DefaultConfigurationUpdater(
+                mockStateStore,
+                mockConfigStore,
+                DefaultServiceSpec.getComparatorInstance(),
+                DefaultConfigValidators.getValidators(SchedulerConfigTestUtils.getTestSchedulerConfig()));
+        Protos.TaskInfo taskInfo = TestConstants.TASK_INFO.toBuilder()
+                .setLabels(new TaskLabelWriter(TestConstants.TASK_INFO)
+                        .setTargetConfiguration(DUPLICATE_ID)
+                        .toProto())
+                .build();
+        byte[] targetContent = "target".getBytes(StandardCharsets.UTF_8);
+        when(mockConfigStore.getTargetConfig()).thenReturn(TARGET_ID);
+        when(mockConfigStore.fetch(TARGET_ID)).thenReturn(ORIGINAL_SERVICE_SPECIFICATION);
+        when(mockConfigStore.getMetadata(TARGET_ID))
+                .thenReturn(new ConfigStore.ConfigMetadata(TARGET_ID, targetContent));
+        when(mockConfigStore.getMetadata(DUPLICATE_ID))
+                .thenReturn(new ConfigStore.ConfigMetadata(DUPLICATE_ID, targetContent));
+        when(mockConfigStore.list()).thenReturn(Arrays.asList(TARGET_ID, DUPLICATE_ID, UNKNOWN_ID));
+        when(mockConfigStore.fetch(UNKNOWN_ID)).thenReturn(mockUnknownConfig);
+        when(mockStateStore.fetchTasks()).thenReturn(Collections.singletonList(taskInfo));
+
+        ConfigurationUpdater.UpdateResult result =
+                configurationUpdater.updateConfiguration(ORIGINAL_SERVICE_SPECIFICATION);
+        Assert.assertEquals(TARGET_ID, result.getTargetId());
+        Assert.assertTrue(result.getErrors().isEmpty());
+
+        // The task was moved to the target config, and the duplicate was cleaned up without being deserialized:
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Protos.TaskInfo>> tasksCaptor = ArgumentCaptor.forClass((Class) Collection.class);
+        verify(mockStateStore).storeTasks(tasksCaptor.capture());
+        Assert.assertEquals(1, tasksCaptor.getValue().size());
+        Assert.assertEquals(TARGET_ID,
+                new TaskLabelReader(tasksCaptor.getValue().iterator().next()).getTargetConfiguration());
+        verify(mockConfigStore, never()).fetch(DUPLICATE_ID);
+        verify(mockConfigStore).clear(DUPLICATE_ID);
+        verify(mockConfigStore, never()).fetch(UNKNOWN_ID);
+        verify(mockConfigStore).clear(UNKNOWN_ID);
+    }
+
+    @Test
+    public void testOnlyConfigsComparedToTargetDeserialized() throws Exception {
+        final ConfigurationUpdater<ServiceSpec> configurationUpdater = new DefaultConfigurationUpdater(
+                mockStateStore,
+                mockConfigStore,
+                DefaultServiceSpec.getComparatorInstance(),
+                DefaultConfigValidators.getValidators(SchedulerConfigTestUtils.getTestSchedulerConfig()));
+        List<Protos.TaskInfo> taskInfos = new ArrayList<>();
+        for (String taskName : Arrays.asList("task-a", "task-b")) {
+            taskInfos.add(TestConstants.TASK_INFO.toBuilder()
+                    .setName(taskName)
+                    .setLabels(new TaskLabelWriter(TestConstants.TASK_INFO)
+                            .setTargetConfiguration(NEW_ID)
+                            .toProto())
+                    .build());
+        }
+        when(mockConfigStore.getTargetConfig()).thenReturn(TARGET_ID);
+        when(mockConfigStore.fetch(TARGET_ID)).thenReturn(ORIGINAL_SERVICE_SPECIFICATION);
+        when(mockConfigStore.fetch(NEW_ID)).thenReturn(UPDATED_SERVICE_SPECIFICATION);
+        when(mockConfigStore.list()).thenReturn(Arrays.asList(TARGET_ID, NEW_ID, UNKNOWN_ID));
+        when(mockStateStore.fetchTasks()).thenReturn(taskInfos);
+
+        ConfigurationUpdater.UpdateResult result =
+                configurationUpdater.updateConfiguration(ORIGINAL_SERVICE_SPECIFICATION);
+        Assert.assertEquals(TARGET_ID, result.getTargetId());
+        Assert.assertTrue(result.getErrors().isEmpty());
+
+        // The config used by both tasks is deserialized once and kept, while the unused config is deleted unparsed:
+        verify(mockConfigStore, times(1)).fetch(NEW_ID);
+        verify(mockConfigStore, never()).clear(NEW_ID);
+        verify(mockConfigStore, never()).fetch(UNKNOWN_ID);
+        verify(mockConfigStore).clear(UNKNOWN_ID);
+    }
+
     @Test
     public void testValidationDifferentConfigs() throws ConfigStoreException {
         final ConfigurationUpdater<ServiceSpec> configurationUpdater = new DefaultConfigurationUpdater(
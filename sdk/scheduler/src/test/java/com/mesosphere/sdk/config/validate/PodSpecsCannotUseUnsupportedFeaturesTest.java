@@ -196,6 +196,28 @@ public class PodSpecsCannotUseUnsupportedFeaturesTest {
         checkValidationPasses(serviceSpec);
     }
 
+    @Test
+    public void testSpecFailsWithHttpCheckStatusesWithDefaultExecutor() throws Exception {
+        when(mockCapabilities.supportsDefaultExecutor()).thenReturn(true);
+        when(mockCapabilities.supportsCNINetworking()).thenReturn(true);
+        Capabilities.overrideCapabilities(mockCapabilities);
+
+        File file = new File(getClass().getClassLoader().getResource("valid-port-networkcheck.yml").getFile());
+        DefaultServiceSpec serviceSpec = DefaultServiceSpec.newGenerator(file, SCHEDULER_CONFIG).build();
+        checkValidationErrorWithValue(serviceSpec, "http:statuses");
+    }
+
+    @Test
+    public void testSpecSucceedsWithHttpCheckStatusesWithCustomExecutor() throws Exception {
+        when(mockCapabilities.supportsDefaultExecutor()).thenReturn(false);
+        when(mockCapabilities.supportsCNINetworking()).thenReturn(true);
+        Capabilities.overrideCapabilities(mockCapabilities);
+
+        File file = new File(getClass().getClassLoader().getResource("valid-port-networkcheck.yml").getFile());
+        DefaultServiceSpec serviceSpec = DefaultServiceSpec.newGenerator(file, SCHEDULER_CONFIG).build();
+        checkValidationPasses(serviceSpec);
+    }
+
     @Test
     public void validSimple() throws Exception {
         ClassLoader classLoader = getClass().getClassLoader();
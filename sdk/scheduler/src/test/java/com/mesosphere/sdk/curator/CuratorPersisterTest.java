@@ -4,6 +4,7 @@ import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.api.ACLPathAndBytesable;
 import org.apache.curator.framework.api.CreateBuilder;
 import org.apache.curator.framework.api.ExistsBuilder;
+import org.apache.curator.framework.api.GetDataBuilder;
 import org.apache.curator.framework.api.GetChildrenBuilder;
 import org.apache.curator.framework.api.PathAndBytesable;
 import org.apache.curator.framework.api.Pathable;
@@ -26,8 +27,10 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 
+import com.mesosphere.sdk.scheduler.Metrics;
 import com.mesosphere.sdk.specification.ServiceSpec;
 import com.mesosphere.sdk.storage.Persister;
+import com.mesosphere.sdk.storage.PersisterChangeListener;
 import com.mesosphere.sdk.storage.PersisterException;
 import com.mesosphere.sdk.storage.PersisterUtils;
 import com.mesosphere.sdk.storage.StorageError.Reason;
@@ -36,6 +39,8 @@ import com.mesosphere.sdk.testutils.TestConstants;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.verify;
@@ -505,6 +510,115 @@ public class CuratorPersisterTest {
         assertEquals(Collections.singleton("/lock"), PersisterUtils.getAllKeys(persister));
     }
 
+    // Uses a real ZK instance to ensure that our integration works as expected:
+    @Test
+    public void testGetManyAndGetAll() throws Exception {
+        CuratorTestUtils.clear(testZk);
+        when(mockServiceSpec.getZookeeperConnection()).thenReturn(testZk.getConnectString());
+        Persister persister = CuratorPersister.newBuilder(mockServiceSpec).build();
+
+        // Enough entries to exceed the limit on in-flight reads:
+        Map<String, byte[]> expected = new TreeMap<>();
+        for (int i = 0; i < 250; ++i) {
+            expected.put(String.format("/a/%d", i), DATA_1);
+            expected.put(String.format("/b/%d/c", i), DATA_2);
+        }
+        persister.setMany(expected);
+
+        long storageOperationCount = Metrics.getStorageOperationCount();
+        Map<String, byte[]> result = persister.getMany(Arrays.asList("/a/0", "a/249", "/b/10/c", "/missing"));
+        // Each path is a separate request to ZK:
+        assertEquals(storageOperationCount + 4, Metrics.getStorageOperationCount());
+        assertEquals(4, result.size());
+        assertArrayEquals(DATA_1, result.get("/a/0"));
+        assertArrayEquals(DATA_1, result.get("a/249"));
+        assertArrayEquals(DATA_2, result.get("/b/10/c"));
+        assertTrue(result.containsKey("/missing"));
+        assertNull(result.get("/missing"));
+
+        // Should match a walk of the tree one node at a time. Note that stub parents get curator's default data:
+        Map<String, byte[]> walkedData = new TreeMap<>();
+        for (String key : PersisterUtils.getAllKeys(persister)) {
+            byte[] data = persister.get(key);
+            if (data != null) {
+                walkedData.put(key, data);
+            }
+        }
+        Map<String, byte[]> allData = persister.getAll();
+        assertEquals(walkedData.keySet(), allData.keySet());
+        for (Map.Entry<String, byte[]> entry : walkedData.entrySet()) {
+            assertArrayEquals(entry.getKey(), entry.getValue(), allData.get(entry.getKey()));
+        }
+        for (Map.Entry<String, byte[]> entry : expected.entrySet()) {
+            assertArrayEquals(entry.getKey(), entry.getValue(), allData.get(entry.getKey()));
+        }
+    }
+
+    @Test
+    public void testGetManyTimesOutWithoutResponse() throws Exception {
+        // Background reads are issued, but their callbacks are never invoked:
+        when(mockClient.getData()).thenReturn(Mockito.mock(GetDataBuilder.class, Mockito.RETURNS_DEEP_STUBS));
+        mockedPersister = new CuratorPersister(TestConstants.SERVICE_NAME, mockClient, 10);
+        try {
+            mockedPersister.getMany(Arrays.asList(PATH_1, PATH_2));
+            fail("Expected a timeout");
+        } catch (PersisterException e) {
+            assertEquals(Reason.STORAGE_ERROR, e.getReason());
+        }
+    }
+
+    // Uses a real ZK instance to ensure that our integration works as expected:
+    @Test
+    public void testWatch() throws Exception {
+        CuratorTestUtils.clear(testZk);
+        when(mockServiceSpec.getZookeeperConnection()).thenReturn(testZk.getConnectString());
+        CuratorPersister watchingPersister = CuratorPersister.newBuilder(mockServiceSpec).build();
+        Persister otherPersister = CuratorPersister.newBuilder(mockServiceSpec).build();
+        otherPersister.set(PATH_1, DATA_1);
+
+        Map<String, byte[]> updates = new ConcurrentHashMap<>();
+        Set<String> deletes = ConcurrentHashMap.newKeySet();
+        watchingPersister.watch(new PersisterChangeListener() {
+            @Override
+            public void nodeUpdated(String path, byte[] data) {
+                updates.put(path, data);
+                if (path.equals(PATH_SUB_1)) {
+                    // Failures in handling one change don't prevent delivery of later changes:
+                    throw new IllegalStateException("test failure");
+                }
+            }
+
+            @Override
+            public void nodeDeleted(String path) {
+                deletes.add(path);
+            }
+        });
+
+        // Existing data is reported when the watch starts:
+        waitFor(() -> updates.containsKey(PATH_1));
+        assertArrayEquals(DATA_1, updates.get(PATH_1));
+
+        otherPersister.set(PATH_SUB_1, DATA_SUB_1);
+        waitFor(() -> updates.containsKey(PATH_SUB_1));
+        assertArrayEquals(DATA_SUB_1, updates.get(PATH_SUB_1));
+
+        otherPersister.set(PATH_1, DATA_2);
+        waitFor(() -> Arrays.equals(DATA_2, updates.get(PATH_1)));
+
+        otherPersister.recursiveDelete(PATH_SUB_PARENT);
+        waitFor(() -> deletes.contains(PATH_SUB_PARENT) && deletes.contains(PATH_SUB_1));
+
+        watchingPersister.close();
+        otherPersister.close();
+    }
+
+    private static void waitFor(Supplier<Boolean> condition) throws InterruptedException {
+        for (int i = 0; i < 500 && !condition.get(); ++i) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.get());
+    }
+
     @Test
     public void testWriteServiceName() throws Exception {
         CuratorTestUtils.clear(testZk);
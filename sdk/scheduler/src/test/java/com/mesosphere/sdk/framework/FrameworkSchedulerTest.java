@@ -17,8 +17,11 @@ import com.mesosphere.sdk.offer.Constants;
 import com.mesosphere.sdk.offer.evaluate.EvaluationOutcome;
 import com.mesosphere.sdk.offer.evaluate.placement.IsLocalRegionRule;
 import com.mesosphere.sdk.scheduler.AbstractScheduler;
+import com.mesosphere.sdk.scheduler.SchedulerConfig;
 import com.mesosphere.sdk.state.FrameworkStore;
 import com.mesosphere.sdk.state.StateStore;
+import com.mesosphere.sdk.state.StateStoreUtilsTest;
+import com.mesosphere.sdk.storage.MemPersister;
 import com.mesosphere.sdk.storage.PersisterException;
 import com.mesosphere.sdk.testutils.DefaultCapabilitiesTestSuite;
 import com.mesosphere.sdk.testutils.ResourceTestUtils;
@@ -130,6 +133,47 @@ public class FrameworkSchedulerTest extends DefaultCapabilitiesTestSuite {
         verify(mockSchedulerDriver).killTask(TestConstants.TASK_STATUS.getTaskId());
     }
 
+    @Test
+    public void testStatusTaskLaunchedAfterRegistration() throws Exception {
+        // Use the service's StateStore, as the scheduler does outside of tests:
+        StateStore stateStore = new StateStore(new MemPersister());
+        when(mockAbstractScheduler.getStateStore()).thenReturn(stateStore);
+        FrameworkScheduler frameworkScheduler = new FrameworkScheduler(
+                Collections.singleton(TestConstants.ROLE),
+                mock(SchedulerConfig.class),
+                mockFrameworkStore,
+                mockAbstractScheduler)
+                .disableThreading();
+        TaskKiller.reset(false);
+        try {
+            Driver.setDriver(mockSchedulerDriver);
+            frameworkScheduler.registered(mockSchedulerDriver, TestConstants.FRAMEWORK_ID, MASTER_INFO);
+
+            Protos.TaskInfo task = StateStoreUtilsTest.createTask("a");
+            stateStore.storeTasks(Collections.singletonList(task));
+            frameworkScheduler.statusUpdate(mockSchedulerDriver, getRunningStatus(task));
+
+            // The task is relaunched after the service's TaskIDs have been looked up:
+            Protos.TaskInfo relaunchedTask = StateStoreUtilsTest.createTask("a");
+            stateStore.storeTasks(Collections.singletonList(relaunchedTask));
+            frameworkScheduler.statusUpdate(mockSchedulerDriver, getRunningStatus(relaunchedTask));
+            verify(mockSchedulerDriver, never()).killTask(relaunchedTask.getTaskId());
+
+            // A status for the prior launch is from an unexpected task:
+            frameworkScheduler.statusUpdate(mockSchedulerDriver, getRunningStatus(task));
+            verify(mockSchedulerDriver).killTask(task.getTaskId());
+        } finally {
+            TaskKiller.reset(true);
+        }
+    }
+
+    private static Protos.TaskStatus getRunningStatus(Protos.TaskInfo task) {
+        return Protos.TaskStatus.newBuilder()
+                .setTaskId(task.getTaskId())
+                .setState(Protos.TaskState.TASK_RUNNING)
+                .build();
+    }
+
     private static void verifyDomainIsSet(Protos.DomainInfo expectedDomain) {
         // Infer the configured domain via a placement rule invocation
         Protos.Offer offerWithExpectedDomain = getOffer().toBuilder().setDomain(expectedDomain).build();
@@ -5,13 +5,16 @@ import com.mesosphere.sdk.scheduler.plan.Step;
 import com.mesosphere.sdk.scheduler.plan.TestStep;
 import com.mesosphere.sdk.testutils.PodTestUtils;
 import org.apache.mesos.SchedulerDriver;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
@@ -91,6 +94,51 @@ public class ReviveManagerTest {
         verify(driver, times(0)).reviveOffers();
     }
 
+    @Test
+    public void reviveReturnsWhetherRevived() {
+        manager = getReviveManager(Duration.ofDays(1));
+        Assert.assertTrue(manager.revive(getSteps(0)));
+        Assert.assertFalse(manager.revive(getSteps(0)));
+        // Throttled:
+        Assert.assertFalse(manager.revive(getSteps(1)));
+        verify(driver, times(1)).reviveOffers();
+    }
+
+    @Test
+    public void dontReviveWhenNotUseful() {
+        manager = getReviveManager();
+        List<Collection<Step>> checkedWork = new ArrayList<>();
+        Assert.assertFalse(manager.revive(getSteps(0), newWork -> {
+            checkedWork.add(newWork);
+            return false;
+        }));
+        verify(driver, times(0)).reviveOffers();
+        Assert.assertEquals(1, checkedWork.size());
+        Assert.assertEquals(1, checkedWork.get(0).size());
+
+        // The skipped work is still new, and is revived for once a declined offer could be used by it:
+        Assert.assertFalse(manager.revive(getSteps(0), newWork -> {
+            checkedWork.add(newWork);
+            return false;
+        }));
+        Assert.assertEquals(2, checkedWork.size());
+        verify(driver, times(0)).reviveOffers();
+        Assert.assertTrue(manager.revive(getSteps(0), newWork -> {
+            checkedWork.add(newWork);
+            return true;
+        }));
+        Assert.assertEquals(3, checkedWork.size());
+        verify(driver, times(1)).reviveOffers();
+
+        // The revived work is no longer new:
+        Assert.assertFalse(manager.revive(getSteps(0), newWork -> {
+            checkedWork.add(newWork);
+            return true;
+        }));
+        Assert.assertEquals(3, checkedWork.size());
+        verify(driver, times(1)).reviveOffers();
+    }
+
     private ReviveManager getReviveManager() {
         return getReviveManager(Duration.ZERO);
     }
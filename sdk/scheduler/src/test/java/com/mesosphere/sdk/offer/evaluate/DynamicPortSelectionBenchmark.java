@@ -0,0 +1,196 @@
+package com.mesosphere.sdk.offer.evaluate;
+
+import com.mesosphere.sdk.http.endpoints.ArtifactResource;
+import com.mesosphere.sdk.offer.Constants;
+import com.mesosphere.sdk.offer.InvalidRequirementException;
+import com.mesosphere.sdk.offer.LoggingUtils;
+import com.mesosphere.sdk.offer.MesosResourcePool;
+import com.mesosphere.sdk.scheduler.plan.DefaultPodInstance;
+import com.mesosphere.sdk.scheduler.plan.PodInstanceRequirement;
+import com.mesosphere.sdk.specification.*;
+import com.mesosphere.sdk.testutils.*;
+import org.apache.mesos.Protos;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Measures the selection of dynamic host ports for a pod with a dozen dynamic ports, against an agent offering a
+ * typical port range. Compares {@link PortAllocator} against the scan of boxed port sets which preceded it. This isn't
+ * run with the other tests, run it with {@code ./gradlew :scheduler:benchmark}.
+ */
+public class DynamicPortSelectionBenchmark extends DefaultCapabilitiesTestSuite {
+
+    private static final Logger LOGGER = LoggingUtils.getLogger(DynamicPortSelectionBenchmark.class);
+
+    private static final int DYNAMIC_PORTS = 12;
+    private static final int ITERATIONS = 100;
+
+    @Test
+    public void benchmarkDynamicPortSelection() throws Exception {
+        PortSpec[] portSpecs = new PortSpec[DYNAMIC_PORTS];
+        for (int i = 0; i < DYNAMIC_PORTS; ++i) {
+            portSpecs[i] = getDynamicPortSpec("dyn" + i);
+        }
+        PodInstanceRequirement podInstanceRequirement = getPodInstanceRequirement(portSpecs);
+        Protos.Offer offer = OfferTestUtils.getOffer(ResourceTestUtils.getUnreservedPorts(1025, 32000));
+        List<PortEvaluationStage> stages = Arrays.stream(portSpecs)
+                .map(portSpec -> new PortEvaluationStage(
+                        portSpec, TestConstants.TASK_NAME, Optional.empty(), Optional.empty()))
+                .collect(Collectors.toList());
+
+        List<Integer> legacyPorts = new ArrayList<>();
+        List<Integer> ports = new ArrayList<>();
+        long legacyNanos = 0;
+        long allocatorNanos = 0;
+        // The first round is a warmup:
+        for (int round = 0; round < 2; ++round) {
+            legacyNanos = 0;
+            allocatorNanos = 0;
+            for (int i = 0; i < ITERATIONS; ++i) {
+                legacyPorts.clear();
+                ports.clear();
+
+                // Each selected port is added to the task resources, as it would have been by the evaluation stage:
+                MesosResourcePool mesosResourcePool = new MesosResourcePool(offer, Optional.of(Constants.ANY_ROLE));
+                PodInfoBuilder podInfoBuilder = getPodInfoBuilder(podInstanceRequirement);
+                long startNanos = System.nanoTime();
+                for (int j = 0; j < DYNAMIC_PORTS; ++j) {
+                    int port = selectDynamicPortLegacy(mesosResourcePool, podInfoBuilder).get();
+                    podInfoBuilder.getTaskBuilder(TestConstants.TASK_NAME)
+                            .addResources(ResourceTestUtils.getUnreservedPorts(port, port));
+                    legacyPorts.add(port);
+                }
+                legacyNanos += System.nanoTime() - startNanos;
+
+                podInfoBuilder = getPodInfoBuilder(podInstanceRequirement);
+                startNanos = System.nanoTime();
+                for (int j = 0; j < DYNAMIC_PORTS; ++j) {
+                    ports.add(podInfoBuilder.getHostPortAllocator().claimFirstUnclaimed(
+                            mesosResourcePool.getUnreservedMergedPool()
+                                    .get(Constants.PORTS_RESOURCE_TYPE).getRanges()).get());
+                }
+                allocatorNanos += System.nanoTime() - startNanos;
+            }
+        }
+        Assert.assertEquals(legacyPorts, ports);
+
+        // For reference, the full evaluation of the port stages, including reservations and task updates:
+        long stagesStartNanos = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; ++i) {
+            MesosResourcePool mesosResourcePool = new MesosResourcePool(offer, Optional.of(Constants.ANY_ROLE));
+            PodInfoBuilder podInfoBuilder = getPodInfoBuilder(podInstanceRequirement);
+            for (PortEvaluationStage stage : stages) {
+                Assert.assertTrue(stage.evaluate(mesosResourcePool, podInfoBuilder).isPassing());
+            }
+        }
+        long stagesNanos = System.nanoTime() - stagesStartNanos;
+
+        LOGGER.info("Selecting {} dynamic ports from 1025-32000, per pod: legacy={}us allocator={}us, "
+                + "full port stage evaluation={}us",
+                DYNAMIC_PORTS,
+                legacyNanos / ITERATIONS / 1000,
+                allocatorNanos / ITERATIONS / 1000,
+                stagesNanos / ITERATIONS / 1000);
+    }
+
+    /**
+     * The implementation of dynamic port selection which preceded {@link PortAllocator}, for comparison.
+     */
+    private static Optional<Integer> selectDynamicPortLegacy(
+            MesosResourcePool mesosResourcePool, PodInfoBuilder podInfoBuilder) {
+        Set<Integer> consumedPorts = new HashSet<>();
+        for (TaskSpec task : podInfoBuilder.getPodInstance().getPod().getTasks()) {
+            for (ResourceSpec resourceSpec : task.getResourceSet().getResources()) {
+                if (resourceSpec instanceof PortSpec) {
+                    PortSpec portSpec = (PortSpec) resourceSpec;
+                    if (portSpec.getPort() != 0) {
+                        consumedPorts.add((int) portSpec.getPort());
+                    }
+                }
+            }
+        }
+        for (Protos.Resource.Builder resourceBuilder : podInfoBuilder.getTaskResourceBuilders()) {
+            consumedPorts.addAll(getPortsInResourceLegacy(resourceBuilder.build()));
+        }
+        for (Protos.Resource.Builder resourceBuilder : podInfoBuilder.getExecutorResourceBuilders()) {
+            consumedPorts.addAll(getPortsInResourceLegacy(resourceBuilder.build()));
+        }
+
+        Protos.Value availablePorts = mesosResourcePool.getUnreservedMergedPool().get(Constants.PORTS_RESOURCE_TYPE);
+        Optional<Integer> dynamicPort = Optional.empty();
+        if (availablePorts != null) {
+            dynamicPort = availablePorts.getRanges().getRangeList().stream()
+                    .flatMap(r -> IntStream.rangeClosed((int) r.getBegin(), (int) r.getEnd()).boxed())
+                    .filter(p -> !consumedPorts.contains(p))
+                    .findFirst();
+        }
+        return dynamicPort;
+    }
+
+    private static Set<Integer> getPortsInResourceLegacy(Protos.Resource resource) {
+        if (!resource.getName().equals(Constants.PORTS_RESOURCE_TYPE)) {
+            return Collections.emptySet();
+        }
+        return resource.getRanges().getRangeList().stream()
+                .flatMap(r -> IntStream.rangeClosed((int) r.getBegin(), (int) r.getEnd()).boxed())
+                .filter(p -> p != 0)
+                .collect(Collectors.toSet());
+    }
+
+    private static PodInfoBuilder getPodInfoBuilder(PodInstanceRequirement podInstanceRequirement)
+            throws InvalidRequirementException {
+        return new PodInfoBuilder(
+                podInstanceRequirement,
+                TestConstants.SERVICE_NAME,
+                UUID.randomUUID(),
+                ArtifactResource.getUrlFactory(TestConstants.SERVICE_NAME),
+                SchedulerConfigTestUtils.getTestSchedulerConfig(),
+                Collections.emptyList(),
+                TestConstants.FRAMEWORK_ID,
+                true,
+                Collections.emptyMap());
+    }
+
+    private static PodInstanceRequirement getPodInstanceRequirement(PortSpec... portSpecs) {
+        ResourceSet resourceSet =
+                DefaultResourceSet.newBuilder(TestConstants.ROLE, Constants.ANY_ROLE, TestConstants.PRINCIPAL)
+                        .id("resourceSet")
+                        .cpus(1.0)
+                        .addResource(Arrays.asList(portSpecs))
+                        .build();
+        TaskSpec taskSpec = DefaultTaskSpec.newBuilder()
+                .name(TestConstants.TASK_NAME)
+                .commandSpec(DefaultCommandSpec.newBuilder(Collections.emptyMap()).value("./cmd").build())
+                .goalState(GoalState.RUNNING)
+                .resourceSet(resourceSet)
+                .build();
+        PodSpec podSpec = DefaultPodSpec.newBuilder("executor-uri")
+                .addTask(taskSpec)
+                .count(1)
+                .type(TestConstants.POD_TYPE)
+                .build();
+        return PodInstanceRequirement.newBuilder(
+                new DefaultPodInstance(podSpec, 0), Arrays.asList(TestConstants.TASK_NAME)).build();
+    }
+
+    private static PortSpec getDynamicPortSpec(String name) {
+        return new PortSpec(
+                Protos.Value.newBuilder()
+                        .setType(Protos.Value.Type.RANGES)
+                        .setRanges(Protos.Value.Ranges.newBuilder()
+                                .addRange(Protos.Value.Range.newBuilder().setBegin(0).setEnd(0)))
+                        .build(),
+                TestConstants.ROLE,
+                Constants.ANY_ROLE,
+                TestConstants.PRINCIPAL,
+                null,
+                name,
+                TestConstants.PORT_VISIBILITY,
+                Collections.emptyList());
+    }
+}
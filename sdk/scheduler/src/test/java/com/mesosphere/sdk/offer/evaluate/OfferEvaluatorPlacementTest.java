@@ -1,6 +1,8 @@
 package com.mesosphere.sdk.offer.evaluate;
 
 import com.mesosphere.sdk.offer.OfferRecommendation;
+import com.mesosphere.sdk.offer.evaluate.placement.ExactMatcher;
+import com.mesosphere.sdk.offer.evaluate.placement.HostnameRuleFactory;
 import com.mesosphere.sdk.offer.evaluate.placement.PlacementRule;
 import com.mesosphere.sdk.offer.evaluate.placement.PlacementUtils;
 import com.mesosphere.sdk.scheduler.plan.DefaultPodInstance;
@@ -207,4 +209,24 @@ public class OfferEvaluatorPlacementTest extends OfferEvaluatorTestBase {
 
         Assert.assertEquals(2, recommendations.size());
     }
+
+    @Test
+    public void testCompiledPlacementRulesEvicted() throws Exception {
+        PlacementRule firstRule = getHostnameRule(0);
+        PlacementRule secondRule = getHostnameRule(1);
+        PlacementRule firstCompiled = evaluator.getCompiledPlacementRule(firstRule);
+        PlacementRule secondCompiled = evaluator.getCompiledPlacementRule(secondRule);
+        Assert.assertSame(firstCompiled, evaluator.getCompiledPlacementRule(getHostnameRule(0)));
+
+        // The first rule was used most recently, so the second is the first to be evicted:
+        for (int i = 2; i <= OfferEvaluator.MAX_COMPILED_PLACEMENT_RULES; ++i) {
+            evaluator.getCompiledPlacementRule(getHostnameRule(i));
+        }
+        Assert.assertSame(firstCompiled, evaluator.getCompiledPlacementRule(firstRule));
+        Assert.assertNotSame(secondCompiled, evaluator.getCompiledPlacementRule(secondRule));
+    }
+
+    private static PlacementRule getHostnameRule(int index) {
+        return HostnameRuleFactory.getInstance().require(ExactMatcher.create("host-" + index));
+    }
 }
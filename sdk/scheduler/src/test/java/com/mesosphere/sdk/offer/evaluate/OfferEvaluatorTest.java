@@ -1,17 +1,25 @@
 package com.mesosphere.sdk.offer.evaluate;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Timer;
 import com.mesosphere.sdk.dcos.Capabilities;
 import com.mesosphere.sdk.dcos.ResourceRefinementCapabilityContext;
+import com.mesosphere.sdk.http.endpoints.ArtifactResource;
 import com.mesosphere.sdk.offer.*;
+import com.mesosphere.sdk.offer.history.OfferOutcomeTracker;
 import com.mesosphere.sdk.offer.taskdata.TaskLabelReader;
 import com.mesosphere.sdk.offer.taskdata.TaskLabelWriter;
+import com.mesosphere.sdk.scheduler.Metrics;
+import com.mesosphere.sdk.scheduler.SchedulerConfig;
 import com.mesosphere.sdk.scheduler.plan.*;
 import com.mesosphere.sdk.scheduler.recovery.FailureUtils;
 import com.mesosphere.sdk.scheduler.recovery.RecoveryType;
 import com.mesosphere.sdk.specification.*;
 import com.mesosphere.sdk.state.PersistentLaunchRecorder;
+import com.mesosphere.sdk.state.StateSnapshot;
 import com.mesosphere.sdk.testutils.OfferTestUtils;
 import com.mesosphere.sdk.testutils.ResourceTestUtils;
+import com.mesosphere.sdk.testutils.SchedulerConfigTestUtils;
 import com.mesosphere.sdk.testutils.TaskTestUtils;
 import com.mesosphere.sdk.testutils.TestConstants;
 import org.apache.mesos.Protos;
@@ -25,6 +33,8 @@ import java.io.File;
 import java.util.*;
 import java.util.stream.Collectors;
 
+import static org.mockito.Mockito.when;
+
 @SuppressWarnings("deprecation")
 public class OfferEvaluatorTest extends OfferEvaluatorTestBase {
     @Mock ServiceSpec serviceSpec;
@@ -93,6 +103,191 @@ public class OfferEvaluatorTest extends OfferEvaluatorTestBase {
         return new ArrayList<>(Arrays.asList(expectedExecutorCpu, expectedExecutorMem, expectedExecutorDisk));
     }
 
+    @Test
+    public void testEvaluationPipelineIsReusedWithinSnapshot() throws Exception {
+        Counter built = Metrics.getRegistry().counter("offers.evaluation.pipelines.built");
+        Counter reused = Metrics.getRegistry().counter("offers.evaluation.pipelines.reused");
+        long builtVal = built.getCount();
+        long reusedVal = reused.getCount();
+
+        PodInstanceRequirement podInstanceRequirement = PodInstanceRequirementTestUtils.getCpuRequirement(1.0);
+        List<Offer> insufficientOffers = Arrays.asList(
+                OfferTestUtils.getCompleteOffer(ResourceTestUtils.getUnreservedCpus(0.5)),
+                OfferTestUtils.getCompleteOffer(ResourceTestUtils.getUnreservedCpus(0.5)),
+                OfferTestUtils.getCompleteOffer(ResourceTestUtils.getUnreservedCpus(0.5)));
+
+        // One pipeline for all offers in a call:
+        StateSnapshot snapshot = StateSnapshot.create(stateStore, targetConfig);
+        Assert.assertTrue(evaluator.evaluate(podInstanceRequirement, snapshot, insufficientOffers).isEmpty());
+        Assert.assertEquals(1, built.getCount() - builtVal);
+        Assert.assertEquals(0, reused.getCount() - reusedVal);
+
+        // Same snapshot and requirement: reused
+        Assert.assertFalse(evaluator.evaluate(podInstanceRequirement, snapshot, Arrays.asList(
+                OfferTestUtils.getCompleteOffer(ResourceTestUtils.getUnreservedCpus(2.0)))).isEmpty());
+        Assert.assertEquals(1, built.getCount() - builtVal);
+        Assert.assertEquals(1, reused.getCount() - reusedVal);
+
+        // New snapshot: rebuilt
+        Assert.assertTrue(evaluator.evaluate(
+                podInstanceRequirement, StateSnapshot.create(stateStore, targetConfig), insufficientOffers).isEmpty());
+        Assert.assertEquals(2, built.getCount() - builtVal);
+        Assert.assertEquals(1, reused.getCount() - reusedVal);
+    }
+
+    @Test
+    public void testStageDurationsAndScannedOffersRecorded() throws Exception {
+        Timer stageTimer = Metrics.getRegistry().timer("offers.evaluation.stage.ExecutorEvaluationStage");
+        Counter scanned = Metrics.getRegistry().counter("offers.evaluation.scanned");
+        long stageTimerVal = stageTimer.getCount();
+        long scannedVal = scanned.getCount();
+
+        PodInstanceRequirement podInstanceRequirement = PodInstanceRequirementTestUtils.getCpuRequirement(1.0);
+        Assert.assertFalse(evaluator.evaluate(podInstanceRequirement, Arrays.asList(
+                OfferTestUtils.getCompleteOffer(ResourceTestUtils.getUnreservedCpus(0.5)),
+                OfferTestUtils.getCompleteOffer(ResourceTestUtils.getUnreservedCpus(2.0)),
+                OfferTestUtils.getCompleteOffer(ResourceTestUtils.getUnreservedCpus(2.0)))).isEmpty());
+
+        // The first offer is rejected early, the second passes, and the third isn't examined:
+        Assert.assertEquals(1, stageTimer.getCount() - stageTimerVal);
+        Assert.assertEquals(2, scanned.getCount() - scannedVal);
+    }
+
+    @Test
+    public void testFastRejectInsufficientResources() throws Exception {
+        Counter fastRejects = Metrics.getRegistry().counter("offers.evaluation.fast_rejects");
+        long fastRejectsVal = fastRejects.getCount();
+        OfferOutcomeTracker outcomeTracker = new OfferOutcomeTracker();
+        evaluator = new OfferEvaluator(
+                frameworkStore,
+                stateStore,
+                outcomeTracker,
+                TestConstants.SERVICE_NAME,
+                targetConfig,
+                ArtifactResource.getUrlFactory(TestConstants.SERVICE_NAME),
+                SCHEDULER_CONFIG,
+                Optional.empty(),
+                true);
+
+        PodInstanceRequirement podInstanceRequirement = PodInstanceRequirementTestUtils.getCpuRequirement(1.0);
+        Assert.assertTrue(evaluator.evaluate(
+                podInstanceRequirement,
+                Arrays.asList(OfferTestUtils.getCompleteOffer(ResourceTestUtils.getUnreservedCpus(0.5)))).isEmpty());
+        Assert.assertEquals(1, fastRejects.getCount() - fastRejectsVal);
+        // Only the failed check is reported:
+        String explanation = outcomeTracker.toJson()
+                .getJSONArray("outcomes").getJSONObject(0).getString("explanation");
+        Assert.assertTrue(explanation, explanation.contains("ResourceTotalsFilter"));
+        Assert.assertFalse(explanation, explanation.contains("ResourceEvaluationStage"));
+    }
+
+    @Test
+    public void testOfferSuitabilityRecorded() throws Exception {
+        Protos.Offer smallOffer = OfferTestUtils.getCompleteOffer(ResourceTestUtils.getUnreservedCpus(0.5)).toBuilder()
+                .setId(Protos.OfferID.newBuilder().setValue("small-offer"))
+                .build();
+        Protos.Offer largeOffer = OfferTestUtils.getCompleteOffer(ResourceTestUtils.getUnreservedCpus(2.0)).toBuilder()
+                .setId(Protos.OfferID.newBuilder().setValue("large-offer"))
+                .build();
+        PodInstanceRequirement largeRequirement = PodInstanceRequirementTestUtils.getCpuRequirement(1.0);
+        PodInstanceRequirement smallRequirement = PodInstanceRequirementTestUtils.getCpuRequirement(0.1);
+        StateSnapshot snapshot = StateSnapshot.create(stateStore, targetConfig);
+
+        Assert.assertTrue(evaluator.isPlausible(largeRequirement, snapshot, largeOffer));
+        Assert.assertFalse(evaluator.isPlausible(largeRequirement, snapshot, smallOffer));
+        Assert.assertTrue(evaluator.isPlausible(smallRequirement, snapshot, smallOffer));
+
+        evaluator.evaluate(largeRequirement, snapshot, Arrays.asList(smallOffer));
+        Assert.assertTrue(evaluator.wasUnsuitable(smallOffer.getId()));
+        Assert.assertFalse(evaluator.wasPlausible(smallOffer.getId()));
+        // Not evaluated:
+        Assert.assertFalse(evaluator.wasUnsuitable(largeOffer.getId()));
+        Assert.assertFalse(evaluator.wasPlausible(largeOffer.getId()));
+
+        // Plausible for any requirement is enough:
+        evaluator.evaluate(smallRequirement, snapshot, Arrays.asList(smallOffer));
+        Assert.assertFalse(evaluator.wasUnsuitable(smallOffer.getId()));
+        Assert.assertTrue(evaluator.wasPlausible(smallOffer.getId()));
+
+        evaluator.resetOfferSuitability();
+        Assert.assertFalse(evaluator.wasUnsuitable(smallOffer.getId()));
+        Assert.assertFalse(evaluator.wasPlausible(smallOffer.getId()));
+    }
+
+    @Test
+    public void testOfferEvaluationsTrackedOnlyWhenRecorded() throws Exception {
+        Counter fastRejects = Metrics.getRegistry().counter("offers.evaluation.fast_rejects");
+        long fastRejectsVal = fastRejects.getCount();
+        OfferOutcomeTracker outcomeTracker = new OfferOutcomeTracker();
+        evaluator = new OfferEvaluator(
+                frameworkStore,
+                stateStore,
+                outcomeTracker,
+                TestConstants.SERVICE_NAME,
+                targetConfig,
+                ArtifactResource.getUrlFactory(TestConstants.SERVICE_NAME),
+                SCHEDULER_CONFIG,
+                Optional.empty(),
+                true);
+        Protos.Offer smallOffer = OfferTestUtils.getCompleteOffer(ResourceTestUtils.getUnreservedCpus(0.5)).toBuilder()
+                .setId(Protos.OfferID.newBuilder().setValue("small-offer"))
+                .build();
+        Protos.Offer largeOffer = OfferTestUtils.getCompleteOffer(ResourceTestUtils.getUnreservedCpus(2.0)).toBuilder()
+                .setId(Protos.OfferID.newBuilder().setValue("large-offer"))
+                .build();
+        PodInstanceRequirement podInstanceRequirement = PodInstanceRequirementTestUtils.getCpuRequirement(1.0);
+        StateSnapshot snapshot = StateSnapshot.create(stateStore, targetConfig);
+
+        OfferEvaluator.OfferEvaluation smallEvaluation =
+                evaluator.evaluateOffer(podInstanceRequirement, snapshot, smallOffer);
+        OfferEvaluator.OfferEvaluation largeEvaluation =
+                evaluator.evaluateOffer(podInstanceRequirement, snapshot, largeOffer);
+        Assert.assertFalse(smallEvaluation.isPassing());
+        Assert.assertTrue(largeEvaluation.isPassing());
+        Assert.assertFalse(evaluator.wasUnsuitable(smallOffer.getId()));
+        Assert.assertFalse(evaluator.wasPlausible(largeOffer.getId()));
+        Assert.assertEquals(0, fastRejects.getCount() - fastRejectsVal);
+        Assert.assertEquals(0, outcomeTracker.toJson().getJSONArray("outcomes").length());
+
+        // Only the recorded evaluation is tracked:
+        List<OfferRecommendation> recommendations =
+                evaluator.recordEvaluations(podInstanceRequirement, Arrays.asList(largeEvaluation));
+        Assert.assertFalse(recommendations.isEmpty());
+        Assert.assertTrue(evaluator.wasPlausible(largeOffer.getId()));
+        Assert.assertFalse(evaluator.wasUnsuitable(smallOffer.getId()));
+        Assert.assertEquals(0, fastRejects.getCount() - fastRejectsVal);
+        Assert.assertEquals(1, outcomeTracker.toJson().getJSONArray("outcomes").length());
+    }
+
+    @Test
+    public void testFastRejectDisabledWhenDebugging() throws Exception {
+        Counter fastRejects = Metrics.getRegistry().counter("offers.evaluation.fast_rejects");
+        long fastRejectsVal = fastRejects.getCount();
+        SchedulerConfig schedulerConfig = SchedulerConfigTestUtils.getTestSchedulerConfig();
+        when(schedulerConfig.isOfferEvaluationDebugEnabled()).thenReturn(true);
+        OfferOutcomeTracker outcomeTracker = new OfferOutcomeTracker();
+        evaluator = new OfferEvaluator(
+                frameworkStore,
+                stateStore,
+                outcomeTracker,
+                TestConstants.SERVICE_NAME,
+                targetConfig,
+                ArtifactResource.getUrlFactory(TestConstants.SERVICE_NAME),
+                schedulerConfig,
+                Optional.empty(),
+                true);
+
+        PodInstanceRequirement podInstanceRequirement = PodInstanceRequirementTestUtils.getCpuRequirement(1.0);
+        Assert.assertTrue(evaluator.evaluate(
+                podInstanceRequirement,
+                Arrays.asList(OfferTestUtils.getCompleteOffer(ResourceTestUtils.getUnreservedCpus(0.5)))).isEmpty());
+        Assert.assertEquals(0, fastRejects.getCount() - fastRejectsVal);
+        // The full pipeline is reported:
+        String explanation = outcomeTracker.toJson()
+                .getJSONArray("outcomes").getJSONObject(0).getString("explanation");
+        Assert.assertTrue(explanation, explanation.contains("ResourceEvaluationStage"));
+    }
+
     @Test
     public void testReserveLaunchScalarRefined() throws Exception {
         ResourceRefinementCapabilityContext context = new ResourceRefinementCapabilityContext(Capabilities.getInstance());
@@ -0,0 +1,70 @@
+package com.mesosphere.sdk.offer.evaluate;
+
+import org.apache.mesos.Protos;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Optional;
+
+/**
+ * Tests for {@link PortAllocator}.
+ */
+public class PortAllocatorTest {
+
+    @Test
+    public void testClaimFirstUnclaimedSkipsClaimedPorts() {
+        PortAllocator allocator = new PortAllocator();
+        allocator.claim(10000);
+        allocator.claim(10002);
+
+        Assert.assertEquals(Optional.of(10001), allocator.claimFirstUnclaimed(10000, 10005));
+        Assert.assertEquals(Optional.of(10003), allocator.claimFirstUnclaimed(10000, 10005));
+        Assert.assertTrue(allocator.isClaimed(10001));
+        Assert.assertFalse(allocator.isClaimed(10004));
+        Assert.assertEquals(new HashSet<>(Arrays.asList(10000L, 10001L, 10002L, 10003L)), allocator.getClaimed());
+    }
+
+    @Test
+    public void testClaimFirstUnclaimedAcrossRanges() {
+        PortAllocator allocator = new PortAllocator();
+        Protos.Value.Ranges ranges = getRanges(8000, 8001, 9000, 9001);
+
+        Assert.assertEquals(Optional.of(8000), allocator.claimFirstUnclaimed(ranges));
+        Assert.assertEquals(Optional.of(8001), allocator.claimFirstUnclaimed(ranges));
+        Assert.assertEquals(Optional.of(9000), allocator.claimFirstUnclaimed(ranges));
+        Assert.assertEquals(Optional.of(9001), allocator.claimFirstUnclaimed(ranges));
+        Assert.assertEquals(Optional.empty(), allocator.claimFirstUnclaimed(ranges));
+    }
+
+    @Test
+    public void testRangesAreWalkedInListedOrder() {
+        PortAllocator allocator = new PortAllocator();
+        Assert.assertEquals(Optional.of(9000), allocator.claimFirstUnclaimed(getRanges(9000, 9001, 8000, 8001)));
+    }
+
+    @Test
+    public void testOutOfRangePortsIgnored() {
+        PortAllocator allocator = new PortAllocator();
+        allocator.claim(0);
+        allocator.claim(-1);
+        allocator.claim(70000);
+        Assert.assertTrue(allocator.getClaimed().isEmpty());
+        Assert.assertFalse(allocator.isClaimed(0));
+        Assert.assertFalse(allocator.isClaimed(70000));
+
+        Assert.assertEquals(Optional.of(1), allocator.claimFirstUnclaimed(0, 1));
+        Assert.assertEquals(Optional.empty(), allocator.claimFirstUnclaimed(65536, 70000));
+        Assert.assertEquals(Optional.of(65535), allocator.claimFirstUnclaimed(65535, 70000));
+        Assert.assertEquals(Optional.empty(), allocator.claimFirstUnclaimed(65535, 70000));
+    }
+
+    private static Protos.Value.Ranges getRanges(long... beginEnds) {
+        Protos.Value.Ranges.Builder builder = Protos.Value.Ranges.newBuilder();
+        for (int i = 0; i < beginEnds.length; i += 2) {
+            builder.addRangeBuilder().setBegin(beginEnds[i]).setEnd(beginEnds[i + 1]);
+        }
+        return builder.build();
+    }
+}
@@ -435,6 +435,69 @@ public class PortEvaluationStageTest extends DefaultCapabilitiesTestSuite {
         Assert.assertTrue(portInTaskEnv);
     }
 
+    @Test
+    public void testPortOnNetworkChecks() throws Exception {
+        DefaultPodInstance podInstance = getPodInstance("valid-port-networkcheck.yml");
+        PodInstanceRequirement podInstanceRequirement =
+                PodInstanceRequirement.newBuilder(podInstance, TaskUtils.getTaskNames(podInstance))
+                        .build();
+        PodInfoBuilder podInfoBuilder = getPodInfoBuilder(podInstanceRequirement, true);
+        Protos.TaskInfo.Builder taskBuilder = podInfoBuilder.getTaskBuilders().stream().findFirst().get();
+        // Ports are only known once they have been evaluated:
+        Assert.assertEquals(0, taskBuilder.getHealthCheck().getHttp().getPort());
+        Assert.assertEquals(0, taskBuilder.getCheck().getTcp().getPort());
+
+        Protos.Offer offer = OfferTestUtils.getOffer(ResourceTestUtils.getUnreservedPorts(10000, 10000));
+        PortEvaluationStage portEvaluationStage = new PortEvaluationStage(
+                getPortSpec(podInstance), TestConstants.TASK_NAME, Optional.empty(), Optional.empty());
+        EvaluationOutcome outcome = portEvaluationStage.evaluate(
+                new MesosResourcePool(offer, Optional.of(Constants.ANY_ROLE)), podInfoBuilder);
+        Assert.assertTrue(outcome.isPassing());
+
+        Protos.HealthCheck healthCheck = taskBuilder.getHealthCheck();
+        Assert.assertEquals(Protos.HealthCheck.Type.HTTP, healthCheck.getType());
+        Assert.assertEquals(10000, healthCheck.getHttp().getPort());
+        Assert.assertEquals("/health", healthCheck.getHttp().getPath());
+        // Mesos doesn't support custom statuses in checks of default executor tasks:
+        Assert.assertEquals(0, healthCheck.getHttp().getStatusesCount());
+        Assert.assertFalse(healthCheck.hasCommand());
+
+        Protos.CheckInfo readinessCheck = taskBuilder.getCheck();
+        Assert.assertEquals(Protos.CheckInfo.Type.TCP, readinessCheck.getType());
+        Assert.assertEquals(10000, readinessCheck.getTcp().getPort());
+        Assert.assertFalse(readinessCheck.hasCommand());
+    }
+
+    @Test
+    public void testPortOnNetworkReadinessCheckCustomExecutor() throws Exception {
+        DefaultPodInstance podInstance = getPodInstance("valid-port-networkcheck.yml");
+        PodInstanceRequirement podInstanceRequirement =
+                PodInstanceRequirement.newBuilder(podInstance, TaskUtils.getTaskNames(podInstance))
+                        .build();
+        PodInfoBuilder podInfoBuilder = getPodInfoBuilder(podInstanceRequirement, false);
+        Protos.Offer offer = OfferTestUtils.getOffer(ResourceTestUtils.getUnreservedPorts(10000, 10000));
+        PortEvaluationStage portEvaluationStage = new PortEvaluationStage(
+                getPortSpec(podInstance), TestConstants.TASK_NAME, Optional.empty(), Optional.empty());
+        EvaluationOutcome outcome = portEvaluationStage.evaluate(
+                new MesosResourcePool(offer, Optional.of(Constants.ANY_ROLE)), podInfoBuilder);
+        Assert.assertTrue(outcome.isPassing());
+
+        Protos.TaskInfo.Builder taskBuilder = podInfoBuilder.getTaskBuilders().stream().findFirst().get();
+        Assert.assertEquals(10000, taskBuilder.getHealthCheck().getHttp().getPort());
+        Assert.assertEquals(Arrays.asList(200, 204), taskBuilder.getHealthCheck().getHttp().getStatusesList());
+        // The custom executor's readiness check is stored in a label instead:
+        Assert.assertFalse(taskBuilder.hasCheck());
+        Protos.HealthCheck readinessCheck = new TaskLabelWriter(taskBuilder) {
+            @Override
+            public Optional<Protos.HealthCheck> getReadinessCheck() throws TaskException {
+                return super.getReadinessCheck();
+            }
+        }.getReadinessCheck().get();
+        Assert.assertEquals(Protos.HealthCheck.Type.TCP, readinessCheck.getType());
+        Assert.assertEquals(10000, readinessCheck.getTcp().getPort());
+        Assert.assertFalse(readinessCheck.hasCommand());
+    }
+
     @Test
     public void testDynamicPortNotStickyAfterReplacement() throws Exception {
         // The initial dynamic port should be the min of the available range.
@@ -513,4 +576,59 @@ public class PortEvaluationStageTest extends DefaultCapabilitiesTestSuite {
         outcome = portEvaluationStage.evaluate(mesosResourcePool, podInfoBuilder);
         Assert.assertEquals(true, outcome.isPassing());
     }
+
+    @Test
+    public void testManyDynamicPorts() throws Exception {
+        List<PortSpec> portSpecs = getDynamicPortSpecs(12);
+        // An explicitly requested port within the offered range isn't assigned to any of the dynamic ports:
+        portSpecs.add(getPortSpec("static", 10003));
+        PodInstanceRequirement podInstanceRequirement =
+                getPodInstanceRequirement(portSpecs.toArray(new PortSpec[portSpecs.size()]));
+        PodInfoBuilder podInfoBuilder = getPodInfoBuilder(podInstanceRequirement, true);
+        MesosResourcePool mesosResourcePool = new MesosResourcePool(
+                OfferTestUtils.getOffer(ResourceTestUtils.getUnreservedPorts(10000, 10050)),
+                Optional.of(Constants.ANY_ROLE));
+
+        for (PortSpec portSpec : portSpecs) {
+            EvaluationOutcome outcome = new PortEvaluationStage(
+                    portSpec, TestConstants.TASK_NAME, Optional.empty(), Optional.empty())
+                    .evaluate(mesosResourcePool, podInfoBuilder);
+            Assert.assertTrue(outcome.toString(), outcome.isPassing());
+        }
+
+        Map<String, Integer> assignedPorts = podInfoBuilder.getTaskBuilder(TestConstants.TASK_NAME)
+                .getDiscovery().getPorts().getPortsList().stream()
+                .collect(Collectors.toMap(Protos.Port::getName, Protos.Port::getNumber));
+        Assert.assertEquals(13, assignedPorts.size());
+        Assert.assertEquals(10003, (int) assignedPorts.get("static"));
+        List<Integer> expectedDynamicPorts = new ArrayList<>(Arrays.asList(
+                10000, 10001, 10002, 10004, 10005, 10006, 10007, 10008, 10009, 10010, 10011, 10012));
+        for (int i = 0; i < 12; ++i) {
+            Assert.assertEquals(expectedDynamicPorts.get(i), assignedPorts.get("dyn" + i));
+        }
+    }
+
+    private static List<PortSpec> getDynamicPortSpecs(int count) {
+        List<PortSpec> portSpecs = new ArrayList<>();
+        for (int i = 0; i < count; ++i) {
+            portSpecs.add(getPortSpec("dyn" + i, 0));
+        }
+        return portSpecs;
+    }
+
+    private static PortSpec getPortSpec(String name, int port) {
+        return new PortSpec(
+                Protos.Value.newBuilder()
+                        .setType(Protos.Value.Type.RANGES)
+                        .setRanges(Protos.Value.Ranges.newBuilder()
+                                .addRange(Protos.Value.Range.newBuilder().setBegin(port).setEnd(port)))
+                        .build(),
+                TestConstants.ROLE,
+                Constants.ANY_ROLE,
+                TestConstants.PRINCIPAL,
+                null,
+                name,
+                TestConstants.PORT_VISIBILITY,
+                Collections.emptyList());
+    }
 }
@@ -0,0 +1,78 @@
+package com.mesosphere.sdk.offer.evaluate;
+
+import com.mesosphere.sdk.scheduler.plan.PodInstanceRequirementTestUtils;
+import com.mesosphere.sdk.specification.PodSpec;
+import com.mesosphere.sdk.specification.ResourceSet;
+import com.mesosphere.sdk.specification.TaskSpec;
+import com.mesosphere.sdk.testutils.OfferTestUtils;
+import com.mesosphere.sdk.testutils.ResourceTestUtils;
+import org.apache.mesos.Protos;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Tests for {@link ResourceTotalsFilter}.
+ */
+public class ResourceTotalsFilterTest {
+
+    @Test
+    public void testSufficientTotals() {
+        ResourceTotalsFilter filter = getFilter(PodInstanceRequirementTestUtils
+                .getRootVolumeRequirement(1.0, 1500).getPodInstance().getPod());
+
+        // Exact amounts, split across multiple resources:
+        Protos.Offer offer = OfferTestUtils.getOffer(Arrays.asList(
+                ResourceTestUtils.getUnreservedCpus(0.5),
+                ResourceTestUtils.getUnreservedCpus(0.5, "slave_public"),
+                ResourceTestUtils.getUnreservedDisk(1000),
+                ResourceTestUtils.getUnreservedDisk(500)));
+        Assert.assertTrue(filter.evaluate(offer).isPassing());
+    }
+
+    @Test
+    public void testInsufficientTotals() {
+        ResourceTotalsFilter filter = getFilter(PodInstanceRequirementTestUtils
+                .getRootVolumeRequirement(1.0, 1500).getPodInstance().getPod());
+
+        EvaluationOutcome outcome = filter.evaluate(OfferTestUtils.getOffer(Arrays.asList(
+                ResourceTestUtils.getUnreservedCpus(2.0),
+                ResourceTestUtils.getUnreservedDisk(1000))));
+        Assert.assertFalse(outcome.isPassing());
+        Assert.assertTrue(outcome.getReason(), outcome.getReason().contains("disk"));
+
+        outcome = filter.evaluate(OfferTestUtils.getOffer(ResourceTestUtils.getUnreservedDisk(2000)));
+        Assert.assertFalse(outcome.isPassing());
+        Assert.assertTrue(outcome.getReason(), outcome.getReason().contains("cpus"));
+    }
+
+    @Test
+    public void testFloatingPointTotals() {
+        ResourceTotalsFilter filter = getFilter(PodInstanceRequirementTestUtils
+                .getCpuRequirement(0.3).getPodInstance().getPod());
+
+        Protos.Offer offer = OfferTestUtils.getOffer(Arrays.asList(
+                ResourceTestUtils.getUnreservedCpus(0.1),
+                ResourceTestUtils.getUnreservedCpus(0.1),
+                ResourceTestUtils.getUnreservedCpus(0.1)));
+        Assert.assertTrue(filter.evaluate(offer).isPassing());
+    }
+
+    @Test
+    public void testNoRequirements() {
+        ResourceTotalsFilter filter = ResourceTotalsFilter.forResourceSets(
+                Collections.emptyList(), Collections.emptyList());
+        Assert.assertTrue(filter.evaluate(OfferTestUtils.getEmptyOfferBuilder().build()).isPassing());
+    }
+
+    private static ResourceTotalsFilter getFilter(PodSpec podSpec) {
+        List<ResourceSet> resourceSets = podSpec.getTasks().stream()
+                .map(TaskSpec::getResourceSet)
+                .collect(Collectors.toList());
+        return ResourceTotalsFilter.forResourceSets(resourceSets, podSpec.getVolumes());
+    }
+}
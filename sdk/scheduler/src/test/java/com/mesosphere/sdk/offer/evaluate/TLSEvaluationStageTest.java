@@ -6,6 +6,7 @@ import com.mesosphere.sdk.offer.InvalidRequirementException;
 import com.mesosphere.sdk.offer.MesosResourcePool;
 import com.mesosphere.sdk.offer.evaluate.security.TLSArtifact;
 import com.mesosphere.sdk.offer.evaluate.security.TLSArtifactPaths;
+import com.mesosphere.sdk.offer.evaluate.security.TLSArtifactsProvisioner;
 import com.mesosphere.sdk.offer.evaluate.security.TLSArtifactsUpdater;
 import com.mesosphere.sdk.scheduler.SchedulerConfig;
 import com.mesosphere.sdk.scheduler.plan.DefaultPodInstance;
@@ -37,6 +38,7 @@ public class TLSEvaluationStageTest {
 
     private TLSArtifactPaths tlsArtifactPaths;
     private TLSEvaluationStage tlsEvaluationStage;
+    private List<Runnable> queuedProvisioning;
 
     @Before
     public void init() throws Exception {
@@ -50,11 +52,19 @@ public class TLSEvaluationStageTest {
                 "test-namespace",
                 TestConstants.POD_TYPE + "-" + TestConstants.TASK_INDEX + "-" + TestConstants.TASK_NAME,
                 sanHash);
+        // Provisioning is run inline, unless a test queues it to be run later:
+        queuedProvisioning = null;
         tlsEvaluationStage = new TLSEvaluationStage(
                 TestConstants.SERVICE_NAME,
                 TestConstants.TASK_NAME,
                 "test-namespace",
-                mockTLSArtifactsUpdater,
+                new TLSArtifactsProvisioner(mockTLSArtifactsUpdater, runnable -> {
+                    if (queuedProvisioning == null) {
+                        runnable.run();
+                    } else {
+                        queuedProvisioning.add(runnable);
+                    }
+                }),
                 mockSchedulerConfig);
     }
 
@@ -209,6 +219,51 @@ public class TLSEvaluationStageTest {
                 new MesosResourcePool(offer, Optional.of(Constants.ANY_ROLE)),
                 podInfoBuilder);
         Assert.assertFalse(outcome.isPassing());
+
+        // The failure was reported, so the next evaluation tries again:
+        outcome = tlsEvaluationStage.evaluate(
+                new MesosResourcePool(offer, Optional.of(Constants.ANY_ROLE)),
+                podInfoBuilder);
+        Assert.assertFalse(outcome.isPassing());
+        verify(mockTLSArtifactsUpdater, times(2)).update(Matchers.any(), Matchers.any(), Matchers.any());
+    }
+
+    @Test
+    public void testProvisioningInProgress() throws Exception {
+        queuedProvisioning = new ArrayList<>();
+
+        ArrayList<TransportEncryptionSpec> transportEncryptionSpecs = new ArrayList<>();
+        transportEncryptionSpecs.add(new DefaultTransportEncryptionSpec
+                .Builder()
+                .name("test-tls")
+                .type(TransportEncryptionSpec.Type.TLS)
+                .build());
+
+        Protos.Offer offer = OfferTestUtils.getOffer(ResourceTestUtils.getUnreservedCpus(2.0));
+        PodInfoBuilder podInfoBuilder = getPodInfoBuilderForTransportEncryption(transportEncryptionSpecs);
+
+        EvaluationOutcome outcome = tlsEvaluationStage.evaluate(
+                new MesosResourcePool(offer, Optional.of(Constants.ANY_ROLE)),
+                podInfoBuilder);
+        Assert.assertFalse(outcome.isPassing());
+        Assert.assertEquals(1, queuedProvisioning.size());
+        verifyZeroInteractions(mockTLSArtifactsUpdater);
+
+        // Evaluating again doesn't start a second provisioning:
+        outcome = tlsEvaluationStage.evaluate(
+                new MesosResourcePool(offer, Optional.of(Constants.ANY_ROLE)),
+                podInfoBuilder);
+        Assert.assertFalse(outcome.isPassing());
+        Assert.assertEquals(1, queuedProvisioning.size());
+
+        queuedProvisioning.get(0).run();
+        outcome = tlsEvaluationStage.evaluate(
+                new MesosResourcePool(offer, Optional.of(Constants.ANY_ROLE)),
+                podInfoBuilder);
+        Assert.assertTrue(outcome.isPassing());
+        verify(mockTLSArtifactsUpdater).update(Matchers.any(), Matchers.any(), Matchers.eq("test-tls"));
+        assertTLSArtifacts(
+                podInfoBuilder.getTaskBuilder(TestConstants.TASK_NAME).getContainer(), tlsArtifactPaths, "test-tls");
     }
 
     private void assertTLSArtifacts(Protos.ContainerInfo container, TLSArtifactPaths secretPaths, String encryptionSpecName) {
@@ -0,0 +1,134 @@
+package com.mesosphere.sdk.offer.evaluate.placement;
+
+import com.mesosphere.sdk.offer.CommonIdUtils;
+import com.mesosphere.sdk.offer.evaluate.EvaluationOutcome;
+import com.mesosphere.sdk.offer.taskdata.TaskLabelWriter;
+import com.mesosphere.sdk.scheduler.plan.PodInstanceRequirementTestUtils;
+import com.mesosphere.sdk.specification.PodInstance;
+import com.mesosphere.sdk.testutils.DefaultCapabilitiesTestSuite;
+import com.mesosphere.sdk.testutils.OfferTestUtils;
+import com.mesosphere.sdk.testutils.TaskTestUtils;
+import com.mesosphere.sdk.testutils.TestConstants;
+import org.apache.mesos.Protos;
+import org.apache.mesos.Protos.Offer;
+import org.apache.mesos.Protos.TaskInfo;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link PlacementRuleCompiler} and {@link CachedOfferRule}.
+ */
+public class PlacementRuleCompilerTest extends DefaultCapabilitiesTestSuite {
+
+    private static final PlacementRule HOSTNAME_RULE = HostnameRuleFactory.getInstance().require(
+            RegexMatcher.create("host-[0-3]"));
+    private static final PlacementRule ATTRIBUTE_RULE = new NotRule(
+            AttributeRuleFactory.getInstance().require(ExactMatcher.create("rack:rack-2")));
+    private static final PlacementRule MAX_PER_RULE = new MaxPerHostnameRule(2, AnyMatcher.create());
+
+    @Test
+    public void testOfferOnlyRules() {
+        assertTrue(PlacementRuleCompiler.isOfferOnly(HOSTNAME_RULE));
+        assertTrue(PlacementRuleCompiler.isOfferOnly(ATTRIBUTE_RULE));
+        assertTrue(PlacementRuleCompiler.isOfferOnly(new OrRule(HOSTNAME_RULE, ATTRIBUTE_RULE)));
+        assertTrue(PlacementRuleCompiler.isOfferOnly(new PassthroughRule()));
+        assertFalse(PlacementRuleCompiler.isOfferOnly(MAX_PER_RULE));
+        assertFalse(PlacementRuleCompiler.isOfferOnly(new AndRule(HOSTNAME_RULE, MAX_PER_RULE)));
+        assertFalse(PlacementRuleCompiler.isOfferOnly(new NotRule(TaskTypeRule.avoid("other"))));
+    }
+
+    @Test
+    public void testCompileSplitsTree() {
+        PlacementRule compiled = PlacementRuleCompiler.compile(
+                new AndRule(HOSTNAME_RULE, ATTRIBUTE_RULE, MAX_PER_RULE));
+        assertTrue(compiled instanceof AndRule);
+        List<PlacementRule> children = new ArrayList<>(((AndRule) compiled).getRules());
+        assertEquals(3, children.size());
+        assertTrue(children.get(0) instanceof CachedOfferRule);
+        assertTrue(children.get(1) instanceof CachedOfferRule);
+        // Task-dependent rules are left as-is:
+        assertSame(MAX_PER_RULE, children.get(2));
+
+        assertSame(MAX_PER_RULE, PlacementRuleCompiler.compile(MAX_PER_RULE));
+        assertTrue(PlacementRuleCompiler.compile(new OrRule(HOSTNAME_RULE, ATTRIBUTE_RULE)) instanceof CachedOfferRule);
+    }
+
+    @Test
+    public void testOutcomeCachedPerAgent() throws Exception {
+        PlacementRule compiled = PlacementRuleCompiler.compile(HOSTNAME_RULE);
+        PodInstance podInstance = getPodInstance(0);
+
+        EvaluationOutcome outcome = compiled.filter(getOffer("host-1", "rack-1"), podInstance, Collections.emptyList());
+        assertTrue(outcome.isPassing());
+        // A later offer from the same agent gets the same outcome without re-evaluating:
+        assertSame(outcome, compiled.filter(getOffer("host-1", "rack-1"), podInstance, Collections.emptyList()));
+
+        // Offers from other agents are evaluated:
+        assertFalse(compiled.filter(getOffer("host-5", "rack-1"), podInstance, Collections.emptyList()).isPassing());
+        assertNotSame(outcome, compiled.filter(getOffer("host-2", "rack-1"), podInstance, Collections.emptyList()));
+    }
+
+    @Test
+    public void testSameOutcomesAsInterpretedRules() throws Exception {
+        PlacementRule rule = MarathonConstraintParser.parse(
+                TestConstants.POD_TYPE,
+                "[[\"hostname\", \"LIKE\", \"host-[0-5]\"], [\"rack\", \"UNLIKE\", \"rack-2\"], "
+                        + "[\"hostname\", \"MAX_PER\", \"2\"]]");
+        PlacementRule compiled = PlacementRuleCompiler.compile(rule);
+
+        Random random = new Random(0);
+        List<TaskInfo> tasks = new ArrayList<>();
+        for (int i = 0; i < 10; ++i) {
+            tasks.add(getTask(i, "host-" + random.nextInt(8)));
+        }
+
+        int passed = 0;
+        for (int round = 0; round < 2; ++round) {
+            for (int podIndex = 0; podIndex < 12; podIndex += 2) {
+                PodInstance podInstance = getPodInstance(podIndex);
+                for (int host = 0; host < 8; ++host) {
+                    Offer offer = getOffer("host-" + host, "rack-" + (host % 3));
+                    EvaluationOutcome expected = rule.filter(offer, podInstance, tasks);
+                    EvaluationOutcome actual = compiled.filter(offer, podInstance, tasks);
+                    assertEquals(expected.isPassing(), actual.isPassing());
+                    assertEquals(expected.toString(), actual.toString());
+                    passed += expected.isPassing() ? 1 : 0;
+                }
+            }
+        }
+        // Sanity check that the scenario exercises both outcomes:
+        assertTrue(passed > 0);
+        assertTrue(passed < 2 * 6 * 8);
+    }
+
+    private static TaskInfo getTask(int index, String hostname) {
+        String name = String.format("%s-%d-%s", TestConstants.POD_TYPE, index, TestConstants.TASK_NAME);
+        TaskInfo.Builder taskBuilder = TaskTestUtils.getTaskInfo(Collections.emptyList()).toBuilder()
+                .setName(name)
+                .setTaskId(CommonIdUtils.toTaskId(TestConstants.SERVICE_NAME, name));
+        taskBuilder.setLabels(new TaskLabelWriter(taskBuilder)
+                .setType(TestConstants.POD_TYPE)
+                .setIndex(index)
+                .setHostname(getOffer(hostname, "rack-0"))
+                .toProto());
+        return taskBuilder.build();
+    }
+
+    private static Offer getOffer(String hostname, String rack) {
+        Offer.Builder offerBuilder = OfferTestUtils.getEmptyOfferBuilder()
+                .setHostname(hostname)
+                .setSlaveId(Protos.SlaveID.newBuilder().setValue("agent-" + hostname));
+        offerBuilder.addAttributesBuilder()
+                .setName("rack")
+                .setType(Protos.Value.Type.TEXT)
+                .getTextBuilder().setValue(rack);
+        return offerBuilder.build();
+    }
+
+    private static PodInstance getPodInstance(int index) throws Exception {
+        return PodInstanceRequirementTestUtils.getCpuRequirement(1.0, index).getPodInstance();
+    }
+}
@@ -0,0 +1,112 @@
+package com.mesosphere.sdk.offer.evaluate.placement;
+
+import com.mesosphere.sdk.offer.CommonIdUtils;
+import com.mesosphere.sdk.offer.taskdata.TaskLabelWriter;
+import com.mesosphere.sdk.scheduler.plan.PodInstanceRequirementTestUtils;
+import com.mesosphere.sdk.specification.PodInstance;
+import com.mesosphere.sdk.testutils.DefaultCapabilitiesTestSuite;
+import com.mesosphere.sdk.testutils.OfferTestUtils;
+import com.mesosphere.sdk.testutils.TaskTestUtils;
+import com.mesosphere.sdk.testutils.TestConstants;
+import org.apache.mesos.Protos.Offer;
+import org.apache.mesos.Protos.TaskInfo;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for {@link PlacementTaskIndex}.
+ */
+public class PlacementTaskIndexTest extends DefaultCapabilitiesTestSuite {
+
+    @Test
+    public void testOfReusesIndex() {
+        List<TaskInfo> tasks = Arrays.asList(getTask(0, "host-0"), getTask(1, "host-1"));
+        PlacementTaskIndex index = PlacementTaskIndex.of(tasks);
+        assertSame(index, PlacementTaskIndex.of(index));
+        assertEquals(tasks, new ArrayList<>(index));
+    }
+
+    @Test
+    public void testTasksScannedOncePerRule() throws Exception {
+        List<TaskInfo> tasks = new ArrayList<>();
+        for (int i = 0; i < 10; ++i) {
+            tasks.add(getTask(i, "host-" + (i % 3)));
+        }
+        PlacementTaskIndex index = new PlacementTaskIndex(tasks);
+        MaxPerHostnameRule rule = spy(new MaxPerHostnameRule(4, AnyMatcher.create()));
+        // A pod instance with no tasks of its own in the index:
+        PodInstance podInstance = getPodInstance(100);
+
+        for (int i = 0; i < 3; ++i) {
+            rule.filter(getOffer("host-" + i), podInstance, index);
+        }
+        verify(rule, times(tasks.size())).getKeys(any(TaskInfo.class));
+    }
+
+    @Test
+    public void testSameDecisionsAsUnindexedTasks() throws Exception {
+        Random random = new Random(0);
+        List<TaskInfo> tasks = new ArrayList<>();
+        for (int i = 0; i < 50; ++i) {
+            tasks.add(getTask(i, "host-" + random.nextInt(8)));
+        }
+        PlacementTaskIndex index = new PlacementTaskIndex(tasks);
+        List<PlacementRule> rules = Arrays.asList(
+                new MaxPerHostnameRule(6, AnyMatcher.create()),
+                new MaxPerHostnameRule(7, RegexMatcher.create(".*-1.*")),
+                new RoundRobinByHostnameRule(Optional.of(8)),
+                new RoundRobinByHostnameRule(Optional.empty(), RegexMatcher.create(".*-2.*")),
+                new AndRule(
+                        new MaxPerHostnameRule(7, AnyMatcher.create()),
+                        new RoundRobinByHostnameRule(Optional.empty())));
+
+        int passed = 0;
+        for (PlacementRule rule : rules) {
+            for (int podIndex = 0; podIndex < 60; podIndex += 3) {
+                PodInstance podInstance = getPodInstance(podIndex);
+                for (int host = 0; host < 9; ++host) {
+                    Offer offer = getOffer("host-" + host);
+                    boolean expected = rule.filter(offer, podInstance, new ArrayList<>(tasks)).isPassing();
+                    assertEquals(
+                            String.format("%s pod %d host %d", rule, podIndex, host),
+                            expected,
+                            rule.filter(offer, podInstance, index).isPassing());
+                    passed += expected ? 1 : 0;
+                }
+            }
+        }
+        // Sanity check that the scenario exercises both outcomes:
+        assertTrue(passed > 0);
+        assertTrue(passed < rules.size() * 20 * 9);
+    }
+
+    private static TaskInfo getTask(int index, String hostname) {
+        String name = String.format("%s-%d-%s", TestConstants.POD_TYPE, index, TestConstants.TASK_NAME);
+        TaskInfo.Builder taskBuilder = TaskTestUtils.getTaskInfo(Collections.emptyList()).toBuilder()
+                .setName(name)
+                .setTaskId(CommonIdUtils.toTaskId(TestConstants.SERVICE_NAME, name));
+        taskBuilder.setLabels(new TaskLabelWriter(taskBuilder)
+                .setType(TestConstants.POD_TYPE)
+                .setIndex(index)
+                .setHostname(getOffer(hostname))
+                .toProto());
+        return taskBuilder.build();
+    }
+
+    private static Offer getOffer(String hostname) {
+        return OfferTestUtils.getEmptyOfferBuilder().setHostname(hostname).build();
+    }
+
+    private static PodInstance getPodInstance(int index) throws Exception {
+        return PodInstanceRequirementTestUtils.getCpuRequirement(1.0, index).getPodInstance();
+    }
+}
@@ -0,0 +1,90 @@
+package com.mesosphere.sdk.offer.evaluate.security;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.security.KeyPair;
+import java.security.interfaces.RSAPublicKey;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for {@link KeyPairPool}.
+ */
+public class KeyPairPoolTest {
+
+    @Test
+    public void testPoolFillsToSize() throws Exception {
+        AtomicInteger generated = new AtomicInteger();
+        KeyPairPool pool = new KeyPairPool(() -> {
+            generated.incrementAndGet();
+            return new KeyPair(null, null);
+        }, 3);
+        try {
+            awaitPooled(pool, 3);
+            // The pool thread waits for room after generating one more keypair:
+            Thread.sleep(100);
+            Assert.assertEquals(3, pool.getPooledCount());
+            Assert.assertTrue(generated.get() <= 4);
+
+            pool.take();
+            // Taking a keypair makes room for another:
+            awaitPooled(pool, 3);
+            Assert.assertTrue(generated.get() >= 4);
+        } finally {
+            pool.stop();
+            Assert.assertTrue(pool.awaitStopped(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testInlineGenerationWhenEmpty() {
+        AtomicInteger generated = new AtomicInteger();
+        KeyPairPool pool = new KeyPairPool(() -> {
+            generated.incrementAndGet();
+            return new KeyPair(null, null);
+        }, 0);
+        Assert.assertNotNull(pool.take());
+        Assert.assertNotNull(pool.take());
+        Assert.assertEquals(2, generated.get());
+        Assert.assertEquals(0, pool.getPooledCount());
+    }
+
+    @Test
+    public void testGenerationFailureRetried() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        KeyPairPool pool = new KeyPairPool(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("test");
+            }
+            return new KeyPair(null, null);
+        }, 1);
+        try {
+            awaitPooled(pool, 1);
+            Assert.assertTrue(attempts.get() >= 2);
+        } finally {
+            pool.stop();
+        }
+    }
+
+    @Test
+    public void testKeySize() throws Exception {
+        KeyPairPool pool = new KeyPairPool(1024, 1);
+        try {
+            // Taken from the pool if it's been filled, or otherwise generated inline:
+            Assert.assertEquals(1024, ((RSAPublicKey) pool.take().getPublic()).getModulus().bitLength());
+            awaitPooled(pool, 1);
+            Assert.assertEquals(1024, ((RSAPublicKey) pool.take().getPublic()).getModulus().bitLength());
+        } finally {
+            pool.stop();
+        }
+    }
+
+    private static void awaitPooled(KeyPairPool pool, int count) throws InterruptedException {
+        long deadlineMs = System.currentTimeMillis() + 30000;
+        while (pool.getPooledCount() < count) {
+            Assert.assertTrue("Timed out waiting for pool to fill", System.currentTimeMillis() < deadlineMs);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.mesosphere.sdk.offer.evaluate.security;
+
+import com.mesosphere.sdk.testutils.TestConstants;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Tests for {@link TLSArtifactsProvisioner}.
+ */
+public class TLSArtifactsProvisionerTest {
+
+    private static final String SPEC_NAME = "spec-name";
+
+    @Mock private TLSArtifactsUpdater mockTLSArtifactsUpdater;
+    @Mock private CertificateNamesGenerator mockCertificateNamesGenerator;
+
+    private TLSArtifactPaths tlsArtifactPaths;
+    private List<Runnable> queuedProvisioning;
+    private TLSArtifactsProvisioner tlsArtifactsProvisioner;
+
+    @Before
+    public void init() {
+        MockitoAnnotations.initMocks(this);
+        tlsArtifactPaths = new TLSArtifactPaths(TestConstants.SERVICE_NAME, "pod-0-task", "sans-hash");
+        queuedProvisioning = new ArrayList<>();
+        tlsArtifactsProvisioner = new TLSArtifactsProvisioner(mockTLSArtifactsUpdater, queuedProvisioning::add);
+    }
+
+    @Test
+    public void testProvisionOnce() throws Exception {
+        CompletableFuture<Void> provisioning =
+                tlsArtifactsProvisioner.provision(tlsArtifactPaths, mockCertificateNamesGenerator, SPEC_NAME);
+        Assert.assertSame(provisioning,
+                tlsArtifactsProvisioner.provision(tlsArtifactPaths, mockCertificateNamesGenerator, SPEC_NAME));
+        Assert.assertEquals(1, queuedProvisioning.size());
+        Assert.assertFalse(provisioning.isDone());
+        Assert.assertTrue(tlsArtifactsProvisioner.isProvisioning(tlsArtifactPaths, SPEC_NAME));
+
+        queuedProvisioning.get(0).run();
+        Assert.assertTrue(provisioning.isDone());
+        Assert.assertFalse(provisioning.isCompletedExceptionally());
+        Assert.assertFalse(tlsArtifactsProvisioner.isProvisioning(tlsArtifactPaths, SPEC_NAME));
+        verify(mockTLSArtifactsUpdater, only()).update(tlsArtifactPaths, mockCertificateNamesGenerator, SPEC_NAME);
+
+        // Successful provisioning is retained:
+        tlsArtifactsProvisioner.reset(tlsArtifactPaths, SPEC_NAME);
+        Assert.assertSame(provisioning,
+                tlsArtifactsProvisioner.provision(tlsArtifactPaths, mockCertificateNamesGenerator, SPEC_NAME));
+        Assert.assertEquals(1, queuedProvisioning.size());
+    }
+
+    @Test
+    public void testProvisionVerifiesAgainAfterInterval() throws Exception {
+        tlsArtifactsProvisioner =
+                new TLSArtifactsProvisioner(mockTLSArtifactsUpdater, queuedProvisioning::add, Duration.ZERO);
+        CompletableFuture<Void> provisioning =
+                tlsArtifactsProvisioner.provision(tlsArtifactPaths, mockCertificateNamesGenerator, SPEC_NAME);
+        // In-progress provisioning isn't restarted:
+        Assert.assertSame(provisioning,
+                tlsArtifactsProvisioner.provision(tlsArtifactPaths, mockCertificateNamesGenerator, SPEC_NAME));
+        queuedProvisioning.get(0).run();
+        Assert.assertTrue(provisioning.isDone());
+
+        // Evaluation uses the completed provisioning as-is:
+        Assert.assertSame(provisioning,
+                tlsArtifactsProvisioner.getProvisioning(tlsArtifactPaths, mockCertificateNamesGenerator, SPEC_NAME));
+        Assert.assertEquals(1, queuedProvisioning.size());
+
+        // Once the task is a candidate again, the artifacts are verified again, e.g. in case they were deleted:
+        CompletableFuture<Void> verification =
+                tlsArtifactsProvisioner.provision(tlsArtifactPaths, mockCertificateNamesGenerator, SPEC_NAME);
+        Assert.assertNotSame(provisioning, verification);
+        Assert.assertFalse(verification.isDone());
+        // Evaluation keeps using the prior provisioning until the verification has finished:
+        Assert.assertFalse(tlsArtifactsProvisioner.isProvisioning(tlsArtifactPaths, SPEC_NAME));
+        Assert.assertSame(provisioning,
+                tlsArtifactsProvisioner.getProvisioning(tlsArtifactPaths, mockCertificateNamesGenerator, SPEC_NAME));
+        queuedProvisioning.get(1).run();
+        Assert.assertTrue(verification.isDone());
+        Assert.assertSame(verification,
+                tlsArtifactsProvisioner.getProvisioning(tlsArtifactPaths, mockCertificateNamesGenerator, SPEC_NAME));
+        verify(mockTLSArtifactsUpdater, times(2)).update(tlsArtifactPaths, mockCertificateNamesGenerator, SPEC_NAME);
+    }
+
+    @Test
+    public void testFailedVerificationIsReported() throws Exception {
+        tlsArtifactsProvisioner =
+                new TLSArtifactsProvisioner(mockTLSArtifactsUpdater, queuedProvisioning::add, Duration.ZERO);
+        CompletableFuture<Void> provisioning =
+                tlsArtifactsProvisioner.provision(tlsArtifactPaths, mockCertificateNamesGenerator, SPEC_NAME);
+        queuedProvisioning.get(0).run();
+
+        doThrow(new IOException("test")).when(mockTLSArtifactsUpdater).update(any(), any(), any());
+        CompletableFuture<Void> verification =
+                tlsArtifactsProvisioner.provision(tlsArtifactPaths, mockCertificateNamesGenerator, SPEC_NAME);
+        Assert.assertSame(provisioning,
+                tlsArtifactsProvisioner.getProvisioning(tlsArtifactPaths, mockCertificateNamesGenerator, SPEC_NAME));
+        queuedProvisioning.get(1).run();
+
+        // The failure replaces the prior provisioning, and is retried once it has been reported:
+        Assert.assertSame(verification,
+                tlsArtifactsProvisioner.getProvisioning(tlsArtifactPaths, mockCertificateNamesGenerator, SPEC_NAME));
+        Assert.assertTrue(verification.isCompletedExceptionally());
+        tlsArtifactsProvisioner.reset(tlsArtifactPaths, SPEC_NAME);
+        tlsArtifactsProvisioner.provision(tlsArtifactPaths, mockCertificateNamesGenerator, SPEC_NAME);
+        Assert.assertEquals(3, queuedProvisioning.size());
+        Assert.assertTrue(tlsArtifactsProvisioner.isProvisioning(tlsArtifactPaths, SPEC_NAME));
+    }
+
+    @Test
+    public void testChangedSANsReplaceProvisioning() {
+        CompletableFuture<Void> provisioning =
+                tlsArtifactsProvisioner.provision(tlsArtifactPaths, mockCertificateNamesGenerator, SPEC_NAME);
+        queuedProvisioning.get(0).run();
+
+        TLSArtifactPaths changedPaths =
+                new TLSArtifactPaths(TestConstants.SERVICE_NAME, "pod-0-task", "other-sans-hash");
+        CompletableFuture<Void> changedProvisioning =
+                tlsArtifactsProvisioner.getProvisioning(changedPaths, mockCertificateNamesGenerator, SPEC_NAME);
+        Assert.assertNotSame(provisioning, changedProvisioning);
+        Assert.assertTrue(tlsArtifactsProvisioner.isProvisioning(changedPaths, SPEC_NAME));
+        // The prior entry was replaced rather than retained alongside the new one:
+        Assert.assertFalse(tlsArtifactsProvisioner.isProvisioning(tlsArtifactPaths, SPEC_NAME));
+        Assert.assertNotSame(provisioning,
+                tlsArtifactsProvisioner.provision(tlsArtifactPaths, mockCertificateNamesGenerator, SPEC_NAME));
+        Assert.assertEquals(3, queuedProvisioning.size());
+    }
+
+    @Test
+    public void testProvisioningIsTrackedPerSpec() {
+        tlsArtifactsProvisioner.provision(tlsArtifactPaths, mockCertificateNamesGenerator, SPEC_NAME);
+        tlsArtifactsProvisioner.provision(tlsArtifactPaths, mockCertificateNamesGenerator, "other-spec");
+        queuedProvisioning.get(0).run();
+        Assert.assertFalse(tlsArtifactsProvisioner.isProvisioning(tlsArtifactPaths, SPEC_NAME));
+        Assert.assertTrue(tlsArtifactsProvisioner.isProvisioning(tlsArtifactPaths, "other-spec"));
+    }
+
+    @Test
+    public void testSpecsProvisionedSeparately() {
+        tlsArtifactsProvisioner.provision(tlsArtifactPaths, mockCertificateNamesGenerator, SPEC_NAME);
+        tlsArtifactsProvisioner.provision(tlsArtifactPaths, mockCertificateNamesGenerator, "other-spec");
+        tlsArtifactsProvisioner.provision(
+                new TLSArtifactPaths(TestConstants.SERVICE_NAME, "pod-0-task", "other-sans-hash"),
+                mockCertificateNamesGenerator,
+                SPEC_NAME);
+        Assert.assertEquals(3, queuedProvisioning.size());
+    }
+
+    @Test
+    public void testResetFailure() throws Exception {
+        doThrow(new IOException("test")).when(mockTLSArtifactsUpdater).update(any(), any(), any());
+
+        CompletableFuture<Void> provisioning =
+                tlsArtifactsProvisioner.provision(tlsArtifactPaths, mockCertificateNamesGenerator, SPEC_NAME);
+        // In-progress provisioning isn't affected by a reset:
+        tlsArtifactsProvisioner.reset(tlsArtifactPaths, SPEC_NAME);
+        queuedProvisioning.get(0).run();
+        Assert.assertTrue(provisioning.isCompletedExceptionally());
+        Assert.assertFalse(tlsArtifactsProvisioner.isProvisioning(tlsArtifactPaths, SPEC_NAME));
+
+        // The failure is retained until it's reset:
+        Assert.assertSame(provisioning,
+                tlsArtifactsProvisioner.provision(tlsArtifactPaths, mockCertificateNamesGenerator, SPEC_NAME));
+        tlsArtifactsProvisioner.reset(tlsArtifactPaths, SPEC_NAME);
+        Assert.assertNotSame(provisioning,
+                tlsArtifactsProvisioner.provision(tlsArtifactPaths, mockCertificateNamesGenerator, SPEC_NAME));
+        Assert.assertEquals(2, queuedProvisioning.size());
+    }
+}
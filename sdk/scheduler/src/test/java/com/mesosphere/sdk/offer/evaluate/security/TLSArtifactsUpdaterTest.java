@@ -3,6 +3,7 @@ package com.mesosphere.sdk.offer.evaluate.security;
 import com.mesosphere.sdk.dcos.clients.SecretsClient;
 import com.mesosphere.sdk.testutils.TestConstants;
 
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
@@ -11,6 +12,7 @@ import org.mockito.MockitoAnnotations;
 import static org.mockito.Mockito.*;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -35,6 +37,7 @@ public class TLSArtifactsUpdaterTest {
     @Mock private TLSArtifactPaths mockTLSArtifactPaths;
 
     private TLSArtifactsUpdater tlsArtifactsUpdater;
+    private long currentTimeMs;
 
     @Before
     public void init() {
@@ -42,7 +45,14 @@ public class TLSArtifactsUpdaterTest {
         when(mockTLSArtifactPaths.getTaskSecretsNamespace()).thenReturn(TestConstants.SERVICE_NAME);
         when(mockTLSArtifactPaths.getAllNames(SPEC_NAME)).thenReturn(Arrays.asList("secret1", "secret2", "secret3"));
         when(mockTLSArtifactPaths.getSecretStorePath(any(), eq(SPEC_NAME))).thenReturn("a-secret-path");
-        tlsArtifactsUpdater = new TLSArtifactsUpdater(TestConstants.SERVICE_NAME, mockSecretsClient, mockTLSArtifactsGenerator);
+        currentTimeMs = 0;
+        tlsArtifactsUpdater = new TLSArtifactsUpdater(
+                TestConstants.SERVICE_NAME, mockSecretsClient, mockTLSArtifactsGenerator, Duration.ofSeconds(30)) {
+            @Override
+            protected long getCurrentTimeMillis() {
+                return currentTimeMs;
+            }
+        };
     }
 
     @Test
@@ -117,6 +127,59 @@ public class TLSArtifactsUpdaterTest {
         verifyNoMoreInteractions(mockSecretsClient);
     }
 
+    @Test
+    public void testListingReusedWithinTTL() throws Exception {
+        when(mockSecretsClient.list(TestConstants.SERVICE_NAME))
+                .thenReturn(Arrays.asList("secret1", "secret2", "secret3"));
+
+        tlsArtifactsUpdater.update(mockTLSArtifactPaths, mockCertificateNamesGenerator, SPEC_NAME);
+        currentTimeMs += 29999;
+        tlsArtifactsUpdater.update(mockTLSArtifactPaths, mockCertificateNamesGenerator, SPEC_NAME);
+        verify(mockSecretsClient, times(1)).list(TestConstants.SERVICE_NAME);
+
+        currentTimeMs += 1;
+        tlsArtifactsUpdater.update(mockTLSArtifactPaths, mockCertificateNamesGenerator, SPEC_NAME);
+        verify(mockSecretsClient, times(2)).list(TestConstants.SERVICE_NAME);
+        verifyZeroInteractions(mockTLSArtifactsGenerator);
+    }
+
+    @Test
+    public void testListingUpdatedWithCreatedSecrets() throws Exception {
+        when(mockSecretsClient.list(TestConstants.SERVICE_NAME)).thenReturn(Collections.emptyList());
+        when(mockTLSArtifactsGenerator.generate(mockCertificateNamesGenerator)).thenReturn(GENERATED_ARTIFACTS);
+        TLSArtifactPaths otherPaths = mock(TLSArtifactPaths.class);
+        when(otherPaths.getTaskSecretsNamespace()).thenReturn(TestConstants.SERVICE_NAME);
+        when(otherPaths.getAllNames(SPEC_NAME)).thenReturn(Arrays.asList("secret4", "secret5"));
+        when(otherPaths.getSecretStorePath(any(), eq(SPEC_NAME))).thenReturn("a-secret-path");
+
+        tlsArtifactsUpdater.update(mockTLSArtifactPaths, mockCertificateNamesGenerator, SPEC_NAME);
+        tlsArtifactsUpdater.update(otherPaths, mockCertificateNamesGenerator, SPEC_NAME);
+        verify(mockSecretsClient, times(1)).list(TestConstants.SERVICE_NAME);
+        verify(mockTLSArtifactsGenerator, times(2)).generate(mockCertificateNamesGenerator);
+
+        // Both tasks' secrets are now found in the cached listing, without listing or generating again:
+        tlsArtifactsUpdater.update(mockTLSArtifactPaths, mockCertificateNamesGenerator, SPEC_NAME);
+        tlsArtifactsUpdater.update(otherPaths, mockCertificateNamesGenerator, SPEC_NAME);
+        verify(mockSecretsClient, times(1)).list(TestConstants.SERVICE_NAME);
+        verify(mockTLSArtifactsGenerator, times(2)).generate(mockCertificateNamesGenerator);
+    }
+
+    @Test
+    public void testListingDroppedOnFailedWrite() throws Exception {
+        when(mockSecretsClient.list(TestConstants.SERVICE_NAME)).thenReturn(Collections.emptyList());
+        when(mockTLSArtifactsGenerator.generate(mockCertificateNamesGenerator)).thenReturn(GENERATED_ARTIFACTS);
+        doThrow(new IOException("test")).doNothing().when(mockSecretsClient).create(any(), any());
+
+        try {
+            tlsArtifactsUpdater.update(mockTLSArtifactPaths, mockCertificateNamesGenerator, SPEC_NAME);
+            Assert.fail("Expected exception");
+        } catch (IOException e) {
+            // expected
+        }
+        tlsArtifactsUpdater.update(mockTLSArtifactPaths, mockCertificateNamesGenerator, SPEC_NAME);
+        verify(mockSecretsClient, times(2)).list(TestConstants.SERVICE_NAME);
+    }
+
     private void verifyGeneratedSecretsAdded(SecretsClient mockSecretsClient) throws IOException {
         for (Map.Entry<TLSArtifact, String> entry : GENERATED_ARTIFACTS.entrySet()) {
             verify(mockSecretsClient).create(
@@ -0,0 +1,93 @@
+package com.mesosphere.sdk.scheduler;
+
+import com.mesosphere.sdk.testutils.OfferTestUtils;
+import org.apache.mesos.Protos;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * This class tests the {@link DeclinedAgentTracker} class.
+ */
+public class DeclinedAgentTrackerTest {
+
+    private static final long DECLINE_DURATION_MS = 1000;
+
+    private long currentTimeMs;
+    private DeclinedAgentTracker tracker;
+
+    @Before
+    public void beforeEach() {
+        currentTimeMs = 0;
+        tracker = new DeclinedAgentTracker(DECLINE_DURATION_MS) {
+            @Override
+            protected long getCurrentTimeMillis() {
+                return currentTimeMs;
+            }
+        };
+    }
+
+    @Test
+    public void testAnyMatchBeforeFirstRevive() {
+        // Filters from before the first revive aren't known:
+        Assert.assertTrue(tracker.anyDeclinedOfferMatches(offer -> false));
+        tracker.recordRevived();
+        Assert.assertFalse(tracker.anyDeclinedOfferMatches(offer -> true));
+    }
+
+    @Test
+    public void testDeclinedOffersMatched() {
+        tracker.recordRevived();
+        Protos.Offer agent1Offer = getOffer("agent-1");
+        Protos.Offer agent2Offer = getOffer("agent-2");
+        tracker.recordDeclined(Arrays.asList(agent1Offer, agent2Offer), DeclinedAgentTracker.Reason.UNSUITABLE);
+
+        Assert.assertTrue(tracker.anyDeclinedOfferMatches(offer -> offer.equals(agent2Offer)));
+        Assert.assertFalse(tracker.anyDeclinedOfferMatches(offer -> false));
+
+        // Reviving clears all filters:
+        tracker.recordRevived();
+        Assert.assertFalse(tracker.anyDeclinedOfferMatches(offer -> true));
+    }
+
+    @Test
+    public void testDeclinedOffersExpire() {
+        tracker.recordRevived();
+        tracker.recordDeclined(Collections.singletonList(getOffer("agent-1")), DeclinedAgentTracker.Reason.UNSUITABLE);
+        currentTimeMs = DECLINE_DURATION_MS / 2;
+        tracker.recordDeclined(Collections.singletonList(getOffer("agent-2")), DeclinedAgentTracker.Reason.UNSUITABLE);
+        Assert.assertEquals(2, (int) tracker.getAgentCounts().get(DeclinedAgentTracker.Reason.UNSUITABLE));
+
+        currentTimeMs = DECLINE_DURATION_MS;
+        Assert.assertEquals(1, (int) tracker.getAgentCounts().get(DeclinedAgentTracker.Reason.UNSUITABLE));
+        Assert.assertTrue(tracker.anyDeclinedOfferMatches(offer -> true));
+
+        currentTimeMs = DECLINE_DURATION_MS + DECLINE_DURATION_MS / 2;
+        Assert.assertTrue(tracker.getAgentCounts().isEmpty());
+        Assert.assertFalse(tracker.anyDeclinedOfferMatches(offer -> true));
+    }
+
+    @Test
+    public void testAgentCountsUseLatestReason() {
+        tracker.recordRevived();
+        tracker.recordDeclined(
+                Arrays.asList(getOffer("agent-1"), getOffer("agent-2")), DeclinedAgentTracker.Reason.NOT_EVALUATED);
+        tracker.recordDeclined(Collections.singletonList(getOffer("agent-1")), DeclinedAgentTracker.Reason.UNSUITABLE);
+        tracker.recordDeclined(
+                Arrays.asList(getOffer("agent-3"), getOffer("agent-3")), DeclinedAgentTracker.Reason.NOT_EVALUATED);
+
+        Map<DeclinedAgentTracker.Reason, Integer> counts = tracker.getAgentCounts();
+        Assert.assertEquals(1, (int) counts.get(DeclinedAgentTracker.Reason.UNSUITABLE));
+        Assert.assertEquals(2, (int) counts.get(DeclinedAgentTracker.Reason.NOT_EVALUATED));
+    }
+
+    private static Protos.Offer getOffer(String agentId) {
+        return OfferTestUtils.getEmptyOfferBuilder()
+                .setSlaveId(Protos.SlaveID.newBuilder().setValue(agentId))
+                .build();
+    }
+}
@@ -249,6 +249,16 @@ public class DefaultSchedulerTest {
                 getStepStatuses(plan));
     }
 
+    @Test
+    public void testUnsuitableOfferDeclinedLong() throws Exception {
+        Protos.Offer insufficientOffer = getInsufficientOfferForTaskA(UUID.randomUUID());
+        defaultScheduler.offers(Collections.singletonList(insufficientOffer));
+
+        ArgumentCaptor<Protos.Filters> filtersCaptor = ArgumentCaptor.forClass(Protos.Filters.class);
+        verify(mockSchedulerDriver, times(1)).declineOffer(eq(insufficientOffer.getId()), filtersCaptor.capture());
+        Assert.assertEquals(Constants.LONG_DECLINE_SECONDS, filtersCaptor.getValue().getRefuseSeconds(), 0.0);
+    }
+
     @Test
     public void updatePerTaskASpecification() throws InterruptedException, IOException, Exception {
         // Launch A and B in original configuration
@@ -1,9 +1,12 @@
 package com.mesosphere.sdk.scheduler;
 
 import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Timer;
 import com.mesosphere.sdk.offer.LaunchOfferRecommendation;
 import com.mesosphere.sdk.offer.OfferRecommendation;
+import com.mesosphere.sdk.offer.evaluate.OfferEvaluationStage;
 import com.mesosphere.sdk.testutils.OfferTestUtils;
 import com.mesosphere.sdk.testutils.TestConstants;
 import org.apache.mesos.Protos;
@@ -31,6 +34,24 @@ public class MetricsTest {
         Assert.assertEquals(5, counter.getCount() - val);
     }
 
+    @Test
+    public void incrementAcceptedOffers() {
+        Counter counter = Metrics.getRegistry().counter(Metrics.ACCEPTED_OFFERS);
+        long val = counter.getCount();
+        Metrics.incrementAcceptedOffers(5);
+        Assert.assertEquals(5, counter.getCount() - val);
+    }
+
+    @Test
+    public void processedOffersPerAccept() {
+        Gauge<?> gauge = Metrics.getRegistry().getGauges().get(Metrics.PROCESSED_OFFERS_PER_ACCEPT);
+        Metrics.incrementProcessedOffers(1);
+        Metrics.incrementAcceptedOffers(1);
+        double expected = (double) Metrics.getRegistry().counter(Metrics.PROCESSED_OFFERS).getCount()
+                / Metrics.getRegistry().counter(Metrics.ACCEPTED_OFFERS).getCount();
+        Assert.assertEquals(expected, (Double) gauge.getValue(), 0.0001);
+    }
+
     @Test
     public void incrementProcessOffersDuration() {
         Timer timer = Metrics.getRegistry().timer(Metrics.PROCESS_OFFERS);
@@ -39,6 +60,158 @@ public class MetricsTest {
         Assert.assertEquals(1, timer.getCount() - val);
     }
 
+    @Test
+    public void offerCyclePhaseTimers() {
+        for (Metrics.OfferCyclePhase phase : Metrics.OfferCyclePhase.values()) {
+            Timer timer = Metrics.getRegistry().timer(phase.getMetricName());
+            long val = timer.getCount();
+            Metrics.getOfferCyclePhaseTimer(phase).stop();
+            Assert.assertEquals(1, timer.getCount() - val);
+        }
+        Assert.assertEquals("offers.cycle.reconcile", Metrics.OfferCyclePhase.RECONCILE.getMetricName());
+    }
+
+    @Test
+    public void recordOfferCycleStorageOperations() {
+        Histogram histogram = Metrics.getRegistry().histogram(Metrics.OFFER_CYCLE_STORAGE_OPERATIONS);
+        long val = histogram.getCount();
+        Metrics.recordOfferCycleStorageOperations(7);
+        Assert.assertEquals(1, histogram.getCount() - val);
+    }
+
+    @Test
+    public void incrementStorageOperations() {
+        long val = Metrics.getStorageOperationCount();
+        Metrics.incrementStorageOperations();
+        Metrics.incrementStorageOperations();
+        Assert.assertEquals(2, Metrics.getStorageOperationCount() - val);
+    }
+
+    @Test
+    public void recordOffersScanned() {
+        Counter counter = Metrics.getRegistry().counter(Metrics.EVALUATION_OFFERS_SCANNED);
+        Histogram histogram = Metrics.getRegistry().histogram(Metrics.EVALUATION_OFFERS_SCANNED_PER_EVALUATION);
+        long counterVal = counter.getCount();
+        long histogramVal = histogram.getCount();
+        Metrics.recordOffersScanned(3);
+        Metrics.recordOffersScanned(4);
+        Assert.assertEquals(7, counter.getCount() - counterVal);
+        Assert.assertEquals(2, histogram.getCount() - histogramVal);
+    }
+
+    @Test
+    public void recordEvaluationStageDuration() {
+        OfferEvaluationStage stage = (resourcePool, podInfoBuilder) -> null;
+        String name = Metrics.getEvaluationStageMetricName(stage.getClass());
+        Assert.assertTrue(name, name.startsWith("offers.evaluation.stage.MetricsTest"));
+
+        Timer timer = Metrics.getRegistry().timer(name);
+        long val = timer.getCount();
+        Metrics.recordEvaluationStageDuration(stage, 1000);
+        Metrics.recordEvaluationStageDuration(stage, 2000);
+        Assert.assertEquals(2, timer.getCount() - val);
+    }
+
+    @Test
+    public void incrementEvaluationPipelinesBuiltAndReused() {
+        Counter built = Metrics.getRegistry().counter(Metrics.EVALUATION_PIPELINES_BUILT);
+        Counter reused = Metrics.getRegistry().counter(Metrics.EVALUATION_PIPELINES_REUSED);
+        long builtVal = built.getCount();
+        long reusedVal = reused.getCount();
+        Metrics.incrementEvaluationPipelinesBuilt();
+        Metrics.incrementEvaluationPipelinesReused();
+        Metrics.incrementEvaluationPipelinesReused();
+        Assert.assertEquals(1, built.getCount() - builtVal);
+        Assert.assertEquals(2, reused.getCount() - reusedVal);
+    }
+
+    @Test
+    public void incrementPlacementCacheHits() {
+        Counter hits = Metrics.getRegistry().counter(Metrics.EVALUATION_PLACEMENT_CACHE_HITS);
+        long val = hits.getCount();
+        Metrics.incrementPlacementCacheHits();
+        Assert.assertEquals(1, hits.getCount() - val);
+    }
+
+    @Test
+    public void incrementStateCacheHitsAndMisses() {
+        Counter hits = Metrics.getRegistry().counter(Metrics.STATE_CACHE_HITS);
+        Counter misses = Metrics.getRegistry().counter(Metrics.STATE_CACHE_MISSES);
+        long hitsVal = hits.getCount();
+        long missesVal = misses.getCount();
+        Metrics.incrementStateCacheHits();
+        Metrics.incrementStateCacheMisses();
+        Metrics.incrementStateCacheMisses();
+        Assert.assertEquals(1, hits.getCount() - hitsVal);
+        Assert.assertEquals(2, misses.getCount() - missesVal);
+        Assert.assertTrue(Metrics.getRegistry().getGauges().containsKey(Metrics.STATE_CACHE_HIT_RATIO));
+    }
+
+    @Test
+    public void keyPairPoolMetrics() {
+        Counter pooled = Metrics.getRegistry().counter(Metrics.TLS_KEYPAIRS_POOLED);
+        Counter misses = Metrics.getRegistry().counter(Metrics.TLS_KEYPAIRS_POOL_MISSES);
+        Timer wait = Metrics.getRegistry().timer(Metrics.TLS_KEYPAIRS_WAIT);
+        long pooledVal = pooled.getCount();
+        long missesVal = misses.getCount();
+        long waitVal = wait.getCount();
+        Metrics.updateKeyPairsPooled(3);
+        Metrics.updateKeyPairsPooled(-1);
+        Metrics.incrementKeyPairPoolMisses();
+        Metrics.getKeyPairWaitTimer().stop();
+        Assert.assertEquals(2, pooled.getCount() - pooledVal);
+        Assert.assertEquals(1, misses.getCount() - missesVal);
+        Assert.assertEquals(1, wait.getCount() - waitVal);
+    }
+
+    @Test
+    public void incrementStateStatusWritesCoalesced() {
+        Counter counter = Metrics.getRegistry().counter(Metrics.STATE_STATUS_WRITES_COALESCED);
+        long val = counter.getCount();
+        Metrics.incrementStateStatusWritesCoalesced();
+        Assert.assertEquals(1, counter.getCount() - val);
+    }
+
+    @Test
+    public void incrementStateParseDuration() {
+        Timer timer = Metrics.getRegistry().timer(Metrics.STATE_PARSE);
+        long val = timer.getCount();
+        Metrics.getStateParseDurationTimer().stop();
+        Assert.assertEquals(1, timer.getCount() - val);
+    }
+
+    @Test
+    public void configUpdateTimer() {
+        Timer timer = Metrics.getRegistry().timer(Metrics.CONFIG_UPDATE);
+        long val = timer.getCount();
+        Metrics.getConfigUpdateDurationTimer().stop();
+        Assert.assertEquals(1, timer.getCount() - val);
+    }
+
+    @Test
+    public void incrementConfigCacheEvictions() {
+        Counter counter = Metrics.getRegistry().counter(Metrics.CONFIG_CACHE_EVICTIONS);
+        long val = counter.getCount();
+        Metrics.incrementConfigCacheEvictions();
+        Assert.assertEquals(1, counter.getCount() - val);
+    }
+
+    @Test
+    public void incrementConfigParsesSkipped() {
+        Counter counter = Metrics.getRegistry().counter(Metrics.CONFIG_PARSES_SKIPPED);
+        long val = counter.getCount();
+        Metrics.incrementConfigParsesSkipped();
+        Assert.assertEquals(1, counter.getCount() - val);
+    }
+
+    @Test
+    public void persisterCacheLoadTimer() {
+        Timer timer = Metrics.getRegistry().timer(Metrics.PERSISTER_CACHE_LOAD);
+        long val = timer.getCount();
+        Metrics.getPersisterCacheLoadDurationTimer().stop();
+        Assert.assertEquals(1, timer.getCount() - val);
+    }
+
     @Test
     public void incrementRevives() {
         Counter counter = Metrics.getRegistry().counter(Metrics.REVIVES);
@@ -55,6 +228,14 @@ public class MetricsTest {
         Assert.assertEquals(1, counter.getCount() - val);
     }
 
+    @Test
+    public void incrementRevivesSkipped() {
+        Counter counter = Metrics.getRegistry().counter(Metrics.REVIVES_SKIPPED);
+        long val = counter.getCount();
+        Metrics.incrementRevivesSkipped();
+        Assert.assertEquals(1, counter.getCount() - val);
+    }
+
     @Test
     public void incrementDeclinesShort() {
         Counter counter = Metrics.getRegistry().counter(Metrics.DECLINE_SHORT);
@@ -63,6 +244,14 @@ public class MetricsTest {
         Assert.assertEquals(5, counter.getCount() - val);
     }
 
+    @Test
+    public void incrementDeclinesMedium() {
+        Counter counter = Metrics.getRegistry().counter(Metrics.DECLINE_MEDIUM);
+        long val = counter.getCount();
+        Metrics.incrementDeclinesMedium(5);
+        Assert.assertEquals(5, counter.getCount() - val);
+    }
+
     @Test
     public void incrementDeclinesLong() {
         Counter counter = Metrics.getRegistry().counter(Metrics.DECLINE_LONG);
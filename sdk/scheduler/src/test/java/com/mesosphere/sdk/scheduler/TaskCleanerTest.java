@@ -10,7 +10,7 @@ import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.UUID;
 
 import static org.mockito.Matchers.any;
@@ -52,7 +52,8 @@ public class TaskCleanerTest {
 
     @Test
     public void dontKillExpectedTask() {
-        when(stateStore.fetchTasks()).thenReturn(Arrays.asList(TestConstants.TASK_INFO));
+        when(stateStore.fetchTaskNamesByIds(Collections.singleton(TestConstants.TASK_ID)))
+                .thenReturn(Collections.singletonMap(TestConstants.TASK_ID, TestConstants.TASK_NAME));
 
         taskCleaner.statusUpdate(getNonTerminalStatus());
         verify(driver, never()).killTask(any());
@@ -60,10 +61,9 @@ public class TaskCleanerTest {
 
     @Test
     public void killTaskNonEmptyStateStore() {
-        Protos.TaskInfo taskInfo = TestConstants.TASK_INFO.toBuilder()
-                .setTaskId(Protos.TaskID.newBuilder().setValue(UUID.randomUUID().toString()))
-                .build();
-        when(stateStore.fetchTasks()).thenReturn(Arrays.asList(taskInfo));
+        Protos.TaskID taskId = Protos.TaskID.newBuilder().setValue(UUID.randomUUID().toString()).build();
+        when(stateStore.fetchTaskNamesByIds(Collections.singleton(taskId)))
+                .thenReturn(Collections.singletonMap(taskId, TestConstants.TASK_NAME));
 
         taskCleaner.statusUpdate(getNonTerminalStatus());
         verify(driver, times(1)).killTask(any());
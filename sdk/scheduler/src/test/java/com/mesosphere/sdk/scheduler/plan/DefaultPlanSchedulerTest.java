@@ -3,10 +3,12 @@ package com.mesosphere.sdk.scheduler.plan;
 import com.mesosphere.sdk.framework.Driver;
 import com.mesosphere.sdk.offer.*;
 import com.mesosphere.sdk.offer.evaluate.OfferEvaluator;
+import com.mesosphere.sdk.offer.evaluate.OfferEvaluator.OfferEvaluation;
 import com.mesosphere.sdk.scheduler.SchedulerConfig;
 import com.mesosphere.sdk.specification.DefaultServiceSpec;
 import com.mesosphere.sdk.specification.PodInstance;
 import com.mesosphere.sdk.specification.PodSpec;
+import com.mesosphere.sdk.state.StateSnapshot;
 import com.mesosphere.sdk.state.StateStore;
 import com.mesosphere.sdk.testutils.SchedulerConfigTestUtils;
 
@@ -48,12 +50,24 @@ public class DefaultPlanSchedulerTest {
     private PodInstanceRequirement podInstanceRequirement;
     private DefaultPlanScheduler scheduler;
     private List<OfferRecommendation> mockRecommendations;
+    private Map<OfferEvaluation, List<OfferRecommendation>> evaluationRecommendations;
 
     @Before
     public void beforeEach() throws Exception {
         MockitoAnnotations.initMocks(this);
         Driver.setDriver(mockSchedulerDriver);
         mockRecommendations = Arrays.asList(mockRecommendation);
+        evaluationRecommendations = new HashMap<>();
+        when(mockOfferEvaluator.recordEvaluations(any(PodInstanceRequirement.class), anyListOf(OfferEvaluation.class)))
+                .thenAnswer(invocation -> {
+                    @SuppressWarnings("unchecked")
+                    List<OfferEvaluation> evaluations = (List<OfferEvaluation>) invocation.getArguments()[1];
+                    return evaluations.stream()
+                            .filter(OfferEvaluation::isPassing)
+                            .findFirst()
+                            .map(evaluationRecommendations::get)
+                            .orElse(Collections.emptyList());
+                });
         scheduler = new DefaultPlanScheduler(mockOfferAccepter, mockOfferEvaluator, mockStateStore);
 
         ClassLoader classLoader = getClass().getClassLoader();
@@ -95,11 +109,12 @@ public class DefaultPlanSchedulerTest {
     public void testEvaluateNoRecommendations() throws InvalidRequirementException, IOException {
         TestOfferStep step = new TestOfferStep(podInstanceRequirement);
         step.setStatus(Status.PENDING);
-        when(mockOfferEvaluator.evaluate(podInstanceRequirement, OFFERS)).thenReturn(new ArrayList<>());
+        when(mockOfferEvaluator.evaluate(eq(podInstanceRequirement), any(StateSnapshot.class), eq(OFFERS)))
+                .thenReturn(new ArrayList<>());
 
         assertTrue(scheduler.resourceOffers(OFFERS, Arrays.asList(step)).isEmpty());
         assertTrue(step.recommendations.isEmpty());
-        verify(mockOfferEvaluator).evaluate(podInstanceRequirement, OFFERS);
+        verify(mockOfferEvaluator).evaluate(eq(podInstanceRequirement), any(StateSnapshot.class), eq(OFFERS));
         assertTrue(step.isPrepared());
     }
 
@@ -107,7 +122,8 @@ public class DefaultPlanSchedulerTest {
     public void testEvaluateNoAcceptedOffers() throws InvalidRequirementException, IOException {
         TestOfferStep step = new TestOfferStep(podInstanceRequirement);
         step.setStatus(Status.PENDING);
-        when(mockOfferEvaluator.evaluate(podInstanceRequirement, OFFERS)).thenReturn(mockRecommendations);
+        when(mockOfferEvaluator.evaluate(eq(podInstanceRequirement), any(StateSnapshot.class), eq(OFFERS)))
+                .thenReturn(mockRecommendations);
         when(mockOfferAccepter.accept(mockRecommendations)).thenReturn(new ArrayList<>());
 
         assertTrue(scheduler.resourceOffers(OFFERS, Arrays.asList(step)).isEmpty());
@@ -120,7 +136,8 @@ public class DefaultPlanSchedulerTest {
     public void testEvaluateAcceptedOffers() throws InvalidRequirementException, IOException {
         TestOfferStep step = new TestOfferStep(podInstanceRequirement);
         step.setStatus(Status.PENDING);
-        when(mockOfferEvaluator.evaluate(podInstanceRequirement, OFFERS)).thenReturn(mockRecommendations);
+        when(mockOfferEvaluator.evaluate(eq(podInstanceRequirement), any(StateSnapshot.class), eq(OFFERS)))
+                .thenReturn(mockRecommendations);
         when(mockOfferAccepter.accept(mockRecommendations)).thenReturn(ACCEPTED_IDS);
 
         assertEquals(ACCEPTED_IDS, scheduler.resourceOffers(OFFERS, Arrays.asList(step)));
@@ -128,28 +145,160 @@ public class DefaultPlanSchedulerTest {
         assertTrue(step.isStarting());
     }
 
+    @Test
+    public void testParallelEvaluationAssignsOffersInStepOrder() throws Exception {
+        scheduler = new DefaultPlanScheduler(mockOfferAccepter, mockOfferEvaluator, mockStateStore, 4);
+        PodInstanceRequirement podInstanceRequirement1 = PodInstanceRequirement.newBuilder(
+                new DefaultPodInstance(podInstanceRequirement.getPodInstance().getPod(), 1),
+                podInstanceRequirement.getTasksToLaunch()).build();
+        Offer offer0 = getOffer("offer0");
+        Offer offer1 = getOffer("offer1");
+        List<OfferRecommendation> recommendations00 = Arrays.asList(mock(OfferRecommendation.class));
+        List<OfferRecommendation> recommendations01 = Arrays.asList(mock(OfferRecommendation.class));
+        List<OfferRecommendation> recommendations10 = Arrays.asList(mock(OfferRecommendation.class));
+        List<OfferRecommendation> recommendations11 = Arrays.asList(mock(OfferRecommendation.class));
+        OfferEvaluation evaluation00 = stubEvaluation(podInstanceRequirement, offer0, recommendations00);
+        stubEvaluation(podInstanceRequirement, offer1, recommendations01);
+        stubEvaluation(podInstanceRequirement1, offer0, recommendations10);
+        OfferEvaluation evaluation11 = stubEvaluation(podInstanceRequirement1, offer1, recommendations11);
+        when(mockOfferAccepter.accept(recommendations00)).thenReturn(Arrays.asList(offer0.getId()));
+        when(mockOfferAccepter.accept(recommendations11)).thenReturn(Arrays.asList(offer1.getId()));
+
+        TestOfferStep step0 = new TestOfferStep(podInstanceRequirement);
+        step0.setStatus(Status.PENDING);
+        TestOfferStep step1 = new TestOfferStep(podInstanceRequirement1);
+        step1.setStatus(Status.PENDING);
+
+        // Both steps pass with both offers. As when evaluating serially, the first step gets the first offer:
+        assertEquals(
+                Arrays.asList(offer0.getId(), offer1.getId()),
+                scheduler.resourceOffers(Arrays.asList(offer0, offer1), Arrays.asList(step0, step1)));
+        verify(mockOfferAccepter).accept(recommendations00);
+        verify(mockOfferAccepter).accept(recommendations11);
+        verifyNoMoreInteractions(mockOfferAccepter);
+        assertTrue(step0.isStarting());
+        assertTrue(step1.isStarting());
+
+        // Outcomes are only recorded for the evaluations which were used, as when evaluating serially:
+        verify(mockOfferEvaluator).recordEvaluations(podInstanceRequirement, Arrays.asList(evaluation00));
+        verify(mockOfferEvaluator).recordEvaluations(podInstanceRequirement1, Arrays.asList(evaluation11));
+        verify(mockOfferEvaluator, never())
+                .evaluate(any(PodInstanceRequirement.class), any(StateSnapshot.class), anyListOf(Offer.class));
+    }
+
+    @Test
+    public void testParallelEvaluationSkipsOffersAcceptedByEarlierSteps() throws Exception {
+        scheduler = new DefaultPlanScheduler(mockOfferAccepter, mockOfferEvaluator, mockStateStore, 4);
+        PodInstanceRequirement podInstanceRequirement1 = PodInstanceRequirement.newBuilder(
+                new DefaultPodInstance(podInstanceRequirement.getPodInstance().getPod(), 1),
+                podInstanceRequirement.getTasksToLaunch()).build();
+        Offer offer0 = getOffer("offer0");
+        Offer offer1 = getOffer("offer1");
+        stubEvaluation(podInstanceRequirement, offer0, mockRecommendations);
+        stubEvaluation(podInstanceRequirement, offer1, Collections.emptyList());
+        stubEvaluation(podInstanceRequirement1, offer0, Arrays.asList(mock(OfferRecommendation.class)));
+        stubEvaluation(podInstanceRequirement1, offer1, Collections.emptyList());
+        when(mockOfferAccepter.accept(mockRecommendations)).thenReturn(Arrays.asList(offer0.getId()));
+
+        TestOfferStep step0 = new TestOfferStep(podInstanceRequirement);
+        step0.setStatus(Status.PENDING);
+        TestOfferStep step1 = new TestOfferStep(podInstanceRequirement1);
+        step1.setStatus(Status.PENDING);
+
+        // The second step only passes with the offer which was taken by the first step:
+        assertEquals(
+                Arrays.asList(offer0.getId()),
+                scheduler.resourceOffers(Arrays.asList(offer0, offer1), Arrays.asList(step0, step1)));
+        verify(mockOfferAccepter).accept(mockRecommendations);
+        verifyNoMoreInteractions(mockOfferAccepter);
+        assertTrue(step0.isStarting());
+        assertTrue(step1.recommendations.isEmpty());
+        assertTrue(step1.isPrepared());
+    }
+
+    @Test
+    public void testParallelEvaluationStartsStepsInOrder() throws Exception {
+        scheduler = new DefaultPlanScheduler(mockOfferAccepter, mockOfferEvaluator, mockStateStore, 4);
+        PodInstanceRequirement podInstanceRequirement1 = PodInstanceRequirement.newBuilder(
+                new DefaultPodInstance(podInstanceRequirement.getPodInstance().getPod(), 1),
+                podInstanceRequirement.getTasksToLaunch()).build();
+        Offer offer0 = getOffer("offer0");
+        Offer offer1 = getOffer("offer1");
+        List<OfferRecommendation> recommendations0 = Arrays.asList(mock(OfferRecommendation.class));
+        List<OfferRecommendation> recommendations1 = Arrays.asList(mock(OfferRecommendation.class));
+        stubEvaluation(podInstanceRequirement, offer0, recommendations0);
+        stubEvaluation(podInstanceRequirement, offer1, Collections.emptyList());
+        stubEvaluation(podInstanceRequirement1, offer0, Collections.emptyList());
+        stubEvaluation(podInstanceRequirement1, offer1, recommendations1);
+        when(mockOfferAccepter.accept(recommendations0)).thenReturn(Arrays.asList(offer0.getId()));
+        when(mockOfferAccepter.accept(recommendations1)).thenReturn(Arrays.asList(offer1.getId()));
+
+        List<String> events = new ArrayList<>();
+        TestOfferStep step0 = new TestOfferStep(podInstanceRequirement, events);
+        step0.setStatus(Status.PENDING);
+        TestOfferStep step1 = new TestOfferStep(podInstanceRequirement1, events);
+        step1.setStatus(Status.PENDING);
+
+        // As when evaluating serially, each step is only started once the previous step has been given its offer:
+        assertEquals(
+                Arrays.asList(offer0.getId(), offer1.getId()),
+                scheduler.resourceOffers(Arrays.asList(offer0, offer1), Arrays.asList(step0, step1)));
+        assertEquals(
+                Arrays.asList(
+                        "start " + step0.getName(), "update " + step0.getName(),
+                        "start " + step1.getName(), "update " + step1.getName()),
+                events);
+    }
+
+    private OfferEvaluation stubEvaluation(
+            PodInstanceRequirement podInstanceRequirement, Offer offer, List<OfferRecommendation> recommendations)
+            throws Exception {
+        OfferEvaluation evaluation = mock(OfferEvaluation.class);
+        when(evaluation.isPassing()).thenReturn(!recommendations.isEmpty());
+        evaluationRecommendations.put(evaluation, recommendations);
+        when(mockOfferEvaluator.evaluateOffer(eq(podInstanceRequirement), any(StateSnapshot.class), eq(offer)))
+                .thenReturn(evaluation);
+        when(mockOfferEvaluator.evaluate(
+                eq(podInstanceRequirement), any(StateSnapshot.class), eq(Arrays.asList(offer))))
+                .thenReturn(recommendations);
+        return evaluation;
+    }
+
+    private static Offer getOffer(String id) {
+        return OFFERS.get(0).toBuilder().setId(OfferID.newBuilder().setValue(id)).build();
+    }
+
     private static class TestOfferStep extends TestStep {
         private final PodInstanceRequirement podInstanceRequirement;
+        private final List<String> events;
         private Collection<OfferRecommendation> recommendations;
 
         private TestOfferStep(PodInstanceRequirement podInstanceRequirement) {
+            this(podInstanceRequirement, new ArrayList<>());
+        }
+
+        private TestOfferStep(PodInstanceRequirement podInstanceRequirement, List<String> events) {
             super();
             this.podInstanceRequirement = podInstanceRequirement;
+            this.events = events;
             this.recommendations = Collections.emptyList();
         }
 
         @Override
         public Optional<PodInstanceRequirement> start() {
+            events.add("start " + getName());
             super.start();
-            if (podInstanceRequirement == null) {
-                return Optional.empty();
-            } else {
-                return Optional.of(podInstanceRequirement);
-            }
+            return getPodInstanceRequirement();
+        }
+
+        @Override
+        public Optional<PodInstanceRequirement> getPodInstanceRequirement() {
+            return Optional.ofNullable(podInstanceRequirement);
         }
 
         @Override
         public void updateOfferStatus(Collection<OfferRecommendation> recommendations) {
+            events.add("update " + getName());
             super.updateOfferStatus(recommendations);
             this.recommendations = recommendations;
         }
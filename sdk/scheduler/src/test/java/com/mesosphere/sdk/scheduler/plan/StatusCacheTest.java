@@ -0,0 +1,152 @@
+package com.mesosphere.sdk.scheduler.plan;
+
+import com.mesosphere.sdk.scheduler.plan.strategy.CanaryStrategy;
+import com.mesosphere.sdk.scheduler.plan.strategy.RandomStrategy;
+import com.mesosphere.sdk.scheduler.plan.strategy.SerialStrategy;
+import com.mesosphere.sdk.scheduler.plan.strategy.Strategy;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link StatusCache}, as used by {@link DefaultPhase} and {@link DefaultPlan}.
+ */
+public class StatusCacheTest {
+
+    private TestStep step0;
+    private TestStep step1;
+    private Strategy<Step> phaseStrategy;
+    private Strategy<Phase> planStrategy;
+    private DefaultPhase phase;
+    private DefaultPlan plan;
+
+    @Before
+    public void beforeEach() {
+        step0 = new TestStep("step-0", null);
+        step1 = new TestStep("step-1", null);
+        phaseStrategy = spy(new SerialStrategy<>());
+        planStrategy = spy(new SerialStrategy<>());
+        phase = new DefaultPhase("phase", Arrays.asList(step0, step1), phaseStrategy, Collections.emptyList());
+        plan = new DefaultPlan("plan", Arrays.asList(phase), planStrategy);
+    }
+
+    @Test
+    public void testStatusNotRecomputedWithoutChanges() {
+        assertEquals(Status.PENDING, plan.getStatus());
+        assertEquals(Status.PENDING, plan.getStatus());
+        assertEquals(Status.PENDING, phase.getStatus());
+        verify(planStrategy, times(1)).getCandidates(any(), any());
+        verify(phaseStrategy, times(1)).getCandidates(any(), any());
+    }
+
+    @Test
+    public void testStepStatusChangeInvalidates() {
+        assertEquals(Status.PENDING, plan.getStatus());
+
+        step0.setStatus(Status.COMPLETE);
+        assertEquals(Status.IN_PROGRESS, plan.getStatus());
+        assertEquals(Status.IN_PROGRESS, phase.getStatus());
+
+        step1.forceComplete();
+        assertEquals(Status.COMPLETE, plan.getStatus());
+        assertEquals(Status.COMPLETE, phase.getStatus());
+
+        plan.restart();
+        assertEquals(Status.PENDING, plan.getStatus());
+    }
+
+    @Test
+    public void testChangesInOtherPlansDontInvalidate() {
+        TestStep otherStep = new TestStep("other-step", null);
+        DefaultPlan otherPlan = new DefaultPlan("other-plan", Arrays.asList(new DefaultPhase(
+                "other-phase", Arrays.asList(otherStep), new SerialStrategy<>(), Collections.emptyList())));
+        assertEquals(Status.PENDING, plan.getStatus());
+        assertEquals(Status.PENDING, otherPlan.getStatus());
+
+        otherStep.setStatus(Status.COMPLETE);
+        assertEquals(Status.COMPLETE, otherPlan.getStatus());
+        assertEquals(Status.PENDING, plan.getStatus());
+        verify(planStrategy, times(1)).getCandidates(any(), any());
+        verify(phaseStrategy, times(1)).getCandidates(any(), any());
+    }
+
+    @Test
+    public void testInterruptInvalidates() {
+        assertEquals(Status.PENDING, plan.getStatus());
+
+        plan.interrupt();
+        assertEquals(Status.WAITING, plan.getStatus());
+        assertEquals(Status.PENDING, phase.getStatus());
+
+        plan.proceed();
+        phase.interrupt();
+        assertEquals(Status.WAITING, phase.getStatus());
+
+        phase.proceed();
+        step0.interrupt();
+        assertEquals(Status.WAITING, phase.getStatus());
+        assertEquals(Status.WAITING, plan.getStatus());
+    }
+
+    @Test
+    public void testUntrackedStepNotCached() {
+        Step untrackedStep = mock(Step.class);
+        when(untrackedStep.getStatus()).thenReturn(Status.PENDING);
+        when(untrackedStep.getErrors()).thenReturn(Collections.emptyList());
+        when(untrackedStep.getPodInstanceRequirement()).thenReturn(Optional.empty());
+        DefaultPhase untrackedPhase = new DefaultPhase(
+                "untracked", Arrays.asList(untrackedStep), new SerialStrategy<>(), Collections.emptyList());
+        DefaultPlan untrackedPlan = new DefaultPlan("untracked", Arrays.asList(phase, untrackedPhase));
+        assertTrue(phase.statusCache.isTracked());
+        assertFalse(untrackedPhase.statusCache.isTracked());
+
+        assertEquals(Status.PENDING, untrackedPlan.getStatus());
+
+        // The mock's status changes without any notification:
+        step0.setStatus(Status.COMPLETE);
+        step1.setStatus(Status.COMPLETE);
+        when(untrackedStep.getStatus()).thenReturn(Status.COMPLETE);
+        when(untrackedStep.isComplete()).thenReturn(true);
+        assertEquals(Status.COMPLETE, untrackedPhase.getStatus());
+        assertEquals(Status.COMPLETE, untrackedPlan.getStatus());
+    }
+
+    @Test
+    public void testStepSubclassNotTrackedWithoutOptIn() {
+        AbstractStep untrackedStep = new TestStep("untracked", null) {
+            @Override
+            protected boolean isStatusTracked() {
+                return false;
+            }
+        };
+        DefaultPhase untrackedPhase = new DefaultPhase(
+                "untracked", Arrays.asList(step0, untrackedStep), new SerialStrategy<>(), Collections.emptyList());
+        assertFalse(untrackedPhase.statusCache.isTracked());
+    }
+
+    @Test
+    public void testStrategyNotTrackedWithoutOptIn() {
+        DefaultPhase randomPhase = new DefaultPhase(
+                "random", Arrays.asList(step0, step1), new RandomStrategy<>(), Collections.emptyList());
+        assertFalse(randomPhase.statusCache.isTracked());
+        DefaultPhase canaryPhase = new DefaultPhase(
+                "canary",
+                Arrays.asList(step0, step1),
+                new CanaryStrategy(new SerialStrategy<>(), Arrays.asList(step0, step1)),
+                Collections.emptyList());
+        assertTrue(canaryPhase.statusCache.isTracked());
+    }
+}
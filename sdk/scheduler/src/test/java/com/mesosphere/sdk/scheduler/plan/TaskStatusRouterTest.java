@@ -0,0 +1,173 @@
+package com.mesosphere.sdk.scheduler.plan;
+
+import com.mesosphere.sdk.offer.LaunchOfferRecommendation;
+import com.mesosphere.sdk.offer.OfferRecommendation;
+import com.mesosphere.sdk.scheduler.plan.strategy.SerialStrategy;
+import com.mesosphere.sdk.state.GoalStateOverride;
+import com.mesosphere.sdk.state.StateStore;
+import com.mesosphere.sdk.testutils.OfferTestUtils;
+import com.mesosphere.sdk.testutils.TestConstants;
+import org.apache.mesos.Protos;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link TaskStatusRouter}, as used by {@link DefaultPlan}.
+ */
+public class TaskStatusRouterTest {
+
+    @Mock private StateStore mockStateStore;
+    private RecordingDeploymentStep step0;
+    private RecordingDeploymentStep step1;
+    private Step otherStep;
+    private Plan plan;
+
+    @Before
+    public void beforeEach() {
+        MockitoAnnotations.initMocks(this);
+        when(mockStateStore.fetchGoalOverrideStatus(any())).thenReturn(GoalStateOverride.Status.INACTIVE);
+
+        step0 = new RecordingDeploymentStep(
+                "step-0", PodInstanceRequirementTestUtils.getCpuRequirement(1.0, 0), mockStateStore);
+        step1 = new RecordingDeploymentStep(
+                "step-1", PodInstanceRequirementTestUtils.getCpuRequirement(1.0, 1), mockStateStore);
+        otherStep = spy(new TestStep());
+        plan = new DefaultPlan("plan", Arrays.asList(
+                new DefaultPhase("phase-0", Arrays.asList(step0, otherStep), new SerialStrategy<>(),
+                        Collections.emptyList()),
+                new DefaultPhase("phase-1", Arrays.asList(step1), new SerialStrategy<>(),
+                        Collections.emptyList())));
+    }
+
+    @Test
+    public void testUnknownTaskBroadcast() {
+        Protos.TaskStatus status = getStatus(getTaskId("unknown"));
+        plan.update(status);
+        Assert.assertEquals(Arrays.asList(status), step0.updates);
+        Assert.assertEquals(Arrays.asList(status), step1.updates);
+        verify(otherStep).update(status);
+    }
+
+    @Test
+    public void testKnownTaskRouted() {
+        Protos.TaskID taskId0 = getTaskId("task-0");
+        Protos.TaskID taskId1 = getTaskId("task-1");
+        step0.updateOfferStatus(getLaunchRecommendations(taskId0));
+        step1.updateOfferStatus(getLaunchRecommendations(taskId1));
+
+        Protos.TaskStatus status = getStatus(taskId1);
+        plan.update(status);
+        Assert.assertTrue(step0.updates.isEmpty());
+        Assert.assertEquals(Arrays.asList(status), step1.updates);
+        // Steps which aren't DeploymentSteps continue to receive every status:
+        verify(otherStep).update(status);
+    }
+
+    @Test
+    public void testSubclassNotRoutedWithoutOptIn() {
+        RecordingDeploymentStep unroutedStep = new RecordingDeploymentStep(
+                "step-2", PodInstanceRequirementTestUtils.getCpuRequirement(1.0, 2), mockStateStore, false);
+        plan = new DefaultPlan("plan", Arrays.asList(
+                new DefaultPhase("phase-0", Arrays.asList(step0, unroutedStep), new SerialStrategy<>(),
+                        Collections.emptyList())));
+        Protos.TaskID taskId0 = getTaskId("task-0");
+        step0.updateOfferStatus(getLaunchRecommendations(taskId0));
+        unroutedStep.updateOfferStatus(getLaunchRecommendations(getTaskId("task-2")));
+
+        // The subclass may handle other tasks' statuses, so it continues to receive every status:
+        Protos.TaskStatus status = getStatus(taskId0);
+        plan.update(status);
+        Assert.assertEquals(Arrays.asList(status), step0.updates);
+        Assert.assertEquals(Arrays.asList(status), unroutedStep.updates);
+    }
+
+    @Test
+    public void testRelaunchedTaskRerouted() {
+        Protos.TaskID taskId = getTaskId("task");
+        step0.updateOfferStatus(getLaunchRecommendations(taskId));
+
+        Protos.TaskStatus status = getStatus(taskId);
+        plan.update(status);
+        Assert.assertEquals(Arrays.asList(status), step0.updates);
+        Assert.assertTrue(step1.updates.isEmpty());
+
+        // The same task is relaunched by a different step:
+        step0.updateOfferStatus(Collections.emptyList());
+        step1.updateOfferStatus(getLaunchRecommendations(taskId));
+        step0.updates.clear();
+
+        plan.update(status);
+        Assert.assertTrue(step0.updates.isEmpty());
+        Assert.assertEquals(Arrays.asList(status), step1.updates);
+    }
+
+    private static Protos.TaskID getTaskId(String name) {
+        return Protos.TaskID.newBuilder().setValue(name + "__" + TestConstants.TASK_ID.getValue()).build();
+    }
+
+    private static Protos.TaskStatus getStatus(Protos.TaskID taskId) {
+        return Protos.TaskStatus.newBuilder()
+                .setTaskId(taskId)
+                .setState(Protos.TaskState.TASK_RUNNING)
+                .build();
+    }
+
+    private static Collection<OfferRecommendation> getLaunchRecommendations(Protos.TaskID taskId) {
+        return Arrays.asList(new LaunchOfferRecommendation(
+                OfferTestUtils.getEmptyOfferBuilder().build(),
+                Protos.TaskInfo.newBuilder()
+                        .setTaskId(taskId)
+                        .setName(TestConstants.TASK_NAME)
+                        .setSlaveId(TestConstants.AGENT_ID)
+                        .build(),
+                Protos.ExecutorInfo.newBuilder().setExecutorId(
+                        Protos.ExecutorID.newBuilder().setValue("executor")).build(),
+                true,
+                true));
+    }
+
+    /**
+     * A {@link DeploymentStep} which records the statuses it receives, before handling them as usual.
+     */
+    private static class RecordingDeploymentStep extends DeploymentStep {
+
+        private final List<Protos.TaskStatus> updates = new ArrayList<>();
+        private final boolean routed;
+
+        private RecordingDeploymentStep(
+                String name, PodInstanceRequirement podInstanceRequirement, StateStore stateStore) {
+            this(name, podInstanceRequirement, stateStore, true);
+        }
+
+        private RecordingDeploymentStep(
+                String name, PodInstanceRequirement podInstanceRequirement, StateStore stateStore, boolean routed) {
+            super(name, podInstanceRequirement, stateStore);
+            this.routed = routed;
+        }
+
+        @Override
+        protected boolean ignoresOtherTaskStatuses() {
+            return routed;
+        }
+
+        @Override
+        public synchronized void update(Protos.TaskStatus status) {
+            updates.add(status);
+            super.update(status);
+        }
+    }
+}
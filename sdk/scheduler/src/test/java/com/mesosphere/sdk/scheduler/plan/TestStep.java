@@ -29,6 +29,11 @@ public class TestStep extends AbstractStep {
         this.podInstanceRequirement = podInstanceRequirement;
     }
 
+    @Override
+    protected boolean isStatusTracked() {
+        return true;
+    }
+
     @Override
     public Optional<PodInstanceRequirement> start() {
         setStatus(Status.PREPARED);
@@ -32,6 +32,7 @@ import org.mockito.MockitoAnnotations;
 
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
@@ -440,4 +441,101 @@ public class DefaultRecoveryPlanManagerTest extends DefaultCapabilitiesTestSuite
         assertEquals(1, recoveryManager.getPlan().getChildren().get(0).getChildren().size());
         assertTrue(recoveryManager.getPlan().getChildren().get(0).getChildren().get(0).isPending());
     }
+
+    @Test
+    public void testOnlyUpdatedTasksReevaluated() throws Exception {
+        final Protos.TaskStatus runningStatus = TaskTestUtils.generateStatus(
+                taskInfo.getTaskId(),
+                Protos.TaskState.TASK_RUNNING);
+        final Protos.TaskStatus failedStatus = TaskTestUtils.generateStatus(
+                taskInfo.getTaskId(),
+                Protos.TaskState.TASK_FAILED);
+
+        // All tasks are evaluated on the first cycle:
+        stateStore.storeTasks(taskInfos);
+        stateStore.storeStatus(taskInfo.getName(), runningStatus);
+        recoveryManager.getCandidates(Collections.emptyList());
+        assertEquals(0, recoveryManager.getPlan().getChildren().size());
+
+        // A task which hasn't received a status update via the manager isn't evaluated again:
+        stateStore.storeStatus(taskInfo.getName(), failedStatus);
+        recoveryManager.getCandidates(Collections.emptyList());
+        assertEquals(0, recoveryManager.getPlan().getChildren().size());
+
+        // Once the update is received, the task is evaluated and found to need recovery:
+        recoveryManager.update(failedStatus);
+        recoveryManager.getCandidates(Collections.emptyList());
+        assertEquals(1, recoveryManager.getPlan().getChildren().size());
+        assertEquals(RecoveryType.TRANSIENT, getRecoveryType());
+    }
+
+    @Test
+    public void testFailedTaskReevaluatedWithoutUpdate() throws Exception {
+        final Protos.TaskStatus failedStatus = TaskTestUtils.generateStatus(
+                taskInfo.getTaskId(),
+                Protos.TaskState.TASK_FAILED);
+        launchConstrainer.setCanLaunch(true);
+
+        stateStore.storeTasks(taskInfos);
+        stateStore.storeStatus(taskInfo.getName(), failedStatus);
+        recoveryManager.update(failedStatus);
+        recoveryManager.getCandidates(Collections.emptyList());
+        assertEquals(RecoveryType.TRANSIENT, getRecoveryType());
+
+        // A failed task continues to be evaluated without further updates, e.g. to escalate its recovery:
+        failureMonitor.setFailedList(taskInfo);
+        recoveryManager.getPlan().getChildren().get(0).getChildren().get(0).interrupt();
+        recoveryManager.getCandidates(Collections.emptyList());
+        assertEquals(RecoveryType.PERMANENT, getRecoveryType());
+    }
+
+    @Test
+    public void testPermanentlyFailedTaskReevaluatedWithoutUpdate() throws Exception {
+        final Protos.TaskStatus runningStatus = TaskTestUtils.generateStatus(
+                taskInfo.getTaskId(),
+                Protos.TaskState.TASK_RUNNING);
+
+        stateStore.storeTasks(taskInfos);
+        stateStore.storeStatus(taskInfo.getName(), runningStatus);
+        recoveryManager.getCandidates(Collections.emptyList());
+        assertEquals(0, recoveryManager.getPlan().getChildren().size());
+
+        // A task which is marked as permanently failed (e.g. via a pod replace) is evaluated on the next cycle:
+        stateStore.storeTasks(Collections.singletonList(TaskTestUtils.withFailedFlag(taskInfo)));
+        recoveryManager.getCandidates(Collections.emptyList());
+        assertEquals(1, recoveryManager.getPlan().getChildren().size());
+        assertEquals(RecoveryType.PERMANENT, getRecoveryType());
+    }
+
+    @Test
+    public void testAllTasksReevaluatedPeriodically() throws Exception {
+        final Protos.TaskStatus runningStatus = TaskTestUtils.generateStatus(
+                taskInfo.getTaskId(),
+                Protos.TaskState.TASK_RUNNING);
+        final Protos.TaskStatus failedStatus = TaskTestUtils.generateStatus(
+                taskInfo.getTaskId(),
+                Protos.TaskState.TASK_FAILED);
+        final long startMs = System.currentTimeMillis();
+        doReturn(startMs).when(recoveryManager).getCurrentTimeMs();
+
+        stateStore.storeTasks(taskInfos);
+        stateStore.storeStatus(taskInfo.getName(), runningStatus);
+        recoveryManager.getCandidates(Collections.emptyList());
+        assertEquals(0, recoveryManager.getPlan().getChildren().size());
+
+        // A status which wasn't received via the manager is only noticed once all tasks are evaluated again:
+        stateStore.storeStatus(taskInfo.getName(), failedStatus);
+        recoveryManager.getCandidates(Collections.emptyList());
+        assertEquals(0, recoveryManager.getPlan().getChildren().size());
+
+        doReturn(startMs + TimeUnit.HOURS.toMillis(1)).when(recoveryManager).getCurrentTimeMs();
+        recoveryManager.getCandidates(Collections.emptyList());
+        assertEquals(1, recoveryManager.getPlan().getChildren().size());
+        assertEquals(RecoveryType.TRANSIENT, getRecoveryType());
+    }
+
+    private RecoveryType getRecoveryType() {
+        return recoveryManager.getPlan().getChildren().get(0).getChildren().get(0)
+                .getPodInstanceRequirement().get().getRecoveryType();
+    }
 }
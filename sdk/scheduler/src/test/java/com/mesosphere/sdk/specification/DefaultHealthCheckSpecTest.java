@@ -38,4 +38,58 @@ public class DefaultHealthCheckSpecTest {
             Assert.assertEquals(11, constraintViolations.size());
         }
     }
+
+    @Test
+    public void validTcpHealthCheckSpec() {
+        DefaultHealthCheckSpec healthCheckSpec = DefaultHealthCheckSpec.newBuilder()
+                .tcp(new TcpCheckSpec("http"))
+                .delay(0)
+                .gracePeriod(0)
+                .interval(0)
+                .maxConsecutiveFailures(1)
+                .timeout(0)
+                .build();
+
+        Assert.assertNull(healthCheckSpec.getCommand());
+    }
+
+    @Test(expected = ConstraintViolationException.class)
+    public void missingCheckTypeHealthCheckSpec() {
+        DefaultHealthCheckSpec.newBuilder()
+                .delay(0)
+                .gracePeriod(0)
+                .interval(0)
+                .maxConsecutiveFailures(1)
+                .timeout(0)
+                .build();
+    }
+
+    @Test(expected = ConstraintViolationException.class)
+    public void multipleCheckTypesReadinessCheckSpec() {
+        DefaultReadinessCheckSpec.newBuilder()
+                .command("echo true")
+                .http(new HttpCheckSpec("http", "/", null))
+                .delay(0)
+                .interval(0)
+                .timeout(0)
+                .build();
+    }
+
+    @Test
+    public void httpCheckPathWithoutLeadingSlash() {
+        try {
+            DefaultHealthCheckSpec.newBuilder()
+                    .http(new HttpCheckSpec("http", "health", null))
+                    .delay(0)
+                    .gracePeriod(0)
+                    .interval(0)
+                    .maxConsecutiveFailures(1)
+                    .timeout(0)
+                    .build();
+            Assert.fail("Expected exception");
+        } catch (ConstraintViolationException e) {
+            Assert.assertEquals(1, e.getConstraintViolations().size());
+            Assert.assertEquals("http.path", e.getConstraintViolations().iterator().next().getPropertyPath().toString());
+        }
+    }
 }
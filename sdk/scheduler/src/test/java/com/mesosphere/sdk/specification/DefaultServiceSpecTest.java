@@ -317,6 +317,64 @@ public class DefaultServiceSpecTest {
         }
     }
 
+    @Test
+    public void validNetworkChecks() throws Exception {
+        ClassLoader classLoader = getClass().getClassLoader();
+        File file = new File(classLoader.getResource("valid-port-networkcheck.yml").getFile());
+        DefaultServiceSpec serviceSpec = DefaultServiceSpec.newGenerator(file, SCHEDULER_CONFIG).build();
+        TaskSpec taskSpec = serviceSpec.getPods().get(0).getTasks().get(0);
+
+        HttpCheckSpec httpCheck = taskSpec.getHealthCheck().get().getHttp().get();
+        Assert.assertEquals("test-port", httpCheck.getPortName());
+        Assert.assertEquals("/health", httpCheck.getPath());
+        Assert.assertEquals(Arrays.asList(200, 204), httpCheck.getStatuses());
+        Assert.assertNull(taskSpec.getHealthCheck().get().getCommand());
+        Assert.assertFalse(taskSpec.getHealthCheck().get().getTcp().isPresent());
+
+        Assert.assertEquals("test-port", taskSpec.getReadinessCheck().get().getTcp().get().getPortName());
+        Assert.assertFalse(taskSpec.getReadinessCheck().get().getHttp().isPresent());
+
+        // Round trip through serialization, as is done when storing the config:
+        Assert.assertEquals(serviceSpec, DefaultServiceSpec.getConfigurationFactory(serviceSpec)
+                .parse(serviceSpec.getBytes()));
+    }
+
+    @Test
+    public void invalidCheckPort() throws Exception {
+        ClassLoader classLoader = getClass().getClassLoader();
+        File file = new File(classLoader.getResource("invalid-check-port.yml").getFile());
+        try {
+            DefaultServiceSpec.newGenerator(file, SCHEDULER_CONFIG).build();
+            Assert.fail("Expected exception");
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("refers to port 'other-port'"));
+        }
+    }
+
+    @Test
+    public void invalidCheckMissingPort() throws Exception {
+        ClassLoader classLoader = getClass().getClassLoader();
+        File file = new File(classLoader.getResource("invalid-check-missing-port.yml").getFile());
+        try {
+            DefaultServiceSpec.newGenerator(file, SCHEDULER_CONFIG).build();
+            Assert.fail("Expected exception");
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("must specify the 'port' to check"));
+        }
+    }
+
+    @Test
+    public void invalidCheckType() throws Exception {
+        ClassLoader classLoader = getClass().getClassLoader();
+        File file = new File(classLoader.getResource("invalid-check-type.yml").getFile());
+        try {
+            DefaultServiceSpec.newGenerator(file, SCHEDULER_CONFIG).build();
+            Assert.fail("Expected exception");
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("Exactly one of 'cmd', 'http', or 'tcp'"));
+        }
+    }
+
     @Test
     public void invalidDuplicateCount() throws Exception {
         ClassLoader classLoader = getClass().getClassLoader();
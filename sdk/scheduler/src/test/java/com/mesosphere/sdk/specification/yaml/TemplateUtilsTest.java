@@ -3,16 +3,21 @@ package com.mesosphere.sdk.specification.yaml;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.io.FileUtils;
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.github.mustachejava.Mustache;
 import com.github.mustachejava.MustacheException;
 import com.mesosphere.sdk.specification.yaml.TemplateUtils.MissingValue;
 
@@ -131,6 +136,86 @@ public class TemplateUtilsTest {
         Assert.assertFalse(renderedYaml.contains("ENABLED"));
     }
 
+    @Test
+    public void testCompiledTemplateReused() {
+        String content = "hello {{name}}";
+        Assert.assertSame(
+                TemplateUtils.getCompiledTemplate("testTemplate", content),
+                TemplateUtils.getCompiledTemplate("testTemplate", new String(content)));
+        // Changes to either the name or the content result in a new compilation:
+        Assert.assertNotSame(
+                TemplateUtils.getCompiledTemplate("testTemplate", content),
+                TemplateUtils.getCompiledTemplate("otherTemplate", content));
+        Assert.assertNotSame(
+                TemplateUtils.getCompiledTemplate("testTemplate", content),
+                TemplateUtils.getCompiledTemplate("testTemplate", content + "!"));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedTemplateEvicted() {
+        String content = "hello {{name}}";
+        Mustache used = TemplateUtils.getCompiledTemplate("evictionUsed", content);
+        Mustache unused = TemplateUtils.getCompiledTemplate("evictionUnused", content);
+        // Fill the cache with other templates, while continuing to use one of the two:
+        for (int i = 0; i < TemplateUtils.MAX_CACHED_TEMPLATES; ++i) {
+            TemplateUtils.getCompiledTemplate("evictionFiller" + i, content);
+            Assert.assertSame(used, TemplateUtils.getCompiledTemplate("evictionUsed", content));
+        }
+        // The unused template was evicted and is compiled again:
+        Assert.assertNotSame(unused, TemplateUtils.getCompiledTemplate("evictionUnused", content));
+        Assert.assertSame(used, TemplateUtils.getCompiledTemplate("evictionUsed", content));
+    }
+
+    @Test
+    public void testMissingValuesReportedOnEachRender() {
+        String content = "hello {{name}},\nthis is {{other}}";
+        for (int i = 0; i < 3; ++i) {
+            List<MissingValue> missing = new ArrayList<>();
+            Assert.assertEquals("hello ,\nthis is b", TemplateUtils.renderMustache(
+                    "testTemplate", content, Collections.singletonMap("other", "b"), missing));
+            Assert.assertEquals(1, missing.size());
+            Assert.assertEquals("name", missing.get(0).name);
+            Assert.assertEquals(1, missing.get(0).line);
+        }
+
+        List<MissingValue> missing = new ArrayList<>();
+        Map<String, String> env = new HashMap<>();
+        env.put("name", "a");
+        env.put("other", "b");
+        Assert.assertEquals("hello a,\nthis is b", TemplateUtils.renderMustache("testTemplate", content, env, missing));
+        Assert.assertTrue(missing.isEmpty());
+
+        Assert.assertEquals("hello ,\nthis is ", TemplateUtils.renderMustache(
+                "testTemplate", content, Collections.emptyMap(), missing));
+        Assert.assertEquals("[name@L1, other@L2]", missing.toString());
+    }
+
+    @Test
+    public void testConcurrentRendersReportOwnMissingValues() throws Exception {
+        String content = "{{a}} {{b}} {{c}}";
+        List<String> keys = Arrays.asList("a", "b", "c");
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (String key : keys) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 200; ++i) {
+                        List<MissingValue> missing = new ArrayList<>();
+                        TemplateUtils.renderMustache(
+                                "testTemplate", content, Collections.singletonMap(key, "x"), missing);
+                        Assert.assertEquals(2, missing.size());
+                        Assert.assertFalse(missing.stream().anyMatch(value -> value.name.equals(key)));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     private String getYamlContent(String fileName) throws IOException {
         File file = new File(getClass().getClassLoader().getResource(fileName).getFile());
         return FileUtils.readFileToString(file);
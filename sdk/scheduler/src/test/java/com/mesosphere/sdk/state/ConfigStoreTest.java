@@ -14,6 +14,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Tests for {@link ConfigStore}.
@@ -147,6 +148,86 @@ public class ConfigStoreTest {
         Assert.assertTrue(store.hasKey(testId));
     }
 
+    @Test
+    public void testCacheEvictsLeastRecentlyUsed() throws Exception {
+        AtomicInteger parseCount = new AtomicInteger();
+        StringConfiguration.Factory factory = new StringConfiguration.Factory();
+        store = new ConfigStore<>(bytes -> {
+            parseCount.incrementAndGet();
+            return factory.parse(bytes);
+        }, persister, "", 2);
+        UUID id1 = store.store(new StringConfiguration("config-1"));
+        UUID id2 = store.store(new StringConfiguration("config-2"));
+        // config-1 is now the most recently used:
+        Assert.assertEquals(new StringConfiguration("config-1"), store.fetch(id1));
+        UUID id3 = store.store(new StringConfiguration("config-3")); // evicts config-2
+        Assert.assertEquals(0, parseCount.get());
+
+        Assert.assertEquals(new StringConfiguration("config-1"), store.fetch(id1));
+        Assert.assertEquals(new StringConfiguration("config-3"), store.fetch(id3));
+        Assert.assertEquals(0, parseCount.get());
+
+        // Evicted config is retrieved from storage:
+        Assert.assertEquals(new StringConfiguration("config-2"), store.fetch(id2));
+        Assert.assertEquals(1, parseCount.get());
+        Assert.assertTrue(store.hasKey(id2));
+    }
+
+    @Test
+    public void testChangeNotificationsInvalidateCachedConfigs() throws Exception {
+        UUID id1 = store.store(new StringConfiguration("config-1"));
+        UUID id2 = store.store(new StringConfiguration("config-2"));
+        StringConfiguration edited = new StringConfiguration("edited");
+
+        // Modify the persister behind the store's back. The cached config is returned until the change is reported:
+        persister.set("Configurations/" + id1.toString(), edited.getBytes());
+        Assert.assertEquals(new StringConfiguration("config-1"), store.fetch(id1));
+        store.nodeUpdated("/Configurations/" + id1.toString(), edited.getBytes());
+        Assert.assertEquals(edited, store.fetch(id1));
+        Assert.assertEquals(edited.getBytes().length, store.getMetadata(id1).getSizeBytes());
+
+        // Changes to other data don't affect cached configs:
+        persister.set("Configurations/" + id2.toString(), edited.getBytes());
+        store.nodeUpdated("/ConfigTarget", id1.toString().getBytes(StandardCharsets.UTF_8));
+        store.nodeUpdated("/" + NAMESPACE_PATH + "/Configurations/" + id2.toString(), edited.getBytes());
+        Assert.assertEquals(new StringConfiguration("config-2"), store.fetch(id2));
+
+        // Deleting all configs drops everything:
+        persister.recursiveDelete("Configurations");
+        store.nodeDeleted("/Configurations");
+        try {
+            store.fetch(id2);
+            Assert.fail("Expected exception");
+        } catch (ConfigStoreException e) {
+            Assert.assertEquals(StorageError.Reason.NOT_FOUND, e.getReason());
+        }
+    }
+
+    @Test
+    public void testMetadata() throws Exception {
+        UUID id1 = store.store(testConfig);
+        UUID id2 = store.store(testConfig);
+        UUID id3 = store.store(new StringConfiguration("other-config"));
+
+        // Metadata is also available for configs which were stored by a prior instance:
+        store = new ConfigStore<StringConfiguration>(bytes -> {
+            throw new IllegalStateException("Config should not be deserialized");
+        }, persister);
+        ConfigStore.ConfigMetadata metadata1 = store.getMetadata(id1);
+        Assert.assertEquals(id1, metadata1.getId());
+        Assert.assertEquals(testConfig.getBytes().length, metadata1.getSizeBytes());
+        Assert.assertEquals(metadata1.getContentHash(), store.getMetadata(id2).getContentHash());
+        Assert.assertNotEquals(metadata1.getContentHash(), store.getMetadata(id3).getContentHash());
+
+        store.clear(id1);
+        try {
+            store.getMetadata(id1);
+            Assert.fail("Expected exception");
+        } catch (ConfigStoreException e) {
+            Assert.assertEquals(StorageError.Reason.NOT_FOUND, e.getReason());
+        }
+    }
+
     private void checkPathNotFound(String path) {
         try {
             persister.get(path);
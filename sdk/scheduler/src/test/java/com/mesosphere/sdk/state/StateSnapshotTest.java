@@ -0,0 +1,107 @@
+package com.mesosphere.sdk.state;
+
+import com.mesosphere.sdk.storage.MemPersister;
+import com.mesosphere.sdk.testutils.TestConstants;
+import org.apache.mesos.Protos;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link StateSnapshot}.
+ */
+public class StateSnapshotTest {
+    private static final UUID TARGET_CONFIG_ID = UUID.randomUUID();
+
+    private StateStore stateStore;
+
+    @Before
+    public void beforeEach() throws Exception {
+        stateStore = new StateStore(new MemPersister());
+    }
+
+    @Test
+    public void testEmptySnapshot() {
+        StateSnapshot snapshot = StateSnapshot.create(stateStore, TARGET_CONFIG_ID);
+        assertTrue(snapshot.getTasks().isEmpty());
+        assertTrue(snapshot.getTasksByName().isEmpty());
+        assertFalse(snapshot.getTask(TestConstants.TASK_NAME).isPresent());
+        assertFalse(snapshot.getStatus(TestConstants.TASK_NAME).isPresent());
+        assertEquals(GoalStateOverride.Status.INACTIVE, snapshot.getGoalOverrideStatus(TestConstants.TASK_NAME));
+        assertEquals(TARGET_CONFIG_ID, snapshot.getTargetConfigId());
+    }
+
+    @Test
+    public void testSnapshotMatchesStateStore() {
+        Protos.TaskInfo taskA = StateStoreUtilsTest.createTask("a");
+        Protos.TaskInfo taskB = StateStoreUtilsTest.createTask("b");
+        stateStore.storeTasks(Arrays.asList(taskA, taskB));
+        Protos.TaskStatus status = Protos.TaskStatus.newBuilder()
+                .setTaskId(taskA.getTaskId())
+                .setState(Protos.TaskState.TASK_RUNNING)
+                .build();
+        stateStore.storeStatus("a", status);
+        GoalStateOverride.Status overrideStatus =
+                GoalStateOverride.PAUSED.newStatus(GoalStateOverride.Progress.COMPLETE);
+        stateStore.storeGoalOverrideStatus("b", overrideStatus);
+
+        StateSnapshot snapshot = StateSnapshot.create(stateStore, TARGET_CONFIG_ID);
+        assertEquals(stateStore.fetchTasks().size(), snapshot.getTasks().size());
+        assertTrue(snapshot.getTasks().containsAll(stateStore.fetchTasks()));
+        assertEquals(taskA, snapshot.getTasksByName().get("a"));
+        assertEquals(taskB, snapshot.getTask("b").get());
+        assertEquals(status, snapshot.getStatus("a").get());
+        assertFalse(snapshot.getStatus("b").isPresent());
+        assertEquals(GoalStateOverride.Status.INACTIVE, snapshot.getGoalOverrideStatus("a"));
+        assertEquals(overrideStatus, snapshot.getGoalOverrideStatus("b"));
+    }
+
+    @Test
+    public void testSnapshotIsNotAffectedByLaterWrites() {
+        Protos.TaskInfo taskA = StateStoreUtilsTest.createTask("a");
+        stateStore.storeTasks(Arrays.asList(taskA));
+        StateSnapshot snapshot = StateSnapshot.create(stateStore, TARGET_CONFIG_ID);
+
+        stateStore.storeTasks(Arrays.asList(StateStoreUtilsTest.createTask("b")));
+        stateStore.clearTask("a");
+
+        assertEquals(1, snapshot.getTasks().size());
+        assertEquals(taskA, snapshot.getTask("a").get());
+        assertFalse(snapshot.getTask("b").isPresent());
+
+        StateSnapshot updatedSnapshot = StateSnapshot.create(stateStore, TARGET_CONFIG_ID);
+        assertFalse(updatedSnapshot.getTask("a").isPresent());
+        assertTrue(updatedSnapshot.getTask("b").isPresent());
+    }
+
+    @Test
+    public void testRefresh() {
+        stateStore.storeTasks(Arrays.asList(StateStoreUtilsTest.createTask("a")));
+        StateSnapshot snapshot = StateSnapshot.create(stateStore, TARGET_CONFIG_ID);
+
+        // No changes: same instance
+        assertSame(snapshot, snapshot.refresh(stateStore));
+        stateStore.fetchTasks();
+        assertSame(snapshot, snapshot.refresh(stateStore));
+
+        stateStore.storeGoalOverrideStatus("a", GoalStateOverride.PAUSED.newStatus(GoalStateOverride.Progress.PENDING));
+        StateSnapshot refreshed = snapshot.refresh(stateStore);
+        assertNotSame(snapshot, refreshed);
+        assertEquals(GoalStateOverride.Status.INACTIVE, snapshot.getGoalOverrideStatus("a"));
+        assertEquals(GoalStateOverride.PAUSED, refreshed.getGoalOverrideStatus("a").target);
+        assertEquals(TARGET_CONFIG_ID, refreshed.getTargetConfigId());
+
+        stateStore.invalidateCachedState();
+        assertNotSame(refreshed, refreshed.refresh(stateStore));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSnapshotIsUnmodifiable() {
+        stateStore.storeTasks(Arrays.asList(StateStoreUtilsTest.createTask("a")));
+        StateSnapshot.create(stateStore, TARGET_CONFIG_ID).getTasksByName().clear();
+    }
+}
@@ -6,6 +6,7 @@ import org.apache.mesos.Protos;
 import com.mesosphere.sdk.offer.CommonIdUtils;
 import com.mesosphere.sdk.storage.MemPersister;
 import com.mesosphere.sdk.storage.Persister;
+import com.mesosphere.sdk.storage.PersisterCache;
 import com.mesosphere.sdk.storage.PersisterException;
 import com.mesosphere.sdk.storage.PersisterUtils;
 import com.mesosphere.sdk.storage.StorageError;
@@ -14,6 +15,13 @@ import org.junit.*;
 
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.Assert.*;
 
@@ -187,6 +195,276 @@ public class StateStoreTest {
         assertEquals(Arrays.asList(testTaskName0, testTaskName1), store.fetchTaskNames());
     }
 
+    @Test
+    public void testFetchTaskNamesByIds() throws Exception {
+        Protos.TaskInfo taskInfoA = StateStoreUtilsTest.createTask("a");
+        Protos.TaskInfo taskInfoB = StateStoreUtilsTest.createTask("b");
+        Protos.TaskID unknownId = CommonIdUtils.toTaskId(TestConstants.SERVICE_NAME, "c");
+        store.storeTasks(Arrays.asList(taskInfoA, taskInfoB));
+
+        Map<Protos.TaskID, String> taskNames =
+                store.fetchTaskNamesByIds(Arrays.asList(taskInfoA.getTaskId(), taskInfoB.getTaskId(), unknownId));
+        assertEquals(2, taskNames.size());
+        assertEquals("a", taskNames.get(taskInfoA.getTaskId()));
+        assertEquals("b", taskNames.get(taskInfoB.getTaskId()));
+
+        // Relaunch 'a' with a new TaskID: the old TaskID should no longer resolve
+        Protos.TaskInfo relaunchedTaskInfoA = StateStoreUtilsTest.createTask("a");
+        store.storeTasks(Arrays.asList(relaunchedTaskInfoA));
+        assertTrue(store.fetchTaskNamesByIds(Arrays.asList(taskInfoA.getTaskId())).isEmpty());
+        assertEquals("a", store.fetchTaskNamesByIds(Arrays.asList(relaunchedTaskInfoA.getTaskId()))
+                .get(relaunchedTaskInfoA.getTaskId()));
+
+        // Clear 'b': its TaskID should no longer resolve
+        store.clearTask("b");
+        assertTrue(store.fetchTaskNamesByIds(Arrays.asList(taskInfoB.getTaskId())).isEmpty());
+    }
+
+    @Test
+    public void testFetchTaskNamesByIdsAfterExternalChange() throws Exception {
+        Protos.TaskInfo taskInfo = StateStoreUtilsTest.createTask("a");
+        store.storeTasks(Arrays.asList(taskInfo));
+        assertEquals(1, store.fetchTaskNamesByIds(Arrays.asList(taskInfo.getTaskId())).size());
+
+        // Modify the persister behind the store's back, then tell the store to drop any cached state:
+        persister.recursiveDelete("Tasks/a");
+        assertEquals(1, store.fetchTaskNamesByIds(Arrays.asList(taskInfo.getTaskId())).size());
+        store.invalidateCachedState();
+        assertTrue(store.fetchTaskNamesByIds(Arrays.asList(taskInfo.getTaskId())).isEmpty());
+    }
+
+    @Test
+    public void testFetchedTaskDataIsShared() throws Exception {
+        store.storeTasks(createTasks(TestConstants.TASK_NAME));
+        store.storeStatus(TestConstants.TASK_NAME, TASK_STATUS);
+
+        assertSame(store.fetchTask(TestConstants.TASK_NAME).get(), store.fetchTask(TestConstants.TASK_NAME).get());
+        assertSame(store.fetchStatus(TestConstants.TASK_NAME).get(),
+                store.fetchStatus(TestConstants.TASK_NAME).get());
+        assertSame(store.fetchTasks(), store.fetchTasks());
+        assertSame(store.fetchStatuses(), store.fetchStatuses());
+        assertSame(store.fetchTasks().iterator().next(), store.fetchTask(TestConstants.TASK_NAME).get());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testFetchedTasksAreUnmodifiable() throws Exception {
+        store.storeTasks(createTasks(TestConstants.TASK_NAME));
+        store.fetchTasks().clear();
+    }
+
+    @Test
+    public void testCachedTaskDataIsUpdatedOnWrite() throws Exception {
+        Collection<Protos.TaskInfo> tasks = createTasks(TestConstants.TASK_NAME);
+        store.storeTasks(tasks);
+        store.storeStatus(TestConstants.TASK_NAME, TASK_STATUS);
+        assertEquals(tasks, store.fetchTasks());
+        assertEquals(Arrays.asList(TASK_STATUS), store.fetchStatuses());
+
+        Protos.TaskInfo updatedTask = tasks.iterator().next().toBuilder()
+                .setTaskId(CommonIdUtils.toTaskId(TestConstants.SERVICE_NAME, TestConstants.TASK_NAME))
+                .build();
+        Protos.TaskStatus updatedStatus = TASK_STATUS.toBuilder()
+                .setTaskId(updatedTask.getTaskId())
+                .setState(Protos.TaskState.TASK_STAGING)
+                .build();
+        store.storeTasks(Arrays.asList(updatedTask));
+        store.storeStatus(TestConstants.TASK_NAME, updatedStatus);
+        assertEquals(updatedTask, store.fetchTask(TestConstants.TASK_NAME).get());
+        assertEquals(Arrays.asList(updatedTask), store.fetchTasks());
+        assertEquals(updatedStatus, store.fetchStatus(TestConstants.TASK_NAME).get());
+        assertEquals(Arrays.asList(updatedStatus), store.fetchStatuses());
+
+        GoalStateOverride.Status overrideStatus =
+                GoalStateOverride.PAUSED.newStatus(GoalStateOverride.Progress.PENDING);
+        store.storeGoalOverrideStatus(TestConstants.TASK_NAME, overrideStatus);
+        assertEquals(overrideStatus, store.fetchGoalOverrideStatus(TestConstants.TASK_NAME));
+
+        store.clearTask(TestConstants.TASK_NAME);
+        assertFalse(store.fetchTask(TestConstants.TASK_NAME).isPresent());
+        assertFalse(store.fetchStatus(TestConstants.TASK_NAME).isPresent());
+        assertEquals(GoalStateOverride.Status.INACTIVE, store.fetchGoalOverrideStatus(TestConstants.TASK_NAME));
+        assertTrue(store.fetchTasks().isEmpty());
+        assertTrue(store.fetchStatuses().isEmpty());
+    }
+
+    @Test
+    public void testCachedTaskDataAfterExternalChange() throws Exception {
+        store.storeTasks(createTasks(TestConstants.TASK_NAME));
+        store.storeStatus(TestConstants.TASK_NAME, TASK_STATUS);
+        assertEquals(1, store.fetchTasks().size());
+
+        // Modify the persister behind the store's back, then tell the store to drop any cached state:
+        persister.recursiveDelete("Tasks/" + TestConstants.TASK_NAME);
+        assertTrue(store.fetchTask(TestConstants.TASK_NAME).isPresent());
+        store.invalidateCachedState();
+        assertFalse(store.fetchTask(TestConstants.TASK_NAME).isPresent());
+        assertFalse(store.fetchStatus(TestConstants.TASK_NAME).isPresent());
+        assertTrue(store.fetchTasks().isEmpty());
+    }
+
+    @Test
+    public void testCachedTaskDataIsInvalidatedByOtherInstances() throws Exception {
+        PersisterCache persisterCache = new PersisterCache(persister);
+        store = new StateStore(persisterCache);
+        persisterCache.addChangeListener(store);
+        Protos.TaskInfo taskInfo = StateStoreUtilsTest.createTask("a");
+        store.storeTasks(Arrays.asList(taskInfo));
+        store.storeStatus("a", TASK_STATUS.toBuilder().setTaskId(taskInfo.getTaskId()).build());
+        assertEquals(1, store.fetchTaskNamesByIds(Arrays.asList(taskInfo.getTaskId())).size());
+        assertEquals(1, store.fetchStatuses().size());
+
+        // Writes via another instance over the same cache are visible to this instance:
+        StateStore otherStore = new StateStore(persisterCache);
+        persisterCache.addChangeListener(otherStore);
+        Protos.TaskInfo updatedTaskInfo = taskInfo.toBuilder()
+                .setTaskId(CommonIdUtils.toTaskId(TestConstants.SERVICE_NAME, "a"))
+                .build();
+        otherStore.storeTasks(Arrays.asList(updatedTaskInfo));
+        assertEquals(updatedTaskInfo, store.fetchTask("a").get());
+        assertTrue(store.fetchTaskNamesByIds(Arrays.asList(taskInfo.getTaskId())).isEmpty());
+        assertEquals(1, store.fetchTaskNamesByIds(Arrays.asList(updatedTaskInfo.getTaskId())).size());
+
+        otherStore.clearTask("a");
+        assertFalse(store.fetchTask("a").isPresent());
+        assertFalse(store.fetchStatus("a").isPresent());
+        assertTrue(store.fetchStatuses().isEmpty());
+
+        // Instances over a different namespace are unaffected:
+        StateStore namespacedStore = new StateStore(persisterCache, NAMESPACE);
+        persisterCache.addChangeListener(namespacedStore);
+        namespacedStore.storeTasks(Arrays.asList(taskInfo));
+        store.storeTasks(Arrays.asList(taskInfo));
+        namespacedStore.clearTask("a");
+        assertTrue(store.fetchTask("a").isPresent());
+    }
+
+    @Test
+    public void testOwnWritesKeepCachedTaskData() throws Exception {
+        PersisterCache persisterCache = new PersisterCache(persister);
+        store = new StateStore(persisterCache);
+        persisterCache.addChangeListener(store);
+        Protos.TaskInfo taskInfo = StateStoreUtilsTest.createTask("a");
+        store.storeTasks(Arrays.asList(taskInfo));
+        assertEquals(1, store.fetchTaskNamesByIds(Arrays.asList(taskInfo.getTaskId())).size());
+
+        // Notifications of this instance's own writes don't discard the TaskID index or the cached data:
+        long version = store.getTaskDataVersion();
+        store.storeStatus("a", TASK_STATUS.toBuilder().setTaskId(taskInfo.getTaskId()).build());
+        assertEquals(version + 1, store.getTaskDataVersion());
+        persister.recursiveDelete("Tasks/a");
+        assertEquals(taskInfo, store.fetchTask("a").get());
+        assertEquals(1, store.fetchTaskNamesByIds(Arrays.asList(taskInfo.getTaskId())).size());
+    }
+
+    @Test
+    public void testChangeNotificationsOnlyInvalidateAffectedData() throws Exception {
+        Protos.TaskInfo taskInfoA = StateStoreUtilsTest.createTask("a");
+        Protos.TaskInfo taskInfoB = StateStoreUtilsTest.createTask("b");
+        store.storeTasks(Arrays.asList(taskInfoA, taskInfoB));
+        store.storeStatus("a", TASK_STATUS.toBuilder().setTaskId(taskInfoA.getTaskId()).build());
+        assertEquals(2, store.fetchTasks().size());
+
+        // Modify the persister behind the store's back, and report the changes:
+        Protos.TaskStatus statusA = TASK_STATUS.toBuilder()
+                .setTaskId(taskInfoA.getTaskId())
+                .setState(Protos.TaskState.TASK_RUNNING)
+                .build();
+        persister.set("Tasks/a/TaskStatus", statusA.toByteArray());
+        persister.recursiveDelete("Tasks/b");
+        store.nodeUpdated("/Tasks/a/TaskStatus", statusA.toByteArray());
+        assertEquals(statusA, store.fetchStatus("a").get());
+        // TaskInfos are still cached until their change is reported:
+        assertEquals(taskInfoB, store.fetchTask("b").get());
+        store.nodeDeleted("/Tasks/b");
+        assertFalse(store.fetchTask("b").isPresent());
+        assertEquals(Arrays.asList(taskInfoA), store.fetchTasks());
+
+        // Changes to other data, e.g. properties or other namespaces, are ignored:
+        long version = store.getTaskDataVersion();
+        store.nodeUpdated("/Properties/foo", null);
+        store.nodeUpdated("/Services/" + NAMESPACE + "/Tasks/a/TaskInfo", null);
+        assertEquals(version, store.getTaskDataVersion());
+
+        // Deleting the root drops everything:
+        persister.recursiveDelete("Tasks");
+        store.nodeDeleted("/");
+        assertTrue(store.fetchTasks().isEmpty());
+    }
+
+    @Test
+    public void testTaskIdLookupWithConcurrentChanges() throws Exception {
+        AtomicReference<String> changedPath = new AtomicReference<>();
+        AtomicInteger listCount = new AtomicInteger();
+        persister = new MemPersister() {
+            @Override
+            public Collection<String> getChildren(String path) throws PersisterException {
+                listCount.incrementAndGet();
+                Collection<String> children = super.getChildren(path);
+                // Simulate a change being reported while the store is reading tasks to build its TaskID index:
+                if (changedPath.get() != null) {
+                    store.nodeUpdated(changedPath.get(), null);
+                }
+                return children;
+            }
+        };
+        store = new StateStore(persister);
+        Protos.TaskInfo taskInfo = StateStoreUtilsTest.createTask("a");
+        store.storeTasks(Arrays.asList(taskInfo));
+
+        // Status changes don't prevent building the index, which is then used for later lookups:
+        changedPath.set("/Tasks/a/TaskStatus");
+        listCount.set(0);
+        assertEquals("a", store.fetchTaskNamesByIds(Arrays.asList(taskInfo.getTaskId())).get(taskInfo.getTaskId()));
+        assertEquals("a", store.fetchTaskNamesByIds(Arrays.asList(taskInfo.getTaskId())).get(taskInfo.getTaskId()));
+        assertEquals(1, listCount.get());
+
+        // TaskInfo changes during every attempt to build the index result in a direct search of the TaskInfos:
+        changedPath.set("/Tasks/a/TaskInfo");
+        store.nodeUpdated("/Tasks/a/TaskInfo", null);
+        listCount.set(0);
+        assertEquals("a", store.fetchTaskNamesByIds(Arrays.asList(taskInfo.getTaskId())).get(taskInfo.getTaskId()));
+        assertEquals(3, listCount.get());
+    }
+
+    @Test
+    public void testCachedReadsDoNotWaitForWrites() throws Exception {
+        CountDownLatch writeStarted = new CountDownLatch(1);
+        CountDownLatch finishWrite = new CountDownLatch(1);
+        persister = new MemPersister() {
+            @Override
+            public void setMany(Map<String, byte[]> pathBytesMap) throws PersisterException {
+                if (pathBytesMap.keySet().stream().anyMatch(path -> path.startsWith("Tasks/b/"))) {
+                    writeStarted.countDown();
+                    try {
+                        finishWrite.await();
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+                super.setMany(pathBytesMap);
+            }
+        };
+        store = new StateStore(persister);
+        Protos.TaskInfo taskInfo = StateStoreUtilsTest.createTask("a");
+        store.storeTasks(Arrays.asList(taskInfo));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Protos.TaskInfo otherTaskInfo = StateStoreUtilsTest.createTask("b");
+            Future<?> write = executor.submit(() -> store.storeTasks(Arrays.asList(otherTaskInfo)));
+            assertTrue(writeStarted.await(10, TimeUnit.SECONDS));
+            // The write is blocked in the persister, but cached data is still available:
+            assertEquals(taskInfo, store.fetchTask("a").get());
+            assertEquals(Arrays.asList(taskInfo), store.fetchTasks());
+            finishWrite.countDown();
+            write.get(10, TimeUnit.SECONDS);
+        } finally {
+            finishWrite.countDown();
+            executor.shutdownNow();
+        }
+        assertEquals(2, store.fetchTasks().size());
+    }
+
     @Test
     public void testMultipleTasks() throws Exception {
         assertTrue(store.fetchTaskNames().isEmpty());
@@ -565,6 +843,144 @@ public class StateStoreTest {
         assertTrue(store2.fetchStatus(TestConstants.TASK_NAME).isPresent());
     }
 
+    @Test
+    public void testStatusWriteBehindCoalescesUpdates() throws Exception {
+        // Long enough that the background flush doesn't happen during the test:
+        store = new StateStore(persister, "", 60000);
+        String path = "Tasks/" + TestConstants.TASK_NAME + "/TaskStatus";
+        store.storeTasks(Arrays.asList(TestConstants.TASK_INFO));
+
+        // Initial status is written immediately:
+        store.storeStatus(TestConstants.TASK_NAME, TestConstants.TASK_STATUS);
+        assertArrayEquals(TestConstants.TASK_STATUS.toByteArray(), persister.get(path));
+
+        // Repeats of the same status are deferred, but are visible to readers:
+        Protos.TaskStatus repeated = getRepeatedStatus(TestConstants.TASK_STATUS, 1);
+        Protos.TaskStatus repeatedAgain = getRepeatedStatus(TestConstants.TASK_STATUS, 2);
+        store.storeStatus(TestConstants.TASK_NAME, repeated);
+        store.storeStatus(TestConstants.TASK_NAME, repeatedAgain);
+        assertEquals(repeatedAgain, store.fetchStatus(TestConstants.TASK_NAME).get());
+        assertEquals(Arrays.asList(repeatedAgain), store.fetchStatuses());
+        assertArrayEquals(TestConstants.TASK_STATUS.toByteArray(), persister.get(path));
+
+        // Only the latest update is written:
+        store.flushPendingStatuses();
+        assertArrayEquals(repeatedAgain.toByteArray(), persister.get(path));
+        assertEquals(repeatedAgain, new StateStore(persister).fetchStatus(TestConstants.TASK_NAME).get());
+    }
+
+    @Test
+    public void testStatusWriteBehindTaskDataChangesAreDurable() throws Exception {
+        store = new StateStore(persister, "", 60000);
+        String path = "Tasks/" + TestConstants.TASK_NAME + "/TaskStatus";
+        store.storeStatus(TestConstants.TASK_NAME, TestConstants.TASK_STATUS);
+
+        // Changes in health, readiness check results, or labels are written immediately, despite having the same state:
+        Protos.TaskStatus healthy = TestConstants.TASK_STATUS.toBuilder().setHealthy(true).build();
+        store.storeStatus(TestConstants.TASK_NAME, healthy);
+        assertArrayEquals(healthy.toByteArray(), persister.get(path));
+
+        Protos.TaskStatus ready = healthy.toBuilder()
+                .setCheckStatus(Protos.CheckStatusInfo.newBuilder()
+                        .setType(Protos.CheckInfo.Type.COMMAND)
+                        .setCommand(Protos.CheckStatusInfo.Command.newBuilder().setExitCode(0)))
+                .build();
+        store.storeStatus(TestConstants.TASK_NAME, ready);
+        assertArrayEquals(ready.toByteArray(), persister.get(path));
+
+        Protos.TaskStatus labeled = ready.toBuilder()
+                .setLabels(Protos.Labels.newBuilder()
+                        .addLabels(Protos.Label.newBuilder().setKey("readiness_check_passed").setValue("true")))
+                .build();
+        store.storeStatus(TestConstants.TASK_NAME, labeled);
+        assertArrayEquals(labeled.toByteArray(), persister.get(path));
+
+        // A repeat of the latest status is still deferred:
+        store.storeStatus(TestConstants.TASK_NAME, getRepeatedStatus(labeled, 1));
+        assertArrayEquals(labeled.toByteArray(), persister.get(path));
+    }
+
+    @Test
+    public void testStatusWriteBehindStateChangesAreDurable() throws Exception {
+        store = new StateStore(persister, "", 60000);
+        store.storeStatus("a", TestConstants.TASK_STATUS);
+        store.storeStatus("b", TestConstants.TASK_STATUS);
+        Protos.TaskStatus repeated = getRepeatedStatus(TestConstants.TASK_STATUS, 1);
+        store.storeStatus("a", repeated);
+        store.storeStatus("b", repeated);
+
+        // Terminal state is written immediately, along with the pending status for the other task:
+        Protos.TaskStatus failed = TestConstants.TASK_STATUS.toBuilder()
+                .setState(Protos.TaskState.TASK_FAILED)
+                .build();
+        store.storeStatus("a", failed);
+        assertArrayEquals(failed.toByteArray(), persister.get("Tasks/a/TaskStatus"));
+        assertArrayEquals(repeated.toByteArray(), persister.get("Tasks/b/TaskStatus"));
+
+        // Repeated terminal states are also written immediately:
+        Protos.TaskStatus failedAgain = failed.toBuilder().setMessage("again").build();
+        store.storeStatus("a", failedAgain);
+        assertArrayEquals(failedAgain.toByteArray(), persister.get("Tasks/a/TaskStatus"));
+    }
+
+    @Test
+    public void testStatusWriteBehindClose() throws Exception {
+        store = new StateStore(persister, "", 60000);
+        String path = "Tasks/" + TestConstants.TASK_NAME + "/TaskStatus";
+        store.storeStatus(TestConstants.TASK_NAME, TestConstants.TASK_STATUS);
+        Protos.TaskStatus repeated = getRepeatedStatus(TestConstants.TASK_STATUS, 1);
+        store.storeStatus(TestConstants.TASK_NAME, repeated);
+        assertArrayEquals(TestConstants.TASK_STATUS.toByteArray(), persister.get(path));
+
+        // Pending statuses are written on close:
+        store.close();
+        assertArrayEquals(repeated.toByteArray(), persister.get(path));
+
+        // Later statuses are written immediately:
+        Protos.TaskStatus repeatedAgain = getRepeatedStatus(TestConstants.TASK_STATUS, 2);
+        store.storeStatus(TestConstants.TASK_NAME, repeatedAgain);
+        assertArrayEquals(repeatedAgain.toByteArray(), persister.get(path));
+    }
+
+    @Test
+    public void testStatusWriteBehindClearTask() throws Exception {
+        store = new StateStore(persister, "", 60000);
+        store.storeStatus(TestConstants.TASK_NAME, TestConstants.TASK_STATUS);
+        store.storeStatus(TestConstants.TASK_NAME, getRepeatedStatus(TestConstants.TASK_STATUS, 1));
+        store.clearTask(TestConstants.TASK_NAME);
+
+        // The pending status isn't written after the task has been cleared:
+        store.flushPendingStatuses();
+        checkPathNotFound("Tasks/" + TestConstants.TASK_NAME);
+        assertFalse(store.fetchStatus(TestConstants.TASK_NAME).isPresent());
+    }
+
+    @Test
+    public void testStatusWriteBehindFlushesInBackground() throws Exception {
+        store = new StateStore(persister, "", 10);
+        Protos.TaskStatus repeated = getRepeatedStatus(TestConstants.TASK_STATUS, 1);
+        store.storeStatus(TestConstants.TASK_NAME, TestConstants.TASK_STATUS);
+        store.storeStatus(TestConstants.TASK_NAME, repeated);
+
+        String path = "Tasks/" + TestConstants.TASK_NAME + "/TaskStatus";
+        for (int i = 0; i < 500 && !Arrays.equals(repeated.toByteArray(), persister.get(path)); ++i) {
+            Thread.sleep(10);
+        }
+        assertArrayEquals(repeated.toByteArray(), persister.get(path));
+    }
+
+    /**
+     * Returns a repeat of the provided status, as delivered by reconciliation at the provided time.
+     */
+    private static Protos.TaskStatus getRepeatedStatus(Protos.TaskStatus status, double timestamp) {
+        return status.toBuilder()
+                .setTimestamp(timestamp)
+                .setSource(Protos.TaskStatus.Source.SOURCE_MASTER)
+                .setReason(Protos.TaskStatus.Reason.REASON_RECONCILIATION)
+                .setMessage("Reconciliation: Latest task state")
+                .build();
+    }
+
     private static Collection<Protos.TaskInfo> createTasks(String... taskNames) {
         List<Protos.TaskInfo> taskInfos = new ArrayList<>();
         for (String taskName : taskNames) {
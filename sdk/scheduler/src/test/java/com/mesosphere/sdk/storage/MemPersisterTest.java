@@ -284,6 +284,32 @@ public class MemPersisterTest {
         assertTrue(PersisterUtils.getAllKeys(persister).isEmpty());
     }
 
+    @Test
+    public void testOperationCounts() throws PersisterException {
+        MemPersister memPersister = new MemPersister();
+        memPersister.set(KEY, VAL);
+        memPersister.setMany(Collections.singletonMap(KEY2, VAL2));
+        memPersister.setMany(Collections.emptyMap());
+        assertEquals(0, memPersister.getReadCount());
+        assertEquals(2, memPersister.getWriteCount());
+
+        memPersister.get(KEY);
+        memPersister.getChildren("");
+        memPersister.getMany(Arrays.asList(KEY, KEY2));
+        memPersister.getMany(Collections.emptyList());
+        assertEquals(4, memPersister.getReadCount());
+        // root listing, plus a data read and a listing for each of the two nodes:
+        memPersister.getAll();
+        assertEquals(9, memPersister.getReadCount());
+        assertEquals(2, memPersister.getWriteCount());
+
+        memPersister.recursiveDelete(KEY);
+        memPersister.recursiveDeleteMany(Arrays.asList(KEY2));
+        memPersister.recursiveDeleteMany(Collections.emptyList());
+        assertEquals(9, memPersister.getReadCount());
+        assertEquals(4, memPersister.getWriteCount());
+    }
+
     @Test
     public void testMultithreadedSetGetDelete() throws InterruptedException {
         Collection<Runnable> threads = new ArrayList<>();
@@ -0,0 +1,164 @@
+package com.mesosphere.sdk.storage;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.mesosphere.sdk.offer.LoggingUtils;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Measures the latency of {@link PersisterCache} reads while batches of writes are made against storage with a
+ * simulated ZooKeeper round trip. Compares the cache against the locking which it used before reads stopped waiting on
+ * writes, where a read-write lock was held across the round trip. This isn't run with the other tests, run it with
+ * {@code ./gradlew :scheduler:benchmark}.
+ */
+public class PersisterCacheBenchmark {
+
+    private static final Logger LOGGER = LoggingUtils.getLogger(PersisterCacheBenchmark.class);
+
+    private static final long WRITE_LATENCY_MS = 5;
+    private static final int WRITES = 200;
+    private static final int READER_THREADS = 4;
+
+    private static final String KEY = "key";
+    private static final String KEY2 = "key2";
+    private static final byte[][] VALUES = new byte[][] {
+            "someval".getBytes(StandardCharsets.UTF_8),
+            "someval2".getBytes(StandardCharsets.UTF_8)
+    };
+
+    private interface Reader {
+        byte[] get(String path) throws PersisterException;
+    }
+
+    private interface Writer {
+        void setMany(Map<String, byte[]> pathBytesMap) throws PersisterException;
+    }
+
+    @Test
+    public void benchmarkReadLatencyUnderWriteLoad() throws Exception {
+        // The previous locking: reads share a lock which writes hold exclusively until storage has been updated.
+        Persister lockedStorage = getSlowPersister();
+        MemPersister lockedCache = new MemPersister();
+        lockedStorage.set(KEY, VALUES[0]);
+        lockedCache.set(KEY, VALUES[0]);
+        ReadWriteLock lock = new ReentrantReadWriteLock();
+        long[] lockedLatencies = measure(
+                path -> {
+                    lock.readLock().lock();
+                    try {
+                        return lockedCache.get(path);
+                    } finally {
+                        lock.readLock().unlock();
+                    }
+                },
+                pathBytesMap -> {
+                    lock.writeLock().lock();
+                    try {
+                        lockedStorage.setMany(pathBytesMap);
+                        lockedCache.setMany(pathBytesMap);
+                    } finally {
+                        lock.writeLock().unlock();
+                    }
+                });
+
+        PersisterCache cache = new PersisterCache(getSlowPersister());
+        cache.set(KEY, VALUES[0]);
+        long[] cacheLatencies = measure(cache::get, cache::setMany);
+
+        LOGGER.info("Reads by {} threads during {} batch writes with {}ms storage latency: "
+                + "previous locking {}, PersisterCache {}",
+                READER_THREADS,
+                WRITES,
+                WRITE_LATENCY_MS,
+                summarize(lockedLatencies),
+                summarize(cacheLatencies));
+    }
+
+    /**
+     * Returns a persister which takes {@link #WRITE_LATENCY_MS} to apply each write, like a round trip to ZooKeeper.
+     */
+    private static Persister getSlowPersister() {
+        return new MemPersister() {
+            @Override
+            public void set(String path, byte[] bytes) throws PersisterException {
+                Uninterruptibles.sleepUninterruptibly(WRITE_LATENCY_MS, TimeUnit.MILLISECONDS);
+                super.set(path, bytes);
+            }
+
+            @Override
+            public void setMany(Map<String, byte[]> pathBytesMap) throws PersisterException {
+                Uninterruptibles.sleepUninterruptibly(WRITE_LATENCY_MS, TimeUnit.MILLISECONDS);
+                super.setMany(pathBytesMap);
+            }
+        };
+    }
+
+    /**
+     * Makes {@link #WRITES} batch writes while {@link #READER_THREADS} threads read continuously, and returns the
+     * sorted latencies of the reads in nanoseconds.
+     */
+    private static long[] measure(Reader reader, Writer writer) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(READER_THREADS + 1);
+        try {
+            AtomicBoolean writesDone = new AtomicBoolean(false);
+            Future<?> writes = executor.submit(() -> {
+                try {
+                    for (int i = 0; i < WRITES; ++i) {
+                        Map<String, byte[]> pathBytesMap = new HashMap<>();
+                        pathBytesMap.put(KEY, VALUES[i % 2]);
+                        pathBytesMap.put(KEY2, VALUES[i % 2]);
+                        writer.setMany(pathBytesMap);
+                    }
+                } finally {
+                    writesDone.set(true);
+                }
+                return null;
+            });
+            List<Future<List<Long>>> reads = new ArrayList<>();
+            for (int i = 0; i < READER_THREADS; ++i) {
+                reads.add(executor.submit(() -> {
+                    List<Long> latencies = new ArrayList<>();
+                    while (!writesDone.get()) {
+                        long startNanos = System.nanoTime();
+                        byte[] value = reader.get(KEY);
+                        latencies.add(System.nanoTime() - startNanos);
+                        Assert.assertNotNull(value);
+                    }
+                    return latencies;
+                }));
+            }
+
+            writes.get();
+            List<Long> latencies = new ArrayList<>();
+            for (Future<List<Long>> read : reads) {
+                latencies.addAll(read.get());
+            }
+            return latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String summarize(long[] sortedLatenciesNanos) {
+        Assert.assertTrue(sortedLatenciesNanos.length > 0);
+        return String.format("p50=%dus p99=%dus max=%dus (%d reads)",
+                TimeUnit.NANOSECONDS.toMicros(sortedLatenciesNanos[sortedLatenciesNanos.length / 2]),
+                TimeUnit.NANOSECONDS.toMicros(sortedLatenciesNanos[sortedLatenciesNanos.length * 99 / 100]),
+                TimeUnit.NANOSECONDS.toMicros(sortedLatenciesNanos[sortedLatenciesNanos.length - 1]),
+                sortedLatenciesNanos.length);
+    }
+}
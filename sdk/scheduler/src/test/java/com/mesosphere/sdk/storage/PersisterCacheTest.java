@@ -7,11 +7,13 @@ import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.slf4j.Logger;
 
+import com.google.common.util.concurrent.Uninterruptibles;
 import com.mesosphere.sdk.offer.LoggingUtils;
 import com.mesosphere.sdk.storage.StorageError.Reason;
 
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
 
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.doThrow;
@@ -307,6 +309,194 @@ public class PersisterCacheTest {
         runThreads(threads);
     }
 
+    @Test
+    public void testReadsNotBlockedByWrites() throws Exception {
+        CountDownLatch writeStarted = new CountDownLatch(1);
+        CountDownLatch writeReleased = new CountDownLatch(1);
+        persister = new MemPersister() {
+            @Override
+            public void set(String path, byte[] bytes) throws PersisterException {
+                writeStarted.countDown();
+                Uninterruptibles.awaitUninterruptibly(writeReleased);
+                super.set(path, bytes);
+            }
+        };
+        persister.setMany(Collections.singletonMap(KEY, VAL));
+        cache = new PersisterCache(persister);
+        assertArrayEquals(VAL, cache.get(KEY));
+
+        Thread writer = new Thread(() -> {
+            try {
+                cache.set(KEY, VAL2);
+            } catch (PersisterException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        writer.start();
+        writeStarted.await();
+
+        // Reads are served while the write is still waiting on the underlying storage:
+        assertArrayEquals(VAL, cache.get(KEY));
+        assertArrayEquals(VAL, cache.getMany(KEY_SET).get("/" + KEY));
+        assertEquals(KEY_SET, PersisterUtils.getAllKeys(cache));
+
+        writeReleased.countDown();
+        writer.join();
+        assertArrayEquals(VAL2, cache.get(KEY));
+    }
+
+    @Test
+    public void testReadsNotBlockedByBatchWrites() throws Exception {
+        CountDownLatch writeStarted = new CountDownLatch(1);
+        CountDownLatch writeReleased = new CountDownLatch(1);
+        persister = new MemPersister() {
+            @Override
+            public void setMany(Map<String, byte[]> pathBytesMap) throws PersisterException {
+                writeStarted.countDown();
+                Uninterruptibles.awaitUninterruptibly(writeReleased);
+                super.setMany(pathBytesMap);
+            }
+        };
+        persister.set(KEY, VAL);
+        cache = new PersisterCache(persister);
+        assertArrayEquals(VAL, cache.get(KEY));
+
+        Thread writer = new Thread(() -> {
+            try {
+                Map<String, byte[]> writes = new HashMap<>();
+                writes.put(KEY, VAL2);
+                writes.put(KEY2, VAL2);
+                cache.setMany(writes);
+            } catch (PersisterException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        writer.start();
+        writeStarted.await();
+
+        // Reads of both the updated and the added node are served while the write is waiting on the storage:
+        assertArrayEquals(VAL, cache.get(KEY));
+        assertNull(cache.getMany(BOTH_KEYS_SET).get("/" + KEY2));
+        assertEquals(KEY_SET, PersisterUtils.getAllKeys(cache));
+
+        writeReleased.countDown();
+        writer.join();
+        assertArrayEquals(VAL2, cache.get(KEY));
+        assertArrayEquals(VAL2, cache.get(KEY2));
+    }
+
+    @Test
+    public void testExternalChangesAppliedToCache() throws PersisterException {
+        RecordingListener listener = new RecordingListener();
+        cache.addChangeListener(listener);
+        cache.set(KEY, VAL);
+        assertEquals(Arrays.asList("updated " + KEY), listener.changes);
+
+        // Changes made to the underlying persister behind the cache's back:
+        persister.set(KEY, VAL2);
+        persister.set(KEY2, VAL);
+        cache.nodeUpdated("/" + KEY, VAL2);
+        cache.nodeUpdated("/" + KEY2, VAL);
+        assertArrayEquals(VAL2, cache.get(KEY));
+        assertArrayEquals(VAL, cache.get(KEY2));
+        assertEquals(Arrays.asList("updated " + KEY, "updated /" + KEY, "updated /" + KEY2), listener.changes);
+
+        persister.recursiveDelete(KEY2);
+        cache.nodeDeleted("/" + KEY2);
+        assertEquals(KEY_SET, PersisterUtils.getAllKeys(cache));
+        assertEquals(4, listener.changes.size());
+        assertEquals("deleted /" + KEY2, listener.changes.get(3));
+
+        // Repeated reports are ignored:
+        cache.nodeUpdated("/" + KEY, VAL2);
+        cache.nodeDeleted("/" + KEY2);
+        assertEquals(4, listener.changes.size());
+    }
+
+    @Test
+    public void testOwnChangesNotifiedOnce() throws PersisterException {
+        RecordingListener listener = new RecordingListener();
+        cache.addChangeListener(listener);
+
+        cache.set(KEY, VAL);
+        cache.nodeUpdated("/" + KEY, VAL);
+        cache.recursiveDelete(KEY);
+        cache.nodeDeleted("/" + KEY);
+        cache.setMany(Collections.singletonMap(KEY2, VAL2));
+        cache.recursiveDeleteMany(Arrays.asList(KEY2));
+
+        // Stale report of a change which has since been overwritten via the cache:
+        cache.set(KEY, VAL);
+        cache.set(KEY, VAL2);
+        cache.nodeUpdated("/" + KEY, VAL);
+        assertArrayEquals(VAL2, cache.get(KEY));
+        assertEquals(Arrays.asList(
+                "updated " + KEY,
+                "deleted " + KEY,
+                "updated " + KEY2,
+                "deleted " + KEY2,
+                "updated " + KEY,
+                "updated " + KEY), listener.changes);
+    }
+
+    @Test
+    public void testStubParentDataNotNotified() throws PersisterException {
+        RecordingListener listener = new RecordingListener();
+        cache.addChangeListener(listener);
+        cache.set("parent/" + KEY, VAL);
+        assertNull(cache.get("parent"));
+
+        // e.g. ZK assigning default data to the parent node which was created implicitly:
+        persister.set("parent", VAL2);
+        cache.nodeUpdated("/parent", VAL2);
+        assertArrayEquals(VAL2, cache.get("parent"));
+        assertEquals(Arrays.asList("updated parent/" + KEY), listener.changes);
+    }
+
+    @Test
+    public void testFailingListenerDoesNotBlockOthers() throws PersisterException {
+        cache.addChangeListener(new PersisterChangeListener() {
+            @Override
+            public void nodeUpdated(String path, byte[] data) {
+                throw new IllegalStateException("test failure");
+            }
+
+            @Override
+            public void nodeDeleted(String path) {
+                throw new IllegalStateException("test failure");
+            }
+        });
+        RecordingListener listener = new RecordingListener();
+        cache.addChangeListener(listener);
+
+        cache.set(KEY, VAL);
+        persister.recursiveDelete(KEY);
+        cache.nodeDeleted("/" + KEY);
+        assertEquals(Arrays.asList("updated " + KEY, "deleted /" + KEY), listener.changes);
+    }
+
+    @Test
+    public void testExternalChangesBeforeLoadIgnored() throws PersisterException {
+        cache = new PersisterCache(mockPersister);
+        cache.nodeUpdated("/" + KEY, VAL);
+        cache.nodeDeleted("/" + KEY);
+        Mockito.verifyZeroInteractions(mockPersister);
+    }
+
+    private static class RecordingListener implements PersisterChangeListener {
+        private final List<String> changes = new ArrayList<>();
+
+        @Override
+        public void nodeUpdated(String path, byte[] data) {
+            changes.add("updated " + path);
+        }
+
+        @Override
+        public void nodeDeleted(String path) {
+            changes.add("deleted " + path);
+        }
+    }
+
     private static void runThreads(Collection<Runnable> runnables) throws InterruptedException {
         final Object lock = new Object();
         final List<Throwable> errors = new ArrayList<>();
@@ -184,6 +184,19 @@ public class ServiceTestRunner {
         return this;
     }
 
+    /**
+     * Configures the test to store scheduler state in the provided persister, instead of a new {@link MemPersister}.
+     * This may be used to inspect the persister's activity during the simulation. Any state which is already present
+     * in the persister will be used by the scheduler, as with {@link #setState(ServiceTestResult)}.
+     *
+     * @param persister the persister to be used by the scheduler
+     * @return {@code this}
+     */
+    public ServiceTestRunner setPersister(Persister persister) {
+        this.persister = persister;
+        return this;
+    }
+
     /**
      * Equivalent of {@link #setSchedulerEnv(String...)} for a {@link Map} instead of string pairs.
      *
@@ -348,7 +361,6 @@ public class ServiceTestRunner {
                 new FrameworkScheduler(
                         FrameworkConfig.fromRawServiceSpec(rawServiceSpec).getAllResourceRoles(),
                         mockSchedulerConfig,
-                        persister,
                         new FrameworkStore(persister),
                         abstractScheduler)
                 .setApiServerStarted()
@@ -0,0 +1,819 @@
+package com.mesosphere.sdk.testing;
+
+import com.mesosphere.sdk.framework.ReviveManager;
+import com.mesosphere.sdk.offer.LoggingUtils;
+import com.mesosphere.sdk.offer.ResourceUtils;
+import com.mesosphere.sdk.scheduler.plan.Plan;
+import com.mesosphere.sdk.storage.MemPersister;
+import com.mesosphere.sdk.testutils.TestConstants;
+import org.apache.mesos.Protos;
+import org.apache.mesos.Scheduler;
+import org.apache.mesos.SchedulerDriver;
+import org.slf4j.Logger;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * A synthetic Mesos cluster of many agents, for measuring how the scheduler performs at scale. Unlike
+ * {@link SendOffer}, which offers the resources for a single pod, the cluster offers the available resources of each of
+ * its agents in batches as Mesos would, and applies any accepted operations to the agents. Launched tasks are reported
+ * as running (and ready), killed tasks as killed, and tasks on failed agents as lost.
+ *
+ * <p>The cluster is driven by the {@link Send}s returned by this class, which are run by a {@link ServiceTestRunner}.
+ * For example, a service may be deployed and then updated:
+ *
+ * <pre>
+ * SimulatedCluster cluster = SimulatedCluster.newBuilder().setAgentCount(1000).build();
+ * ServiceTestResult result = new ServiceTestRunner()
+ *         .setPersister(cluster.getPersister())
+ *         .run(Arrays.asList(cluster.register(), cluster.runUntilComplete("deploy")));
+ * new ServiceTestRunner()
+ *         .setState(result)
+ *         .setOptions("service.sleep", "2000")
+ *         .run(Arrays.asList(cluster.register(), cluster.runUntilComplete("update")));
+ * </pre>
+ *
+ * <p>Time is simulated: each round of offers advances the cluster's clock, and offer filters expire according to that
+ * clock. This allows declined offers to return without the simulation needing to wait for them. Only scalar resources
+ * are accounted for. Ports are always offered in full.
+ */
+public class SimulatedCluster {
+
+    private static final Logger LOGGER = LoggingUtils.getLogger(SimulatedCluster.class);
+
+    private static final String REGION = "simulated-region";
+    private static final int AGENTS_PER_RACK = 20;
+    private static final Protos.Value.Range PORTS =
+            Protos.Value.Range.newBuilder().setBegin(1025).setEnd(32000).build();
+
+    /**
+     * Matches the default interval of the {@link com.mesosphere.sdk.framework.TokenBucket} which throttles revives.
+     * The throttle is based on the system clock, so it's reset whenever this much simulated time has passed instead.
+     */
+    private static final long REVIVE_INTERVAL_MS = Duration.ofSeconds(5).toMillis();
+
+    /**
+     * Matches the time that the scheduler waits for offers before running an offer cycle without any. These cycles
+     * allow the scheduler to retry revives which were throttled.
+     */
+    private static final long IDLE_OFFER_WAIT_MS = Duration.ofSeconds(5).toMillis();
+
+    /**
+     * The sizes of the simulated agents. Each agent is assigned a size at random.
+     */
+    private enum InstanceType {
+        SMALL(4, 16 * 1024, 100 * 1024),
+        MEDIUM(8, 32 * 1024, 250 * 1024),
+        LARGE(16, 64 * 1024, 500 * 1024);
+
+        private final double cpus;
+        private final double memMb;
+        private final double diskMb;
+
+        private InstanceType(double cpus, double memMb, double diskMb) {
+            this.cpus = cpus;
+            this.memMb = memMb;
+            this.diskMb = diskMb;
+        }
+    }
+
+    /**
+     * Builder for {@link SimulatedCluster}.
+     */
+    public static class Builder {
+        private int agentCount = 100;
+        private int zoneCount = 3;
+        private int offerBatchSize = 100;
+        private Duration offerInterval = Duration.ofSeconds(1);
+        private Duration maxPhaseDuration = Duration.ofDays(1);
+        private long seed = 0;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the number of agents in the cluster. The default is 100.
+         */
+        public Builder setAgentCount(int agentCount) {
+            this.agentCount = agentCount;
+            return this;
+        }
+
+        /**
+         * Sets the number of zones that the agents are spread across. The default is 3.
+         */
+        public Builder setZoneCount(int zoneCount) {
+            this.zoneCount = zoneCount;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of offers which are sent to the scheduler at a time. The default matches the default
+         * capacity of the scheduler's offer queue.
+         */
+        public Builder setOfferBatchSize(int offerBatchSize) {
+            this.offerBatchSize = offerBatchSize;
+            return this;
+        }
+
+        /**
+         * Sets the simulated time between rounds of offers. The default is one second, which matches the default
+         * allocation interval in Mesos.
+         */
+        public Builder setOfferInterval(Duration offerInterval) {
+            this.offerInterval = offerInterval;
+            return this;
+        }
+
+        /**
+         * Sets the maximum simulated time which may be taken for the scheduler's plans to complete, after which the
+         * simulation fails. The default is one day.
+         */
+        public Builder setMaxPhaseDuration(Duration maxPhaseDuration) {
+            this.maxPhaseDuration = maxPhaseDuration;
+            return this;
+        }
+
+        /**
+         * Sets the seed for the random choices made by the simulation, such as agent sizes and offer order.
+         */
+        public Builder setSeed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public SimulatedCluster build() {
+            return new SimulatedCluster(this);
+        }
+    }
+
+    /**
+     * A simulated Mesos agent, and the resources which it has available.
+     */
+    private static class Agent {
+        private final Protos.SlaveID agentId;
+        private final String hostname;
+        private final Protos.DomainInfo domain;
+        private final List<Protos.Attribute> attributes;
+        private final Map<String, Double> unreservedScalars = new TreeMap<>();
+        // Reserved resources, keyed by resource id:
+        private final Map<String, Protos.Resource> reservedResources = new TreeMap<>();
+        private final Map<Protos.TaskID, SimulatedTask> liveTasks = new HashMap<>();
+        private boolean isUp = true;
+        private long filteredUntilMs = 0;
+
+        private Agent(int index, String zone, InstanceType instanceType) {
+            this.agentId = Protos.SlaveID.newBuilder().setValue(String.format("simulated-agent-%d", index)).build();
+            this.hostname = String.format("agent-%d.simulated", index);
+            this.domain = getDomain(zone);
+            this.attributes = new ArrayList<>();
+            this.attributes.add(getTextAttribute("rack", String.format("rack-%d", index / AGENTS_PER_RACK)));
+            this.attributes.add(getTextAttribute("instance_type", instanceType.name().toLowerCase()));
+            this.unreservedScalars.put("cpus", instanceType.cpus);
+            this.unreservedScalars.put("mem", instanceType.memMb);
+            this.unreservedScalars.put("disk", instanceType.diskMb);
+        }
+    }
+
+    /**
+     * A task which was launched on a simulated agent.
+     */
+    private static class SimulatedTask {
+        private final Agent agent;
+        private final Protos.TaskInfo taskInfo;
+        private final Protos.ExecutorInfo executorInfo;
+        private Protos.TaskState state = Protos.TaskState.TASK_RUNNING;
+
+        private SimulatedTask(Agent agent, Protos.TaskInfo taskInfo, Protos.ExecutorInfo executorInfo) {
+            this.agent = agent;
+            this.taskInfo = taskInfo;
+            this.executorInfo = executorInfo;
+        }
+    }
+
+    /**
+     * Measurements taken while a phase of the simulation is running.
+     */
+    private class Phase {
+        private final String name;
+        private final long startNanos = System.nanoTime();
+        private final long startClockMs = clockMs;
+        private final long startReads = persister.getReadCount();
+        private final long startWrites = persister.getWriteCount();
+        private final long startAllocatedBytes = getAllocatedBytes();
+        private final long startLaunches = launchCount;
+        private final List<Long> cycleNanos = new ArrayList<>();
+        private long rounds = 0;
+        private long offersSent = 0;
+
+        private Phase(String name) {
+            this.name = name;
+        }
+
+        private SimulatedClusterResult finish() {
+            long allocatedBytes = getAllocatedBytes();
+            return new SimulatedClusterResult(
+                    name,
+                    agents.size(),
+                    rounds,
+                    offersSent,
+                    launchCount - startLaunches,
+                    cycleNanos.stream().mapToLong(Long::longValue).toArray(),
+                    persister.getReadCount() - startReads,
+                    persister.getWriteCount() - startWrites,
+                    startAllocatedBytes < 0 || allocatedBytes < 0 ? -1 : allocatedBytes - startAllocatedBytes,
+                    (System.nanoTime() - startNanos) / 1000000,
+                    clockMs - startClockMs);
+        }
+    }
+
+    private final int offerBatchSize;
+    private final long offerIntervalMs;
+    private final long maxPhaseDurationMs;
+    private final Random random;
+    private final MemPersister persister = new MemPersister();
+    private final List<Agent> agents = new ArrayList<>();
+    private final Map<Protos.TaskID, SimulatedTask> tasks = new HashMap<>();
+    private final Map<Protos.OfferID, Agent> outstandingOffers = new HashMap<>();
+    private final Deque<Protos.TaskStatus> pendingStatuses = new ArrayDeque<>();
+    private final SchedulerDriver driver = new SimulatedDriver();
+    private final List<SimulatedClusterResult> results = new ArrayList<>();
+
+    private long clockMs = 0;
+    private long lastReviveResetMs = 0;
+    private boolean isSuppressed = false;
+    private long offerCount = 0;
+    private long launchCount = 0;
+
+    private SimulatedCluster(Builder builder) {
+        this.offerBatchSize = builder.offerBatchSize;
+        this.offerIntervalMs = builder.offerInterval.toMillis();
+        this.maxPhaseDurationMs = builder.maxPhaseDuration.toMillis();
+        this.random = new Random(builder.seed);
+        InstanceType[] instanceTypes = InstanceType.values();
+        for (int i = 0; i < builder.agentCount; ++i) {
+            agents.add(new Agent(
+                    i,
+                    String.format("zone-%d", i % builder.zoneCount),
+                    instanceTypes[random.nextInt(instanceTypes.length)]));
+        }
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the persister which should be used by the scheduler, via
+     * {@link ServiceTestRunner#setPersister(com.mesosphere.sdk.storage.Persister)}. The simulation reports the number
+     * of calls made against it.
+     */
+    public MemPersister getPersister() {
+        return persister;
+    }
+
+    /**
+     * Returns the results of the phases which have been run so far, in the order that they were run.
+     */
+    public List<SimulatedClusterResult> getResults() {
+        return Collections.unmodifiableList(results);
+    }
+
+    /**
+     * Returns a {@link Send} which registers the scheduler with the simulated cluster. This must be the first tick sent
+     * to each scheduler.
+     */
+    public Send register() {
+        return new Send() {
+            @Override
+            public void send(ClusterState state, SchedulerDriver mockDriver, Scheduler scheduler) {
+                scheduler.registered(
+                        driver,
+                        TestConstants.FRAMEWORK_ID,
+                        Protos.MasterInfo.newBuilder()
+                                .setId("simulated-master")
+                                .setIp(1)
+                                .setPort(2)
+                                .setDomain(getDomain("zone-0"))
+                                .build());
+            }
+
+            @Override
+            public String getDescription() {
+                return String.format("Framework registration with simulated cluster of %d agents", agents.size());
+            }
+        };
+    }
+
+    /**
+     * Returns a {@link Send} which sends rounds of offers to the scheduler until all of its plans are complete, and
+     * then records a {@link SimulatedClusterResult} for the phase. At least one round of offers is always sent.
+     *
+     * @param phaseName the name of the phase, to be included in the result
+     * @throws IllegalStateException if the plans aren't complete within the maximum phase duration
+     */
+    public Send runUntilComplete(String phaseName) {
+        return new Send() {
+            @Override
+            public void send(ClusterState state, SchedulerDriver mockDriver, Scheduler scheduler) {
+                Phase phase = new Phase(phaseName);
+                final long deadlineMs = clockMs + maxPhaseDurationMs;
+                do {
+                    if (clockMs > deadlineMs) {
+                        throw new IllegalStateException(String.format(
+                                "Plans weren't complete after %ds of simulated time: %s",
+                                (clockMs - phase.startClockMs) / 1000,
+                                state.getPlans().stream()
+                                        .collect(Collectors.toMap(Plan::getName, Plan::getStatus))));
+                    }
+                    runRound(scheduler, phase);
+                } while (!state.getPlans().stream().allMatch(Plan::isComplete));
+
+                SimulatedClusterResult result = phase.finish();
+                LOGGER.info("Completed simulation phase: {}", result);
+                results.add(result);
+            }
+
+            @Override
+            public String getDescription() {
+                return String.format("Run simulated cluster until plans are complete: %s", phaseName);
+            }
+        };
+    }
+
+    /**
+     * Returns a {@link Send} which sends the provided number of rounds of offers to the scheduler, regardless of the
+     * state of its plans. No result is recorded.
+     */
+    public Send runRounds(int roundCount) {
+        return new Send() {
+            @Override
+            public void send(ClusterState state, SchedulerDriver mockDriver, Scheduler scheduler) {
+                Phase phase = new Phase("rounds");
+                for (int i = 0; i < roundCount; ++i) {
+                    runRound(scheduler, phase);
+                }
+            }
+
+            @Override
+            public String getDescription() {
+                return String.format("Run %d rounds of offers from simulated cluster", roundCount);
+            }
+        };
+    }
+
+    /**
+     * Returns a {@link Send} which fails the provided fraction of the cluster's agents, chosen at random. The tasks on
+     * the failed agents are reported as lost, and the agents aren't offered until they're recovered.
+     *
+     * @param fraction the fraction of agents to fail, between 0 and 1
+     * @see #recoverAgents()
+     */
+    public Send failAgents(double fraction) {
+        return new Send() {
+            @Override
+            public void send(ClusterState state, SchedulerDriver mockDriver, Scheduler scheduler) {
+                List<Agent> upAgents = agents.stream().filter(agent -> agent.isUp).collect(Collectors.toList());
+                Collections.shuffle(upAgents, random);
+                int failCount = Math.min(upAgents.size(), (int) Math.round(fraction * agents.size()));
+                int lostTaskCount = 0;
+                for (Agent agent : upAgents.subList(0, failCount)) {
+                    agent.isUp = false;
+                    for (SimulatedTask task : new ArrayList<>(agent.liveTasks.values())) {
+                        endTask(task, Protos.TaskState.TASK_LOST);
+                        ++lostTaskCount;
+                    }
+                }
+                LOGGER.info("Failed {} simulated agents, losing {} tasks", failCount, lostTaskCount);
+            }
+
+            @Override
+            public String getDescription() {
+                return String.format("Fail %.0f%% of simulated agents", fraction * 100);
+            }
+        };
+    }
+
+    /**
+     * Returns a {@link Send} which recovers any failed agents. The agents return with their reserved resources, but
+     * without the tasks which were lost.
+     *
+     * @see #failAgents(double)
+     */
+    public Send recoverAgents() {
+        return new Send() {
+            @Override
+            public void send(ClusterState state, SchedulerDriver mockDriver, Scheduler scheduler) {
+                int recoverCount = 0;
+                for (Agent agent : agents) {
+                    if (!agent.isUp) {
+                        agent.isUp = true;
+                        agent.filteredUntilMs = 0;
+                        ++recoverCount;
+                    }
+                }
+                LOGGER.info("Recovered {} simulated agents", recoverCount);
+            }
+
+            @Override
+            public String getDescription() {
+                return "Recover failed simulated agents";
+            }
+        };
+    }
+
+    /**
+     * Offers the resources of every available agent to the scheduler, in batches, then advances the clock.
+     */
+    private void runRound(Scheduler scheduler, Phase phase) {
+        if (clockMs - lastReviveResetMs >= REVIVE_INTERVAL_MS) {
+            ReviveManager.resetTimers();
+            lastReviveResetMs = clockMs;
+        }
+        deliverStatuses(scheduler);
+
+        List<Agent> offeredAgents = isSuppressed ?
+                Collections.emptyList() :
+                agents.stream()
+                        .filter(agent -> agent.isUp && agent.filteredUntilMs <= clockMs)
+                        .collect(Collectors.toList());
+        // Mesos doesn't offer agents in any particular order:
+        Collections.shuffle(offeredAgents, random);
+        for (int i = 0; i < offeredAgents.size(); i += offerBatchSize) {
+            List<Protos.Offer> offers = new ArrayList<>();
+            for (Agent agent : offeredAgents.subList(i, Math.min(i + offerBatchSize, offeredAgents.size()))) {
+                Protos.Offer offer = getOffer(agent);
+                outstandingOffers.put(offer.getId(), agent);
+                offers.add(offer);
+            }
+            deliverStatuses(scheduler);
+
+            long startNanos = System.nanoTime();
+            scheduler.resourceOffers(driver, offers);
+            phase.cycleNanos.add(System.nanoTime() - startNanos);
+            phase.offersSent += offers.size();
+            // Any offers which weren't accepted or declined are returned to their agents.
+            outstandingOffers.clear();
+        }
+        if (offeredAgents.isEmpty()) {
+            // Nothing was available to offer, so the scheduler would wait for offers before running an empty cycle.
+            scheduler.resourceOffers(driver, Collections.emptyList());
+            clockMs += Math.max(offerIntervalMs, IDLE_OFFER_WAIT_MS);
+        } else {
+            clockMs += offerIntervalMs;
+        }
+        deliverStatuses(scheduler);
+        ++phase.rounds;
+    }
+
+    private void deliverStatuses(Scheduler scheduler) {
+        while (!pendingStatuses.isEmpty()) {
+            scheduler.statusUpdate(driver, pendingStatuses.removeFirst());
+        }
+    }
+
+    private Protos.Offer getOffer(Agent agent) {
+        Protos.Offer.Builder offerBuilder = Protos.Offer.newBuilder()
+                .setFrameworkId(TestConstants.FRAMEWORK_ID)
+                .setSlaveId(agent.agentId)
+                .setHostname(agent.hostname)
+                .setDomain(agent.domain)
+                .addAllAttributes(agent.attributes);
+        offerBuilder.getIdBuilder().setValue(String.format("simulated-offer-%d", ++offerCount));
+
+        for (Map.Entry<String, Double> entry : agent.unreservedScalars.entrySet()) {
+            if (entry.getValue() > 0) {
+                offerBuilder.addResources(getUnreservedResource(entry.getKey(), Protos.Value.newBuilder()
+                        .setType(Protos.Value.Type.SCALAR)
+                        .setScalar(Protos.Value.Scalar.newBuilder().setValue(entry.getValue()))
+                        .build()));
+            }
+        }
+        offerBuilder.addResources(getUnreservedResource("ports", Protos.Value.newBuilder()
+                .setType(Protos.Value.Type.RANGES)
+                .setRanges(Protos.Value.Ranges.newBuilder().addRange(PORTS))
+                .build()));
+
+        // Reserved resources are only offered when they aren't being used by a running task or executor.
+        Set<String> resourceIdsInUse = new HashSet<>();
+        Set<Protos.ExecutorID> executorIds = new HashSet<>();
+        for (SimulatedTask task : agent.liveTasks.values()) {
+            resourceIdsInUse.addAll(ResourceUtils.getResourceIds(task.taskInfo.getResourcesList()));
+            resourceIdsInUse.addAll(ResourceUtils.getResourceIds(task.executorInfo.getResourcesList()));
+            executorIds.add(task.executorInfo.getExecutorId());
+        }
+        for (Map.Entry<String, Protos.Resource> entry : agent.reservedResources.entrySet()) {
+            if (!resourceIdsInUse.contains(entry.getKey())) {
+                offerBuilder.addResources(entry.getValue());
+            }
+        }
+        offerBuilder.addAllExecutorIds(executorIds);
+
+        return offerBuilder.build();
+    }
+
+    private void accept(Agent agent, Collection<Protos.Offer.Operation> operations) {
+        for (Protos.Offer.Operation operation : operations) {
+            switch (operation.getType()) {
+            case RESERVE:
+                for (Protos.Resource resource : operation.getReserve().getResourcesList()) {
+                    Optional<String> resourceId = ResourceUtils.getResourceId(resource);
+                    if (resourceId.isPresent()) {
+                        agent.reservedResources.put(resourceId.get(), resource);
+                    }
+                    if (resource.hasScalar()) {
+                        agent.unreservedScalars.merge(
+                                resource.getName(), -resource.getScalar().getValue(), Double::sum);
+                    }
+                }
+                break;
+            case UNRESERVE:
+                for (Protos.Resource resource : operation.getUnreserve().getResourcesList()) {
+                    Optional<String> resourceId = ResourceUtils.getResourceId(resource);
+                    if (resourceId.isPresent()) {
+                        agent.reservedResources.remove(resourceId.get());
+                    }
+                    if (resource.hasScalar()) {
+                        agent.unreservedScalars.merge(resource.getName(), resource.getScalar().getValue(), Double::sum);
+                    }
+                }
+                break;
+            case CREATE:
+                for (Protos.Resource volume : operation.getCreate().getVolumesList()) {
+                    Optional<String> resourceId = ResourceUtils.getResourceId(volume);
+                    if (resourceId.isPresent()) {
+                        agent.reservedResources.put(resourceId.get(), volume);
+                    }
+                }
+                break;
+            case DESTROY:
+                for (Protos.Resource volume : operation.getDestroy().getVolumesList()) {
+                    Optional<String> resourceId = ResourceUtils.getResourceId(volume);
+                    if (resourceId.isPresent()) {
+                        Protos.Resource.Builder resourceBuilder = volume.toBuilder();
+                        resourceBuilder.getDiskBuilder().clearPersistence().clearVolume();
+                        if (!resourceBuilder.getDisk().hasSource()) {
+                            resourceBuilder.clearDisk();
+                        }
+                        agent.reservedResources.put(resourceId.get(), resourceBuilder.build());
+                    }
+                }
+                break;
+            case LAUNCH_GROUP:
+                for (Protos.TaskInfo taskInfo : operation.getLaunchGroup().getTaskGroup().getTasksList()) {
+                    launch(agent, taskInfo, operation.getLaunchGroup().getExecutor());
+                }
+                break;
+            case LAUNCH:
+                for (Protos.TaskInfo taskInfo : operation.getLaunch().getTaskInfosList()) {
+                    launch(agent, taskInfo, taskInfo.getExecutor());
+                }
+                break;
+            default:
+                throw new UnsupportedOperationException(
+                        String.format("Unsupported operation type in simulation: %s", operation.getType()));
+            }
+        }
+    }
+
+    private void launch(Agent agent, Protos.TaskInfo taskInfo, Protos.ExecutorInfo executorInfo) {
+        SimulatedTask task = new SimulatedTask(agent, taskInfo, executorInfo);
+        tasks.put(taskInfo.getTaskId(), task);
+        agent.liveTasks.put(taskInfo.getTaskId(), task);
+        ++launchCount;
+        queueStatus(task);
+    }
+
+    private void endTask(SimulatedTask task, Protos.TaskState state) {
+        task.state = state;
+        task.agent.liveTasks.remove(task.taskInfo.getTaskId());
+        // Mesos offers resources which have been freed, even if the agent's earlier offers were filtered.
+        task.agent.filteredUntilMs = 0;
+        queueStatus(task);
+    }
+
+    private void queueStatus(SimulatedTask task) {
+        Protos.TaskStatus.Builder statusBuilder = Protos.TaskStatus.newBuilder()
+                .setTaskId(task.taskInfo.getTaskId())
+                .setSlaveId(task.agent.agentId)
+                .setState(task.state)
+                .setMessage("Simulated task status");
+        if (task.state == Protos.TaskState.TASK_RUNNING && task.taskInfo.hasCheck()) {
+            // Readiness checks pass as soon as the task is running:
+            statusBuilder.getCheckStatusBuilder().getCommandBuilder().setExitCode(0);
+        }
+        pendingStatuses.add(statusBuilder.build());
+    }
+
+    private static long getAllocatedBytes() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean allocationMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+            if (allocationMXBean.isThreadAllocatedMemorySupported()
+                    && allocationMXBean.isThreadAllocatedMemoryEnabled()) {
+                return allocationMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    private static Protos.DomainInfo getDomain(String zone) {
+        Protos.DomainInfo.Builder domainBuilder = Protos.DomainInfo.newBuilder();
+        domainBuilder.getFaultDomainBuilder().getRegionBuilder().setName(REGION);
+        domainBuilder.getFaultDomainBuilder().getZoneBuilder().setName(zone);
+        return domainBuilder.build();
+    }
+
+    private static Protos.Attribute getTextAttribute(String name, String value) {
+        return Protos.Attribute.newBuilder()
+                .setName(name)
+                .setType(Protos.Value.Type.TEXT)
+                .setText(Protos.Value.Text.newBuilder().setValue(value))
+                .build();
+    }
+
+    @SuppressWarnings("deprecation") // for Resource.setRole()
+    private static Protos.Resource getUnreservedResource(String name, Protos.Value value) {
+        Protos.Resource.Builder resourceBuilder = Protos.Resource.newBuilder()
+                .setRole("*")
+                .setName(name)
+                .setType(value.getType());
+        if (value.hasScalar()) {
+            resourceBuilder.setScalar(value.getScalar());
+        } else {
+            resourceBuilder.setRanges(value.getRanges());
+        }
+        return resourceBuilder.build();
+    }
+
+    /**
+     * Applies the scheduler's calls to the simulated cluster. Task statuses resulting from the calls are queued, and
+     * are sent to the scheduler before the next batch of offers.
+     */
+    private class SimulatedDriver implements SchedulerDriver {
+
+        @Override
+        public Protos.Status acceptOffers(
+                Collection<Protos.OfferID> offerIds,
+                Collection<Protos.Offer.Operation> operations,
+                Protos.Filters filters) {
+            Agent agent = null;
+            for (Protos.OfferID offerId : offerIds) {
+                agent = outstandingOffers.remove(offerId);
+            }
+            if (agent == null) {
+                throw new IllegalStateException(String.format("Accepted unknown offers: %s", offerIds));
+            }
+            accept(agent, operations);
+            // Any remaining resources are filtered as if they had been declined:
+            agent.filteredUntilMs = clockMs + (long) (filters.getRefuseSeconds() * 1000);
+            return Protos.Status.DRIVER_RUNNING;
+        }
+
+        @Override
+        public Protos.Status declineOffer(Protos.OfferID offerId, Protos.Filters filters) {
+            Agent agent = outstandingOffers.remove(offerId);
+            if (agent != null) {
+                agent.filteredUntilMs = clockMs + (long) (filters.getRefuseSeconds() * 1000);
+            }
+            return Protos.Status.DRIVER_RUNNING;
+        }
+
+        @Override
+        public Protos.Status declineOffer(Protos.OfferID offerId) {
+            return declineOffer(offerId, Protos.Filters.getDefaultInstance());
+        }
+
+        @Override
+        public Protos.Status killTask(Protos.TaskID taskId) {
+            SimulatedTask task = tasks.get(taskId);
+            // Kills of unknown tasks, or of tasks on failed agents, aren't acknowledged.
+            if (task != null && task.agent.isUp && task.state == Protos.TaskState.TASK_RUNNING) {
+                endTask(task, Protos.TaskState.TASK_KILLED);
+            }
+            return Protos.Status.DRIVER_RUNNING;
+        }
+
+        @Override
+        public Protos.Status reconcileTasks(Collection<Protos.TaskStatus> statuses) {
+            if (statuses.isEmpty()) {
+                // Implicit reconciliation: report all running tasks.
+                tasks.values().stream()
+                        .filter(task -> task.state == Protos.TaskState.TASK_RUNNING)
+                        .forEach(task -> queueStatus(task));
+                return Protos.Status.DRIVER_RUNNING;
+            }
+            for (Protos.TaskStatus status : statuses) {
+                SimulatedTask task = tasks.get(status.getTaskId());
+                if (task == null) {
+                    pendingStatuses.add(Protos.TaskStatus.newBuilder()
+                            .setTaskId(status.getTaskId())
+                            .setState(Protos.TaskState.TASK_LOST)
+                            .setMessage("Reconciliation: Task is unknown")
+                            .build());
+                } else {
+                    queueStatus(task);
+                }
+            }
+            return Protos.Status.DRIVER_RUNNING;
+        }
+
+        @Override
+        public Protos.Status reviveOffers() {
+            isSuppressed = false;
+            for (Agent agent : agents) {
+                agent.filteredUntilMs = 0;
+            }
+            return Protos.Status.DRIVER_RUNNING;
+        }
+
+        @Override
+        public Protos.Status suppressOffers() {
+            isSuppressed = true;
+            return Protos.Status.DRIVER_RUNNING;
+        }
+
+        @Override
+        public Protos.Status acknowledgeStatusUpdate(Protos.TaskStatus status) {
+            return Protos.Status.DRIVER_RUNNING;
+        }
+
+        @Override
+        public Protos.Status start() {
+            return Protos.Status.DRIVER_RUNNING;
+        }
+
+        @Override
+        public Protos.Status stop(boolean failover) {
+            return Protos.Status.DRIVER_STOPPED;
+        }
+
+        @Override
+        public Protos.Status stop() {
+            return Protos.Status.DRIVER_STOPPED;
+        }
+
+        @Override
+        public Protos.Status abort() {
+            return Protos.Status.DRIVER_ABORTED;
+        }
+
+        @Override
+        public Protos.Status join() {
+            return Protos.Status.DRIVER_RUNNING;
+        }
+
+        @Override
+        public Protos.Status run() {
+            return Protos.Status.DRIVER_RUNNING;
+        }
+
+        @Override
+        public Protos.Status sendFrameworkMessage(Protos.ExecutorID executorId, Protos.SlaveID agentId, byte[] data) {
+            return Protos.Status.DRIVER_RUNNING;
+        }
+
+        @Override
+        public Protos.Status requestResources(Collection<Protos.Request> requests) {
+            throw new UnsupportedOperationException("Resource requests aren't supported by the simulation");
+        }
+
+        @Override
+        public Protos.Status launchTasks(
+                Collection<Protos.OfferID> offerIds, Collection<Protos.TaskInfo> tasks, Protos.Filters filters) {
+            throw new UnsupportedOperationException("Use acceptOffers() to launch tasks in the simulation");
+        }
+
+        @Override
+        public Protos.Status launchTasks(Collection<Protos.OfferID> offerIds, Collection<Protos.TaskInfo> tasks) {
+            throw new UnsupportedOperationException("Use acceptOffers() to launch tasks in the simulation");
+        }
+
+        @Override
+        public Protos.Status launchTasks(
+                Protos.OfferID offerId, Collection<Protos.TaskInfo> tasks, Protos.Filters filters) {
+            throw new UnsupportedOperationException("Use acceptOffers() to launch tasks in the simulation");
+        }
+
+        @Override
+        public Protos.Status launchTasks(Protos.OfferID offerId, Collection<Protos.TaskInfo> tasks) {
+            throw new UnsupportedOperationException("Use acceptOffers() to launch tasks in the simulation");
+        }
+    }
+}
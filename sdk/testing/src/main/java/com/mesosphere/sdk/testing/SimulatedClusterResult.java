@@ -0,0 +1,155 @@
+package com.mesosphere.sdk.testing;
+
+import java.util.Arrays;
+
+/**
+ * A summary of the scheduler's performance during one phase of a {@link SimulatedCluster} run, from the start of the
+ * phase until the scheduler's plans were complete.
+ */
+public class SimulatedClusterResult {
+
+    private final String name;
+    private final int agentCount;
+    private final long rounds;
+    private final long offersSent;
+    private final long tasksLaunched;
+    private final long[] sortedCycleNanos;
+    private final long storageReads;
+    private final long storageWrites;
+    private final long allocatedBytes;
+    private final long elapsedMs;
+    private final long simulatedMs;
+
+    SimulatedClusterResult(
+            String name,
+            int agentCount,
+            long rounds,
+            long offersSent,
+            long tasksLaunched,
+            long[] cycleNanos,
+            long storageReads,
+            long storageWrites,
+            long allocatedBytes,
+            long elapsedMs,
+            long simulatedMs) {
+        this.name = name;
+        this.agentCount = agentCount;
+        this.rounds = rounds;
+        this.offersSent = offersSent;
+        this.tasksLaunched = tasksLaunched;
+        this.sortedCycleNanos = Arrays.copyOf(cycleNanos, cycleNanos.length);
+        Arrays.sort(this.sortedCycleNanos);
+        this.storageReads = storageReads;
+        this.storageWrites = storageWrites;
+        this.allocatedBytes = allocatedBytes;
+        this.elapsedMs = elapsedMs;
+        this.simulatedMs = simulatedMs;
+    }
+
+    /**
+     * Returns the name of the phase.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of agents in the cluster.
+     */
+    public int getAgentCount() {
+        return agentCount;
+    }
+
+    /**
+     * Returns the number of rounds of offers which were sent to the scheduler.
+     */
+    public long getRounds() {
+        return rounds;
+    }
+
+    /**
+     * Returns the number of offer cycles, i.e. batches of offers which were processed by the scheduler.
+     */
+    public int getOfferCycles() {
+        return sortedCycleNanos.length;
+    }
+
+    /**
+     * Returns the total number of offers which were sent to the scheduler.
+     */
+    public long getOffersSent() {
+        return offersSent;
+    }
+
+    /**
+     * Returns the number of tasks which were launched by the scheduler.
+     */
+    public long getTasksLaunched() {
+        return tasksLaunched;
+    }
+
+    /**
+     * Returns the provided percentile of the time taken by the scheduler to process a batch of offers, in
+     * milliseconds, or zero if no offers were processed.
+     *
+     * @param percentile the percentile to return, between 0 and 100
+     */
+    public double getOfferCycleMs(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException(String.format("Invalid percentile: %f", percentile));
+        }
+        if (sortedCycleNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100 * sortedCycleNanos.length) - 1;
+        return sortedCycleNanos[Math.max(index, 0)] / 1000000.0;
+    }
+
+    /**
+     * Returns the number of read calls made against the scheduler's persister.
+     */
+    public long getStorageReads() {
+        return storageReads;
+    }
+
+    /**
+     * Returns the number of write and delete calls made against the scheduler's persister.
+     */
+    public long getStorageWrites() {
+        return storageWrites;
+    }
+
+    /**
+     * Returns the number of bytes allocated by the thread which ran the simulation, or a negative value if allocations
+     * couldn't be measured by the JVM.
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Returns the wall clock time taken for the scheduler's plans to complete, in milliseconds.
+     */
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    /**
+     * Returns the simulated cluster time taken for the scheduler's plans to complete, in milliseconds. This includes
+     * the time spent waiting for offer filters to expire.
+     */
+    public long getSimulatedMs() {
+        return simulatedMs;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "%s: agents=%d, elapsed=%dms, simulated=%ds, rounds=%d, cycles=%d, offers=%d, launched=%d, " +
+                        "cycle p50=%.1fms p90=%.1fms p99=%.1fms max=%.1fms, " +
+                        "storage reads=%d writes=%d, allocated=%dMB",
+                name, agentCount, elapsedMs, simulatedMs / 1000, rounds, getOfferCycles(), offersSent, tasksLaunched,
+                getOfferCycleMs(50), getOfferCycleMs(90), getOfferCycleMs(99), getOfferCycleMs(100),
+                storageReads, storageWrites, allocatedBytes < 0 ? allocatedBytes : allocatedBytes / (1024 * 1024));
+    }
+}
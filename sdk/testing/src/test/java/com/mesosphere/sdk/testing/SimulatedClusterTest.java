@@ -0,0 +1,166 @@
+package com.mesosphere.sdk.testing;
+
+import org.apache.mesos.Protos;
+import org.apache.mesos.Scheduler;
+import org.apache.mesos.SchedulerDriver;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Tests for {@link SimulatedCluster}.
+ */
+public class SimulatedClusterTest {
+
+    @Test
+    public void testOffersSentInBatches() {
+        SimulatedCluster cluster = SimulatedCluster.newBuilder()
+                .setAgentCount(250)
+                .setOfferBatchSize(100)
+                .build();
+        List<List<Protos.Offer>> offerCycles = new ArrayList<>();
+        Scheduler scheduler = getScheduler(
+                offerCycles, (driver, offer) -> driver.declineOffer(offer.getId(), getFilters(10)));
+
+        cluster.runRounds(1).send(null, null, scheduler);
+
+        Assert.assertEquals(Arrays.asList(100, 100, 50), getSizes(offerCycles));
+        // Each agent is offered once per round:
+        Assert.assertEquals(250, getAgentIds(offerCycles).size());
+    }
+
+    @Test
+    public void testDeclinedOffersFilteredUntilExpiry() {
+        SimulatedCluster cluster = SimulatedCluster.newBuilder()
+                .setAgentCount(10)
+                .build();
+        List<List<Protos.Offer>> offerCycles = new ArrayList<>();
+        // Half of the agents are filtered for 3s after each decline, and the rest aren't filtered:
+        Scheduler scheduler = getScheduler(offerCycles, (driver, offer) -> driver.declineOffer(
+                offer.getId(), getFilters(getAgentIndex(offer.getSlaveId()) % 2 == 0 ? 3 : 0)));
+
+        // Rounds of offers are sent at 0s, 1s, 2s, and 3s of simulated time:
+        cluster.runRounds(4).send(null, null, scheduler);
+
+        Assert.assertEquals(Arrays.asList(10, 5, 5, 10), getSizes(offerCycles));
+        for (Protos.Offer offer : offerCycles.get(1)) {
+            Assert.assertEquals(1, getAgentIndex(offer.getSlaveId()) % 2);
+        }
+    }
+
+    @Test
+    public void testFailedAgentsLoseTasksAndRecover() {
+        SimulatedCluster cluster = SimulatedCluster.newBuilder()
+                .setAgentCount(10)
+                .build();
+        List<List<Protos.Offer>> offerCycles = new ArrayList<>();
+        // Launch one task on each agent, and then decline the agent's offers:
+        Set<Protos.SlaveID> launchedAgentIds = new HashSet<>();
+        Scheduler scheduler = getScheduler(offerCycles, (driver, offer) -> {
+            if (launchedAgentIds.add(offer.getSlaveId())) {
+                driver.acceptOffers(
+                        Collections.singleton(offer.getId()),
+                        Collections.singleton(getLaunchOperation(offer.getSlaveId())),
+                        getFilters(0));
+            } else {
+                driver.declineOffer(offer.getId(), getFilters(0));
+            }
+        });
+        List<Protos.TaskStatus> statuses = new ArrayList<>();
+        Mockito.doAnswer(invocation -> {
+            statuses.add((Protos.TaskStatus) invocation.getArguments()[1]);
+            return null;
+        }).when(scheduler).statusUpdate(Mockito.any(), Mockito.any());
+
+        cluster.runRounds(1).send(null, null, scheduler);
+        Assert.assertEquals(10, statuses.size());
+        Assert.assertTrue(statuses.stream().allMatch(status -> status.getState() == Protos.TaskState.TASK_RUNNING));
+
+        statuses.clear();
+        offerCycles.clear();
+        cluster.failAgents(0.3).send(null, null, scheduler);
+        cluster.runRounds(1).send(null, null, scheduler);
+        // The tasks on the failed agents are lost, and the failed agents aren't offered:
+        Assert.assertEquals(3, statuses.size());
+        Assert.assertTrue(statuses.stream().allMatch(status -> status.getState() == Protos.TaskState.TASK_LOST));
+        Set<Protos.SlaveID> failedAgentIds =
+                statuses.stream().map(Protos.TaskStatus::getSlaveId).collect(Collectors.toSet());
+        Assert.assertEquals(3, failedAgentIds.size());
+        Set<Protos.SlaveID> offeredAgentIds = getAgentIds(offerCycles);
+        Assert.assertEquals(7, offeredAgentIds.size());
+        Assert.assertTrue(Collections.disjoint(failedAgentIds, offeredAgentIds));
+
+        offerCycles.clear();
+        cluster.recoverAgents().send(null, null, scheduler);
+        cluster.runRounds(1).send(null, null, scheduler);
+        // The recovered agents are offered again, without the executors of their lost tasks:
+        Assert.assertEquals(10, getAgentIds(offerCycles).size());
+        for (Protos.Offer offer : offerCycles.get(0)) {
+            Assert.assertEquals(
+                    failedAgentIds.contains(offer.getSlaveId()) ? 0 : 1, offer.getExecutorIdsCount());
+        }
+    }
+
+    /**
+     * Returns a mock scheduler which records each batch of offers which it receives, and then passes each offer to the
+     * provided handler.
+     */
+    @SuppressWarnings("unchecked")
+    private static Scheduler getScheduler(
+            List<List<Protos.Offer>> offerCycles, BiConsumer<SchedulerDriver, Protos.Offer> offerHandler) {
+        Scheduler scheduler = Mockito.mock(Scheduler.class);
+        Mockito.doAnswer(invocation -> {
+            SchedulerDriver driver = (SchedulerDriver) invocation.getArguments()[0];
+            List<Protos.Offer> offers = new ArrayList<>((List<Protos.Offer>) invocation.getArguments()[1]);
+            offerCycles.add(offers);
+            for (Protos.Offer offer : offers) {
+                offerHandler.accept(driver, offer);
+            }
+            return null;
+        }).when(scheduler).resourceOffers(Mockito.any(), Mockito.any());
+        return scheduler;
+    }
+
+    private static Protos.Offer.Operation getLaunchOperation(Protos.SlaveID agentId) {
+        Protos.TaskInfo taskInfo = Protos.TaskInfo.newBuilder()
+                .setName("task")
+                .setTaskId(Protos.TaskID.newBuilder().setValue(String.format("task-on-%s", agentId.getValue())))
+                .setSlaveId(agentId)
+                .setExecutor(Protos.ExecutorInfo.newBuilder()
+                        .setExecutorId(Protos.ExecutorID.newBuilder()
+                                .setValue(String.format("executor-on-%s", agentId.getValue()))))
+                .build();
+        return Protos.Offer.Operation.newBuilder()
+                .setType(Protos.Offer.Operation.Type.LAUNCH)
+                .setLaunch(Protos.Offer.Operation.Launch.newBuilder().addTaskInfos(taskInfo))
+                .build();
+    }
+
+    private static Protos.Filters getFilters(double refuseSeconds) {
+        return Protos.Filters.newBuilder().setRefuseSeconds(refuseSeconds).build();
+    }
+
+    private static int getAgentIndex(Protos.SlaveID agentId) {
+        return Integer.parseInt(agentId.getValue().substring(agentId.getValue().lastIndexOf('-') + 1));
+    }
+
+    private static List<Integer> getSizes(List<List<Protos.Offer>> offerCycles) {
+        return offerCycles.stream().map(List::size).collect(Collectors.toList());
+    }
+
+    private static Set<Protos.SlaveID> getAgentIds(List<List<Protos.Offer>> offerCycles) {
+        return offerCycles.stream()
+                .flatMap(List::stream)
+                .map(Protos.Offer::getSlaveId)
+                .collect(Collectors.toSet());
+    }
+}